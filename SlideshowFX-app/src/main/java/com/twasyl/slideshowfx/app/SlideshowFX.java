@@ -3,11 +3,13 @@ package com.twasyl.slideshowfx.app;
 import com.sun.javafx.PlatformUtil;
 import com.twasyl.slideshowfx.controllers.SlideshowFXController;
 import com.twasyl.slideshowfx.engine.presentation.PresentationEngine;
+import com.twasyl.slideshowfx.engine.template.TemplateCache;
 import com.twasyl.slideshowfx.engine.template.TemplateEngine;
 import com.twasyl.slideshowfx.global.configuration.GlobalConfiguration;
 import com.twasyl.slideshowfx.hosting.connector.IHostingConnector;
 import com.twasyl.slideshowfx.osgi.OSGiManager;
 import com.twasyl.slideshowfx.server.SlideshowFXServer;
+import com.twasyl.slideshowfx.utils.io.ContentStore;
 import com.twasyl.slideshowfx.utils.io.DeleteFileVisitor;
 import com.twasyl.slideshowfx.utils.time.DateTimeUtils;
 import javafx.application.Application;
@@ -195,8 +197,10 @@ public class SlideshowFX extends Application {
         super.stop();
 
         this.mainController.get().closeAllPresentations(true);
+        TemplateCache.getDefault().clear();
 
         deleteTemporaryFiles();
+        pruneContentStore();
         stopInternalServer();
         stopOSGIManager();
     }
@@ -224,6 +228,17 @@ public class SlideshowFX extends Application {
         }
     }
 
+    /**
+     * Deletes the files of the content store that are not used by any presentation anymore.
+     */
+    private void pruneContentStore() {
+        try {
+            ContentStore.getDefault().prune();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Can not prune the content store", e);
+        }
+    }
+
     /**
      * Stop the internal server if it is running.
      */
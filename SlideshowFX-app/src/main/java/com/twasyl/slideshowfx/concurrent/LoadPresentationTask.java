@@ -35,7 +35,6 @@ public class LoadPresentationTask extends SlideshowFXTask<PresentationEngine> {
 
         final PresentationEngine engine = new PresentationEngine();;
         engine.loadArchive(this.dataFile);
-        engine.setModifiedSinceLatestSave(false);
 
         return engine;
     }
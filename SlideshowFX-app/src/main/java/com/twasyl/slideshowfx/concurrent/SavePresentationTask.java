@@ -1,10 +1,12 @@
 package com.twasyl.slideshowfx.concurrent;
 
 import com.twasyl.slideshowfx.engine.presentation.PresentationEngine;
+import com.twasyl.slideshowfx.engine.presentation.PresentationSnapshot;
 import com.twasyl.slideshowfx.utils.concurrent.SlideshowFXTask;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.concurrent.Task;
 
+import java.io.File;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -14,6 +16,9 @@ import java.util.logging.Logger;
  * is called in order to save the presentation. If {@link com.twasyl.slideshowfx.engine.presentation.PresentationEngine#getArchive()}
  * returns {@code null} or if {@link com.twasyl.slideshowfx.engine.presentation.PresentationEngine} is {@code null}, the
  * task is considered as failed and {@link Task#failed} is called.
+ * A {@link PresentationEngine#createSnapshot() snapshot} of the presentation is taken when the task is created, which
+ * must therefore be done by the JavaFX Application Thread, and the snapshot is saved by the task so that the
+ * presentation can still be modified while it is saved.
  *
  * @author Thierry Wasylczenko
  * @version 1.0
@@ -23,12 +28,16 @@ public class SavePresentationTask extends SlideshowFXTask<Void> {
     private static final Logger LOGGER = Logger.getLogger(SavePresentationTask.class.getName());
 
     private final PresentationEngine presentation;
+    private final PresentationSnapshot snapshot;
+    private final File archive;
 
     public SavePresentationTask(final PresentationEngine presentation) {
         this.presentation = presentation;
+        this.snapshot = presentation == null ? null : presentation.createSnapshot();
+        this.archive = presentation == null ? null : presentation.getArchive();
 
-        if(this.presentation.getArchive() != null) {
-            ((SimpleStringProperty) this.titleProperty()).set(String.format("Saving presentation: %1$s", this.presentation.getArchive().getName()));
+        if(this.archive != null) {
+            ((SimpleStringProperty) this.titleProperty()).set(String.format("Saving presentation: %1$s", this.archive.getName()));
         }
     }
 
@@ -36,9 +45,9 @@ public class SavePresentationTask extends SlideshowFXTask<Void> {
     protected Void call() throws Exception {
         // Ensure the presentation has already been saved
         if(this.presentation == null) throw new NullPointerException("The presentation is null");
-        if(this.presentation.getArchive() == null) throw new NullPointerException("The presentation archive is null");
+        if(this.archive == null) throw new NullPointerException("The presentation archive is null");
 
-        this.presentation.saveArchive();
+        this.presentation.saveArchive(this.snapshot, this.archive);
         this.succeeded();
 
         return null;
@@ -1,14 +1,20 @@
 package com.twasyl.slideshowfx.controllers;
 
+import com.twasyl.slideshowfx.logs.LogEntry;
 import com.twasyl.slideshowfx.logs.SlideshowFXHandler;
 import com.twasyl.slideshowfx.ui.controls.ZoomTextArea;
+import javafx.application.Platform;
 import javafx.beans.property.adapter.ReadOnlyJavaBeanStringProperty;
 import javafx.beans.property.adapter.ReadOnlyJavaBeanStringPropertyBuilder;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 
 import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 import java.util.ResourceBundle;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -23,17 +29,62 @@ public class LogsController implements Initializable {
     private static final Logger LOGGER = Logger.getLogger(LogsController.class.getName());
 
     private SlideshowFXHandler handler;
+    private long nextSequence = 0;
+    private final AtomicBoolean refreshPending = new AtomicBoolean(false);
+    private final Deque<Integer> displayedEntriesLength = new ArrayDeque<>();
 
     @FXML private ZoomTextArea logsArea;
 
     private void refreshLogs() {
         if(handler != null) {
-            this.logsArea.setText(handler.getAllLogs());
+            final StringBuilder logs = new StringBuilder();
+            final List<LogEntry> entries = handler.getLogsSince(0);
+            this.displayedEntriesLength.clear();
+            entries.forEach(entry -> {
+                logs.append(entry.getMessage());
+                this.displayedEntriesLength.addLast(entry.getMessage().length());
+            });
+
+            this.nextSequence = entries.isEmpty() ? handler.getNextSequence() : entries.get(entries.size() - 1).getSequence() + 1;
+            this.logsArea.setText(logs.toString());
         } else {
+            this.displayedEntriesLength.clear();
             logsArea.setText("");
         }
     }
 
+    /**
+     * Appends the logs received since the latest refresh. Several calls made before the logs are appended on the FX
+     * thread result in a single refresh. The oldest logs are removed from the text area so that it doesn't contain more
+     * entries than the {@link SlideshowFXHandler#getCapacity() capacity} of the handler.
+     */
+    private void appendNewLogs() {
+        if(this.refreshPending.compareAndSet(false, true)) {
+            Platform.runLater(() -> {
+                this.refreshPending.set(false);
+
+                final List<LogEntry> entries = handler.getLogsSince(this.nextSequence);
+                if(!entries.isEmpty()) {
+                    final StringBuilder logs = new StringBuilder();
+                    entries.forEach(entry -> {
+                        logs.append(entry.getMessage());
+                        this.displayedEntriesLength.addLast(entry.getMessage().length());
+                    });
+
+                    this.nextSequence = entries.get(entries.size() - 1).getSequence() + 1;
+                    this.logsArea.appendText(logs.toString());
+
+                    int removedLength = 0;
+                    while(this.displayedEntriesLength.size() > handler.getCapacity()) {
+                        removedLength += this.displayedEntriesLength.removeFirst();
+                    }
+
+                    if(removedLength > 0) this.logsArea.deleteText(0, removedLength);
+                }
+            });
+        }
+    }
+
     private void setLogHandlerListener() throws NoSuchMethodException {
         if(this.handler != null) {
             final ReadOnlyJavaBeanStringProperty latestLog = new ReadOnlyJavaBeanStringPropertyBuilder()
@@ -42,12 +93,7 @@ public class LogsController implements Initializable {
                     .name("latestLog")
                     .build();
 
-            latestLog.addListener((value, oldLog, newLog) -> {
-                if(newLog != null) {
-                    this.logsArea.appendText(System.lineSeparator());
-                    this.logsArea.appendText(newLog);
-                }
-            });
+            latestLog.addListener((value, oldLog, newLog) -> this.appendNewLogs());
         }
     }
 
@@ -5,6 +5,7 @@ import com.twasyl.slideshowfx.osgi.OSGiManager;
 import com.twasyl.slideshowfx.plugin.InstalledPlugin;
 import com.twasyl.slideshowfx.ui.controls.PluginFileButton;
 import com.twasyl.slideshowfx.utils.DialogHelper;
+import com.twasyl.slideshowfx.utils.ZipUtils;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
@@ -16,6 +17,7 @@ import javafx.scene.layout.TilePane;
 import javafx.stage.FileChooser;
 import org.osgi.framework.BundleException;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -131,9 +133,8 @@ public class PluginCenterController implements Initializable {
         boolean isValid = false;
 
         if(file.getName().endsWith(".jar")) {
-            try(final JarFile jar = new JarFile(file)) {
-                final Manifest manifest = jar.getManifest();
-                final Attributes attributes = manifest.getMainAttributes();
+            try {
+                final Attributes attributes = this.readManifest(file).getMainAttributes();
 
                 if(attributes != null) {
                     final String name = attributes.getValue("Bundle-Name");
@@ -144,7 +145,7 @@ public class PluginCenterController implements Initializable {
                             && isManifestAttributeValid(activator);
                 }
             } catch (IOException e) {
-                LOGGER.log(Level.SEVERE, "Can not create a JarFile instance for the plugin: " + file.getName(), e);
+                LOGGER.log(Level.SEVERE, "Can not read the manifest of the plugin: " + file.getName(), e);
             }
         }
 
@@ -164,9 +165,8 @@ public class PluginCenterController implements Initializable {
     protected InstalledPlugin createInstalledPlugin(final File pluginFile) {
         InstalledPlugin plugin = null;
 
-        try(final JarFile jar = new JarFile(pluginFile)) {
-            final Manifest manifest = jar.getManifest();
-            final Attributes attributes = manifest.getMainAttributes();
+        try {
+            final Attributes attributes = this.readManifest(pluginFile).getMainAttributes();
 
             if(attributes != null) {
                 final String name = attributes.getValue("Bundle-Name");
@@ -175,12 +175,24 @@ public class PluginCenterController implements Initializable {
                 plugin = new InstalledPlugin(name, version);
             }
         } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Can not create a JarFile instance for the plugin: " + pluginFile.getName(), e);
+            LOGGER.log(Level.SEVERE, "Can not read the manifest of the plugin: " + pluginFile.getName(), e);
         }
 
         return plugin;
     }
 
+    /**
+     * Read the {@code MANIFEST.MF} of the given plugin file. Only the manifest entry is read from the JAR file, which
+     * avoids to open and verify the whole JAR.
+     * @param pluginFile The JAR file of the plugin.
+     * @return The manifest of the plugin.
+     * @throws IOException If the JAR file doesn't contain a manifest or if it can not be read.
+     */
+    protected Manifest readManifest(final File pluginFile) throws IOException {
+        final byte[] manifest = ZipUtils.readEntry(pluginFile, JarFile.MANIFEST_NAME);
+        return new Manifest(new ByteArrayInputStream(manifest));
+    }
+
     protected void populatePluginsView() {
         for(File pluginFile : PLUGINS_DIRECTORY.listFiles()) {
             if(pluginFile.getName().endsWith(".jar")) {
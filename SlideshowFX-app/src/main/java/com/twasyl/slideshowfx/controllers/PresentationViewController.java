@@ -113,13 +113,7 @@ public class PresentationViewController implements Initializable {
 
         // If cancel wasn't clicked, updates all variables in the presentation and updates it the presentation file
         if(answer != ButtonType.CANCEL) {
-            this.presentationEngine.getConfiguration().setVariables(variablesPanel.getVariables());
-
-            this.presentationEngine.getConfiguration()
-                    .getSlides()
-                    .forEach(slide -> this.presentationEngine.getConfiguration().updateSlideInDocument(slide));
-
-            this.presentationEngine.savePresentationFile();
+            this.presentationEngine.setVariables(variablesPanel.getVariables());
             this.reloadPresentationBrowser();
         }
     }
@@ -161,11 +155,7 @@ public class PresentationViewController implements Initializable {
 
         // Update the SlideElement
         final Slide slideToUpdate = this.presentationEngine.getConfiguration().getSlideByNumber(this.slideNumber.getText());
-        slideToUpdate.updateElement(elementId, markup.getCode(), originalContent, htmlContent);
-
-        this.presentationEngine.getConfiguration().updateSlideInDocument(slideToUpdate);
-
-        this.presentationEngine.savePresentationFile();
+        this.presentationEngine.updateSlideElement(slideToUpdate, elementId, markup.getCode(), originalContent, htmlContent);
 
         // Clear the HTML of any variables
         htmlContent = slideToUpdate.getElement(elementId).getClearedHtmlContent(this.presentationEngine.getConfiguration().getVariables());
@@ -403,6 +393,7 @@ public class PresentationViewController implements Initializable {
      * This method refreshed the browser displaying the presentation.
      */
     public void reloadPresentationBrowser() {
+        this.presentationEngine.flushPresentationFile();
         this.browser.reload();
     }
 
@@ -411,6 +402,8 @@ public class PresentationViewController implements Initializable {
      * exists, nothing if done.
      */
     public void loadPresentationInBrowser() {
+        this.presentationEngine.flushPresentationFile();
+
         if(this.presentationEngine.getConfiguration().getPresentationFile() != null
                 && this.presentationEngine.getConfiguration().getPresentationFile().exists()) {
             this.browser.loadPresentation(this.presentationEngine);
@@ -249,10 +249,14 @@ public class SlideshowFXController implements Initializable {
 
             if(answer == ButtonType.YES) {
                 SlideshowFXController.this.savePresentation(presentation, waitToFinish);
+            } else {
+                presentation.discardJournal();
             }
 
             AutoSavingService.cancelFor(presentation);
         }
+
+        if(presentation != null) presentation.close();
     }
 
     /**
@@ -371,6 +375,7 @@ public class SlideshowFXController implements Initializable {
             final PresentationEngine presentation = Presentations.getCurrentDisplayedPresentation();
 
             if(presentation != null) {
+                presentation.flushPresentationFile();
                 final File presentationFile = presentation.getConfiguration().getPresentationFile();
 
                 if(presentationFile != null && presentationFile.exists()) {
@@ -1182,6 +1187,8 @@ public class SlideshowFXController implements Initializable {
             final boolean enabledLeapMotion = !this.leapMotionEnabled.disabledProperty().get()
                     && this.leapMotionEnabled.selectedProperty().get();
 
+            presentation.flushPresentationFile();
+
             if (presentation.getConfiguration() != null
                     && presentation.getConfiguration().getPresentationFile() != null
                     && presentation.getConfiguration().getPresentationFile().exists()) {
@@ -14,6 +14,9 @@ import javafx.geometry.Insets;
 import javafx.scene.layout.VBox;
 import javafx.scene.text.Text;
 
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 import static com.twasyl.slideshowfx.server.service.AbstractSlideshowFXService.*;
 /**
  * <p>This class is used to display a {@link com.twasyl.slideshowfx.server.beans.chat.ChatMessage} in the
@@ -27,6 +30,7 @@ import static com.twasyl.slideshowfx.server.service.AbstractSlideshowFXService.*
  * @since SlideshowFX 1.0
  */
 public class ChatBubble extends VBox {
+    private static final Logger LOGGER = Logger.getLogger(ChatBubble.class.getName());
 
     private final ObjectProperty<ChatMessage> chatMessage = new SimpleObjectProperty<>();
     private final Text authorLabel = new Text();
@@ -53,7 +57,12 @@ public class ChatBubble extends VBox {
                                                         .add(JSON_KEY_FIELD_STATUS)
                                                         .add(JSON_KEY_FIELD_ACTION)));
 
-                SlideshowFXServer.getSingleton().callService(request.encode());
+                // The response isn't needed, so the UI doesn't wait for it
+                SlideshowFXServer.getSingleton().callServiceAsync(request.encode())
+                        .exceptionally(error -> {
+                            LOGGER.log(Level.WARNING, "Can not mark the message as answered", error);
+                            return null;
+                        });
             }
         });
 
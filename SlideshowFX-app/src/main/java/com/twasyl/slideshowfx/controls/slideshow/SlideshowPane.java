@@ -185,14 +185,21 @@ public class SlideshowPane extends StackPane implements Actor {
                 .put(JSON_KEY_SERVICE, SERVICE_CHAT_ATTENDEE_HISTORY)
                 .put(JSON_KEY_DATA, new JsonObject());
 
-        final JsonArray history = SlideshowFXServer.getSingleton().callService(request.encode())
-                .getJsonArray(JSON_KEY_CONTENT);
-
-        if(history != null) {
-            for(Object message : history) {
-                this.publishMessage(ChatMessage.build(((JsonObject) message).encode(), null));
-            }
-        }
+        SlideshowFXServer.getSingleton().callServiceAsync(request.encode())
+                .whenComplete((response, error) -> {
+                    if(error != null) {
+                        LOGGER.log(Level.WARNING, "Can not retrieve the chat history", error);
+                        return;
+                    }
+
+                    final JsonArray history = response.getJsonArray(JSON_KEY_CONTENT);
+
+                    if(history != null) {
+                        for(Object message : history) {
+                            this.publishMessage(ChatMessage.build(((JsonObject) message).encode(), null));
+                        }
+                    }
+                });
     }
 
     public ObjectProperty<PresentationBrowser> browserProperty() { return browser; }
@@ -232,6 +239,9 @@ public class SlideshowPane extends StackPane implements Actor {
         if(result == null) throw new NullPointerException("The QuizResult to publish can not be null");
 
         this.quizPanel.setQuizResult(result);
+
+        // The counts of the result are displayed each time the server publishes it
+        PlatformHelper.run(result::updateProperties);
     }
 
     /**
@@ -14,7 +14,8 @@ import java.util.Set;
 
 /**
  * An implementation of a {@link ScheduledService} that saves regularly the {@link PresentationEngine presentation}
- * registered to it.
+ * registered to it. The presentation is saved in the background from a snapshot taken when the task is created, so
+ * it can be modified while it is saved, and isn't saved at all if it hasn't been modified since its latest save.
  * @author Thierry Wasylczenko
  * @version 1.0.0
  * @since SlideshowFX 1.0
@@ -43,6 +44,15 @@ public class AutoSavingService extends ScheduledService<Void> {
 
     @Override
     protected Task<Void> createTask() {
+        if(!this.presentation.isModifiedSinceLatestSave()) {
+            return new Task<Void>() {
+                @Override
+                protected Void call() throws Exception {
+                    return null;
+                }
+            };
+        }
+
         final SavePresentationTask task = new SavePresentationTask(this.presentation);
         return task;
     }
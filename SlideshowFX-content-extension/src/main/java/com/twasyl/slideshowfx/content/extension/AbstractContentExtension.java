@@ -2,12 +2,15 @@ package com.twasyl.slideshowfx.content.extension;
 
 import com.twasyl.slideshowfx.plugin.AbstractPlugin;
 import com.twasyl.slideshowfx.utils.ZipUtils;
+import com.twasyl.slideshowfx.utils.io.ContentStore;
 import de.jensd.fx.glyphs.GlyphIcons;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -28,6 +31,7 @@ public abstract class AbstractContentExtension extends AbstractPlugin implements
     protected final String title;
     protected final URL resourcesArchive;
     protected Set<Resource> resources = new LinkedHashSet<>();
+    private volatile Map<String, String> extractedResources;
 
     /**
      * Creates a new instance of the content extension.
@@ -85,8 +89,21 @@ public abstract class AbstractContentExtension extends AbstractPlugin implements
             }
         }
 
+        final ContentStore store = ContentStore.getDefault();
+
         try {
-            ZipUtils.unzip(this.getClass().getResourceAsStream(this.getResourcesArchive().getFile()), directory);
+            // Once the archive has been extracted in the store, its resources are only linked in the directory
+            final Map<String, String> resources = this.extractedResources;
+
+            if(resources != null && resources.values().stream().allMatch(store::contains)) {
+                for(Map.Entry<String, String> resource : resources.entrySet()) {
+                    store.link(resource.getValue(), new File(directory, resource.getKey()));
+                }
+            } else {
+                try(final InputStream archive = this.getClass().getResourceAsStream(this.getResourcesArchive().getFile())) {
+                    this.extractedResources = ZipUtils.unzip(archive, directory, store);
+                }
+            }
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, "Can not extract the resources", e);
         }
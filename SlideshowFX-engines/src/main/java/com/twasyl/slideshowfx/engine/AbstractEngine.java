@@ -6,6 +6,7 @@ import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class implements {@link IEngine} in order to define base treatments used by all engine defined in SlideshowFX.
@@ -13,6 +14,7 @@ import java.io.IOException;
  * @author Thierry Wasylczenko
  */
 public abstract class AbstractEngine<T extends IConfiguration> implements IEngine<T> {
+    private static final AtomicLong LAST_WORKING_DIRECTORY_ID = new AtomicLong();
 
     protected final PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
     protected final String configurationFilename;
@@ -44,9 +46,21 @@ public abstract class AbstractEngine<T extends IConfiguration> implements IEngin
         PlatformHelper.run(() -> this.propertyChangeSupport.firePropertyChange("archiveFile", oldFile, this.archiveFile));
     }
 
+    /**
+     * {@inheritDoc}
+     * The generated directory is unique, even if several engines generate their working directory at the same time,
+     * so that presentations can be opened concurrently.
+     */
     @Override
     public File generateWorkingDirectory() {
-        return new File(System.getProperty("java.io.tmpdir"), "sfx-" + System.currentTimeMillis());
+        File workingDirectory;
+
+        do {
+            final long id = LAST_WORKING_DIRECTORY_ID.updateAndGet(last -> Math.max(last + 1, System.currentTimeMillis()));
+            workingDirectory = new File(System.getProperty("java.io.tmpdir"), "sfx-" + id);
+        } while(workingDirectory.exists());
+
+        return workingDirectory;
     }
 
     @Override public File getWorkingDirectory() { return this.workingDirectory; }
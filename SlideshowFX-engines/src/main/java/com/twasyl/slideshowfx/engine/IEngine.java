@@ -3,6 +3,7 @@ package com.twasyl.slideshowfx.engine;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 
 /**
  * Tis interface represents the base for engine used in SlideshowFX.
@@ -64,6 +65,17 @@ public interface IEngine<T extends IConfiguration> {
      */
     T readConfiguration(File configurationFile) throws NullPointerException, IllegalArgumentException, IOException, IllegalAccessException;
 
+    /**
+     * Reads the configuration of the engine from the given stream and store it in a
+     * {@link com.twasyl.slideshowfx.engine.IConfiguration} object. The stream is not closed by this method.
+     *
+     * @param configurationStream The stream that contains the configuration.
+     * @return The configuration read from the stream.
+     * @throws java.lang.NullPointerException If the given stream is null.
+     * @throws java.io.IOException If an error occurs while reading the stream.
+     */
+    T readConfiguration(InputStream configurationStream) throws NullPointerException, IOException;
+
     /**
      * Write the configuration in the file that is stored in the working directory and named according the engine's implementation.
      * This method calls {@link #writeConfiguration(java.io.File)}.
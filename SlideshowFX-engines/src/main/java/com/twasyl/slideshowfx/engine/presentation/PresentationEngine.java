@@ -4,33 +4,38 @@ import com.twasyl.slideshowfx.content.extension.Resource;
 import com.twasyl.slideshowfx.content.extension.ResourceType;
 import com.twasyl.slideshowfx.engine.AbstractEngine;
 import com.twasyl.slideshowfx.engine.EngineException;
+import com.twasyl.slideshowfx.engine.presentation.configuration.BinaryPresentationConfiguration;
 import com.twasyl.slideshowfx.engine.presentation.configuration.PresentationConfiguration;
+import com.twasyl.slideshowfx.engine.presentation.configuration.PresentationJournal;
 import com.twasyl.slideshowfx.engine.presentation.configuration.Slide;
 import com.twasyl.slideshowfx.engine.presentation.configuration.SlideElement;
+import com.twasyl.slideshowfx.engine.presentation.configuration.SlideThumbnail;
 import com.twasyl.slideshowfx.engine.template.DynamicAttribute;
+import com.twasyl.slideshowfx.engine.template.TemplateCache;
 import com.twasyl.slideshowfx.engine.template.TemplateEngine;
 import com.twasyl.slideshowfx.engine.template.configuration.SlideTemplate;
 import com.twasyl.slideshowfx.engine.template.configuration.TemplateConfiguration;
-import com.twasyl.slideshowfx.global.configuration.GlobalConfiguration;
+import com.twasyl.slideshowfx.logs.LogContext;
 import com.twasyl.slideshowfx.utils.*;
 import com.twasyl.slideshowfx.utils.beans.Pair;
+import com.twasyl.slideshowfx.utils.io.ContentStore;
+import com.twasyl.slideshowfx.utils.zip.ZipArchiveManifest;
+import com.twasyl.slideshowfx.utils.zip.ZipCompressionOptions;
 import freemarker.template.Configuration;
 import freemarker.template.Template;
 import freemarker.template.TemplateException;
-import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
-import javafx.embed.swing.SwingFXUtils;
-import javafx.scene.image.WritableImage;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
 
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
 import java.io.*;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.zip.ZipFile;
 
 /**
  * This class manages presentations operation done with SlideshowFX. It is used to open them as well as add, update an
@@ -53,6 +58,17 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
      * The default value, containing the dot, for presentation archives.
      */
     public static final String DEFAULT_DOTTED_ARCHIVE_EXTENSION = ".".concat(DEFAULT_ARCHIVE_EXTENSION);
+    /**
+     * The name of the configuration file of presentations, written in the
+     * {@link BinaryPresentationConfiguration binary format}. Value is {@value #DEFAULT_CONFIGURATION_FILENAME}.
+     */
+    public static final String DEFAULT_CONFIGURATION_FILENAME = "presentation-config.bin";
+    /**
+     * The name of the JSON configuration file of presentations saved before the binary format was introduced. Such
+     * configurations are still read and are replaced by a binary one when the presentation is saved. Value is
+     * {@value #JSON_CONFIGURATION_FILENAME}.
+     */
+    public static final String JSON_CONFIGURATION_FILENAME = "presentation-config.json";
 
     private static final String TEMPLATE_SLIDE_NUMBER_TOKEN = "slideNumber";
     private static final String TEMPLATE_SFX_JAVASCRIPT_RESOURCES_TOKEN = "sfxJavascriptResources";
@@ -67,16 +83,93 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
     private static final String TEMPLATE_SFX_CALLBACK_CALL = "sendInformationToSlideshowFX(this);";
 
     private TemplateEngine templateEngine;
+    private TemplateCache.Entry cachedTemplate;
+    private PresentationFileWriter presentationFileWriter;
+    private ZipArchiveManifest archiveManifest;
+    private volatile PresentationJournal journal;
+    private Configuration templateProcessorConfiguration;
 
-    private boolean modifiedSinceLatestSave;
+    private volatile boolean modifiedSinceLatestSave;
+    private long modificationCount = 0;
+    private final Object modificationLock = new Object();
+    private final Object saveLock = new Object();
 
     public PresentationEngine() {
-        super(DEFAULT_ARCHIVE_EXTENSION, "presentation-config.json");
+        super(DEFAULT_ARCHIVE_EXTENSION, DEFAULT_CONFIGURATION_FILENAME);
         this.templateEngine = new TemplateEngine();
 
         Presentations.register(this);
     }
 
+    @Override
+    public synchronized void setWorkingDirectory(File workingDirectory) {
+        super.setWorkingDirectory(workingDirectory);
+
+        // Templates are loaded from the working directory, so the configuration is not valid anymore
+        this.templateProcessorConfiguration = null;
+    }
+
+    /**
+     * Get the FreeMarker configuration used to process the templates of this presentation. The configuration is
+     * specific to this presentation and loads templates from its working directory, so it is never modified once
+     * created and compiled templates stay in its cache.
+     * @return The configuration used to process the templates of this presentation.
+     * @throws IOException If the working directory can not be used to load templates.
+     */
+    private synchronized Configuration getTemplateProcessorConfiguration() throws IOException {
+        if(this.templateProcessorConfiguration == null) {
+            this.templateProcessorConfiguration = TemplateProcessor.createConfiguration(this.getWorkingDirectory());
+        }
+
+        return this.templateProcessorConfiguration;
+    }
+
+    /**
+     * Get the compiled template corresponding to the given file, which must be located in the working directory. If the
+     * template of this presentation is {@link TemplateCache cached}, the compiled template is shared with the other
+     * presentations using the same template.
+     * @param templateFile The file of the template.
+     * @return The compiled template.
+     * @throws IOException If the template can not be found or parsed.
+     */
+    private Template getTemplate(final File templateFile) throws IOException {
+        final TemplateCache.Entry template = this.cachedTemplate;
+        if(template != null) return template.getTemplate(this.relativizeFromWorkingDirectory(templateFile));
+
+        return this.getTemplateProcessorConfiguration().getTemplate(this.relativizeFromWorkingDirectory(templateFile));
+    }
+
+    /**
+     * Use the given cached template for this presentation. The template previously used, if any, is released.
+     * @param template The template to use.
+     */
+    private void useCachedTemplate(final TemplateCache.Entry template) {
+        TemplateCache.getDefault().release(this.cachedTemplate);
+
+        this.cachedTemplate = template;
+        this.templateEngine.setConfiguration(template.createConfiguration(this.getWorkingDirectory()));
+    }
+
+    /**
+     * Close this presentation: the resources it shares with the other presentations, like its template, are released
+     * and the presentation is not considered opened anymore. The working directory and the journal of the presentation
+     * are left untouched.
+     */
+    public void close() {
+        this.releaseCachedTemplate();
+
+        Presentations.unregister(this);
+    }
+
+    /**
+     * Release the cached template used by this presentation, if any.
+     */
+    private void releaseCachedTemplate() {
+        final TemplateCache.Entry template = this.cachedTemplate;
+        this.cachedTemplate = null;
+        TemplateCache.getDefault().release(template);
+    }
+
     @Override
     public boolean checkConfiguration() throws EngineException {
         return false;
@@ -88,10 +181,52 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
         if(!configurationFile.exists()) throw new FileNotFoundException("The configuration file does not exist");
         if(!configurationFile.canRead()) throw new IllegalAccessException("The configuration file can not be read");
 
-        final PresentationConfiguration presentationConfiguration = new PresentationConfiguration();
+        // Binary configurations are mapped in memory instead of being read as a stream
+        if(BinaryPresentationConfiguration.isBinary(configurationFile)) {
+            final PresentationConfiguration presentationConfiguration = BinaryPresentationConfiguration.read(configurationFile, this.templateEngine.getConfiguration());
+            presentationConfiguration.setPresentationFile(new File(this.getWorkingDirectory(), PresentationConfiguration.DEFAULT_PRESENTATION_FILENAME));
+            this.setSlidesThumbnails(presentationConfiguration);
+
+            return presentationConfiguration;
+        }
+
+        try(final InputStream configurationStream = new FileInputStream(configurationFile)) {
+            return this.readConfiguration(configurationStream);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * The configuration can either be in the {@link BinaryPresentationConfiguration binary format} or in the JSON one.
+     */
+    @Override
+    public PresentationConfiguration readConfiguration(InputStream configurationStream) throws NullPointerException, IOException {
+        if(configurationStream == null) throw new NullPointerException("The configuration stream can not be null");
+
+        final InputStream stream = configurationStream.markSupported() ? configurationStream : new BufferedInputStream(configurationStream);
+        final PresentationConfiguration presentationConfiguration;
+
+        if(BinaryPresentationConfiguration.isBinary(stream)) {
+            presentationConfiguration = BinaryPresentationConfiguration.read(stream, this.templateEngine.getConfiguration());
+        } else {
+            presentationConfiguration = this.readJsonConfiguration(stream);
+        }
+
         presentationConfiguration.setPresentationFile(new File(this.getWorkingDirectory(), PresentationConfiguration.DEFAULT_PRESENTATION_FILENAME));
+        this.setSlidesThumbnails(presentationConfiguration);
+
+        return presentationConfiguration;
+    }
 
-        JsonObject configurationJson = JSONHelper.readFromFile(configurationFile);
+    /**
+     * Reads a configuration written in the JSON format, used before the {@link BinaryPresentationConfiguration binary format}.
+     * @param configurationStream The stream containing the JSON configuration.
+     * @return The configuration read from the stream.
+     * @throws IOException If the stream can not be read.
+     */
+    private PresentationConfiguration readJsonConfiguration(final InputStream configurationStream) throws IOException {
+        final PresentationConfiguration presentationConfiguration = new PresentationConfiguration();
+        JsonObject configurationJson = JSONHelper.readFromInputStream(configurationStream);
         JsonObject presentationJson = configurationJson.getJsonObject("presentation");
 
         presentationConfiguration.setId(presentationJson.getLong("id", System.currentTimeMillis()));
@@ -127,15 +262,6 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
                     slide.setTemplate(this.templateEngine.getConfiguration().getSlideTemplate(((JsonObject) slideJson).getInteger(
                         "template-id")));
 
-                    try {
-                        final File thumbnailFile = this.getThumbnailFile(slide);
-                        if(thumbnailFile.exists()) {
-                            slide.setThumbnail(this.getThumbnailImage(thumbnailFile));
-                        }
-                    } catch (IOException e) {
-                        LOGGER.log(Level.INFO, "Error setting the thumbnail", e);
-                    }
-
                     ((JsonObject) slideJson).getJsonArray("elements")
                             .forEach(slideElementJson -> {
                                 final SlideElement slideElement = new SlideElement();
@@ -155,6 +281,21 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
         return presentationConfiguration;
     }
 
+    /**
+     * Set the thumbnails of the slides of the given configuration from the files present in the
+     * {@link TemplateConfiguration#getSlidesThumbnailDirectory() thumbnail directory}. The thumbnails are only decoded
+     * when displayed.
+     * @param configuration The configuration which slides' thumbnails are set.
+     */
+    private void setSlidesThumbnails(final PresentationConfiguration configuration) {
+        configuration.getSlides().forEach(slide -> {
+            final File thumbnailFile = this.getThumbnailFile(slide);
+            if(thumbnailFile.exists()) {
+                slide.setSlideThumbnail(new SlideThumbnail(thumbnailFile));
+            }
+        });
+    }
+
     /**
      * Get the thumbnail file for the given slide. This methods only creates a {@link File} without checking its existence.
      * The file is supposed to be found in the {@link TemplateConfiguration#getSlidesThumbnailDirectory() thumbnail directory}
@@ -168,15 +309,15 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
     }
 
     /**
-     * Get the {@link WritableImage image} located in the {@link File thumbnail file}.
-     * @param thumbnailFile The file of the image.
-     * @return The thumbnail image.
-     * @throws IOException If something went wrong.
+     * {@inheritDoc}
+     * The configuration is written in the {@link BinaryPresentationConfiguration binary format} and the JSON configuration
+     * of the working directory, if any, is deleted so that it isn't saved in the archive anymore.
      */
-    private WritableImage getThumbnailImage(final File thumbnailFile) throws IOException {
-        final BufferedImage bufferedImage = ImageIO.read(thumbnailFile);
-        final WritableImage image = SwingFXUtils.toFXImage(bufferedImage, null);
-        return image;
+    @Override
+    public void writeConfiguration() throws NullPointerException, IOException {
+        super.writeConfiguration();
+
+        Files.deleteIfExists(new File(this.getWorkingDirectory(), JSON_CONFIGURATION_FILENAME).toPath());
     }
 
     @Override
@@ -184,67 +325,7 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
         if(configurationFile == null) throw new NullPointerException("The configuration to write into can not be null");
 
         if(this.configuration != null) {
-            final JsonObject presentationJson = new JsonObject();
-            final JsonArray slidesJson = new JsonArray();
-            final JsonArray customResourcesJson = new JsonArray();
-            final JsonArray variablesJson = new JsonArray();
-
-            presentationJson.put("id", this.configuration.getId());
-
-            this.configuration.getCustomResources()
-                    .stream()
-                    .forEach(resource -> {
-                        final JsonObject resourceJson = new JsonObject()
-                                .put("type", resource.getType().name())
-                                .put("content", Base64.getEncoder().encodeToString(resource.getContent().getBytes()));
-
-                        customResourcesJson.add(resourceJson);
-                    });
-
-            this.configuration.getVariables()
-                    .forEach(variable -> {
-                        final JsonObject variableJson = new JsonObject()
-                                .put("name", variable.getKey())
-                                .put("value", Base64.getEncoder().encodeToString(variable.getValue().getBytes()));
-
-                        variablesJson.add(variableJson);
-                    });
-
-            this.configuration.getSlides()
-                    .stream()
-                    .forEach(slide -> {
-                        final JsonArray elementsJson = new JsonArray();
-                        final JsonObject slideJson = new JsonObject();
-
-                        slideJson.put("template-id", slide.getTemplate().getId())
-                                .put("id", slide.getId())
-                                .put("number", slide.getSlideNumber());
-
-                        slide.getElements()
-                                .stream()
-                                .forEach(slideElement -> {
-                                    final JsonObject elementJson = new JsonObject();
-                                    elementJson.put("template-id", slideElement.getTemplate().getId())
-                                            .put("element-id", slideElement.getId())
-                                            .put("original-content-code", slideElement.getOriginalContentCode())
-                                            .put("original-content", slideElement.getOriginalContentAsBase64())
-                                            .put("html-content", slideElement.getHtmlContentAsBase64());
-
-                                    elementsJson.add(elementJson);
-                                });
-
-                        slideJson.put("elements", elementsJson);
-                        slidesJson.add(slideJson);
-                    });
-
-            presentationJson.put("custom-resources", customResourcesJson);
-            presentationJson.put("variables", variablesJson);
-            presentationJson.put("slides", slidesJson);
-
-            final JsonObject finalObject = new JsonObject();
-            finalObject.put("presentation", presentationJson);
-
-            JSONHelper.writeObject(finalObject, configurationFile);
+            BinaryPresentationConfiguration.write(this.configuration, configurationFile);
         }
     }
 
@@ -255,19 +336,68 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
         if(!file.canRead()) throw new IllegalAccessException("The archive file can not be read");
         if(!file.getName().endsWith(this.getArchiveExtension())) throw new IllegalArgumentException("The extension of the archive is not valid");
 
+        try {
+            this.openArchive(file);
+        } catch (IOException | IllegalAccessException | RuntimeException e) {
+            // The presentation isn't opened and will never be closed
+            this.releaseCachedTemplate();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens the given archive, which has been checked by {@link #loadArchive(File)}.
+     */
+    private void openArchive(final File file) throws IOException, IllegalAccessException {
         this.setModifiedSinceLatestSave(false);
+        this.journal = null;
 
         this.setArchive(file);
         this.setWorkingDirectory(this.generateWorkingDirectory());
-        ZipUtils.unzip(this.getArchive(), this.getWorkingDirectory());
-
-        // The template configuration has to be read and set
         this.templateEngine = new TemplateEngine();
         this.templateEngine.setWorkingDirectory(this.getWorkingDirectory());
-        this.templateEngine.setConfiguration(this.templateEngine.readConfiguration());
 
-        // Configure the PresentationConfiguration
-        final PresentationConfiguration configuration = this.readConfiguration();
+        final PresentationConfiguration configuration;
+
+        try(final ZipFile archive = new ZipFile(this.getArchive())) {
+            // The template configuration is shared with the presentations using the same template
+            this.useCachedTemplate(TemplateCache.getDefault().acquire(archive));
+
+            // The presentation file is not extracted because it is built again from the template. Resources of the
+            // template are never modified by the presentation and can be shared with the other opened presentations
+            final File resourcesDirectory = this.getTemplateConfiguration().getResourcesDirectory();
+            final String resourcesPrefix = resourcesDirectory == null ? null : this.relativizeFromWorkingDirectory(resourcesDirectory) + "/";
+
+            this.archiveManifest = ZipUtils.unzip(archive, this.getWorkingDirectory(),
+                    entry -> !PresentationConfiguration.DEFAULT_PRESENTATION_FILENAME.equals(entry.getName()),
+                    ContentStore.getDefault(),
+                    entry -> resourcesPrefix != null && entry.getName().startsWith(resourcesPrefix));
+
+            // Configure the PresentationConfiguration. Presentations saved before the binary format have a JSON configuration
+            if(archive.getEntry(this.getConfigurationFilename()) != null) {
+                configuration = this.readConfiguration(new File(this.getWorkingDirectory(), this.getConfigurationFilename()));
+            } else {
+                try(final InputStream configurationStream = ZipUtils.getEntryInputStream(archive, JSON_CONFIGURATION_FILENAME)) {
+                    configuration = this.readConfiguration(configurationStream);
+                }
+            }
+        }
+
+        // Modifications that were not saved before the application stopped are recovered from the journal
+        PresentationJournal recoveredJournal = null;
+        int recoveredModifications = 0;
+
+        try {
+            recoveredJournal = PresentationJournal.open(configuration.getId(), file);
+            recoveredModifications = recoveredJournal.replay(configuration, this.getTemplateConfiguration());
+
+            if(recoveredModifications > 0) {
+                LOGGER.info(String.format("%1$d unsaved modifications recovered for %2$s", recoveredModifications, file.getName()));
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Can not recover the unsaved modifications of the presentation", e);
+        }
+
         configuration.getVariables().addAll(this.getTemplateConfiguration().getDefaultVariables()
                 .stream()
                 .filter(defVariable -> !configuration.getVariables().contains(defVariable))
@@ -275,20 +405,19 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
 
         this.setConfiguration(configuration);
 
-        final Configuration templateConfiguration = TemplateProcessor.getDefaultConfiguration();
-        templateConfiguration.setDirectoryForTemplateLoading(this.templateEngine.getConfiguration().getFile().getParentFile());
-
-        final Map tokens = new HashMap<>();
+        final Map<String, Object> tokens = new HashMap<>();
         tokens.put(TEMPLATE_SFX_JAVASCRIPT_RESOURCES_TOKEN, this.buildJavaScriptResourcesToInclude());
 
         // Replacing the template tokens
         try(final StringWriter writer = new StringWriter()) {
 
-            final Template documentTemplate = templateConfiguration.getTemplate(this.templateEngine.getConfiguration().getFile().getName());
+            final Template documentTemplate = this.getTemplate(this.templateEngine.getConfiguration().getFile());
             documentTemplate.process(tokens, writer);
             writer.flush();
 
             this.configuration.setDocument(Jsoup.parse(writer.toString()));
+            this.presentationFileWriter = new PresentationFileWriter(this.configuration.getPresentationFile(),
+                    this.templateEngine.getConfiguration().getSlidesContainer());
 
             this.savePresentationFile();
         } catch (TemplateException e) {
@@ -307,56 +436,154 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
         tokens.put(TEMPLATE_SLIDE_ID_PREFIX_TOKEN, this.templateEngine.getConfiguration().getSlideIdPrefix());
         tokens.putAll(this.configuration.getVariables().stream().collect(Collectors.toMap(Pair::getKey, Pair::getValue)));
 
-        for(Slide s : this.configuration.getSlides()) {
-            templateConfiguration.setDirectoryForTemplateLoading(s.getTemplate().getFile().getParentFile());
+        // Slides are rendered concurrently and then added to the document in order
+        final Element slidesContainer = this.configuration.getElementById(this.templateEngine.getConfiguration().getSlidesContainer());
+        final List<List<Node>> renderedSlides = this.configuration.getSlides()
+                .parallelStream()
+                .map(slide -> this.renderSlide(slide, tokens, slidesContainer))
+                .collect(Collectors.toList());
 
-            try (final StringWriter writer = new StringWriter()) {
-                tokens.put(TEMPLATE_SLIDE_NUMBER_TOKEN, s.getSlideNumber());
+        renderedSlides.forEach(slideNodes -> slidesContainer.insertChildren(slidesContainer.childNodeSize(), slideNodes));
+        this.configuration.invalidateDocumentIndex();
 
-                final Template slideTemplate = templateConfiguration.getTemplate(s.getTemplate().getFile().getName());
-                slideTemplate.process(tokens, writer);
-                writer.flush();
+        this.savePresentationFile();
+        this.flushPresentationFile();
 
-                this.configuration.getDocument()
-                        .getElementById(this.templateEngine.getConfiguration().getSlidesContainer())
-                        .append(writer.toString());
+        // Building the presentation adds the custom resources again, which must not be journaled
+        this.journal = recoveredJournal;
+        this.setModifiedSinceLatestSave(recoveredModifications > 0);
+    }
 
-                s.getElements()
-                        .stream()
-                        .forEach(element -> this.configuration.getDocument()
-                                .getElementById(element.getId())
-                                .html(element.getClearedHtmlContent(this.getConfiguration().getVariables())));
-            } catch (IOException | TemplateException e) {
-                LOGGER.log(Level.SEVERE, "Can not read slide's template", e);
-            }
+    /**
+     * Render the given slide, including the content of its elements, in nodes that are not attached to the document.
+     * This method doesn't modify the document and can therefore be called concurrently for several slides.
+     * @param slide The slide to render.
+     * @param tokens The tokens used to process the template of the slide. The given map is not modified.
+     * @param slidesContainer The element the rendered nodes are meant to be added to.
+     * @return The rendered nodes of the slide, or an empty list if the slide could not be rendered.
+     */
+    private List<Node> renderSlide(final Slide slide, final Map<String, Object> tokens, final Element slidesContainer) {
+        final Map<String, Object> slideTokens = new HashMap<>(tokens);
+        slideTokens.put(TEMPLATE_SLIDE_NUMBER_TOKEN, slide.getSlideNumber());
+
+        // Slides are rendered by other threads, which don't share the log context of the presentation
+        try (final LogContext.Scope presentationScope = LogContext.with(LogContext.PRESENTATION_ID, this.getConfiguration().getId());
+             final LogContext.Scope slideScope = LogContext.with(LogContext.SLIDE_NUMBER, slide.getSlideNumber());
+             final StringWriter writer = new StringWriter()) {
+            final Template slideTemplate = this.getTemplate(slide.getTemplate().getFile());
+            slideTemplate.process(slideTokens, writer);
+            writer.flush();
+
+            final Element fragment = new Element(slidesContainer.tag(), slidesContainer.baseUri());
+            fragment.append(writer.toString());
+
+            slide.getElements().forEach(element -> {
+                final Element htmlElement = fragment.getElementById(element.getId());
+
+                if(htmlElement != null) {
+                    htmlElement.html(element.getClearedHtmlContent(this.getConfiguration().getVariables()));
+                } else {
+                    LOGGER.log(Level.WARNING, String.format("Can not find the element %1$s in the slide %2$s", element.getId(), slide.getSlideNumber()));
+                }
+            });
+
+            return new ArrayList<>(fragment.childNodes());
+        } catch (IOException | TemplateException e) {
+            LOGGER.log(Level.SEVERE, "Can not read slide's template", e);
+            return Collections.emptyList();
         }
+    }
 
-        this.savePresentationFile();
+    /**
+     * {@inheritDoc}
+     * The presentation is saved from a {@link #createSnapshot() snapshot} taken by the calling thread.
+     */
+    @Override
+    public void saveArchive() throws IllegalArgumentException, IOException {
+        this.saveArchive(this.getArchive());
     }
 
+    /**
+     * {@inheritDoc}
+     * The presentation is saved from a {@link #createSnapshot() snapshot} taken by the calling thread.
+     */
     @Override
-    public synchronized void saveArchive(File file) throws IllegalArgumentException, IOException {
+    public void saveArchive(File file) throws IllegalArgumentException, IOException {
+        this.saveArchive(this.createSnapshot(), file);
+    }
+
+    /**
+     * Creates a snapshot of the presentation that can be {@link #saveArchive(PresentationSnapshot, File) saved} by
+     * another thread while the presentation continues to be modified. The snapshot must be created by the thread that
+     * modifies the presentation, but is cheap to create: the contents of the slides are not copied.
+     * @return The snapshot of the presentation.
+     */
+    public PresentationSnapshot createSnapshot() {
+        final long modificationCount;
+        synchronized(this.modificationLock) {
+            modificationCount = this.modificationCount;
+        }
+
+        final PresentationJournal currentJournal = this.journal;
+        final long journalPosition = currentJournal == null ? -1 : currentJournal.getPosition();
+
+        return new PresentationSnapshot(this.configuration.snapshot(), modificationCount, journalPosition);
+    }
+
+    /**
+     * Saves the given snapshot of this presentation in the given archive. Only the thumbnails that have changed are
+     * encoded and only the files of the working directory that have changed are compressed. This method doesn't block
+     * the modifications of the presentation, only other saves. Once saved, the presentation is considered not modified
+     * unless it has been modified since the snapshot has been taken.
+     * @param snapshot The snapshot of the presentation to save.
+     * @param file The archive to save the presentation in.
+     * @throws IOException If the presentation can not be saved.
+     * @throws NullPointerException If the snapshot or the file is {@code null}.
+     */
+    public void saveArchive(final PresentationSnapshot snapshot, final File file) throws IOException {
+        if(snapshot == null) throw new NullPointerException("The snapshot can not be null");
+        if(file == null) throw new NullPointerException("The archive file can not be null");
 
-        this.writeConfiguration();
+        final PresentationConfiguration savedConfiguration = snapshot.getConfiguration();
+
+        synchronized(this.saveLock) {
+            try(final LogContext.Scope presentationScope = LogContext.with(LogContext.PRESENTATION_ID, savedConfiguration.getId())) {
+                this.writeArchive(snapshot, file);
+            }
+        }
+    }
+
+    /**
+     * Writes the given snapshot of this presentation in the given archive. Must be called while holding the save lock.
+     */
+    private void writeArchive(final PresentationSnapshot snapshot, final File file) throws IOException {
+        final PresentationConfiguration savedConfiguration = snapshot.getConfiguration();
+
+        this.flushPresentationFile();
+
+        BinaryPresentationConfiguration.write(savedConfiguration, new File(this.getWorkingDirectory(), this.getConfigurationFilename()));
+        Files.deleteIfExists(new File(this.getWorkingDirectory(), JSON_CONFIGURATION_FILENAME).toPath());
 
         LOGGER.fine("Create slides thumbnails");
         if(!this.templateEngine.getConfiguration().getSlidesThumbnailDirectory().exists()) {
             if(!this.templateEngine.getConfiguration().getSlidesThumbnailDirectory().mkdirs()) {
                 LOGGER.log(Level.SEVERE, "Can not create slides thumbnails directory");
             }
-        } else {
-            Arrays.stream(this.templateEngine.getConfiguration().getSlidesThumbnailDirectory()
-                    .listFiles(f -> f.isFile()))
-                    .forEach(slideFile -> slideFile.delete());
         }
 
-        this.configuration.getSlides()
+        // Only the thumbnails that have changed since the latest save are encoded again
+        final Set<String> thumbnails = new HashSet<>();
+
+        savedConfiguration.getSlides()
                 .stream()
-                .filter(slide -> slide != null && slide.getThumbnail() != null)
+                .filter(slide -> slide != null && slide.getSlideThumbnail() != null)
                 .forEach(slide -> {
-                    LOGGER.fine("Creating thumbnail file: " + this.templateEngine.getConfiguration().getSlidesThumbnailDirectory().getAbsolutePath() + File.separator + slide.getSlideNumber() + ".png");
+                    final File thumbnailFile = this.getThumbnailFile(slide);
+                    thumbnails.add(thumbnailFile.getName());
+
+                    LOGGER.finest("Saving thumbnail file: " + thumbnailFile.getAbsolutePath());
                     try {
-                        ImageIO.write(SwingFXUtils.fromFXImage(slide.getThumbnail(), null), "png", new File(this.templateEngine.getConfiguration().getSlidesThumbnailDirectory(), slide.getSlideNumber().concat(".png")));
+                        slide.getSlideThumbnail().save(thumbnailFile);
                     } catch (IOException e) {
                         LOGGER.log(Level.WARNING,
                                 String.format("Can not create thumbnail for slide number %1$s", slide.getSlideNumber()),
@@ -364,12 +591,59 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
                     }
                 });
 
-        ZipUtils.zip(this.getWorkingDirectory(), file);
+        final File[] thumbnailFiles = this.templateEngine.getConfiguration().getSlidesThumbnailDirectory().listFiles(f -> f.isFile());
+        if(thumbnailFiles != null) {
+            Arrays.stream(thumbnailFiles)
+                    .filter(thumbnailFile -> !thumbnails.contains(thumbnailFile.getName()))
+                    .forEach(thumbnailFile -> thumbnailFile.delete());
+        }
+
+        // Unchanged files are copied from the previous archive instead of being compressed again
+        this.archiveManifest = ZipUtils.zip(this.getWorkingDirectory(), file, this.archiveManifest, new ZipCompressionOptions());
+        this.compactJournal(snapshot, file);
 
-        this.setModifiedSinceLatestSave(false);
+        synchronized(this.modificationLock) {
+            if(this.modificationCount == snapshot.getModificationCount()) this.setModifiedSinceLatestSave(false);
+        }
         LOGGER.fine("Presentation saved");
     }
 
+    /**
+     * Removes from the journal the modifications included in the given snapshot, which has been saved in the given
+     * archive. If the presentation had no journal yet, it is created.
+     * @param snapshot The snapshot that has been saved.
+     * @param file The archive the snapshot has been saved in.
+     */
+    private void compactJournal(final PresentationSnapshot snapshot, final File file) {
+        try {
+            if(this.journal == null) {
+                this.journal = PresentationJournal.create(snapshot.getConfiguration().getId(), file);
+            } else {
+                this.journal.compact(snapshot.getJournalPosition(), file);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Can not compact the journal of the presentation", e);
+        }
+    }
+
+    /**
+     * Deletes the journal of the modifications made since the presentation has been saved, so that they aren't
+     * recovered the next time the presentation is opened. This method must be called when these modifications are
+     * discarded, typically when the presentation is closed without being saved.
+     */
+    public void discardJournal() {
+        final PresentationJournal discardedJournal = this.journal;
+        this.journal = null;
+
+        if(discardedJournal != null) {
+            try {
+                discardedJournal.delete();
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Can not delete the journal of the presentation", e);
+            }
+        }
+    }
+
     /**
      * Indicates if the presentation has already been saved by testing if the {@link #getArchive()}
      * method returns {@code null} or not.
@@ -393,8 +667,13 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
      * @param modifiedSinceLatestSave {@code true} to indicate a modification, {@code false} otherwise.
      */
     public void setModifiedSinceLatestSave(boolean modifiedSinceLatestSave) {
-        boolean oldValue = this.modifiedSinceLatestSave;
-        this.modifiedSinceLatestSave = modifiedSinceLatestSave;
+        final boolean oldValue;
+        synchronized(this.modificationLock) {
+            if(modifiedSinceLatestSave) this.modificationCount++;
+
+            oldValue = this.modifiedSinceLatestSave;
+            this.modifiedSinceLatestSave = modifiedSinceLatestSave;
+        }
         PlatformHelper.run(() -> this.propertyChangeSupport.firePropertyChange("modifiedSinceLatestSave", oldValue, modifiedSinceLatestSave));
     }
 
@@ -407,34 +686,55 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
      * @throws java.lang.IllegalAccessException If an error occurred when processing the archive.
      */
     public void createFromTemplate(File templateArchive) throws IOException, IllegalAccessException {
+        try {
+            this.initializeFromTemplate(templateArchive);
+        } catch (IOException | RuntimeException e) {
+            // The presentation isn't created and will never be closed
+            this.releaseCachedTemplate();
+            throw e;
+        }
+    }
+
+    /**
+     * Initializes this presentation from the given template archive.
+     */
+    private void initializeFromTemplate(final File templateArchive) throws IOException {
         this.setArchive(null);
+        this.archiveManifest = null;
+        this.journal = null;
 
         this.setModifiedSinceLatestSave(true);
 
         this.templateEngine = new TemplateEngine();
-        this.templateEngine.loadArchive(templateArchive);
+        this.templateEngine.setArchive(templateArchive);
+        this.templateEngine.setWorkingDirectory(this.templateEngine.generateWorkingDirectory());
+        ZipUtils.unzip(templateArchive, this.templateEngine.getWorkingDirectory());
 
         this.setWorkingDirectory(this.templateEngine.getWorkingDirectory());
 
+        try(final ZipFile archive = new ZipFile(templateArchive)) {
+            this.useCachedTemplate(TemplateCache.getDefault().acquire(archive));
+        }
+
         this.configuration = new PresentationConfiguration();
         this.configuration.setPresentationFile(new File(this.getWorkingDirectory(), PresentationConfiguration.DEFAULT_PRESENTATION_FILENAME));
         this.configuration.getVariables().addAll(this.templateEngine.getConfiguration().getDefaultVariables());
 
-        final Configuration templateConfiguration = TemplateProcessor.getDefaultConfiguration();
-        templateConfiguration.setDirectoryForTemplateLoading(this.templateEngine.getConfiguration().getFile().getParentFile());
-
         final Map tokens = new HashMap<>();
         tokens.put(TEMPLATE_SFX_JAVASCRIPT_RESOURCES_TOKEN, this.buildJavaScriptResourcesToInclude());
 
         try(final StringWriter writer = new StringWriter()) {
 
-            final Template documentTemplate = templateConfiguration.getTemplate(this.templateEngine.getConfiguration().getFile().getName());
+            final Template documentTemplate = this.getTemplate(this.templateEngine.getConfiguration().getFile());
             documentTemplate.process(tokens, writer);
             writer.flush();
 
             this.configuration.setDocument(Jsoup.parse(writer.toString()));
+            this.presentationFileWriter = new PresentationFileWriter(this.configuration.getPresentationFile(),
+                    this.templateEngine.getConfiguration().getSlidesContainer());
 
             this.savePresentationFile();
+            this.flushPresentationFile();
         } catch (TemplateException e) {
             LOGGER.log(Level.SEVERE, "Can not parse the template", e);
         }
@@ -461,38 +761,26 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
         this.setModifiedSinceLatestSave(true);
         final Pair<Slide, Element> createdSlide = this.createSlide(template);
 
-        if(afterSlideNumber == null) {
-            this.configuration.getSlides().add(createdSlide.getKey());
-        } else {
-            ListIterator<Slide> slidesIterator = this.configuration.getSlides().listIterator();
-
-            this.configuration.getSlideByNumber(afterSlideNumber);
-            int index = -1;
-            while(slidesIterator.hasNext()) {
-                if(slidesIterator.next().getSlideNumber().equals(afterSlideNumber)) {
-                    index = slidesIterator.nextIndex();
-                    break;
-                }
-            }
+        final Slide afterSlide = afterSlideNumber == null ? null : this.configuration.getSlideByNumber(afterSlideNumber);
+        final int index = afterSlide == null ? -1 : this.configuration.getSlides().indexOf(afterSlide);
 
-            if(index > -1) {
-                this.configuration.getSlides().add(index, createdSlide.getKey());
-            } else {
-                this.configuration.getSlides().add(createdSlide.getKey());
-            }
+        if(index > -1) {
+            this.configuration.getSlides().add(index + 1, createdSlide.getKey());
+        } else {
+            this.configuration.getSlides().add(createdSlide.getKey());
         }
 
-        if(afterSlideNumber == null || afterSlideNumber.isEmpty()) {
-            this.configuration.getDocument()
-                    .getElementById(this.templateEngine.getConfiguration().getSlidesContainer())
+        if(afterSlide == null) {
+            this.configuration.getElementById(this.templateEngine.getConfiguration().getSlidesContainer())
                     .append(createdSlide.getValue().outerHtml());
         } else {
-            this.configuration.getDocument()
-                    .getElementById(this.configuration.getSlideByNumber(afterSlideNumber).getId())
+            this.configuration.getElementById(afterSlide.getId())
                     .after(createdSlide.getValue().outerHtml());
         }
+        this.configuration.invalidateDocumentIndex();
 
         this.savePresentationFile();
+        if(this.journal != null) this.journal.slideInserted(this.configuration.getSlides().indexOf(createdSlide.getKey()), createdSlide.getKey());
 
         return createdSlide.getKey();
     }
@@ -509,8 +797,10 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
         Slide slideToRemove = this.configuration.getSlideByNumber(slideNumber);
         if(slideToRemove != null) {
             this.configuration.getSlides().remove(slideToRemove);
-            this.configuration.getDocument()
-                    .getElementById(slideToRemove.getId()).remove();
+            this.configuration.getElementById(slideToRemove.getId()).remove();
+            this.configuration.invalidateDocumentIndex();
+            this.presentationFileWriter.invalidateSlide(slideToRemove.getId());
+            if(this.journal != null) this.journal.slideDeleted(slideToRemove.getId());
         }
 
         this.savePresentationFile();
@@ -552,11 +842,15 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
         });
 
         // Update the document
-        this.getConfiguration().getDocument().getElementById(slide.getId()).after(duplicatedSlide.getValue().outerHtml());
+        this.configuration.getElementById(slide.getId()).after(duplicatedSlide.getValue().outerHtml());
+        this.configuration.invalidateDocumentIndex();
         this.getConfiguration().updateSlideInDocument(duplicatedSlide.getKey());
 
         this.savePresentationFile();
 
+        final int duplicatedSlideIndex = this.configuration.getSlides().indexOf(duplicatedSlide.getKey());
+        if(this.journal != null && duplicatedSlideIndex != -1) this.journal.slideInserted(duplicatedSlideIndex, duplicatedSlide.getKey());
+
         return duplicatedSlide.getKey();
     }
 
@@ -577,31 +871,69 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
 
             this.configuration.getSlides().remove(slideToMove);
 
-            final String slideHtml = this.configuration.getDocument()
-                    .getElementById(slideToMove.getId()).outerHtml();
+            final Element slideElement = this.configuration.getElementById(slideToMove.getId());
+            final String slideHtml = slideElement.outerHtml();
 
-            this.configuration.getDocument()
-                    .getElementById(slideToMove.getId())
-                    .remove();
+            slideElement.remove();
 
             if(beforeSlide == null) {
                 this.configuration.getSlides().add(slideToMove);
-                this.configuration.getDocument()
-                        .getElementById(this.templateEngine.getConfiguration().getSlidesContainer())
+                this.configuration.getElementById(this.templateEngine.getConfiguration().getSlidesContainer())
                         .append(slideHtml);
             } else {
                 int index = this.configuration.getSlides().indexOf(beforeSlide);
                 this.configuration.getSlides().add(index, slideToMove);
 
-                this.configuration.getDocument()
-                        .getElementById(beforeSlide.getId())
+                this.configuration.getElementById(beforeSlide.getId())
                         .before(slideHtml);
             }
 
+            this.configuration.invalidateDocumentIndex();
+
             this.savePresentationFile();
+            if(this.journal != null) this.journal.slideMoved(slideToMove.getId(), beforeSlide == null ? null : beforeSlide.getId());
         }
     }
 
+    /**
+     * Update the content of an element of the given slide, creating the element if it doesn't exist, and update the
+     * presentation's document.
+     * @param slide The slide containing the element.
+     * @param elementId The ID of the element to update.
+     * @param code The code corresponding to the markup syntax used to define the original content.
+     * @param originalContent The original content of the element.
+     * @param htmlContent The HTML content of the element.
+     * @return The element that has been updated.
+     * @throws java.lang.IllegalArgumentException if the slide is null
+     */
+    public SlideElement updateSlideElement(final Slide slide, final String elementId, final String code, final String originalContent, final String htmlContent) {
+        if(slide == null) throw new IllegalArgumentException("The slide can not be null");
+
+        this.setModifiedSinceLatestSave(true);
+
+        final SlideElement element = slide.updateElement(elementId, code, originalContent, htmlContent);
+        this.configuration.updateSlideInDocument(slide);
+
+        this.savePresentationFile();
+        if(this.journal != null) this.journal.elementUpdated(slide, element);
+
+        return element;
+    }
+
+    /**
+     * Replace the variables of the presentation and update all slides of the presentation's document accordingly.
+     * @param variables The new variables of the presentation.
+     */
+    public void setVariables(final Collection<Pair<String, String>> variables) {
+        this.setModifiedSinceLatestSave(true);
+
+        this.configuration.setVariables(variables);
+        this.configuration.getSlides().forEach(slide -> this.configuration.updateSlideInDocument(slide));
+
+        this.savePresentationFile();
+        if(this.journal != null) this.journal.variablesChanged(this.configuration.getVariables());
+    }
+
     /**
      * This method adds the given resource to the collection of resources present in {@link #getConfiguration()} as well
      * as in the presentation's document.
@@ -613,7 +945,7 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
                 && !resource.getContent().trim().isEmpty()) {
 
             this.setModifiedSinceLatestSave(true);
-            this.configuration.getCustomResources().add(resource);
+            if(this.configuration.getCustomResources().add(resource) && this.journal != null) this.journal.resourceAdded(resource);
 
             /*
              * All of this ensure formatting using the HTML manipulation library.
@@ -624,19 +956,32 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
 
             if(!this.configuration.getDocument().head().html().contains(resourceHtml)) {
                 this.configuration.getDocument().head().append(htmlString);
+                this.configuration.invalidateDocumentIndex();
+                if(this.presentationFileWriter != null) this.presentationFileWriter.invalidateDocument();
             }
         }
     }
 
+    /**
+     * Save the presentation's document in the {@link PresentationConfiguration#getPresentationFile() presentation file}.
+     * Only the slides that have been modified since the latest save are rendered again and the write itself is
+     * performed in the background: successive calls within a short delay result in a single write. Use
+     * {@link #flushPresentationFile()} to ensure the presentation file is up to date before reading it.
+     */
     public void savePresentationFile() {
-        try(final FileOutputStream fileOutputStream = new FileOutputStream(this.configuration.getPresentationFile());
-            final OutputStreamWriter outputStreamWriter = new OutputStreamWriter(fileOutputStream, GlobalConfiguration.getDefaultCharset());
-            final Writer writer = new BufferedWriter(outputStreamWriter)) {
-            writer.write(this.configuration.getDocument().html());
-            writer.flush();
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Can not save presentation file", e);
-        }
+        this.configuration.pollSlidesModifiedInDocument().forEach(this.presentationFileWriter::invalidateSlide);
+
+        final String slidesContainer = this.templateEngine.getConfiguration().getSlidesContainer();
+        this.presentationFileWriter.write(this.configuration.getDocument(),
+                slidesContainer == null ? null : this.configuration.getElementById(slidesContainer));
+    }
+
+    /**
+     * Ensures all pending writes of the presentation's document are performed. When this method returns, the
+     * {@link PresentationConfiguration#getPresentationFile() presentation file} is up to date.
+     */
+    public void flushPresentationFile() {
+        if(this.presentationFileWriter != null) this.presentationFileWriter.flush();
     }
 
     /**
@@ -674,13 +1019,11 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
         tokens.put(TEMPLATE_SLIDE_NUMBER_TOKEN, result.getKey().getSlideNumber());
 
         // Process the SlideElements by replacing their ID and setting their content
-        final Configuration defaultConfiguration = TemplateProcessor.getDefaultConfiguration();
         Arrays.stream(template.getElements())
             .forEach(element -> {
-                try (final StringWriter writer = new StringWriter();
-                     final StringReader reader = new StringReader(element.getHtmlId())) {
+                try (final StringWriter writer = new StringWriter()) {
 
-                    final Template elementTemplate = new Template("element template", reader, defaultConfiguration);
+                    final Template elementTemplate = TemplateProcessor.getStringTemplate(element.getHtmlId());
                     elementTemplate.process(tokens, writer);
                     writer.flush();
 
@@ -712,14 +1055,13 @@ public class PresentationEngine extends AbstractEngine<PresentationConfiguration
         }
 
         // Parsing the slide's template file
-        defaultConfiguration.setDirectoryForTemplateLoading(result.getKey().getTemplate().getFile().getParentFile());
         tokens.put(TEMPLATE_SLIDE_ID_PREFIX_TOKEN, this.templateEngine.getConfiguration().getSlideIdPrefix());
         tokens.put(TEMPLATE_SLIDE_NUMBER_TOKEN, result.getKey().getSlideNumber());
         tokens.put(TEMPLATE_SFX_CALLBACK_TOKEN, TEMPLATE_SFX_CALLBACK_CALL);
         tokens.putAll(this.configuration.getVariables().stream().collect(Collectors.toMap(Pair::getKey, Pair::getValue)));
 
         try(final StringWriter writer = new StringWriter()) {
-            final Template slideTemplate = defaultConfiguration.getTemplate(template.getFile().getName());
+            final Template slideTemplate = this.getTemplate(template.getFile());
             slideTemplate.process(tokens, writer);
             writer.flush();
 
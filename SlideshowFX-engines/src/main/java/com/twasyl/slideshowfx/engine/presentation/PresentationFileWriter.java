@@ -0,0 +1,219 @@
+package com.twasyl.slideshowfx.engine.presentation;
+
+import com.twasyl.slideshowfx.utils.io.DefaultCharsetWriter;
+import org.jsoup.nodes.Comment;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class is responsible of writing the presentation's document into the presentation file. In order to avoid
+ * serializing the whole document each time a slide is modified, the HTML of each slide is cached and only the slides
+ * that have been {@link #invalidateSlide(String) invalidated} are rendered again. The part of the document surrounding
+ * the slides container is also cached until it is {@link #invalidateDocument() invalidated}.
+ * Writes are coalesced: a call to {@link #write(Document)} schedules the write of the rendered document after a short
+ * delay and any subsequent call within this delay only replaces the content to write. A call to {@link #flush()}
+ * forces the pending content to be written immediately.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class PresentationFileWriter {
+    private static final Logger LOGGER = Logger.getLogger(PresentationFileWriter.class.getName());
+
+    /**
+     * The delay, in milliseconds, during which writes are coalesced.
+     */
+    public static final long DEFAULT_COALESCING_DELAY = 250;
+
+    private static final String SLIDES_MARKER = "sfx-slides-container";
+    private static final String RENDERED_SLIDES_MARKER = "<!--" + SLIDES_MARKER + "-->";
+
+    private static final ScheduledExecutorService WRITER_SERVICE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "PresentationFileWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File presentationFile;
+    private final String slidesContainer;
+    private final long coalescingDelay;
+
+    private final Map<String, String> renderedSlides = new HashMap<>();
+    private String renderedDocumentStart;
+    private String renderedDocumentEnd;
+
+    private List<String> pendingContent;
+    private ScheduledFuture<?> pendingWrite;
+
+    /**
+     * Creates a writer for the given presentation file.
+     * @param presentationFile The file the document will be written into.
+     * @param slidesContainer The ID of the HTML element containing all slides of the presentation.
+     */
+    public PresentationFileWriter(final File presentationFile, final String slidesContainer) {
+        this(presentationFile, slidesContainer, DEFAULT_COALESCING_DELAY);
+    }
+
+    /**
+     * Creates a writer for the given presentation file.
+     * @param presentationFile The file the document will be written into.
+     * @param slidesContainer The ID of the HTML element containing all slides of the presentation.
+     * @param coalescingDelay The delay, in milliseconds, during which writes are coalesced.
+     */
+    public PresentationFileWriter(final File presentationFile, final String slidesContainer, final long coalescingDelay) {
+        if(presentationFile == null) throw new NullPointerException("The presentation file can not be null");
+
+        this.presentationFile = presentationFile;
+        this.slidesContainer = slidesContainer;
+        this.coalescingDelay = coalescingDelay;
+    }
+
+    /**
+     * Indicates the HTML of the given slide has changed and must be rendered again on the next write.
+     * @param slideId The ID of the slide that has been modified.
+     */
+    public synchronized void invalidateSlide(final String slideId) {
+        if(slideId != null) this.renderedSlides.remove(slideId);
+    }
+
+    /**
+     * Indicates the document outside of the slides container (for instance the head) has changed and must be rendered
+     * again on the next write.
+     */
+    public synchronized void invalidateDocument() {
+        this.renderedDocumentStart = null;
+        this.renderedDocumentEnd = null;
+    }
+
+    /**
+     * Indicates the whole document must be rendered again on the next write.
+     */
+    public synchronized void invalidateAll() {
+        this.renderedSlides.clear();
+        this.invalidateDocument();
+    }
+
+    /**
+     * Renders the given document and schedules its write in the presentation file. The rendering is performed in the
+     * calling thread, only the I/O is performed in the background.
+     * @param document The document to write.
+     */
+    public synchronized void write(final Document document) {
+        this.write(document, this.slidesContainer == null ? null : document.getElementById(this.slidesContainer));
+    }
+
+    /**
+     * Renders the given document and schedules its write in the presentation file. This method avoids looking for the
+     * slides container in the document when the caller already knows it.
+     * @param document The document to write.
+     * @param container The slides container of the document. If {@code null}, the whole document is rendered.
+     * @see #write(Document)
+     */
+    public synchronized void write(final Document document, final Element container) {
+        this.pendingContent = this.render(document, container);
+
+        if(this.pendingWrite == null) {
+            this.pendingWrite = WRITER_SERVICE.schedule(this::flush, this.coalescingDelay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes immediately the pending content, if any, in the presentation file.
+     */
+    public synchronized void flush() {
+        if(this.pendingWrite != null) {
+            this.pendingWrite.cancel(false);
+            this.pendingWrite = null;
+        }
+
+        if(this.pendingContent != null) {
+            try(final Writer writer = new DefaultCharsetWriter(this.presentationFile)) {
+                for(String content : this.pendingContent) {
+                    writer.write(content);
+                }
+                writer.flush();
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Can not save presentation file", e);
+            }
+
+            this.pendingContent = null;
+        }
+    }
+
+    /**
+     * Render the given document in a list of HTML chunks that, once concatenated, represent the whole document.
+     * Chunks that are cached are reused.
+     * @param document The document to render.
+     * @param container The slides container of the document.
+     * @return The rendered document.
+     */
+    private List<String> render(final Document document, final Element container) {
+        if(container == null) {
+            return Collections.singletonList(document.html());
+        }
+
+        if(this.renderedDocumentStart == null || this.renderedDocumentEnd == null) {
+            this.renderDocument(document, container);
+        }
+
+        final List<String> chunks = new ArrayList<>(container.childNodeSize() + 2);
+        chunks.add(this.renderedDocumentStart);
+
+        for(Node child : container.childNodes()) {
+            final String html;
+
+            if(child instanceof Element && !((Element) child).id().isEmpty()) {
+                html = this.renderedSlides.computeIfAbsent(((Element) child).id(), id -> child.outerHtml());
+            } else {
+                html = child.outerHtml();
+            }
+
+            if(!html.trim().isEmpty()) {
+                chunks.add(html);
+                chunks.add("\n");
+            }
+        }
+
+        chunks.add(this.renderedDocumentEnd);
+
+        return chunks;
+    }
+
+    /**
+     * Render the part of the document that surrounds the given slides container. The slides are temporarily detached
+     * from the container in order to avoid rendering them.
+     * @param document The document to render.
+     * @param container The slides container.
+     */
+    private void renderDocument(final Document document, final Element container) {
+        final List<Node> slides = new ArrayList<>(container.childNodes());
+        slides.forEach(Node::remove);
+
+        final Comment marker = new Comment(SLIDES_MARKER, document.baseUri());
+        container.appendChild(marker);
+
+        try {
+            final String html = document.html();
+            final int markerIndex = html.indexOf(RENDERED_SLIDES_MARKER);
+
+            this.renderedDocumentStart = html.substring(0, markerIndex).concat("\n");
+            this.renderedDocumentEnd = html.substring(markerIndex + RENDERED_SLIDES_MARKER.length());
+        } finally {
+            marker.remove();
+            container.insertChildren(0, slides);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.twasyl.slideshowfx.engine.presentation;
+
+import com.twasyl.slideshowfx.engine.presentation.configuration.PresentationConfiguration;
+
+/**
+ * A snapshot of a presentation taken by {@link PresentationEngine#createSnapshot()}. The snapshot contains a
+ * {@link PresentationConfiguration#snapshot() copy} of the configuration of the presentation, so it can be saved in the
+ * background while the presentation continues to be modified. It also knows which modifications it includes, so that
+ * saving it only marks the presentation as saved if it hasn't been modified since the snapshot has been taken, and
+ * only removes from the journal of the presentation the modifications included in the snapshot.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class PresentationSnapshot {
+    private final PresentationConfiguration configuration;
+    private final long modificationCount;
+    private final long journalPosition;
+
+    PresentationSnapshot(final PresentationConfiguration configuration, final long modificationCount, final long journalPosition) {
+        this.configuration = configuration;
+        this.modificationCount = modificationCount;
+        this.journalPosition = journalPosition;
+    }
+
+    /**
+     * Get the copy of the presentation's configuration.
+     * @return The configuration of this snapshot.
+     */
+    public PresentationConfiguration getConfiguration() { return configuration; }
+
+    /**
+     * Get the number of modifications the presentation had received when this snapshot has been taken.
+     * @return The number of modifications included in this snapshot.
+     */
+    long getModificationCount() { return modificationCount; }
+
+    /**
+     * Get the position of the journal of the presentation when this snapshot has been taken.
+     * @return The position of the journal or {@code -1} if the presentation had no journal.
+     */
+    long getJournalPosition() { return journalPosition; }
+}
@@ -18,16 +18,21 @@ public class Presentations {
      * Register a given {@link PresentationEngine presentation} as opened.
      * @param presentation The presentation to register.
      */
-    public static void register(final PresentationEngine presentation) {
+    public static synchronized void register(final PresentationEngine presentation) {
         openedPresentations.add(presentation);
     }
 
     /**
-     * Unregister a given {@link PresentationEngine presentation}.
+     * Unregister a given {@link PresentationEngine presentation}. If it is the presentation considered as displayed, no
+     * presentation is considered as displayed anymore.
      * @param presentationEngine The presentation to unregister.
      */
-    public static void unregister(final PresentationEngine presentationEngine) {
+    public static synchronized void unregister(final PresentationEngine presentationEngine) {
+        openedPresentations.remove(presentationEngine);
 
+        if(currentDisplayedPresentation == presentationEngine) {
+            currentDisplayedPresentation = null;
+        }
     }
 
     /**
@@ -0,0 +1,312 @@
+package com.twasyl.slideshowfx.engine.presentation.configuration;
+
+import com.twasyl.slideshowfx.content.extension.Resource;
+import com.twasyl.slideshowfx.content.extension.ResourceType;
+import com.twasyl.slideshowfx.engine.template.configuration.SlideElementTemplate;
+import com.twasyl.slideshowfx.engine.template.configuration.SlideTemplate;
+import com.twasyl.slideshowfx.engine.template.configuration.TemplateConfiguration;
+import com.twasyl.slideshowfx.utils.beans.Pair;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class reads and writes a {@link PresentationConfiguration} in a compact binary format. Compared to the JSON
+ * format, contents are stored as length-prefixed UTF-8 instead of Base64 and the strings repeated across elements and
+ * resources, like content codes and resource types, are stored once in a string table.
+ * When a configuration is read from a file, the file is mapped in memory and the contents of the slide elements are
+ * only decoded when they are requested. Contents that are never requested are written back without being decoded.
+ * <p>
+ * The format is, all integers being written in big-endian:
+ * <pre>
+ * magic (int) version (short)
+ * string table: count (int) then strings
+ * presentation ID (long)
+ * custom resources: count (int) then type (string table index) and content (string)
+ * variables: count (int) then name (string) and value (string)
+ * slides: count (int) then template ID (int), ID (string), number (string) and elements: count (int) then template ID (int),
+ *         ID (string), original content code (string table index), original content (string) and HTML content (string)
+ * </pre>
+ * A string is its length in bytes (int), {@code -1} for {@code null}, followed by its UTF-8 bytes. A missing template
+ * ID or string table index is written as {@code -1}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class BinaryPresentationConfiguration {
+    /**
+     * The first bytes of a binary configuration, corresponding to {@code SFXC}.
+     */
+    public static final int MAGIC = 0x53465843;
+    /**
+     * The version of the format written by this class.
+     */
+    public static final short VERSION = 1;
+    /**
+     * Indicates if the application runs on Windows, where a file mapped in memory can not be replaced.
+     */
+    private static final boolean WINDOWS = System.getProperty("os.name", "").toLowerCase().startsWith("windows");
+
+    /**
+     * Indicates if the given file contains a binary configuration.
+     * @param file The file to check.
+     * @return {@code true} if the file starts with the {@link #MAGIC magic} of binary configurations, {@code false} otherwise.
+     * @throws IOException If the file can not be read.
+     */
+    public static boolean isBinary(final File file) throws IOException {
+        try(final DataInputStream input = new DataInputStream(new FileInputStream(file))) {
+            return file.length() >= 4 && input.readInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Indicates if the given stream contains a binary configuration. The stream must support {@link InputStream#mark(int)}
+     * and is reset to its current position.
+     * @param stream The stream to check.
+     * @return {@code true} if the stream starts with the {@link #MAGIC magic} of binary configurations, {@code false} otherwise.
+     * @throws IOException If the stream can not be read.
+     */
+    public static boolean isBinary(final InputStream stream) throws IOException {
+        if(!stream.markSupported()) throw new IllegalArgumentException("The stream must support mark");
+
+        stream.mark(4);
+        try {
+            final byte[] magic = new byte[4];
+            int read = 0, length;
+            while(read < magic.length && (length = stream.read(magic, read, magic.length - read)) != -1) read += length;
+
+            return read == magic.length && ByteBuffer.wrap(magic).getInt() == MAGIC;
+        } finally {
+            stream.reset();
+        }
+    }
+
+    /**
+     * Reads the configuration from the given file. The file is mapped in memory and must not be modified afterwards:
+     * {@link #write(PresentationConfiguration, File)} replaces the file instead of modifying it. On Windows, where a
+     * mapped file can not be replaced, the file is read in a direct buffer instead.
+     * @param file The file to read.
+     * @param templateConfiguration The configuration of the template of the presentation, used to find slide templates.
+     * @return The configuration read from the file.
+     * @throws IOException If the file can not be read or is not a valid binary configuration.
+     */
+    public static PresentationConfiguration read(final File file, final TemplateConfiguration templateConfiguration) throws IOException {
+        if(file == null) throw new NullPointerException("The file can not be null");
+
+        try(final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            if(channel.size() > Integer.MAX_VALUE) throw new IOException("The configuration is too large");
+
+            final ByteBuffer buffer;
+            if(WINDOWS) {
+                buffer = ByteBuffer.allocateDirect((int) channel.size());
+                while(buffer.hasRemaining()) {
+                    if(channel.read(buffer) < 0) throw new EOFException("Unexpected end of configuration");
+                }
+                buffer.flip();
+            } else {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+
+            return read(buffer, templateConfiguration);
+        }
+    }
+
+    /**
+     * Reads the configuration from the given stream. The stream is not closed by this method.
+     * @param stream The stream to read.
+     * @param templateConfiguration The configuration of the template of the presentation, used to find slide templates.
+     * @return The configuration read from the stream.
+     * @throws IOException If the stream can not be read or is not a valid binary configuration.
+     */
+    public static PresentationConfiguration read(final InputStream stream, final TemplateConfiguration templateConfiguration) throws IOException {
+        if(stream == null) throw new NullPointerException("The stream can not be null");
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int length;
+        while((length = stream.read(buffer)) != -1) content.write(buffer, 0, length);
+
+        return read(ByteBuffer.wrap(content.toByteArray()), templateConfiguration);
+    }
+
+    private static PresentationConfiguration read(final ByteBuffer buffer, final TemplateConfiguration templateConfiguration) throws IOException {
+        if(templateConfiguration == null) throw new NullPointerException("The template configuration can not be null");
+
+        try {
+            if(buffer.getInt() != MAGIC) throw new IOException("The configuration is not a binary configuration");
+
+            final short version = buffer.getShort();
+            if(version > VERSION) throw new IOException("Unsupported configuration version: " + version);
+
+            final String[] strings = new String[buffer.getInt()];
+            for(int index = 0; index < strings.length; index++) strings[index] = readString(buffer);
+
+            final PresentationConfiguration configuration = new PresentationConfiguration();
+            configuration.setId(buffer.getLong());
+
+            for(int count = buffer.getInt(); count > 0; count--) {
+                final ResourceType type = ResourceType.valueOf(readTableString(buffer, strings));
+                configuration.getCustomResources().add(new Resource(type, readString(buffer)));
+            }
+
+            for(int count = buffer.getInt(); count > 0; count--) {
+                final Pair<String, String> variable = new Pair<>();
+                variable.setKey(readString(buffer));
+                variable.setValue(readString(buffer));
+                configuration.getVariables().add(variable);
+            }
+
+            final int slidesCount = buffer.getInt();
+            final List<Slide> slides = new ArrayList<>(slidesCount);
+
+            for(int slideIndex = 0; slideIndex < slidesCount; slideIndex++) {
+                final Slide slide = new Slide();
+                final int templateId = buffer.getInt();
+                slide.setTemplate(templateId == -1 ? null : templateConfiguration.getSlideTemplate(templateId));
+                slide.setId(readString(buffer));
+                slide.setSlideNumber(readString(buffer));
+
+                for(int count = buffer.getInt(); count > 0; count--) {
+                    final SlideElement element = new SlideElement();
+                    final int elementTemplateId = buffer.getInt();
+                    element.setTemplate(elementTemplateId == -1 || slide.getTemplate() == null ? null :
+                            slide.getTemplate().getSlideElementTemplate(elementTemplateId));
+                    element.setId(readString(buffer));
+                    element.setOriginalContentCode(readTableString(buffer, strings));
+
+                    final EncodedText originalContent = readEncodedText(buffer);
+                    if(originalContent != null) element.setEncodedOriginalContent(originalContent);
+
+                    final EncodedText htmlContent = readEncodedText(buffer);
+                    if(htmlContent != null) element.setEncodedHtmlContent(htmlContent);
+
+                    slide.getElements().add(element);
+                }
+
+                slides.add(slide);
+            }
+
+            configuration.setSlides(slides);
+            return configuration;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("The binary configuration is corrupted", e);
+        }
+    }
+
+    /**
+     * Writes the given configuration in the given file. The configuration is written in a temporary file that then
+     * replaces the given file, so that a configuration that was read from the file, and which contents may not have
+     * been decoded yet, stays valid.
+     * @param configuration The configuration to write.
+     * @param file The file to write the configuration in.
+     * @throws IOException If the configuration can not be written.
+     */
+    public static void write(final PresentationConfiguration configuration, final File file) throws IOException {
+        if(configuration == null) throw new NullPointerException("The configuration can not be null");
+        if(file == null) throw new NullPointerException("The file can not be null");
+
+        final Map<String, Integer> stringTable = new LinkedHashMap<>();
+        configuration.getCustomResources().forEach(resource -> stringTable.putIfAbsent(resource.getType().name(), stringTable.size()));
+        configuration.getSlides().forEach(slide -> slide.getElements().stream()
+                .filter(element -> element.getOriginalContentCode() != null)
+                .forEach(element -> stringTable.putIfAbsent(element.getOriginalContentCode(), stringTable.size())));
+
+        final File temporaryFile = File.createTempFile(file.getName(), ".tmp", file.getAbsoluteFile().getParentFile());
+
+        try {
+            try(final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporaryFile)))) {
+                output.writeInt(MAGIC);
+                output.writeShort(VERSION);
+
+                output.writeInt(stringTable.size());
+                for(String string : stringTable.keySet()) writeString(output, string);
+
+                output.writeLong(configuration.getId());
+
+                output.writeInt(configuration.getCustomResources().size());
+                for(Resource resource : configuration.getCustomResources()) {
+                    output.writeInt(stringTable.get(resource.getType().name()));
+                    writeString(output, resource.getContent());
+                }
+
+                output.writeInt(configuration.getVariables().size());
+                for(Pair<String, String> variable : configuration.getVariables()) {
+                    writeString(output, variable.getKey());
+                    writeString(output, variable.getValue());
+                }
+
+                output.writeInt(configuration.getSlides().size());
+                for(Slide slide : configuration.getSlides()) {
+                    final SlideTemplate template = slide.getTemplate();
+                    output.writeInt(template == null ? -1 : template.getId());
+                    writeString(output, slide.getId());
+                    writeString(output, slide.getSlideNumber());
+
+                    output.writeInt(slide.getElements().size());
+                    for(SlideElement element : slide.getElements()) {
+                        final SlideElementTemplate elementTemplate = element.getTemplate();
+                        output.writeInt(elementTemplate == null ? -1 : elementTemplate.getId());
+                        writeString(output, element.getId());
+                        output.writeInt(element.getOriginalContentCode() == null ? -1 : stringTable.get(element.getOriginalContentCode()));
+
+                        final EncodedText originalContent = element.getEncodedOriginalContent();
+                        if(originalContent != null) originalContent.writeTo(output);
+                        else writeString(output, element.getOriginalContent());
+
+                        final EncodedText htmlContent = element.getEncodedHtmlContent();
+                        if(htmlContent != null) htmlContent.writeTo(output);
+                        else writeString(output, element.getHtmlContent());
+                    }
+                }
+            }
+
+            Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaryFile.toPath());
+        }
+    }
+
+    static void writeString(final DataOutput output, final String value) throws IOException {
+        if(value == null) {
+            output.writeInt(-1);
+        } else {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    private static EncodedText readEncodedText(final ByteBuffer buffer) throws IOException {
+        final int length = buffer.getInt();
+        if(length == -1) return null;
+        if(length < 0 || length > buffer.remaining()) throw new IOException("Invalid string length: " + length);
+
+        final EncodedText text = new EncodedText(buffer, buffer.position(), length);
+        buffer.position(buffer.position() + length);
+        return text;
+    }
+
+    static String readString(final ByteBuffer buffer) throws IOException {
+        final EncodedText text = readEncodedText(buffer);
+        return text == null ? null : text.decode();
+    }
+
+    private static String readTableString(final ByteBuffer buffer, final String[] strings) throws IOException {
+        final int index = buffer.getInt();
+        if(index == -1) return null;
+        if(index < 0 || index >= strings.length) throw new IOException("Invalid string table index: " + index);
+
+        return strings[index];
+    }
+}
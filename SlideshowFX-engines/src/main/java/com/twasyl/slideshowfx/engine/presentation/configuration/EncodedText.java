@@ -0,0 +1,55 @@
+package com.twasyl.slideshowfx.engine.presentation.configuration;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A text encoded in UTF-8 in a portion of a buffer, typically a configuration file mapped in memory. The text is only
+ * decoded when {@link #decode()} is called, and can be written again without being decoded at all.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+final class EncodedText {
+    private final ByteBuffer buffer;
+    private final int offset;
+    private final int length;
+
+    EncodedText(final ByteBuffer buffer, final int offset, final int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Decodes the text.
+     * @return The decoded text.
+     */
+    String decode() {
+        return StandardCharsets.UTF_8.decode(this.slice()).toString();
+    }
+
+    /**
+     * Writes the length of the encoded text followed by its bytes.
+     * @param output The output to write the text in.
+     * @throws IOException If the text can not be written.
+     */
+    void writeTo(final DataOutput output) throws IOException {
+        final ByteBuffer slice = this.slice();
+        final byte[] bytes = new byte[this.length];
+        slice.get(bytes);
+
+        output.writeInt(this.length);
+        output.write(bytes);
+    }
+
+    private ByteBuffer slice() {
+        // The buffer is duplicated so that texts can be decoded concurrently
+        final ByteBuffer slice = this.buffer.duplicate();
+        slice.limit(this.offset + this.length).position(this.offset);
+        return slice;
+    }
+}
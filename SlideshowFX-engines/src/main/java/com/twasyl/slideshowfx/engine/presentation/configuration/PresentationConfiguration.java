@@ -5,6 +5,7 @@ import com.twasyl.slideshowfx.engine.IConfiguration;
 import com.twasyl.slideshowfx.utils.beans.Pair;
 import javafx.scene.image.Image;
 import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
 
 import java.io.File;
 import java.util.*;
@@ -22,7 +23,10 @@ public class PresentationConfiguration implements IConfiguration {
     private File presentationFile;
     private Set<Resource> customResources = new LinkedHashSet<>();
     private Set<Pair<String, String>> variables = new LinkedHashSet<>();
-    private List<Slide> slides = new ArrayList<>();
+    private final SlideList slides = new SlideList();
+    private final Set<String> slidesModifiedInDocument = new HashSet<>();
+    private final Map<String, Element> documentElementsById = new HashMap<>();
+    private boolean documentElementsIndexed = false;
 
     public long getId() { return id; }
     public void setId(long id) { this.id = id; }
@@ -30,14 +34,121 @@ public class PresentationConfiguration implements IConfiguration {
     public File getPresentationFile() { return presentationFile; }
     public void setPresentationFile(File presentationFile) { this.presentationFile = presentationFile; }
 
+    /**
+     * Get the slides of the presentation. The returned list is indexed, so {@link List#indexOf(Object)} and
+     * {@link List#contains(Object)} don't depend on the number of slides.
+     * @return The slides of the presentation.
+     */
     public List<Slide> getSlides() { return slides; }
-    public void setSlides(List<Slide> slides) { this.slides = slides; }
+    public void setSlides(List<Slide> slides) {
+        this.slides.clear();
+        this.slides.addAll(slides);
+    }
 
     public Document getDocument() { return document; }
-    public void setDocument(Document document) { this.document = document; }
+    public void setDocument(Document document) {
+        this.document = document;
+        this.invalidateDocumentIndex();
+    }
+
+    /**
+     * Get the element of the {@link #getDocument() document} having the given ID. Contrary to
+     * {@link Document#getElementById(String)}, the document is not traversed on each call: elements are indexed by
+     * their ID. The index must be {@link #invalidateDocumentIndex() invalidated} when the structure of the document
+     * is modified, for instance when a slide is added or removed. An element found in an outdated index is only
+     * returned if it still belongs to the document and has the given ID, otherwise the index is built again. An ID
+     * missing from an index that hasn't been invalidated is not looked up in the document.
+     * @param id The ID of the element to look for.
+     * @return The element or {@code null} if the document doesn't contain any element with the given ID.
+     * @throws NullPointerException If the ID is {@code null}.
+     */
+    public synchronized Element getElementById(final String id) {
+        if(id == null) throw new NullPointerException("The ID can not be null");
+        if(this.document == null) return null;
+
+        boolean indexBuilt = false;
+
+        if(!this.documentElementsIndexed) {
+            this.indexDocument();
+            indexBuilt = true;
+        }
+
+        Element element = this.documentElementsById.get(id);
+
+        if(!indexBuilt && element != null && (!id.equals(element.id()) || element.ownerDocument() != this.document)) {
+            // The document has been modified without the index being invalidated
+            this.indexDocument();
+            element = this.documentElementsById.get(id);
+        }
+
+        return element;
+    }
+
+    /**
+     * Indicates the structure of the {@link #getDocument() document} has changed and that elements must be indexed
+     * again on the next call to {@link #getElementById(String)}.
+     */
+    public synchronized void invalidateDocumentIndex() {
+        this.documentElementsById.clear();
+        this.documentElementsIndexed = false;
+    }
+
+    /**
+     * Indexes the descendants of the given element, which content has been replaced. The rest of the document doesn't
+     * need to be indexed again.
+     */
+    private synchronized void indexElements(final Element root) {
+        if(!this.documentElementsIndexed) return;
+
+        for(Element element : root.getAllElements()) {
+            if(element.id().isEmpty()) continue;
+
+            final Element indexed = this.documentElementsById.get(element.id());
+            if(indexed == null || indexed.ownerDocument() != this.document) this.documentElementsById.put(element.id(), element);
+        }
+    }
+
+    private void indexDocument() {
+        this.documentElementsById.clear();
+
+        for(Element element : this.document.getAllElements()) {
+            if(!element.id().isEmpty()) this.documentElementsById.putIfAbsent(element.id(), element);
+        }
+
+        this.documentElementsIndexed = true;
+    }
 
     public Set<Resource> getCustomResources() { return customResources; }
 
+    /**
+     * Get the IDs of the slides that have been updated in the {@link #getDocument() document} since the latest call to
+     * this method. Once returned, the IDs are forgotten.
+     * @return The IDs of the slides modified in the document.
+     */
+    public Set<String> pollSlidesModifiedInDocument() {
+        final Set<String> modifiedSlides = new HashSet<>(this.slidesModifiedInDocument);
+        this.slidesModifiedInDocument.clear();
+        return modifiedSlides;
+    }
+
+    /**
+     * Creates a snapshot of this configuration that can be saved while this configuration continues to be modified.
+     * Slides, elements, resources and variables are copied but their contents, which are immutable, are shared with
+     * this configuration. The {@link #getDocument() document} is not part of the snapshot.
+     * @return The snapshot of this configuration.
+     */
+    public PresentationConfiguration snapshot() {
+        final PresentationConfiguration snapshot = new PresentationConfiguration();
+        snapshot.id = this.id;
+        snapshot.presentationFile = this.presentationFile;
+
+        this.customResources.forEach(resource -> snapshot.customResources.add(new Resource(resource.getType(), resource.getContent())));
+        this.variables.forEach(variable -> snapshot.variables.add(new Pair<>(variable.getKey(), variable.getValue())));
+        this.slides.forEach(slide -> snapshot.slides.add(slide.copy()));
+
+        return snapshot;
+    }
+
     public Set<Pair<String, String>> getVariables() { return this.variables; }
     public void setVariables(Collection<Pair<String, String>> variables) {
         this.variables.clear();
@@ -53,12 +164,10 @@ public class PresentationConfiguration implements IConfiguration {
     public void updateSlideThumbnail(String slideNumber, Image image) {
         if(slideNumber == null) throw new IllegalArgumentException("The slide number can not be null");
 
-        for (Slide s : getSlides()) {
-            if (slideNumber.equals(s.getSlideNumber())) {
-                s.setThumbnail(image);
-                LOGGER.finest("Slide's thumbnail updated");
-                break;
-            }
+        final Slide slide = this.slides.getByNumber(slideNumber);
+        if(slide != null) {
+            slide.setThumbnail(image);
+            LOGGER.finest("Slide's thumbnail updated");
         }
     }
 
@@ -68,15 +177,9 @@ public class PresentationConfiguration implements IConfiguration {
      * @return The slide or null if not found.
      */
     public Slide getSlideByNumber(String slideNumber) {
-        Slide slide = null;
+        if(slideNumber == null) throw new NullPointerException("The slide number can not be null");
 
-        Optional<Slide> slideOpt = slides.stream()
-                .filter(s -> slideNumber.equals(s.getSlideNumber()))
-                .findFirst();
-
-        if(slideOpt.isPresent()) slide = slideOpt.get();
-
-        return slide;
+        return this.slides.getByNumber(slideNumber);
     }
 
     /**
@@ -85,15 +188,9 @@ public class PresentationConfiguration implements IConfiguration {
      * @return The slide or null if not found.
      */
     public Slide getSlideById(String id) {
-        Slide slide = null;
-
-        Optional<Slide> slideOpt = slides.stream()
-                .filter(s -> id.equals(s.getId()))
-                .findFirst();
-
-        if(slideOpt.isPresent()) slide = slideOpt.get();
+        if(id == null) throw new NullPointerException("The ID of the slide can not be null");
 
-        return slide;
+        return this.slides.getById(id);
     }
 
     /**
@@ -129,18 +226,11 @@ public class PresentationConfiguration implements IConfiguration {
     public Slide getSlideBefore(final String slideNumber) {
         Slide slide = null;
 
-        if(!this.slides.isEmpty()) {
-            int index = 0;
-
-            while(slide == null && index < this.slides.size()) {
-                final Slide currentSlide = this.slides.get(index);
+        final Slide currentSlide = this.slides.getByNumber(slideNumber);
 
-                if(currentSlide.getSlideNumber().equals(slideNumber)) {
-                    if (index != 0) slide = this.slides.get(index - 1);
-                    break;
-                }
-                index++;
-            }
+        if(currentSlide != null) {
+            final int index = this.slides.indexOf(currentSlide);
+            if(index > 0) slide = this.slides.get(index - 1);
         }
 
         return slide;
@@ -161,7 +251,12 @@ public class PresentationConfiguration implements IConfiguration {
 
         slide.getElements()
                 .stream()
-                .forEach(element -> this.document.getElementById(element.getId())
-                                                 .html(element.getClearedHtmlContent(this.variables)));
+                .forEach(element -> {
+                    final Element htmlElement = this.getElementById(element.getId());
+                    htmlElement.html(element.getClearedHtmlContent(this.variables));
+                    this.indexElements(htmlElement);
+                });
+
+        this.slidesModifiedInDocument.add(slide.getId());
     }
 }
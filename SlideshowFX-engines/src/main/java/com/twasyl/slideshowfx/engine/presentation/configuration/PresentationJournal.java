@@ -0,0 +1,613 @@
+package com.twasyl.slideshowfx.engine.presentation.configuration;
+
+import com.twasyl.slideshowfx.content.extension.Resource;
+import com.twasyl.slideshowfx.content.extension.ResourceType;
+import com.twasyl.slideshowfx.engine.template.configuration.SlideElementTemplate;
+import com.twasyl.slideshowfx.engine.template.configuration.SlideTemplate;
+import com.twasyl.slideshowfx.engine.template.configuration.TemplateConfiguration;
+import com.twasyl.slideshowfx.global.configuration.GlobalConfiguration;
+import com.twasyl.slideshowfx.utils.beans.Pair;
+
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only journal of the modifications made to a presentation since it has been saved in its archive. If the
+ * application stops before the presentation is saved, the modifications are {@link #replay(PresentationConfiguration, TemplateConfiguration) replayed}
+ * the next time the archive is opened.
+ * <p>
+ * Records describe the state resulting from a modification (the inserted slide, the new content of an element, ...)
+ * rather than the operation itself, so replaying them doesn't depend on templates being processed the same way.
+ * Records are serialized by the thread making the modification and written in the background: all records appended
+ * while the previous ones are being written are written together and followed by a single {@code fsync}. When the
+ * presentation is saved, the records included in the archive are {@link #compact(long, File) removed} from the
+ * journal, which is deleted once empty.
+ * <p>
+ * Replaying a record is idempotent: a slide or a resource already present in the presentation is not added again, and
+ * other records set a state rather than changing it. So records that are still in the journal but already saved in the
+ * archive, because the application stopped or the compaction failed right after the archive has been written, leave
+ * the presentation unchanged when they are replayed.
+ * <p>
+ * The format is, all integers being written in big-endian, a header made of the magic (int), the version (short) and
+ * the absolute path of the archive (string), followed by records made of the length of the payload (int), the CRC32 of
+ * the payload (int) and the payload, starting with the type of the record (byte). Strings are written like in the
+ * {@link BinaryPresentationConfiguration binary configuration}. A truncated or corrupted record, typically written
+ * when the application crashed, ends the journal.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class PresentationJournal {
+    private static final Logger LOGGER = Logger.getLogger(PresentationJournal.class.getName());
+
+    /**
+     * The first bytes of a journal, corresponding to {@code SFXJ}.
+     */
+    public static final int MAGIC = 0x5346584A;
+    /**
+     * The version of the format written by this class.
+     */
+    public static final short VERSION = 1;
+    /**
+     * The directory containing the journals of all presentations.
+     */
+    public static final File JOURNALS_DIRECTORY = new File(GlobalConfiguration.APPLICATION_DIRECTORY, "journals");
+
+    private static final byte SLIDE_INSERTED = 1;
+    private static final byte SLIDE_DELETED = 2;
+    private static final byte SLIDE_MOVED = 3;
+    private static final byte ELEMENT_UPDATED = 4;
+    private static final byte VARIABLES_CHANGED = 5;
+    private static final byte RESOURCE_ADDED = 6;
+
+    private static final int RECORD_HEADER_LENGTH = 8;
+
+    private static final ExecutorService WRITER_SERVICE = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "PresentationJournal-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long presentationId;
+
+    /*
+     * Positions are logical: they are the number of bytes of records appended since the journal has been opened,
+     * including the records that were recovered. They don't change when the journal is compacted.
+     */
+    private final List<ByteBuffer> pendingRecords = new ArrayList<>();
+    private long appendedPosition = 0;
+    private boolean writeScheduled = false;
+    private boolean deleted = false;
+    private List<ByteBuffer> recoveredRecords = Collections.emptyList();
+
+    private final Object ioLock = new Object();
+    private File file;
+    private File archive;
+    private FileChannel channel;
+    private int headerLength;
+    private long baseOffset = 0;
+    private long writtenPosition = 0;
+
+    private PresentationJournal(final long presentationId, final File archive) {
+        this.presentationId = presentationId;
+        this.archive = archive;
+        this.file = getJournalFile(presentationId, archive);
+    }
+
+    /**
+     * Get the file of the journal of the given presentation saved in the given archive.
+     * @param presentationId The ID of the presentation.
+     * @param archive The archive of the presentation.
+     * @return The file of the journal.
+     * @throws NullPointerException If the archive is {@code null}.
+     */
+    public static File getJournalFile(final long presentationId, final File archive) {
+        if(archive == null) throw new NullPointerException("The archive can not be null");
+
+        final String name = String.format("%1$d-%2$08x.journal", presentationId, archive.getAbsolutePath().hashCode());
+        return new File(JOURNALS_DIRECTORY, name);
+    }
+
+    /**
+     * Opens the journal of the given presentation saved in the given archive. If the journal exists, its records are
+     * recovered and can be {@link #replay(PresentationConfiguration, TemplateConfiguration) replayed}. A truncated or
+     * corrupted record ends the journal, and is removed from it.
+     * @param presentationId The ID of the presentation.
+     * @param archive The archive of the presentation.
+     * @return The journal of the presentation.
+     * @throws IOException If the journal exists but can not be read.
+     * @throws NullPointerException If the archive is {@code null}.
+     */
+    public static PresentationJournal open(final long presentationId, final File archive) throws IOException {
+        final PresentationJournal journal = new PresentationJournal(presentationId, archive);
+        if(journal.file.exists()) journal.recover();
+
+        return journal;
+    }
+
+    /**
+     * Creates an empty journal for the given presentation saved in the given archive. An existing journal is deleted.
+     * @param presentationId The ID of the presentation.
+     * @param archive The archive of the presentation.
+     * @return The journal of the presentation.
+     * @throws IOException If an existing journal can not be deleted.
+     * @throws NullPointerException If the archive is {@code null}.
+     */
+    public static PresentationJournal create(final long presentationId, final File archive) throws IOException {
+        final PresentationJournal journal = new PresentationJournal(presentationId, archive);
+        Files.deleteIfExists(journal.file.toPath());
+
+        return journal;
+    }
+
+    private void recover() throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(this.file.toPath()));
+
+        try {
+            if(buffer.getInt() != MAGIC || buffer.getShort() > VERSION
+                    || !this.archive.getAbsolutePath().equals(BinaryPresentationConfiguration.readString(buffer))) {
+                LOGGER.log(Level.INFO, "Ignoring the journal " + this.file.getAbsolutePath() + " which doesn't belong to " + this.archive.getAbsolutePath());
+                Files.deleteIfExists(this.file.toPath());
+                return;
+            }
+        } catch (BufferUnderflowException | IOException e) {
+            LOGGER.log(Level.INFO, "Ignoring the corrupted journal " + this.file.getAbsolutePath(), e);
+            Files.deleteIfExists(this.file.toPath());
+            return;
+        }
+
+        this.headerLength = buffer.position();
+        final List<ByteBuffer> records = new ArrayList<>();
+        final CRC32 crc = new CRC32();
+
+        while(buffer.remaining() >= RECORD_HEADER_LENGTH) {
+            final int length = buffer.getInt();
+            final int checksum = buffer.getInt();
+            if(length <= 0 || length > buffer.remaining()) break;
+
+            final ByteBuffer payload = buffer.slice();
+            payload.limit(length);
+
+            crc.reset();
+            crc.update(payload.duplicate());
+            if((int) crc.getValue() != checksum) break;
+
+            records.add(payload);
+            buffer.position(buffer.position() + length);
+        }
+
+        final int validLength = this.headerLength + records.stream().mapToInt(record -> RECORD_HEADER_LENGTH + record.limit()).sum();
+        if(validLength < buffer.limit()) {
+            LOGGER.log(Level.WARNING, "Removing the incomplete end of the journal " + this.file.getAbsolutePath());
+
+            try(final FileChannel truncated = FileChannel.open(this.file.toPath(), StandardOpenOption.WRITE)) {
+                truncated.truncate(validLength);
+                truncated.force(false);
+            }
+        }
+
+        this.recoveredRecords = records;
+        this.appendedPosition = validLength - this.headerLength;
+        this.writtenPosition = this.appendedPosition;
+    }
+
+    /**
+     * Applies the records recovered when the journal has been opened to the given configuration. The records are
+     * replayed only once. Records already applied to the configuration, for instance because they have been saved in
+     * the archive before the journal could be compacted, don't modify it again.
+     * @param configuration The configuration read from the archive.
+     * @param templateConfiguration The configuration of the template of the presentation.
+     * @return The number of records that have been replayed.
+     * @throws IOException If a record can not be replayed.
+     */
+    public int replay(final PresentationConfiguration configuration, final TemplateConfiguration templateConfiguration) throws IOException {
+        if(configuration == null) throw new NullPointerException("The configuration can not be null");
+        if(templateConfiguration == null) throw new NullPointerException("The template configuration can not be null");
+
+        final List<ByteBuffer> records = this.recoveredRecords;
+        this.recoveredRecords = Collections.emptyList();
+
+        try {
+            for(ByteBuffer record : records) {
+                this.replay(record, configuration, templateConfiguration);
+            }
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("The journal is corrupted", e);
+        }
+
+        return records.size();
+    }
+
+    private void replay(final ByteBuffer record, final PresentationConfiguration configuration, final TemplateConfiguration templateConfiguration) throws IOException {
+        final byte type = record.get();
+
+        switch(type) {
+            case SLIDE_INSERTED:
+                final int index = record.getInt();
+                final Slide slide = readSlide(record, templateConfiguration);
+
+                // The slide is already in the archive if it has been saved before the journal has been compacted
+                if(slide.getId() == null || configuration.getSlideById(slide.getId()) == null) {
+                    configuration.getSlides().add(Math.min(Math.max(index, 0), configuration.getSlides().size()), slide);
+                }
+                break;
+            case SLIDE_DELETED:
+                final Slide deletedSlide = configuration.getSlideById(BinaryPresentationConfiguration.readString(record));
+                if(deletedSlide != null) configuration.getSlides().remove(deletedSlide);
+                break;
+            case SLIDE_MOVED:
+                final Slide movedSlide = configuration.getSlideById(BinaryPresentationConfiguration.readString(record));
+                final String beforeSlideId = BinaryPresentationConfiguration.readString(record);
+
+                if(movedSlide != null) {
+                    configuration.getSlides().remove(movedSlide);
+
+                    final Slide beforeSlide = beforeSlideId == null ? null : configuration.getSlideById(beforeSlideId);
+                    if(beforeSlide == null) configuration.getSlides().add(movedSlide);
+                    else configuration.getSlides().add(configuration.getSlides().indexOf(beforeSlide), movedSlide);
+                }
+                break;
+            case ELEMENT_UPDATED:
+                final Slide updatedSlide = configuration.getSlideById(BinaryPresentationConfiguration.readString(record));
+                final String elementId = BinaryPresentationConfiguration.readString(record);
+                final String code = BinaryPresentationConfiguration.readString(record);
+                final String originalContent = BinaryPresentationConfiguration.readString(record);
+                final String htmlContent = BinaryPresentationConfiguration.readString(record);
+
+                if(updatedSlide != null) updatedSlide.updateElement(elementId, code, originalContent, htmlContent);
+                break;
+            case VARIABLES_CHANGED:
+                final List<Pair<String, String>> variables = new ArrayList<>();
+                for(int count = record.getInt(); count > 0; count--) {
+                    variables.add(new Pair<>(BinaryPresentationConfiguration.readString(record), BinaryPresentationConfiguration.readString(record)));
+                }
+                configuration.setVariables(variables);
+                break;
+            case RESOURCE_ADDED:
+                final ResourceType resourceType = ResourceType.valueOf(BinaryPresentationConfiguration.readString(record));
+                final String resourceContent = BinaryPresentationConfiguration.readString(record);
+                final boolean resourceExists = configuration.getCustomResources().stream()
+                        .anyMatch(resource -> resource.getType() == resourceType && Objects.equals(resource.getContent(), resourceContent));
+
+                if(!resourceExists) configuration.getCustomResources().add(new Resource(resourceType, resourceContent));
+                break;
+            default:
+                throw new IOException("Unknown journal record: " + type);
+        }
+    }
+
+    private static Slide readSlide(final ByteBuffer record, final TemplateConfiguration templateConfiguration) throws IOException {
+        final Slide slide = new Slide();
+        final int templateId = record.getInt();
+        slide.setTemplate(templateId == -1 ? null : templateConfiguration.getSlideTemplate(templateId));
+        slide.setId(BinaryPresentationConfiguration.readString(record));
+        slide.setSlideNumber(BinaryPresentationConfiguration.readString(record));
+
+        for(int count = record.getInt(); count > 0; count--) {
+            final SlideElement element = new SlideElement();
+            final int elementTemplateId = record.getInt();
+            element.setTemplate(elementTemplateId == -1 || slide.getTemplate() == null ? null :
+                    slide.getTemplate().getSlideElementTemplate(elementTemplateId));
+            element.setId(BinaryPresentationConfiguration.readString(record));
+            element.setOriginalContentCode(BinaryPresentationConfiguration.readString(record));
+            element.setOriginalContent(BinaryPresentationConfiguration.readString(record));
+            element.setHtmlContent(BinaryPresentationConfiguration.readString(record));
+
+            slide.getElements().add(element);
+        }
+
+        return slide;
+    }
+
+    private static void writeSlide(final DataOutput output, final Slide slide) throws IOException {
+        final SlideTemplate template = slide.getTemplate();
+        output.writeInt(template == null ? -1 : template.getId());
+        BinaryPresentationConfiguration.writeString(output, slide.getId());
+        BinaryPresentationConfiguration.writeString(output, slide.getSlideNumber());
+
+        output.writeInt(slide.getElements().size());
+        for(SlideElement element : slide.getElements()) {
+            final SlideElementTemplate elementTemplate = element.getTemplate();
+            output.writeInt(elementTemplate == null ? -1 : elementTemplate.getId());
+            BinaryPresentationConfiguration.writeString(output, element.getId());
+            BinaryPresentationConfiguration.writeString(output, element.getOriginalContentCode());
+            BinaryPresentationConfiguration.writeString(output, element.getOriginalContent());
+            BinaryPresentationConfiguration.writeString(output, element.getHtmlContent());
+        }
+    }
+
+    /**
+     * Records that the given slide has been inserted at the given index.
+     * @param index The index of the slide in the presentation.
+     * @param slide The inserted slide, including its elements.
+     */
+    public void slideInserted(final int index, final Slide slide) {
+        this.append(SLIDE_INSERTED, output -> {
+            output.writeInt(index);
+            writeSlide(output, slide);
+        });
+    }
+
+    /**
+     * Records that the given slide has been deleted.
+     * @param slideId The ID of the deleted slide.
+     */
+    public void slideDeleted(final String slideId) {
+        this.append(SLIDE_DELETED, output -> BinaryPresentationConfiguration.writeString(output, slideId));
+    }
+
+    /**
+     * Records that the given slide has been moved before another one.
+     * @param slideId The ID of the moved slide.
+     * @param beforeSlideId The ID of the slide the moved slide is now before, {@code null} if the slide has been
+     *                      moved at the end of the presentation.
+     */
+    public void slideMoved(final String slideId, final String beforeSlideId) {
+        this.append(SLIDE_MOVED, output -> {
+            BinaryPresentationConfiguration.writeString(output, slideId);
+            BinaryPresentationConfiguration.writeString(output, beforeSlideId);
+        });
+    }
+
+    /**
+     * Records the new content of the given element.
+     * @param slide The slide of the element.
+     * @param element The updated element.
+     */
+    public void elementUpdated(final Slide slide, final SlideElement element) {
+        this.append(ELEMENT_UPDATED, output -> {
+            BinaryPresentationConfiguration.writeString(output, slide.getId());
+            BinaryPresentationConfiguration.writeString(output, element.getId());
+            BinaryPresentationConfiguration.writeString(output, element.getOriginalContentCode());
+            BinaryPresentationConfiguration.writeString(output, element.getOriginalContent());
+            BinaryPresentationConfiguration.writeString(output, element.getHtmlContent());
+        });
+    }
+
+    /**
+     * Records the new variables of the presentation.
+     * @param variables All variables of the presentation.
+     */
+    public void variablesChanged(final Collection<Pair<String, String>> variables) {
+        this.append(VARIABLES_CHANGED, output -> {
+            output.writeInt(variables.size());
+            for(Pair<String, String> variable : variables) {
+                BinaryPresentationConfiguration.writeString(output, variable.getKey());
+                BinaryPresentationConfiguration.writeString(output, variable.getValue());
+            }
+        });
+    }
+
+    /**
+     * Records that the given resource has been added to the presentation.
+     * @param resource The added resource.
+     */
+    public void resourceAdded(final Resource resource) {
+        this.append(RESOURCE_ADDED, output -> {
+            BinaryPresentationConfiguration.writeString(output, resource.getType().name());
+            BinaryPresentationConfiguration.writeString(output, resource.getContent());
+        });
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter {
+        void write(DataOutput output) throws IOException;
+    }
+
+    private void append(final byte type, final RecordWriter writer) {
+        final ByteArrayOutputStream payload = new ByteArrayOutputStream();
+
+        try(final DataOutputStream output = new DataOutputStream(payload)) {
+            output.writeByte(type);
+            writer.write(output);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Can not serialize the journal record", e);
+            return;
+        }
+
+        final byte[] bytes = payload.toByteArray();
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_LENGTH + bytes.length);
+        record.putInt(bytes.length).putInt((int) crc.getValue()).put(bytes).flip();
+
+        synchronized(this) {
+            if(this.deleted) return;
+
+            this.pendingRecords.add(record);
+            this.appendedPosition += record.limit();
+
+            if(!this.writeScheduled) {
+                this.writeScheduled = true;
+                WRITER_SERVICE.execute(this::writePendingRecords);
+            }
+        }
+    }
+
+    /**
+     * Writes all pending records and forces them on the disk. Records appended during the write are written by the
+     * next call, all together.
+     */
+    private void writePendingRecords() {
+        final ByteBuffer[] records;
+        synchronized(this) {
+            records = this.pendingRecords.toArray(new ByteBuffer[this.pendingRecords.size()]);
+            this.pendingRecords.clear();
+            this.writeScheduled = false;
+        }
+
+        final long length = Arrays.stream(records).mapToLong(ByteBuffer::remaining).sum();
+
+        synchronized(this.ioLock) {
+            if(records.length == 0) return;
+
+            try {
+                if(this.channel == null) this.openChannel();
+
+                while(Arrays.stream(records).anyMatch(ByteBuffer::hasRemaining)) {
+                    this.channel.write(records);
+                }
+                this.channel.force(false);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Can not write in the journal " + this.file.getAbsolutePath(), e);
+            }
+
+            // The position progresses even if the write failed, so that nobody waits for records that will never be written
+            this.writtenPosition += length;
+            this.ioLock.notifyAll();
+        }
+    }
+
+    private void openChannel() throws IOException {
+        if(!JOURNALS_DIRECTORY.exists() && !JOURNALS_DIRECTORY.mkdirs()) {
+            throw new IOException("Can not create the journals directory");
+        }
+
+        this.channel = FileChannel.open(this.file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+
+        if(this.channel.size() == 0) {
+            final byte[] header = this.header(this.archive);
+            this.channel.write(ByteBuffer.wrap(header));
+            this.headerLength = header.length;
+        }
+
+        this.channel.position(this.channel.size());
+    }
+
+    private void closeChannel() {
+        if(this.channel != null) {
+            try {
+                this.channel.close();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Can not close the journal " + this.file.getAbsolutePath(), e);
+            }
+            this.channel = null;
+        }
+    }
+
+    private byte[] header(final File archive) throws IOException {
+        final ByteArrayOutputStream header = new ByteArrayOutputStream();
+
+        try(final DataOutputStream output = new DataOutputStream(header)) {
+            output.writeInt(MAGIC);
+            output.writeShort(VERSION);
+            BinaryPresentationConfiguration.writeString(output, archive.getAbsolutePath());
+        }
+
+        return header.toByteArray();
+    }
+
+    /**
+     * Get the position of the journal, i.e. the position right after the latest appended record. A position can be
+     * given to {@link #compact(long, File)} in order to remove the records appended before it.
+     * @return The current position of the journal.
+     */
+    public synchronized long getPosition() { return this.appendedPosition; }
+
+    /**
+     * Waits until all records appended before this call are written on the disk.
+     * @throws InterruptedIOException If the current thread is interrupted while waiting.
+     */
+    public void sync() throws InterruptedIOException {
+        final long position = this.getPosition();
+
+        synchronized(this.ioLock) {
+            while(this.writtenPosition < position) {
+                try {
+                    this.ioLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the journal to be written");
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes from the journal the records appended before the given position, typically because they have been saved
+     * in the archive of the presentation. If the archive of the presentation has changed, the journal is moved to the
+     * file corresponding to the new archive. The journal is deleted when it contains no record anymore.
+     * @param position The position before which records are removed.
+     * @param archive The archive the presentation has been saved in.
+     * @throws IOException If the journal can not be compacted.
+     * @throws NullPointerException If the archive is {@code null}.
+     */
+    public void compact(final long position, final File archive) throws IOException {
+        if(archive == null) throw new NullPointerException("The archive can not be null");
+
+        this.sync();
+
+        synchronized(this.ioLock) {
+            synchronized(this) {
+                if(this.deleted) return;
+            }
+
+            final File target = getJournalFile(this.presentationId, archive);
+            final long keptPosition = Math.max(position, this.baseOffset);
+            final byte[] content = this.file.exists() ? Files.readAllBytes(this.file.toPath()) : new byte[0];
+            final int keptOffset = (int) Math.min(content.length, this.headerLength + keptPosition - this.baseOffset);
+
+            this.closeChannel();
+
+            if(keptOffset >= content.length) {
+                Files.deleteIfExists(this.file.toPath());
+                Files.deleteIfExists(target.toPath());
+            } else {
+                final byte[] header = this.header(archive);
+                final File temporaryFile = File.createTempFile(target.getName(), ".tmp", JOURNALS_DIRECTORY);
+
+                try {
+                    try(final FileChannel compacted = FileChannel.open(temporaryFile.toPath(), StandardOpenOption.WRITE)) {
+                        compacted.write(new ByteBuffer[] { ByteBuffer.wrap(header), ByteBuffer.wrap(content, keptOffset, content.length - keptOffset) });
+                        compacted.force(false);
+                    }
+
+                    Files.move(temporaryFile.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(temporaryFile.toPath());
+                }
+
+                if(!target.equals(this.file)) Files.deleteIfExists(this.file.toPath());
+                this.headerLength = header.length;
+            }
+
+            this.file = target;
+            this.archive = archive;
+            this.baseOffset = keptPosition;
+        }
+    }
+
+    /**
+     * Deletes the journal, typically because the modifications of the presentation are discarded. Records appended
+     * after this call are ignored.
+     * @throws IOException If the journal can not be deleted.
+     */
+    public void delete() throws IOException {
+        synchronized(this) {
+            this.deleted = true;
+            this.pendingRecords.clear();
+        }
+
+        synchronized(this.ioLock) {
+            this.closeChannel();
+            Files.deleteIfExists(this.file.toPath());
+
+            // Records that were pending will never be written
+            this.writtenPosition = this.getPosition();
+            this.ioLock.notifyAll();
+        }
+    }
+}
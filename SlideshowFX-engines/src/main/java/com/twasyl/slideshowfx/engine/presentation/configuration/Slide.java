@@ -3,9 +3,7 @@ package com.twasyl.slideshowfx.engine.presentation.configuration;
 import com.twasyl.slideshowfx.engine.template.configuration.SlideTemplate;
 import javafx.scene.image.Image;
 
-import java.util.HashSet;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 import java.util.logging.Logger;
 
 /**
@@ -29,8 +27,9 @@ public class Slide {
     private SlideTemplate template;
     private String id;
     private String slideNumber;
-    private Image thumbnail;
-    private final Set<SlideElement> elements = new HashSet<>();
+    private SlideThumbnail thumbnail;
+    private final Set<SlideElement> elements = new SlideElementSet();
+    private SlideList owner;
 
     public Slide() {
     }
@@ -45,16 +44,40 @@ public class Slide {
     }
 
     public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public void setId(String id) {
+        final String oldId = this.id;
+        this.id = id;
+
+        if(this.owner != null && !Objects.equals(oldId, id)) this.owner.identifiersChanged(this, oldId, this.slideNumber);
+    }
 
     public SlideTemplate getTemplate() { return template; }
     public void setTemplate(SlideTemplate template) { this.template = template; }
 
     public String getSlideNumber() { return slideNumber; }
-    public void setSlideNumber(String slideNumber) { this.slideNumber = slideNumber; }
+    public void setSlideNumber(String slideNumber) {
+        final String oldSlideNumber = this.slideNumber;
+        this.slideNumber = slideNumber;
+
+        if(this.owner != null && !Objects.equals(oldSlideNumber, slideNumber)) this.owner.identifiersChanged(this, this.id, oldSlideNumber);
+    }
+
+    /**
+     * Get the list of slides this slide belongs to, which is notified when the identifiers of this slide change.
+     * @return The list owning this slide or {@code null} if the slide doesn't belong to any list.
+     */
+    SlideList getOwner() { return owner; }
+    void setOwner(SlideList owner) { this.owner = owner; }
+
+    /**
+     * Get the image of the thumbnail of this slide. The image may be decoded by this call.
+     * @return The image of the thumbnail or {@code null} if the slide has no thumbnail.
+     */
+    public Image getThumbnail() { return thumbnail == null ? null : thumbnail.getImage(); }
+    public void setThumbnail(Image thumbnail) { this.thumbnail = thumbnail == null ? null : new SlideThumbnail(thumbnail); }
 
-    public Image getThumbnail() { return thumbnail; }
-    public void setThumbnail(Image thumbnail) { this.thumbnail = thumbnail; }
+    public SlideThumbnail getSlideThumbnail() { return thumbnail; }
+    public void setSlideThumbnail(SlideThumbnail thumbnail) { this.thumbnail = thumbnail; }
 
     /**
      * The elements contained in the slide.
@@ -69,8 +92,9 @@ public class Slide {
      * @throws NullPointerException If the given ID is {@code null}.
      */
     public SlideElement getElement(final String id) throws NullPointerException {
-        Optional<SlideElement> element = this.getElements().stream().filter(e -> id.equals(e.getId())).findFirst();
-        return element.isPresent() ? element.get() : null;
+        if(id == null) throw new NullPointerException("The ID of the element can not be null");
+
+        return ((SlideElementSet) this.elements).getById(id);
     }
 
     /**
@@ -83,18 +107,12 @@ public class Slide {
      * @return The element that has been updated.
      */
     public SlideElement updateElement(String elementId, String code, String originalContent, String htmlContent) {
-        SlideElement updatedElement = null;
+        SlideElement updatedElement = elementId == null ? null : this.getElement(elementId);
 
-        Optional<SlideElement> slideElement = getElements().stream()
-                                .filter(element -> element.getId().equals(elementId))
-                                .findFirst();
-
-        if(slideElement.isPresent()) {
-            slideElement.get().setOriginalContentCode(code);
-            slideElement.get().setOriginalContent(originalContent);
-            slideElement.get().setHtmlContent(htmlContent);
-
-            updatedElement = slideElement.get();
+        if(updatedElement != null) {
+            updatedElement.setOriginalContentCode(code);
+            updatedElement.setOriginalContent(originalContent);
+            updatedElement.setHtmlContent(htmlContent);
         } else {
             SlideElement se = new SlideElement();
             se.setId(elementId);
@@ -109,4 +127,126 @@ public class Slide {
 
         return updatedElement;
     }
+
+    /**
+     * Creates a copy of this slide and of its elements. The thumbnail is shared with the copy.
+     * @return The copy of this slide.
+     */
+    Slide copy() {
+        final Slide copy = new Slide(this.template, this.slideNumber);
+        copy.id = this.id;
+        copy.thumbnail = this.thumbnail;
+        this.elements.forEach(element -> copy.elements.add(element.copy()));
+
+        return copy;
+    }
+
+    /**
+     * Updates the index of the elements when an element of this slide has changed its ID. This method is called by the
+     * element itself.
+     * @param element The element which has changed.
+     * @param oldId The ID of the element before the change.
+     */
+    void elementIdChanged(final SlideElement element, final String oldId) {
+        ((SlideElementSet) this.elements).idChanged(element, oldId);
+    }
+
+    /**
+     * The set of elements of a slide, maintaining an index of the elements by ID. The index is updated when elements
+     * are added or removed, and when an element of the set changes its ID.
+     */
+    private class SlideElementSet extends AbstractSet<SlideElement> {
+        private final Set<SlideElement> elements = new HashSet<>();
+        private final Map<String, SlideElement> elementsById = new HashMap<>();
+
+        @Override
+        public Iterator<SlideElement> iterator() {
+            final Iterator<SlideElement> iterator = this.elements.iterator();
+
+            return new Iterator<SlideElement>() {
+                private SlideElement current;
+
+                @Override
+                public boolean hasNext() { return iterator.hasNext(); }
+
+                @Override
+                public SlideElement next() { return this.current = iterator.next(); }
+
+                @Override
+                public void remove() {
+                    synchronized(SlideElementSet.this) {
+                        iterator.remove();
+                        unindex(this.current);
+                    }
+                }
+            };
+        }
+
+        @Override
+        public int size() { return this.elements.size(); }
+
+        @Override
+        public boolean contains(Object o) { return this.elements.contains(o); }
+
+        @Override
+        public synchronized boolean add(SlideElement element) {
+            final boolean added = this.elements.add(element);
+
+            if(added && element != null) {
+                element.setOwner(Slide.this);
+                if(element.getId() != null) this.elementsById.putIfAbsent(element.getId(), element);
+            }
+            return added;
+        }
+
+        @Override
+        public synchronized boolean remove(Object o) {
+            final boolean removed = this.elements.remove(o);
+            if(removed) this.unindex((SlideElement) o);
+            return removed;
+        }
+
+        @Override
+        public synchronized void clear() {
+            this.elements.stream()
+                    .filter(element -> element != null && element.getOwner() == Slide.this)
+                    .forEach(element -> element.setOwner(null));
+            this.elements.clear();
+            this.elementsById.clear();
+        }
+
+        synchronized SlideElement getById(final String id) {
+            return this.elementsById.get(id);
+        }
+
+        synchronized void idChanged(final SlideElement element, final String oldId) {
+            if(!this.elements.contains(element)) {
+                if(element.getOwner() == Slide.this) element.setOwner(null);
+                return;
+            }
+
+            this.unindex(oldId, element);
+            if(element.getId() != null) this.elementsById.putIfAbsent(element.getId(), element);
+        }
+
+        private void unindex(final SlideElement element) {
+            if(element == null) return;
+
+            if(element.getOwner() == Slide.this) element.setOwner(null);
+            this.unindex(element.getId(), element);
+        }
+
+        /**
+         * Removes the given element from the index of the given ID, indexing another element having this ID if any.
+         */
+        private void unindex(final String id, final SlideElement element) {
+            if(id == null || this.elementsById.get(id) != element) return;
+
+            this.elementsById.remove(id);
+            this.elements.stream()
+                    .filter(other -> other != null && id.equals(other.getId()))
+                    .findFirst()
+                    .ifPresent(other -> this.elementsById.put(id, other));
+        }
+    }
 }
@@ -8,10 +8,10 @@ import freemarker.template.Template;
 import freemarker.template.TemplateException;
 
 import java.io.IOException;
-import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.Base64;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -27,11 +27,33 @@ public class SlideElement {
     private String htmlContent;
     private String originalContent;
     private String originalContentCode;
+    private EncodedText encodedHtmlContent;
+    private EncodedText encodedOriginalContent;
+    private Slide owner;
 
     public String getId() { return id; }
-    public void setId(String id) { this.id = id; }
+    public void setId(String id) {
+        final String oldId = this.id;
+        this.id = id;
 
-    public String getHtmlContent() { return htmlContent; }
+        if(this.owner != null && !Objects.equals(oldId, id)) this.owner.elementIdChanged(this, oldId);
+    }
+
+    /**
+     * Get the slide this element belongs to, which is notified when the ID of this element changes.
+     * @return The slide owning this element or {@code null} if the element doesn't belong to any slide.
+     */
+    Slide getOwner() { return owner; }
+    void setOwner(Slide owner) { this.owner = owner; }
+
+    public synchronized String getHtmlContent() {
+        if(this.encodedHtmlContent != null) {
+            this.htmlContent = this.encodedHtmlContent.decode();
+            this.encodedHtmlContent = null;
+        }
+
+        return htmlContent;
+    }
 
     public String getHtmlContentAsBase64() {
         String base64 = Base64.getEncoder().encodeToString(getHtmlContent().getBytes(getDefaultCharset()));
@@ -42,16 +64,21 @@ public class SlideElement {
      * Replace all variables stored in the given {@code variables} in the HTML content and return a variable free
      * HTML content. If the current HTML content is {@code null} or empty, an empty String is returned.
      * The original HTML content is not affected by the modification.
+     * If the HTML content doesn't contain any variable, it is returned as is without being processed.
      * @return A variable free HTML content.
      */
     public String getClearedHtmlContent(Set<Pair<String, String>> variables) {
         final StringBuilder builder = new StringBuilder();
 
-        if(this.htmlContent != null && !this.htmlContent.isEmpty()) {
+        final String content = this.getHtmlContent();
+
+        if(content != null && !content.isEmpty()) {
+            if(!TemplateProcessor.isTemplate(content)) return content;
+
             final Map<String, String> tokens = variables.stream().collect(Collectors.toMap(Pair::getKey, Pair::getValue));
 
             try (StringWriter writer = new StringWriter()) {
-                final Template template = new Template("variable", new StringReader(this.getHtmlContent()), TemplateProcessor.getDefaultConfiguration());
+                final Template template = TemplateProcessor.getStringTemplate(content);
                 template.process(tokens, writer);
                 writer.flush();
 
@@ -67,7 +94,25 @@ public class SlideElement {
      * Sets the HTML content for this {@link SlideElement}. The HTML content must not be encoded.
      * @param htmlContent The HTML content.
      */
-    public void setHtmlContent(String htmlContent) { this.htmlContent = htmlContent; }
+    public synchronized void setHtmlContent(String htmlContent) {
+        this.htmlContent = htmlContent;
+        this.encodedHtmlContent = null;
+    }
+
+    /**
+     * Get the HTML content of this {@link SlideElement} if it is still encoded as read from the configuration.
+     * @return The encoded HTML content or {@code null} if it has been decoded.
+     */
+    synchronized EncodedText getEncodedHtmlContent() { return encodedHtmlContent; }
+
+    /**
+     * Sets the HTML content of this {@link SlideElement} that will only be decoded when first requested.
+     * @param encodedHtmlContent The encoded HTML content.
+     */
+    synchronized void setEncodedHtmlContent(EncodedText encodedHtmlContent) {
+        this.htmlContent = null;
+        this.encodedHtmlContent = encodedHtmlContent;
+    }
 
     /**
      * Sets the HTML content for this {@link SlideElement}. The provided HTML content is decoded and then set using
@@ -83,7 +128,14 @@ public class SlideElement {
      * Get the original content of this {@link SlideElement}. The content is not encoded.
      * @return The original content.
      */
-    public String getOriginalContent() { return originalContent; }
+    public synchronized String getOriginalContent() {
+        if(this.encodedOriginalContent != null) {
+            this.originalContent = this.encodedOriginalContent.decode();
+            this.encodedOriginalContent = null;
+        }
+
+        return originalContent;
+    }
 
     /**
      * Get the original content of this {@link SlideElement}. The content is encoded in Base64.
@@ -98,7 +150,25 @@ public class SlideElement {
      * Sets the original content of this {@link SlideElement}. The original content must not be encoded.
      * @param originalContent The original content.
      */
-    public void setOriginalContent(String originalContent) { this.originalContent = originalContent; }
+    public synchronized void setOriginalContent(String originalContent) {
+        this.originalContent = originalContent;
+        this.encodedOriginalContent = null;
+    }
+
+    /**
+     * Get the original content of this {@link SlideElement} if it is still encoded as read from the configuration.
+     * @return The encoded original content or {@code null} if it has been decoded.
+     */
+    synchronized EncodedText getEncodedOriginalContent() { return encodedOriginalContent; }
+
+    /**
+     * Sets the original content of this {@link SlideElement} that will only be decoded when first requested.
+     * @param encodedOriginalContent The encoded original content.
+     */
+    synchronized void setEncodedOriginalContent(EncodedText encodedOriginalContent) {
+        this.originalContent = null;
+        this.encodedOriginalContent = encodedOriginalContent;
+    }
 
     /**
      * Sets the original content of this {@link SlideElement}. The original content is decoded and set using {@link #setOriginalContent(String)}.
@@ -114,4 +184,22 @@ public class SlideElement {
 
     public SlideElementTemplate getTemplate() { return template; }
     public void setTemplate(SlideElementTemplate template) { this.template = template; }
+
+    /**
+     * Creates a copy of this element. Contents are immutable so they are shared with the copy, even when they are
+     * still encoded.
+     * @return The copy of this element.
+     */
+    synchronized SlideElement copy() {
+        final SlideElement copy = new SlideElement();
+        copy.id = this.id;
+        copy.template = this.template;
+        copy.originalContentCode = this.originalContentCode;
+        copy.htmlContent = this.htmlContent;
+        copy.originalContent = this.originalContent;
+        copy.encodedHtmlContent = this.encodedHtmlContent;
+        copy.encodedOriginalContent = this.encodedOriginalContent;
+
+        return copy;
+    }
 }
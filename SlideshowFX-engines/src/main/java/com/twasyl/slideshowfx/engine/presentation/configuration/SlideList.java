@@ -0,0 +1,281 @@
+package com.twasyl.slideshowfx.engine.presentation.configuration;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * The list of slides of a presentation. In addition to the {@link java.util.List} operations, this class maintains
+ * indexes of the slides by number, by ID and by position, which make lookups and {@link #indexOf(Object)} run in
+ * constant time.
+ * <p>
+ * The indexes are updated when slides are added, removed or replaced, including through iterators, and when a slide of
+ * this list changes its ID or number, the slide notifying the list owning it. Bulk modifications like sorting or
+ * removing slides matching a condition are not tracked: the indexes are then rebuilt on the next lookup.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+final class SlideList extends ArrayList<Slide> {
+    private final Map<String, Slide> slidesByNumber = new HashMap<>();
+    private final Map<String, Slide> slidesById = new HashMap<>();
+    private final Map<Slide, Integer> positions = new IdentityHashMap<>();
+    private int indexedModifications = -1;
+
+    SlideList() {
+    }
+
+    SlideList(final Collection<? extends Slide> slides) {
+        this.addAll(slides);
+    }
+
+    @Override
+    public synchronized boolean add(Slide slide) {
+        this.add(this.size(), slide);
+        return true;
+    }
+
+    @Override
+    public synchronized void add(int index, Slide slide) {
+        this.ensureIndexed();
+        super.add(index, slide);
+
+        this.shiftPositions(index + 1, 1);
+        this.index(slide, index);
+        this.indexedModifications = this.modCount;
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends Slide> slides) {
+        return this.addAll(this.size(), slides);
+    }
+
+    @Override
+    public synchronized boolean addAll(int index, Collection<? extends Slide> slides) {
+        int position = index;
+        for(Slide slide : new ArrayList<>(slides)) this.add(position++, slide);
+
+        return !slides.isEmpty();
+    }
+
+    @Override
+    public synchronized Slide set(int index, Slide slide) {
+        this.ensureIndexed();
+        final Slide replaced = super.set(index, slide);
+
+        this.index(slide, index);
+        this.unindex(replaced, index);
+        return replaced;
+    }
+
+    @Override
+    public synchronized Slide remove(int index) {
+        this.ensureIndexed();
+        final Slide removed = super.remove(index);
+
+        this.shiftPositions(index, -1);
+        this.unindex(removed, index);
+        this.indexedModifications = this.modCount;
+        return removed;
+    }
+
+    @Override
+    public synchronized boolean remove(Object o) {
+        final int index = this.indexOf(o);
+        if(index == -1) return false;
+
+        this.remove(index);
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        this.forEach(this::disown);
+        super.clear();
+
+        this.slidesByNumber.clear();
+        this.slidesById.clear();
+        this.positions.clear();
+        this.indexedModifications = this.modCount;
+    }
+
+    @Override
+    public synchronized int indexOf(Object o) {
+        if(!(o instanceof Slide)) return super.indexOf(o);
+
+        this.ensureIndexed();
+        final Integer position = this.positions.get(o);
+        return position == null ? -1 : position;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return this.indexOf(o) != -1;
+    }
+
+    /**
+     * Get the first slide having the given number.
+     * @param slideNumber The number of the slide.
+     * @return The slide or {@code null} if not found.
+     */
+    synchronized Slide getByNumber(final String slideNumber) {
+        this.ensureIndexed();
+        return this.slidesByNumber.get(slideNumber);
+    }
+
+    /**
+     * Get the first slide having the given ID.
+     * @param id The ID of the slide.
+     * @return The slide or {@code null} if not found.
+     */
+    synchronized Slide getById(final String id) {
+        this.ensureIndexed();
+        return this.slidesById.get(id);
+    }
+
+    /**
+     * Updates the indexes when a slide of this list has changed its ID or its number. This method is called by the
+     * slide itself.
+     * @param slide The slide which has changed.
+     * @param oldId The ID of the slide before the change.
+     * @param oldSlideNumber The number of the slide before the change.
+     */
+    synchronized void identifiersChanged(final Slide slide, final String oldId, final String oldSlideNumber) {
+        this.ensureIndexed();
+
+        final Integer position = this.positions.get(slide);
+        if(position == null) {
+            this.disown(slide);
+            return;
+        }
+
+        if(!Objects.equals(oldId, slide.getId())) {
+            this.unindex(this.slidesById, oldId, slide, position, Slide::getId);
+            this.index(this.slidesById, slide.getId(), slide, position);
+        }
+
+        if(!Objects.equals(oldSlideNumber, slide.getSlideNumber())) {
+            this.unindex(this.slidesByNumber, oldSlideNumber, slide, position, Slide::getSlideNumber);
+            this.index(this.slidesByNumber, slide.getSlideNumber(), slide, position);
+        }
+    }
+
+    /**
+     * Rebuilds the indexes if the list has been modified without them being updated.
+     */
+    private void ensureIndexed() {
+        if(this.indexedModifications == this.modCount) return;
+
+        this.slidesByNumber.clear();
+        this.slidesById.clear();
+        this.positions.clear();
+
+        for(int index = 0; index < this.size(); index++) {
+            final Slide slide = this.get(index);
+
+            if(slide != null) {
+                slide.setOwner(this);
+                if(slide.getSlideNumber() != null) this.slidesByNumber.putIfAbsent(slide.getSlideNumber(), slide);
+                if(slide.getId() != null) this.slidesById.putIfAbsent(slide.getId(), slide);
+                this.positions.putIfAbsent(slide, index);
+            }
+        }
+
+        this.indexedModifications = this.modCount;
+    }
+
+    /**
+     * Adds the slide at the given position to the indexes. The slide is only indexed if no other slide having the same
+     * identifiers is before it.
+     */
+    private void index(final Slide slide, final int position) {
+        if(slide == null) return;
+
+        final Integer current = this.positions.get(slide);
+        if(current == null || current > position) this.positions.put(slide, position);
+
+        slide.setOwner(this);
+        this.index(this.slidesById, slide.getId(), slide, position);
+        this.index(this.slidesByNumber, slide.getSlideNumber(), slide, position);
+    }
+
+    private void index(final Map<String, Slide> index, final String key, final Slide slide, final int position) {
+        if(key == null) return;
+
+        final Slide current = index.get(key);
+        if(current == null || this.positions.get(current) > position) index.put(key, slide);
+    }
+
+    /**
+     * Removes the slide which was at the given position from the indexes. If the list contains other slides having the
+     * same identifiers, the first one after the position is indexed instead.
+     */
+    private void unindex(final Slide slide, final int position) {
+        if(slide == null) return;
+
+        final int first = this.positions.get(slide);
+
+        if(first == position) {
+            final int next = this.nextIndexOf(position, other -> other, slide);
+
+            if(next == -1) {
+                this.positions.remove(slide);
+                this.disown(slide);
+            } else {
+                this.positions.put(slide, next);
+            }
+        } else if(first < position) {
+            // The slide is still in the list before the position, keeping its identifiers indexed
+            return;
+        }
+
+        this.unindex(this.slidesById, slide.getId(), slide, position, Slide::getId);
+        this.unindex(this.slidesByNumber, slide.getSlideNumber(), slide, position, Slide::getSlideNumber);
+    }
+
+    private void unindex(final Map<String, Slide> index, final String key, final Slide slide, final int position, final Function<Slide, String> identifier) {
+        if(key == null || index.get(key) != slide) return;
+
+        final int next = this.nextIndexOf(position, identifier, key);
+
+        if(next == -1) index.remove(key);
+        else index.put(key, this.get(next));
+    }
+
+    /**
+     * Get the index of the first slide, from the given position, whose value is equal to the expected one.
+     */
+    private <T> int nextIndexOf(final int from, final Function<Slide, T> value, final T expected) {
+        for(int index = from; index < this.size(); index++) {
+            final Slide slide = this.get(index);
+            if(slide != null && expected.equals(value.apply(slide))) return index;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Updates the positions of the slides from the given index, which have moved by the given offset. Slides are
+     * visited in the direction they have moved, so that a slide present several times is only moved once.
+     */
+    private void shiftPositions(final int from, final int offset) {
+        final int first = offset > 0 ? this.size() - 1 : from;
+        final int step = offset > 0 ? -1 : 1;
+
+        for(int index = first; index >= from && index < this.size(); index += step) {
+            final Slide slide = this.get(index);
+            final Integer position = slide == null ? null : this.positions.get(slide);
+
+            if(position != null && position == index - offset) this.positions.put(slide, index);
+        }
+    }
+
+    private void disown(final Slide slide) {
+        if(slide != null && slide.getOwner() == this) slide.setOwner(null);
+    }
+}
@@ -0,0 +1,135 @@
+package com.twasyl.slideshowfx.engine.presentation.configuration;
+
+import javafx.embed.swing.SwingFXUtils;
+import javafx.scene.image.Image;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The thumbnail of a {@link Slide}. A thumbnail is either encoded in a PNG file, typically the one extracted from the
+ * presentation archive, either a new image that hasn't been {@link #save(File) saved} yet.
+ * Thumbnails stored in a file are only decoded when their {@link #getImage() image} is requested, and the decoded images
+ * are kept in a cache shared by all thumbnails, containing at most {@link #DECODED_THUMBNAILS_CACHE_SIZE} images, the
+ * least recently used ones being evicted first. This avoids keeping the decoded image of every slide in memory.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class SlideThumbnail {
+    private static final Logger LOGGER = Logger.getLogger(SlideThumbnail.class.getName());
+
+    /**
+     * The maximum number of decoded thumbnails kept in memory. Value is {@value #DECODED_THUMBNAILS_CACHE_SIZE}.
+     */
+    public static final int DECODED_THUMBNAILS_CACHE_SIZE = 64;
+
+    private static final Map<SlideThumbnail, Image> DECODED_THUMBNAILS = new LinkedHashMap<SlideThumbnail, Image>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<SlideThumbnail, Image> eldest) {
+            return this.size() > DECODED_THUMBNAILS_CACHE_SIZE;
+        }
+    };
+
+    private File file;
+    private Image image;
+
+    /**
+     * Creates a thumbnail which image is encoded in the given file. The file is not read until the image is requested.
+     * @param file The PNG file containing the thumbnail.
+     * @throws NullPointerException If the file is null.
+     */
+    public SlideThumbnail(final File file) {
+        if(file == null) throw new NullPointerException("The file can not be null");
+
+        this.file = file;
+    }
+
+    /**
+     * Creates a thumbnail from an image which is not encoded yet.
+     * @param image The image of the thumbnail.
+     * @throws NullPointerException If the image is null.
+     */
+    public SlideThumbnail(final Image image) {
+        if(image == null) throw new NullPointerException("The image can not be null");
+
+        this.image = image;
+    }
+
+    /**
+     * Get the file in which this thumbnail is encoded.
+     * @return The file of this thumbnail or {@code null} if it has not been saved yet.
+     */
+    public synchronized File getFile() { return file; }
+
+    /**
+     * Indicates if this thumbnail has been modified since it has been saved, i.e. if its image still needs to be encoded.
+     * @return {@code true} if the thumbnail has to be encoded, {@code false} otherwise.
+     */
+    public synchronized boolean isModified() { return this.image != null; }
+
+    /**
+     * Get the image of this thumbnail. If the thumbnail is encoded in a file, the image is decoded only if it isn't
+     * present in the cache of decoded thumbnails.
+     * @return The image of the thumbnail or {@code null} if it can not be decoded.
+     */
+    public synchronized Image getImage() {
+        if(this.image != null) return this.image;
+
+        synchronized(DECODED_THUMBNAILS) {
+            final Image decoded = DECODED_THUMBNAILS.get(this);
+            if(decoded != null) return decoded;
+        }
+
+        try {
+            final BufferedImage bufferedImage = ImageIO.read(this.file);
+            if(bufferedImage == null) return null;
+
+            final Image decoded = SwingFXUtils.toFXImage(bufferedImage, null);
+            synchronized(DECODED_THUMBNAILS) {
+                DECODED_THUMBNAILS.put(this, decoded);
+            }
+
+            return decoded;
+        } catch (IOException e) {
+            LOGGER.log(Level.INFO, "Can not decode the thumbnail " + this.file.getAbsolutePath(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Saves this thumbnail in the given file. The image is only encoded if it has been modified since the thumbnail has
+     * been saved. Otherwise the encoded file is copied, or left untouched if it is already the given file. Once saved,
+     * the image of the thumbnail is only kept in the cache of decoded thumbnails.
+     * @param target The file to save the thumbnail in.
+     * @throws IOException If the thumbnail can not be saved.
+     * @throws NullPointerException If the target is null.
+     */
+    public synchronized void save(final File target) throws IOException {
+        if(target == null) throw new NullPointerException("The target can not be null");
+
+        if(this.image != null) {
+            if(!ImageIO.write(SwingFXUtils.fromFXImage(this.image, null), "png", target)) {
+                throw new IOException("No writer available to encode the thumbnail");
+            }
+
+            synchronized(DECODED_THUMBNAILS) {
+                DECODED_THUMBNAILS.put(this, this.image);
+            }
+            this.image = null;
+        } else if(!target.equals(this.file) || !target.exists()) {
+            Files.copy(this.file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        this.file = target;
+    }
+}
@@ -0,0 +1,339 @@
+package com.twasyl.slideshowfx.engine.template;
+
+import com.twasyl.slideshowfx.engine.template.configuration.TemplateConfiguration;
+import com.twasyl.slideshowfx.utils.TemplateProcessor;
+import com.twasyl.slideshowfx.utils.ZipUtils;
+import com.twasyl.slideshowfx.utils.io.DeleteFileVisitor;
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * A cache of the templates used by the opened presentations. Each presentation archive contains a copy of its template,
+ * but presentations created from the same template share the same {@link TemplateConfiguration configuration}, the
+ * same template files and therefore the same compiled FreeMarker templates. A template is identified by the content of
+ * its configuration file and the content of its template files: the document template and the slide templates.
+ * <p>
+ * Templates are {@link #acquire(ZipFile) acquired} by presentations and must be {@link #release(Entry) released} when
+ * they are not used anymore. The template files of a cached template are extracted once in a directory owned by the
+ * cache, where they are parsed and compiled only once whatever the number of presentations using them. Templates that
+ * are not used anymore are kept until more than {@link #getMaximumIdleTemplates() a given number} of them are unused,
+ * the least recently released being evicted first. The directory of a template is deleted when it is evicted or when
+ * the cache is {@link #clear() cleared}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class TemplateCache {
+    private static final Logger LOGGER = Logger.getLogger(TemplateCache.class.getName());
+
+    /**
+     * The default number of unused templates kept by the cache. Value is {@value #DEFAULT_MAXIMUM_IDLE_TEMPLATES}.
+     */
+    public static final int DEFAULT_MAXIMUM_IDLE_TEMPLATES = 4;
+
+    private static final TemplateCache DEFAULT_CACHE = new TemplateCache(DEFAULT_MAXIMUM_IDLE_TEMPLATES);
+
+    private final int maximumIdleTemplates;
+    private final Map<Long, List<Entry>> templates = new HashMap<>();
+    private final Set<Entry> idleTemplates = new LinkedHashSet<>();
+
+    /**
+     * Creates a cache keeping at most the given number of unused templates.
+     * @param maximumIdleTemplates The maximum number of unused templates kept by this cache.
+     * @throws java.lang.IllegalArgumentException If the maximum number of unused templates is negative.
+     */
+    public TemplateCache(final int maximumIdleTemplates) {
+        if(maximumIdleTemplates < 0) throw new IllegalArgumentException("The maximum number of idle templates can not be negative");
+
+        this.maximumIdleTemplates = maximumIdleTemplates;
+    }
+
+    /**
+     * Get the cache shared by all presentations of the application.
+     * @return The default cache.
+     */
+    public static TemplateCache getDefault() { return DEFAULT_CACHE; }
+
+    /**
+     * Get the maximum number of templates that are not used anymore and kept by this cache.
+     * @return The maximum number of unused templates.
+     */
+    public int getMaximumIdleTemplates() { return maximumIdleTemplates; }
+
+    /**
+     * Get the template of the given archive, which can either be a template or a presentation archive. If the same
+     * template is already cached, it is returned. Otherwise the template is read from the archive and cached.
+     * Each call to this method must be followed by a call to {@link #release(Entry)} once the template isn't used
+     * anymore.
+     * @param archive The archive containing the template.
+     * @return The cached template.
+     * @throws IOException If the template can not be read from the archive.
+     * @throws java.lang.NullPointerException If the archive is null.
+     */
+    public Entry acquire(final ZipFile archive) throws IOException {
+        if(archive == null) throw new NullPointerException("The archive can not be null");
+
+        final String configurationFilename = new TemplateEngine().getConfigurationFilename();
+        final byte[] configuration;
+
+        try(final InputStream input = ZipUtils.getEntryInputStream(archive, configurationFilename)) {
+            configuration = readAll(input);
+        }
+
+        // The CRC of the configuration is known without reading it and is enough to find the candidates
+        final Long key = archive.getEntry(configurationFilename).getCrc();
+
+        synchronized(this) {
+            final Entry entry = this.find(key, configuration, archive);
+
+            if(entry != null) {
+                LOGGER.fine("Template found in the cache: " + entry.getConfiguration().getName());
+                entry.references++;
+                this.idleTemplates.remove(entry);
+                return entry;
+            }
+        }
+
+        // The template is read without holding the lock, another presentation may cache the same template meanwhile
+        final Entry newEntry = this.load(key, configuration, archive);
+
+        synchronized(this) {
+            final Entry entry = this.find(key, configuration, archive);
+
+            if(entry != null) {
+                newEntry.delete();
+
+                entry.references++;
+                this.idleTemplates.remove(entry);
+                return entry;
+            }
+
+            newEntry.references = 1;
+            this.templates.computeIfAbsent(key, k -> new ArrayList<>()).add(newEntry);
+            return newEntry;
+        }
+    }
+
+    /**
+     * Indicates that a template previously {@link #acquire(ZipFile) acquired} isn't used anymore. When a template isn't
+     * used by any presentation, it is kept for future uses unless too many templates are unused.
+     * @param entry The template to release. Nothing is done if it is {@code null}.
+     */
+    public synchronized void release(final Entry entry) {
+        if(entry == null || entry.references == 0) return;
+
+        entry.references--;
+
+        if(entry.references == 0 && entry.evicted) {
+            entry.delete();
+        } else if(entry.references == 0) {
+            this.idleTemplates.add(entry);
+
+            final Iterator<Entry> iterator = this.idleTemplates.iterator();
+            while(this.idleTemplates.size() > this.maximumIdleTemplates && iterator.hasNext()) {
+                final Entry evictedEntry = iterator.next();
+                iterator.remove();
+
+                final List<Entry> entries = this.templates.get(evictedEntry.key);
+                entries.remove(evictedEntry);
+                if(entries.isEmpty()) this.templates.remove(evictedEntry.key);
+
+                LOGGER.fine("Template evicted from the cache: " + evictedEntry.getConfiguration().getName());
+                evictedEntry.evicted = true;
+                evictedEntry.delete();
+            }
+        }
+    }
+
+    /**
+     * Removes all templates from this cache and deletes their directories. The directories of templates still used
+     * are deleted once they are {@link #release(Entry) released}. This method is called when the application stops.
+     */
+    public synchronized void clear() {
+        this.templates.values().forEach(entries -> entries.forEach(entry -> {
+            entry.evicted = true;
+            if(entry.references == 0) entry.delete();
+        }));
+
+        this.templates.clear();
+        this.idleTemplates.clear();
+    }
+
+    /**
+     * Get the number of templates cached, being used or not.
+     * @return The number of templates cached.
+     */
+    public synchronized int size() {
+        return this.templates.values().stream().mapToInt(List::size).sum();
+    }
+
+    private Entry find(final Long key, final byte[] configuration, final ZipFile archive) {
+        for(Entry entry : this.templates.getOrDefault(key, Collections.emptyList())) {
+            if(entry.matches(configuration, archive)) return entry;
+        }
+
+        return null;
+    }
+
+    /**
+     * Read the template of the given archive and extract its template files in a directory owned by the cache.
+     */
+    private Entry load(final Long key, final byte[] configuration, final ZipFile archive) throws IOException {
+        final File directory = Files.createTempDirectory("sfx-template-").toFile();
+
+        try {
+            final TemplateEngine engine = new TemplateEngine();
+            engine.setWorkingDirectory(directory);
+
+            final TemplateConfiguration templateConfiguration = engine.readConfiguration(new ByteArrayInputStream(configuration));
+            final String documentName = engine.relativizeFromWorkingDirectory(templateConfiguration.getFile());
+            final String slidesPrefix = templateConfiguration.getSlidesTemplateDirectory() == null ? null :
+                    engine.relativizeFromWorkingDirectory(templateConfiguration.getSlidesTemplateDirectory()) + "/";
+
+            final Entry entry = new Entry(key, configuration, directory, templateConfiguration, documentName, slidesPrefix);
+            ZipUtils.unzip(archive, directory, entry::isTemplateFile);
+
+            final Enumeration<? extends ZipEntry> zipEntries = archive.entries();
+            while(zipEntries.hasMoreElements()) {
+                final ZipEntry zipEntry = zipEntries.nextElement();
+                if(entry.isTemplateFile(zipEntry)) entry.templateFiles.put(zipEntry.getName(), zipEntry.getCrc());
+            }
+
+            LOGGER.fine("Template added to the cache: " + templateConfiguration.getName());
+
+            return entry;
+        } catch (IOException | RuntimeException e) {
+            Files.walkFileTree(directory.toPath(), new DeleteFileVisitor());
+            throw e;
+        }
+    }
+
+    private static byte[] readAll(final InputStream input) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int length;
+
+        while((length = input.read(buffer)) > 0) {
+            output.write(buffer, 0, length);
+        }
+
+        return output.toByteArray();
+    }
+
+    /**
+     * A template cached by a {@link TemplateCache}.
+     */
+    public static class Entry {
+        private final Long key;
+        private final byte[] configurationContent;
+        private final File directory;
+        private final TemplateConfiguration configuration;
+        private final String documentName;
+        private final String slidesPrefix;
+        private final Map<String, Long> templateFiles = new HashMap<>();
+        private Configuration templateProcessorConfiguration;
+        private int references = 0;
+        private boolean evicted = false;
+
+        private Entry(Long key, byte[] configurationContent, File directory, TemplateConfiguration configuration, String documentName, String slidesPrefix) {
+            this.key = key;
+            this.configurationContent = configurationContent;
+            this.directory = directory;
+            this.configuration = configuration;
+            this.documentName = documentName;
+            this.slidesPrefix = slidesPrefix;
+        }
+
+        /**
+         * Get the configuration of this template. Its files are located in the directory owned by the cache and it must
+         * not be modified.
+         * @return The configuration of this template.
+         */
+        public TemplateConfiguration getConfiguration() { return configuration; }
+
+        /**
+         * Creates a configuration of this template for a presentation having the given working directory.
+         * @param workingDirectory The working directory of the presentation.
+         * @return The configuration of this template, whose files are located in the given working directory.
+         */
+        public TemplateConfiguration createConfiguration(final File workingDirectory) {
+            return this.configuration.relocate(this.directory, workingDirectory);
+        }
+
+        /**
+         * Get the compiled template having the given name. The template is compiled once and shared by all presentations
+         * using this template.
+         * @param name The name of the template, relative to the directory of this template.
+         * @return The compiled template.
+         * @throws IOException If the template can not be found or parsed.
+         */
+        public Template getTemplate(final String name) throws IOException {
+            final Configuration templateProcessorConfiguration;
+
+            synchronized(this) {
+                if(this.templateProcessorConfiguration == null) {
+                    this.templateProcessorConfiguration = TemplateProcessor.createConfiguration(this.directory);
+                }
+
+                templateProcessorConfiguration = this.templateProcessorConfiguration;
+            }
+
+            return templateProcessorConfiguration.getTemplate(name);
+        }
+
+        private boolean isTemplateFile(final ZipEntry zipEntry) {
+            return !zipEntry.isDirectory() && (zipEntry.getName().equals(this.documentName)
+                    || (this.slidesPrefix != null && zipEntry.getName().startsWith(this.slidesPrefix)));
+        }
+
+        private boolean matches(final byte[] configuration, final ZipFile archive) {
+            if(!Arrays.equals(this.configurationContent, configuration)) return false;
+
+            int templateFilesCount = 0;
+            final Enumeration<? extends ZipEntry> zipEntries = archive.entries();
+
+            while(zipEntries.hasMoreElements()) {
+                final ZipEntry zipEntry = zipEntries.nextElement();
+
+                if(this.isTemplateFile(zipEntry)) {
+                    final Long crc = this.templateFiles.get(zipEntry.getName());
+                    if(crc == null || crc != zipEntry.getCrc()) return false;
+
+                    templateFilesCount++;
+                }
+            }
+
+            return templateFilesCount == this.templateFiles.size();
+        }
+
+        private void delete() {
+            try {
+                Files.walkFileTree(this.directory.toPath(), new DeleteFileVisitor());
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Can not delete the directory of the cached template", e);
+            }
+        }
+    }
+}
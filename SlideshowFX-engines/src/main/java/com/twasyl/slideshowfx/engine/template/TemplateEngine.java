@@ -11,9 +11,7 @@ import com.twasyl.slideshowfx.utils.beans.Pair;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.IOException;
+import java.io.*;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
@@ -55,9 +53,18 @@ public class TemplateEngine extends AbstractEngine<TemplateConfiguration> {
         if(!configurationFile.exists()) throw new FileNotFoundException("The configuration file does not exist");
         if(!configurationFile.canRead()) throw new IllegalAccessException("The configuration file can not be read");
 
+        try(final InputStream configurationStream = new FileInputStream(configurationFile)) {
+            return this.readConfiguration(configurationStream);
+        }
+    }
+
+    @Override
+    public TemplateConfiguration readConfiguration(InputStream configurationStream) throws NullPointerException, IOException {
+        if(configurationStream == null) throw new NullPointerException("The configuration stream can not be null");
+
         TemplateConfiguration templateConfiguration = new TemplateConfiguration();
 
-        final JsonObject configuration = JSONHelper.readFromFile(configurationFile);
+        final JsonObject configuration = JSONHelper.readFromInputStream(configurationStream);
         final JsonObject templateJson = configuration.getJsonObject("template");
 
         templateConfiguration.setName(templateJson.getString("name"));
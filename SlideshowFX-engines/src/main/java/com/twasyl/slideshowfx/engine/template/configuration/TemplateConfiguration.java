@@ -4,6 +4,8 @@ import com.twasyl.slideshowfx.engine.IConfiguration;
 import com.twasyl.slideshowfx.utils.beans.Pair;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.logging.Logger;
@@ -102,4 +104,63 @@ public class TemplateConfiguration implements IConfiguration {
 
         return searchedTemplate;
     }
+
+    /**
+     * Creates a copy of this configuration for a template extracted in another directory. Every file of this
+     * configuration located in the {@code source} directory is located at the same place in the {@code target} directory
+     * in the copy. The dynamic attributes and elements of the slide templates are shared with this configuration.
+     * @param source The directory the template of this configuration is extracted in.
+     * @param target The directory the template of the copy is extracted in.
+     * @return The copy of this configuration.
+     * @throws java.lang.NullPointerException If the source or the target is null.
+     */
+    public TemplateConfiguration relocate(final File source, final File target) {
+        if(source == null) throw new NullPointerException("The source directory can not be null");
+        if(target == null) throw new NullPointerException("The target directory can not be null");
+
+        final TemplateConfiguration copy = new TemplateConfiguration();
+        copy.setName(this.name);
+        copy.setFile(relocate(this.file, source, target));
+        copy.setDefaultVariables(this.defaultVariables == null ? null : new HashSet<>(this.defaultVariables));
+        copy.setContentDefinerMethod(this.contentDefinerMethod);
+        copy.setUpdateCodeSnippetConsoleMethod(this.updateCodeSnippetConsoleMethod);
+        copy.setGotoSlideMethod(this.gotoSlideMethod);
+        copy.setLeapMotionMethod(this.leapMotionMethod);
+        copy.setGetCurrentSlideMethod(this.getCurrentSlideMethod);
+        copy.setJsObject(this.jsObject);
+        copy.setSfxServerObject(this.sfxServerObject);
+        copy.setSlidesTemplateDirectory(relocate(this.slidesTemplateDirectory, source, target));
+        copy.setSlidesPresentationDirectory(relocate(this.slidesPresentationDirectory, source, target));
+        copy.setSlidesThumbnailDirectory(relocate(this.slidesThumbnailDirectory, source, target));
+        copy.setResourcesDirectory(relocate(this.resourcesDirectory, source, target));
+        copy.setSlideIdPrefix(this.slideIdPrefix);
+        copy.setSlidesContainer(this.slidesContainer);
+
+        if(this.slideTemplates != null) {
+            copy.setSlideTemplates(new ArrayList<>(this.slideTemplates.size()));
+
+            for(SlideTemplate slideTemplate : this.slideTemplates) {
+                final SlideTemplate slideTemplateCopy = new SlideTemplate(slideTemplate.getId(), slideTemplate.getName(),
+                        relocate(slideTemplate.getFile(), source, target));
+                slideTemplateCopy.setDynamicAttributes(slideTemplate.getDynamicAttributes());
+                slideTemplateCopy.setElements(slideTemplate.getElements());
+
+                copy.getSlideTemplates().add(slideTemplateCopy);
+            }
+        }
+
+        return copy;
+    }
+
+    private static File relocate(final File file, final File source, final File target) {
+        if(file == null) return null;
+
+        final String path = file.getAbsolutePath();
+        final String sourcePath = source.getAbsolutePath();
+
+        if(path.equals(sourcePath)) return target;
+        if(!path.startsWith(sourcePath + File.separator)) return file;
+
+        return new File(target, path.substring(sourcePath.length() + 1));
+    }
 }
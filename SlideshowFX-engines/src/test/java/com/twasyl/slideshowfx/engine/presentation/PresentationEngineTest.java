@@ -0,0 +1,318 @@
+package com.twasyl.slideshowfx.engine.presentation;
+
+import com.twasyl.slideshowfx.engine.presentation.configuration.BinaryPresentationConfiguration;
+import com.twasyl.slideshowfx.engine.presentation.configuration.PresentationConfiguration;
+import com.twasyl.slideshowfx.engine.presentation.configuration.Slide;
+import com.twasyl.slideshowfx.engine.presentation.configuration.SlideElement;
+import com.twasyl.slideshowfx.engine.presentation.configuration.SlideThumbnail;
+import com.twasyl.slideshowfx.engine.template.TemplateEngine;
+import com.twasyl.slideshowfx.utils.ZipUtils;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the loading and saving of presentation archives by the {@link PresentationEngine}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class PresentationEngineTest {
+
+    private File archive;
+    private File savedArchive;
+    private PresentationEngine engine;
+    private final List<File> thumbnails = new ArrayList<>();
+
+    @Before public void before() throws IOException {
+        this.archive = File.createTempFile("sfx-presentation-engine-test", PresentationEngine.DEFAULT_DOTTED_ARCHIVE_EXTENSION);
+        this.savedArchive = File.createTempFile("sfx-presentation-engine-test-saved", PresentationEngine.DEFAULT_DOTTED_ARCHIVE_EXTENSION);
+        this.engine = new PresentationEngine();
+    }
+
+    @After public void after() {
+        this.engine.discardJournal();
+        this.engine.close();
+
+        this.archive.delete();
+        this.savedArchive.delete();
+        this.thumbnails.forEach(File::delete);
+    }
+
+    /**
+     * Get the entries of a template having a single slide template, identified by {@code 1}, with a single element,
+     * identified by {@code 1}, which HTML ID is {@code <slide number>-title}.
+     */
+    private static Map<String, String> templateEntries() {
+        final JsonObject configuration = new JsonObject().put("template", new JsonObject()
+                .put("name", "Test")
+                .put("file", "template.html")
+                .put("js-object", "slideshow")
+                .put("resources-directory", "resources")
+                .put("slides", new JsonObject()
+                        .put("configuration", new JsonObject()
+                                .put("slides-container", "slides")
+                                .put("slide-id-prefix", "slide-")
+                                .put("template-directory", "slides/template")
+                                .put("presentation-directory", "slides/presentation")
+                                .put("thumbnail-directory", "slides/presentation/thumbnails"))
+                        .put("slides-definition", new JsonArray().add(new JsonObject()
+                                .put("id", 1)
+                                .put("name", "Title")
+                                .put("file", "title.html")
+                                .put("elements", new JsonArray().add(new JsonObject()
+                                        .put("id", 1)
+                                        .put("html-id", "${slideNumber}-title")
+                                        .put("default-content", "Title")))))));
+
+        final Map<String, String> entries = new LinkedHashMap<>();
+        entries.put(new TemplateEngine().getConfigurationFilename(), configuration.encodePrettily());
+        entries.put("template.html", "<html><head>${sfxJavascriptResources}</head><body><div id=\"slides\"></div></body></html>");
+        entries.put("slides/template/title.html",
+                "<section id=\"${slideIdPrefix}${slideNumber}\"><h1 id=\"${slideNumber}-title\" ondblclick=\"${sfxCallback}\">Title</h1></section>");
+
+        return entries;
+    }
+
+    private static void writeArchive(final File file, final Map<String, String> entries) throws IOException {
+        try(final ZipOutputStream output = new ZipOutputStream(new FileOutputStream(file))) {
+            for(Map.Entry<String, String> entry : entries.entrySet()) {
+                output.putNextEntry(new ZipEntry(entry.getKey()));
+                output.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                output.closeEntry();
+            }
+        }
+    }
+
+    private static String base64(final String value) {
+        return Base64.getEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertTitles(final PresentationConfiguration configuration, final String... titles) {
+        final List<Slide> slides = configuration.getSlides();
+        assertEquals(titles.length, slides.size());
+
+        for(int index = 0; index < titles.length; index++) {
+            final Slide slide = slides.get(index);
+            final SlideElement title = slide.getElement(slide.getSlideNumber() + "-title");
+
+            assertNotNull(title);
+            assertEquals("<h1>" + titles[index] + "</h1>", title.getHtmlContent());
+            assertEquals("# " + titles[index], title.getOriginalContent());
+            assertEquals(1, title.getTemplate().getId());
+        }
+    }
+
+    /**
+     * Writes an archive containing the {@link #templateEntries() template} and a presentation having a single slide,
+     * numbered {@code 1}, which title is {@code title}.
+     */
+    private void writePresentationArchive(final String title) throws IOException {
+        final JsonObject slide = new JsonObject()
+                .put("template-id", 1)
+                .put("id", "slide-1")
+                .put("number", "1")
+                .put("elements", new JsonArray().add(new JsonObject()
+                        .put("template-id", 1)
+                        .put("element-id", "1-title")
+                        .put("original-content-code", "MARKDOWN")
+                        .put("original-content", base64("# " + title))
+                        .put("html-content", base64("<h1>" + title + "</h1>"))));
+
+        final JsonObject configuration = new JsonObject().put("presentation", new JsonObject()
+                .put("id", 1466945123456L)
+                .put("slides", new JsonArray().add(slide)));
+
+        final Map<String, String> entries = templateEntries();
+        entries.put(PresentationEngine.JSON_CONFIGURATION_FILENAME, configuration.encodePrettily());
+        writeArchive(this.archive, entries);
+    }
+
+    /**
+     * Creates a PNG file filled with the given color, which can be used as the thumbnail of a slide.
+     */
+    private SlideThumbnail createThumbnail(final Color color) throws IOException {
+        final BufferedImage image = new BufferedImage(4, 3, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = image.createGraphics();
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, image.getWidth(), image.getHeight());
+        graphics.dispose();
+
+        final File file = File.createTempFile("sfx-thumbnail", ".png");
+        this.thumbnails.add(file);
+        assertTrue(ImageIO.write(image, "png", file));
+
+        return new SlideThumbnail(file);
+    }
+
+    private void updateTitle(final Slide slide, final String title) {
+        this.engine.updateSlideElement(slide, slide.getSlideNumber() + "-title", "MARKDOWN", "# " + title, "<h1>" + title + "</h1>");
+    }
+
+    @Test public void migrateJsonConfiguration() throws IOException, IllegalAccessException {
+        final JsonObject slide = new JsonObject()
+                .put("template-id", 1)
+                .put("id", "slide-1")
+                .put("number", "1")
+                .put("elements", new JsonArray().add(new JsonObject()
+                        .put("template-id", 1)
+                        .put("element-id", "1-title")
+                        .put("original-content-code", "MARKDOWN")
+                        .put("original-content", base64("# Été"))
+                        .put("html-content", base64("<h1>Été</h1>"))));
+
+        final JsonObject configuration = new JsonObject().put("presentation", new JsonObject()
+                .put("id", 1466945123456L)
+                .put("variables", new JsonArray().add(new JsonObject().put("name", "author").put("value", base64("Thierry"))))
+                .put("slides", new JsonArray().add(slide)));
+
+        final Map<String, String> entries = templateEntries();
+        entries.put(PresentationEngine.JSON_CONFIGURATION_FILENAME, configuration.encodePrettily());
+        writeArchive(this.archive, entries);
+
+        this.engine.loadArchive(this.archive);
+
+        assertEquals(1466945123456L, this.engine.getConfiguration().getId());
+        assertEquals("Thierry", this.engine.getConfiguration().getVariables().iterator().next().getValue());
+        assertTitles(this.engine.getConfiguration(), "Été");
+        assertNotNull(this.engine.getConfiguration().getElementById("1-title"));
+
+        // Once saved, the archive only contains the binary configuration
+        this.engine.saveArchive(this.savedArchive);
+
+        final List<String> savedEntries = ZipUtils.listEntries(this.savedArchive);
+        assertTrue(savedEntries.contains(PresentationEngine.DEFAULT_CONFIGURATION_FILENAME));
+        assertFalse(savedEntries.contains(PresentationEngine.JSON_CONFIGURATION_FILENAME));
+
+        final byte[] savedConfiguration = ZipUtils.readEntry(this.savedArchive, PresentationEngine.DEFAULT_CONFIGURATION_FILENAME);
+        assertTrue(BinaryPresentationConfiguration.isBinary(new ByteArrayInputStream(savedConfiguration)));
+
+        final PresentationEngine reloaded = new PresentationEngine();
+        try {
+            reloaded.loadArchive(this.savedArchive);
+
+            assertEquals(1466945123456L, reloaded.getConfiguration().getId());
+            assertTitles(reloaded.getConfiguration(), "Été");
+        } finally {
+            reloaded.close();
+        }
+    }
+
+    @Test public void binaryConfigurationIsPreferred() throws IOException, IllegalAccessException {
+        final Map<String, String> entries = templateEntries();
+        entries.put(PresentationEngine.JSON_CONFIGURATION_FILENAME, "{\"presentation\": {\"id\": 1, \"slides\": []}}");
+        writeArchive(this.archive, entries);
+
+        this.engine.loadArchive(this.archive);
+        this.engine.getConfiguration().setId(2);
+        this.engine.saveArchive(this.savedArchive);
+
+        // A stale JSON configuration left next to the binary one is ignored
+        final Map<String, String> staleEntries = templateEntries();
+        staleEntries.put(PresentationEngine.JSON_CONFIGURATION_FILENAME, "{\"presentation\": {\"id\": 1, \"slides\": []}}");
+
+        try(final ZipOutputStream output = new ZipOutputStream(new FileOutputStream(this.archive))) {
+            for(Map.Entry<String, String> entry : staleEntries.entrySet()) {
+                output.putNextEntry(new ZipEntry(entry.getKey()));
+                output.write(entry.getValue().getBytes(StandardCharsets.UTF_8));
+                output.closeEntry();
+            }
+
+            output.putNextEntry(new ZipEntry(PresentationEngine.DEFAULT_CONFIGURATION_FILENAME));
+            output.write(ZipUtils.readEntry(this.savedArchive, PresentationEngine.DEFAULT_CONFIGURATION_FILENAME));
+            output.closeEntry();
+        }
+
+        final PresentationEngine reloaded = new PresentationEngine();
+        try {
+            reloaded.loadArchive(this.archive);
+            assertEquals(2, reloaded.getConfiguration().getId());
+        } finally {
+            reloaded.close();
+        }
+    }
+
+    @Test public void snapshotIsSavedWhilePresentationIsModified() throws IOException, IllegalAccessException, InterruptedException {
+        this.writePresentationArchive("First");
+        this.engine.loadArchive(this.archive);
+
+        final Slide slide = this.engine.getConfiguration().getSlideByNumber("1");
+        final SlideThumbnail thumbnail = this.createThumbnail(Color.RED);
+        slide.setSlideThumbnail(thumbnail);
+        final byte[] snapshotThumbnail = Files.readAllBytes(thumbnail.getFile().toPath());
+
+        final PresentationSnapshot snapshot = this.engine.createSnapshot();
+
+        // The presentation is modified between the snapshot and its save
+        Thread.sleep(5);
+        this.engine.addSlide(this.engine.getTemplateConfiguration().getSlideTemplate(1), "1");
+        this.updateTitle(slide, "Modified");
+        slide.setSlideThumbnail(this.createThumbnail(Color.BLUE));
+
+        this.engine.saveArchive(snapshot, this.savedArchive);
+
+        final byte[] savedThumbnail = ZipUtils.readEntry(this.savedArchive, "slides/presentation/thumbnails/1.png");
+        assertTrue(Arrays.equals(snapshotThumbnail, savedThumbnail));
+
+        // The configuration is read from the archive because opening it would recover the modifications from the journal
+        final byte[] savedConfiguration = ZipUtils.readEntry(this.savedArchive, PresentationEngine.DEFAULT_CONFIGURATION_FILENAME);
+        assertTitles(BinaryPresentationConfiguration.read(new ByteArrayInputStream(savedConfiguration),
+                this.engine.getTemplateConfiguration()), "First");
+
+        // The presentation itself keeps its modifications, which are not saved yet
+        assertEquals(2, this.engine.getConfiguration().getSlides().size());
+        assertEquals("<h1>Modified</h1>", slide.getElement("1-title").getHtmlContent());
+        assertNotSame(thumbnail, slide.getSlideThumbnail());
+        assertTrue(this.engine.isModifiedSinceLatestSave());
+    }
+
+    @Test public void savedOnlyIfNotModifiedSinceSnapshot() throws IOException, IllegalAccessException {
+        this.writePresentationArchive("First");
+        this.engine.loadArchive(this.archive);
+        assertFalse(this.engine.isModifiedSinceLatestSave());
+
+        final Slide slide = this.engine.getConfiguration().getSlideByNumber("1");
+        this.updateTitle(slide, "Second");
+        assertTrue(this.engine.isModifiedSinceLatestSave());
+
+        // A modification made after the snapshot is not saved: the presentation is still modified
+        final PresentationSnapshot olderSnapshot = this.engine.createSnapshot();
+        this.updateTitle(slide, "Third");
+        this.engine.saveArchive(olderSnapshot, this.savedArchive);
+        assertTrue(this.engine.isModifiedSinceLatestSave());
+
+        // Without modification after the snapshot, the presentation is saved
+        this.engine.saveArchive(this.engine.createSnapshot(), this.savedArchive);
+        assertFalse(this.engine.isModifiedSinceLatestSave());
+
+        // Marking the presentation modified counts as a modification too
+        final PresentationSnapshot snapshot = this.engine.createSnapshot();
+        this.engine.setModifiedSinceLatestSave(true);
+        this.engine.saveArchive(snapshot, this.savedArchive);
+        assertTrue(this.engine.isModifiedSinceLatestSave());
+    }
+}
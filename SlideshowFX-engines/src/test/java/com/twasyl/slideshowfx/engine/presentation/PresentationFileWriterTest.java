@@ -0,0 +1,142 @@
+package com.twasyl.slideshowfx.engine.presentation;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the {@link PresentationFileWriter} class: the content written in the presentation file, the cache
+ * of rendered slides and the coalescing of writes.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class PresentationFileWriterTest {
+
+    private File presentationFile;
+    private Document document;
+
+    @Before public void before() throws IOException {
+        this.presentationFile = File.createTempFile("sfx-presentation-file-writer", ".html");
+        this.presentationFile.delete();
+
+        this.document = Jsoup.parse("<html><head><title>Presentation</title></head><body><div class=\"reveal\">"
+                + "<div id=\"slides\">\n<section id=\"slide-1\"><h1>First</h1></section>\n"
+                + "<section id=\"slide-2\"><h1>Second</h1><p>Text</p></section>\n</div></div>"
+                + "<script>slideshow.initialize();</script></body></html>");
+    }
+
+    @After public void after() {
+        this.presentationFile.delete();
+    }
+
+    private String readPresentationFile() throws IOException {
+        return new String(Files.readAllBytes(this.presentationFile.toPath()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Asserts the presentation file contains the same document as the one rendered entirely by
+     * {@link Document#html()}. Only the indentation of the slides may differ, so both are parsed before being compared.
+     */
+    private void assertSameAsDocument() throws IOException {
+        assertEquals(Jsoup.parse(this.document.html()).html(), Jsoup.parse(this.readPresentationFile()).html());
+    }
+
+    @Test public void flushWritesTheWholeDocument() throws IOException {
+        final PresentationFileWriter writer = new PresentationFileWriter(this.presentationFile, "slides");
+        writer.write(this.document);
+        writer.flush();
+
+        assertSameAsDocument();
+
+        // Modified slides and document are rendered again once invalidated
+        this.document.getElementById("slide-2").appendElement("p").text("Added");
+        this.document.head().appendElement("style").text("h1 { color: red; }");
+        this.document.getElementById("slides").appendElement("section").attr("id", "slide-3").appendElement("h1").text("Third");
+        writer.invalidateSlide("slide-2");
+        writer.invalidateDocument();
+        writer.write(this.document);
+        writer.flush();
+
+        assertSameAsDocument();
+
+        // Slides removed from the document are not written anymore
+        this.document.getElementById("slide-1").remove();
+        writer.write(this.document);
+        writer.flush();
+
+        assertSameAsDocument();
+    }
+
+    @Test public void flushWritesTheWholeDocumentWithoutSlidesContainer() throws IOException {
+        final PresentationFileWriter writer = new PresentationFileWriter(this.presentationFile, null);
+        writer.write(this.document);
+        writer.flush();
+
+        assertEquals(this.document.html(), this.readPresentationFile());
+    }
+
+    @Test public void unmodifiedSlidesAreNotRenderedAgain() throws IOException {
+        final PresentationFileWriter writer = new PresentationFileWriter(this.presentationFile, "slides");
+        writer.write(this.document);
+        writer.flush();
+
+        // The slides are modified without being invalidated: their previous rendering is written
+        this.document.getElementById("slide-1").getElementsByTag("h1").first().text("First modified");
+        this.document.getElementById("slide-2").getElementsByTag("h1").first().text("Second modified");
+        writer.invalidateSlide("slide-2");
+        writer.write(this.document);
+        writer.flush();
+
+        final String content = this.readPresentationFile();
+        assertTrue(content.contains("<h1>First</h1>"));
+        assertFalse(content.contains("First modified"));
+        assertTrue(content.contains("<h1>Second modified</h1>"));
+
+        writer.invalidateAll();
+        writer.write(this.document);
+        writer.flush();
+
+        assertSameAsDocument();
+    }
+
+    @Test(timeout = 10000) public void writesAreCoalesced() throws IOException, InterruptedException {
+        final AtomicInteger flushes = new AtomicInteger(0);
+        final PresentationFileWriter writer = new PresentationFileWriter(this.presentationFile, "slides") {
+            @Override
+            public synchronized void flush() {
+                flushes.incrementAndGet();
+                super.flush();
+            }
+        };
+
+        for(int update = 1; update <= 5; update++) {
+            this.document.getElementById("slide-1").getElementsByTag("h1").first().text("Update " + update);
+            writer.invalidateSlide("slide-1");
+            writer.write(this.document);
+        }
+
+        // Nothing is written before the coalescing delay
+        assertFalse(this.presentationFile.exists());
+
+        while(flushes.get() == 0) {
+            Thread.sleep(10);
+        }
+        Thread.sleep(2 * PresentationFileWriter.DEFAULT_COALESCING_DELAY);
+
+        assertEquals(1, flushes.get());
+        assertTrue(this.readPresentationFile().contains("<h1>Update 5</h1>"));
+        assertSameAsDocument();
+    }
+}
@@ -0,0 +1,255 @@
+package com.twasyl.slideshowfx.engine.presentation.configuration;
+
+import com.twasyl.slideshowfx.content.extension.Resource;
+import com.twasyl.slideshowfx.content.extension.ResourceType;
+import com.twasyl.slideshowfx.engine.template.configuration.SlideElementTemplate;
+import com.twasyl.slideshowfx.engine.template.configuration.SlideTemplate;
+import com.twasyl.slideshowfx.engine.template.configuration.TemplateConfiguration;
+import com.twasyl.slideshowfx.utils.beans.Pair;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the reading and writing of a {@link PresentationConfiguration} in the binary format of
+ * {@link BinaryPresentationConfiguration}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class BinaryPresentationConfigurationTest {
+
+    private TemplateConfiguration templateConfiguration;
+    private File file;
+
+    @Before public void before() throws IOException {
+        final SlideElementTemplate title = new SlideElementTemplate();
+        title.setId(1);
+        title.setHtmlId("title");
+
+        final SlideTemplate slideTemplate = new SlideTemplate(1, "Title", null);
+        slideTemplate.setElements(new SlideElementTemplate[] {title});
+
+        this.templateConfiguration = new TemplateConfiguration();
+        this.templateConfiguration.setSlideTemplates(new ArrayList<>(Collections.singletonList(slideTemplate)));
+
+        this.file = File.createTempFile("sfx-binary-configuration", ".bin");
+    }
+
+    @After public void after() {
+        this.file.delete();
+    }
+
+    private PresentationConfiguration createConfiguration() {
+        final PresentationConfiguration configuration = new PresentationConfiguration();
+        configuration.setId(1466945123456L);
+        configuration.getCustomResources().add(new Resource(ResourceType.CSS, "h1 { color: red; }"));
+        configuration.getCustomResources().add(new Resource(ResourceType.JAVASCRIPT_FILE, "script.js"));
+        configuration.getVariables().add(new Pair<>("author", "Thierry"));
+
+        final Slide first = new Slide(this.templateConfiguration.getSlideTemplate(1), "1");
+        first.setId("slide-1");
+        first.updateElement("slide-1-title", "MARKDOWN", "# Été", "<h1>Été</h1>");
+        first.getElement("slide-1-title").setTemplate(first.getTemplate().getSlideElementTemplate(1));
+        first.updateElement("slide-1-text", "MARKDOWN", "Text", "<p>Text</p>");
+
+        final Slide second = new Slide("2");
+        second.setId("slide-2");
+        second.updateElement("slide-2-empty", null, null, null);
+
+        configuration.setSlides(Arrays.asList(first, second));
+        return configuration;
+    }
+
+    private static void assertSameConfiguration(final PresentationConfiguration expected, final PresentationConfiguration actual) {
+        assertEquals(expected.getId(), actual.getId());
+
+        assertEquals(expected.getCustomResources().size(), actual.getCustomResources().size());
+        actual.getCustomResources().forEach(resource -> assertTrue(expected.getCustomResources().stream()
+                .anyMatch(r -> r.getType() == resource.getType() && r.getContent().equals(resource.getContent()))));
+
+        assertEquals(expected.getVariables(), actual.getVariables());
+
+        assertEquals(expected.getSlides().size(), actual.getSlides().size());
+        for(int index = 0; index < expected.getSlides().size(); index++) {
+            final Slide expectedSlide = expected.getSlides().get(index);
+            final Slide actualSlide = actual.getSlides().get(index);
+
+            assertEquals(expectedSlide.getId(), actualSlide.getId());
+            assertEquals(expectedSlide.getSlideNumber(), actualSlide.getSlideNumber());
+            assertSame(expectedSlide.getTemplate(), actualSlide.getTemplate());
+            assertEquals(expectedSlide.getElements().size(), actualSlide.getElements().size());
+
+            for(SlideElement expectedElement : expectedSlide.getElements()) {
+                final SlideElement actualElement = actualSlide.getElement(expectedElement.getId());
+                assertNotNull(actualElement);
+                assertSame(expectedElement.getTemplate(), actualElement.getTemplate());
+                assertEquals(expectedElement.getOriginalContentCode(), actualElement.getOriginalContentCode());
+                assertEquals(expectedElement.getOriginalContent(), actualElement.getOriginalContent());
+                assertEquals(expectedElement.getHtmlContent(), actualElement.getHtmlContent());
+            }
+        }
+    }
+
+    private void writeBytes(final byte[] content) throws IOException {
+        Files.write(this.file.toPath(), content);
+    }
+
+    @Test public void writeAndRead() throws IOException {
+        final PresentationConfiguration configuration = this.createConfiguration();
+        BinaryPresentationConfiguration.write(configuration, this.file);
+
+        assertTrue(BinaryPresentationConfiguration.isBinary(this.file));
+        assertSameConfiguration(configuration, BinaryPresentationConfiguration.read(this.file, this.templateConfiguration));
+
+        try(final InputStream stream = new BufferedInputStream(new FileInputStream(this.file))) {
+            assertTrue(BinaryPresentationConfiguration.isBinary(stream));
+            assertSameConfiguration(configuration, BinaryPresentationConfiguration.read(stream, this.templateConfiguration));
+        }
+    }
+
+    @Test public void contentsAreDecodedLazily() throws IOException {
+        BinaryPresentationConfiguration.write(this.createConfiguration(), this.file);
+
+        final PresentationConfiguration read = BinaryPresentationConfiguration.read(this.file, this.templateConfiguration);
+        final SlideElement element = read.getSlideById("slide-1").getElement("slide-1-title");
+
+        assertNotNull(element.getEncodedHtmlContent());
+        assertNotNull(element.getEncodedOriginalContent());
+
+        assertEquals("<h1>Été</h1>", element.getHtmlContent());
+        assertNull(element.getEncodedHtmlContent());
+        assertNotNull(element.getEncodedOriginalContent());
+
+        assertEquals("# Été", element.getOriginalContent());
+        assertNull(element.getEncodedOriginalContent());
+
+        // Missing contents are not encoded
+        final SlideElement empty = read.getSlideById("slide-2").getElement("slide-2-empty");
+        assertNull(empty.getEncodedHtmlContent());
+        assertNull(empty.getHtmlContent());
+        assertNull(empty.getOriginalContentCode());
+    }
+
+    @Test public void encodedContentsAreWrittenBack() throws IOException {
+        final PresentationConfiguration configuration = this.createConfiguration();
+        BinaryPresentationConfiguration.write(configuration, this.file);
+
+        // The configuration is written in the file it has been read from, without decoding its contents
+        final PresentationConfiguration read = BinaryPresentationConfiguration.read(this.file, this.templateConfiguration);
+        read.getSlideById("slide-1").getElement("slide-1-text").setHtmlContent("<p>Modified</p>");
+        BinaryPresentationConfiguration.write(read, this.file);
+
+        assertNotNull(read.getSlideById("slide-1").getElement("slide-1-title").getEncodedHtmlContent());
+
+        configuration.getSlideById("slide-1").getElement("slide-1-text").setHtmlContent("<p>Modified</p>");
+        assertSameConfiguration(configuration, BinaryPresentationConfiguration.read(this.file, this.templateConfiguration));
+
+        // The configuration read before still reads the contents of the file it was read from
+        assertEquals("<h1>Été</h1>", read.getSlideById("slide-1").getElement("slide-1-title").getHtmlContent());
+    }
+
+    @Test public void jsonIsNotBinary() throws IOException {
+        this.writeBytes("{\"presentation\": {}}".getBytes(StandardCharsets.UTF_8));
+        assertFalse(BinaryPresentationConfiguration.isBinary(this.file));
+
+        this.writeBytes(new byte[] {0x53, 0x46});
+        assertFalse(BinaryPresentationConfiguration.isBinary(this.file));
+
+        try(final InputStream stream = new BufferedInputStream(new FileInputStream(this.file))) {
+            assertFalse(BinaryPresentationConfiguration.isBinary(stream));
+            assertEquals(0x53, stream.read());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void readBadMagic() throws IOException {
+        BinaryPresentationConfiguration.write(this.createConfiguration(), this.file);
+
+        final byte[] content = Files.readAllBytes(this.file.toPath());
+        content[0] = '{';
+        this.writeBytes(content);
+
+        BinaryPresentationConfiguration.read(this.file, this.templateConfiguration);
+    }
+
+    @Test(expected = IOException.class)
+    public void readUnsupportedVersion() throws IOException {
+        BinaryPresentationConfiguration.write(this.createConfiguration(), this.file);
+
+        final byte[] content = Files.readAllBytes(this.file.toPath());
+        ByteBuffer.wrap(content).putShort(4, (short) (BinaryPresentationConfiguration.VERSION + 1));
+        this.writeBytes(content);
+
+        BinaryPresentationConfiguration.read(this.file, this.templateConfiguration);
+    }
+
+    @Test public void readTruncated() throws IOException {
+        BinaryPresentationConfiguration.write(this.createConfiguration(), this.file);
+        final byte[] content = Files.readAllBytes(this.file.toPath());
+
+        // Every truncation must be reported as an IOException, whatever the field it ends in
+        for(int length = 0; length < content.length; length++) {
+            this.writeBytes(Arrays.copyOf(content, length));
+
+            try {
+                BinaryPresentationConfiguration.read(this.file, this.templateConfiguration);
+                fail("A configuration truncated to " + length + " bytes has been read");
+            } catch (IOException e) {
+                // Expected
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void readInvalidStringLength() throws IOException {
+        BinaryPresentationConfiguration.write(this.createConfiguration(), this.file);
+
+        // The first string of the string table follows the magic, the version and the size of the table
+        final byte[] content = Files.readAllBytes(this.file.toPath());
+        ByteBuffer.wrap(content).putInt(10, -2);
+        this.writeBytes(content);
+
+        BinaryPresentationConfiguration.read(this.file, this.templateConfiguration);
+    }
+
+    @Test(expected = IOException.class)
+    public void readInvalidStringTableIndex() throws IOException {
+        final PresentationConfiguration configuration = new PresentationConfiguration();
+        configuration.getCustomResources().add(new Resource(ResourceType.CSS, "h1 {}"));
+        BinaryPresentationConfiguration.write(configuration, this.file);
+
+        // magic, version, table size, table string, ID and resources count precede the index of the resource type
+        final byte[] content = Files.readAllBytes(this.file.toPath());
+        final int indexOffset = 4 + 2 + 4 + 4 + "CSS".length() + 8 + 4;
+        ByteBuffer.wrap(content).putInt(indexOffset, 1);
+        this.writeBytes(content);
+
+        BinaryPresentationConfiguration.read(this.file, this.templateConfiguration);
+    }
+
+    @Test(expected = IOException.class)
+    public void readUnknownResourceType() throws IOException {
+        final PresentationConfiguration configuration = new PresentationConfiguration();
+        configuration.getCustomResources().add(new Resource(ResourceType.CSS, "h1 {}"));
+        BinaryPresentationConfiguration.write(configuration, this.file);
+
+        final byte[] content = Files.readAllBytes(this.file.toPath());
+        final int typeOffset = 4 + 2 + 4 + 4;
+        content[typeOffset] = 'X';
+        this.writeBytes(content);
+
+        BinaryPresentationConfiguration.read(this.file, this.templateConfiguration);
+    }
+}
@@ -0,0 +1,61 @@
+package com.twasyl.slideshowfx.engine.presentation.configuration;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Element;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the lookup of elements in the document of a {@link PresentationConfiguration}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class PresentationConfigurationTest {
+
+    private PresentationConfiguration configuration;
+
+    @Before public void before() {
+        this.configuration = new PresentationConfiguration();
+        this.configuration.setDocument(Jsoup.parse("<div id=\"slides\"><section id=\"slide\"><div id=\"element\"></div></section></div>"));
+    }
+
+    @Test public void missingElement() {
+        assertNotNull(this.configuration.getElementById("slides"));
+        assertNull(this.configuration.getElementById("missing"));
+    }
+
+    @Test public void missingElementIsNotSearchedInCurrentIndex() {
+        assertNotNull(this.configuration.getElementById("slides"));
+
+        this.configuration.getDocument().body().appendElement("div").attr("id", "added");
+        assertNull(this.configuration.getElementById("added"));
+
+        this.configuration.invalidateDocumentIndex();
+        assertNotNull(this.configuration.getElementById("added"));
+    }
+
+    @Test public void staleElementIsSearchedAgain() {
+        final Element element = this.configuration.getElementById("element");
+        element.remove();
+        this.configuration.getDocument().body().appendElement("div").attr("id", "element");
+
+        final Element found = this.configuration.getElementById("element");
+        assertNotSame(element, found);
+        assertSame(this.configuration.getDocument(), found.ownerDocument());
+    }
+
+    @Test public void updatedSlideIsIndexed() {
+        final Slide slide = new Slide();
+        slide.setId("slide");
+        slide.updateElement("element", "HTML", "Content", "<span id=\"nested\">Content</span>");
+
+        assertNull(this.configuration.getElementById("nested"));
+
+        this.configuration.updateSlideInDocument(slide);
+        assertEquals("Content", this.configuration.getElementById("nested").text());
+    }
+}
@@ -0,0 +1,106 @@
+package com.twasyl.slideshowfx.engine.presentation.configuration;
+
+import com.twasyl.slideshowfx.content.extension.Resource;
+import com.twasyl.slideshowfx.content.extension.ResourceType;
+import com.twasyl.slideshowfx.engine.template.configuration.TemplateConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the {@link PresentationJournal} class.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class PresentationJournalTest {
+
+    private final long presentationId = System.nanoTime();
+    private File archive;
+
+    @Before public void before() throws IOException {
+        this.archive = File.createTempFile("presentation", ".sfx");
+    }
+
+    @After public void after() throws IOException {
+        Files.deleteIfExists(PresentationJournal.getJournalFile(this.presentationId, this.archive).toPath());
+        Files.deleteIfExists(this.archive.toPath());
+    }
+
+    private static Slide slide(final String id, final String content) {
+        final Slide slide = new Slide(id);
+        slide.setId(id);
+        slide.updateElement(id + "-element", "HTML", content, content);
+        return slide;
+    }
+
+    /**
+     * Creates a presentation, as read from its archive, containing the given slides.
+     */
+    private PresentationConfiguration presentation(final Slide... slides) {
+        final PresentationConfiguration configuration = new PresentationConfiguration();
+        configuration.setId(this.presentationId);
+
+        for(Slide slide : slides) configuration.getSlides().add(slide);
+
+        return configuration;
+    }
+
+    /**
+     * Records modifications in the journal of the presentation, without compacting it.
+     */
+    private void modify() throws IOException {
+        final PresentationJournal journal = PresentationJournal.create(this.presentationId, this.archive);
+        journal.slideInserted(1, slide("second", "Second"));
+        journal.elementUpdated(slide("first", "Updated"), slide("first", "Updated").getElement("first-element"));
+        journal.resourceAdded(new Resource(ResourceType.CSS, "body { color: red; }"));
+        journal.sync();
+    }
+
+    @Test public void replayUnsavedModifications() throws IOException {
+        this.modify();
+
+        final PresentationConfiguration configuration = this.presentation(slide("first", "First"));
+        final int replayed = PresentationJournal.open(this.presentationId, this.archive).replay(configuration, new TemplateConfiguration());
+
+        assertEquals(3, replayed);
+        assertEquals(2, configuration.getSlides().size());
+        assertEquals("second", configuration.getSlides().get(1).getId());
+        assertEquals("Updated", configuration.getSlideById("first").getElement("first-element").getOriginalContent());
+        assertEquals(1, configuration.getCustomResources().size());
+    }
+
+    @Test public void reopenAfterFailedCompaction() throws IOException {
+        this.modify();
+
+        // The archive has been saved with the modifications but the journal hasn't been compacted
+        final PresentationConfiguration configuration = this.presentation(slide("first", "Updated"), slide("second", "Second"));
+        configuration.getCustomResources().add(new Resource(ResourceType.CSS, "body { color: red; }"));
+
+        PresentationJournal.open(this.presentationId, this.archive).replay(configuration, new TemplateConfiguration());
+
+        assertEquals(2, configuration.getSlides().size());
+        assertEquals("first", configuration.getSlides().get(0).getId());
+        assertEquals("second", configuration.getSlides().get(1).getId());
+        assertEquals("Updated", configuration.getSlideById("first").getElement("first-element").getOriginalContent());
+        assertEquals(1, configuration.getCustomResources().size());
+    }
+
+    @Test public void replayTwice() throws IOException {
+        this.modify();
+
+        final PresentationConfiguration configuration = this.presentation(slide("first", "First"));
+        PresentationJournal.open(this.presentationId, this.archive).replay(configuration, new TemplateConfiguration());
+        PresentationJournal.open(this.presentationId, this.archive).replay(configuration, new TemplateConfiguration());
+
+        assertEquals(2, configuration.getSlides().size());
+        assertEquals(1, configuration.getCustomResources().size());
+    }
+}
@@ -0,0 +1,150 @@
+package com.twasyl.slideshowfx.engine.presentation.configuration;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the {@link SlideList} class.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class SlideListTest {
+
+    private static Slide slide(final String id) {
+        final Slide slide = new Slide(id);
+        slide.setId(id);
+        return slide;
+    }
+
+    /**
+     * Checks the indexes of the list against a traversal of the list.
+     */
+    private static void assertIndexed(final SlideList slides) {
+        for(int index = 0; index < slides.size(); index++) {
+            final Slide slide = slides.get(index);
+
+            assertEquals(firstPosition(slides, slide), slides.indexOf(slide));
+            assertSame(firstWithId(slides, slide.getId()), slides.getById(slide.getId()));
+            assertSame(firstWithNumber(slides, slide.getSlideNumber()), slides.getByNumber(slide.getSlideNumber()));
+        }
+    }
+
+    private static int firstPosition(final SlideList slides, final Slide slide) {
+        for(int index = 0; index < slides.size(); index++) if(slides.get(index) == slide) return index;
+        return -1;
+    }
+
+    private static Slide firstWithId(final SlideList slides, final String id) {
+        for(Slide slide : slides) if(id.equals(slide.getId())) return slide;
+        return null;
+    }
+
+    private static Slide firstWithNumber(final SlideList slides, final String slideNumber) {
+        for(Slide slide : slides) if(slideNumber.equals(slide.getSlideNumber())) return slide;
+        return null;
+    }
+
+    @Test public void insertAndRemove() {
+        final SlideList slides = new SlideList();
+        final Slide first = slide("1");
+        final Slide second = slide("2");
+        final Slide third = slide("3");
+
+        slides.add(first);
+        slides.add(third);
+        slides.add(1, second);
+        assertIndexed(slides);
+
+        slides.remove(first);
+        assertIndexed(slides);
+        assertEquals(-1, slides.indexOf(first));
+        assertNull(slides.getById("1"));
+        assertNull(first.getOwner());
+    }
+
+    @Test public void identifierChanged() {
+        final SlideList slides = new SlideList();
+        final Slide slide = slide("1");
+        slides.add(slide);
+
+        slide.setId("renamed");
+        slide.setSlideNumber("42");
+
+        assertNull(slides.getById("1"));
+        assertSame(slide, slides.getById("renamed"));
+        assertSame(slide, slides.getByNumber("42"));
+    }
+
+    @Test public void identifierChangedInOtherList() {
+        final SlideList slides = new SlideList();
+        final SlideList otherSlides = new SlideList();
+        final Slide slide = slide("1");
+        slides.add(slide);
+        otherSlides.add(slide("2"));
+
+        slide.setId("renamed");
+
+        assertSame(slide, slides.getById("renamed"));
+        assertNull(otherSlides.getById("renamed"));
+        assertNotNull(otherSlides.getById("2"));
+    }
+
+    @Test public void duplicatedIdentifiers() {
+        final SlideList slides = new SlideList();
+        final Slide first = slide("same");
+        final Slide second = slide("same");
+        slides.add(first);
+        slides.add(second);
+
+        assertSame(first, slides.getById("same"));
+
+        slides.remove(0);
+        assertSame(second, slides.getById("same"));
+    }
+
+    @Test public void removeWithIterator() {
+        final SlideList slides = new SlideList();
+        slides.add(slide("1"));
+        slides.add(slide("2"));
+        slides.add(slide("3"));
+
+        final Iterator<Slide> iterator = slides.iterator();
+        iterator.next();
+        iterator.next();
+        iterator.remove();
+
+        assertNull(slides.getById("2"));
+        assertIndexed(slides);
+    }
+
+    @Test public void randomModifications() {
+        final Random random = new Random(42);
+        final SlideList slides = new SlideList();
+
+        for(int modification = 0; modification < 2000; modification++) {
+            final int operation = random.nextInt(7);
+
+            if(slides.isEmpty() || operation < 2) {
+                slides.add(random.nextInt(slides.size() + 1), slide(String.valueOf(random.nextInt(50))));
+            } else if(operation == 2) {
+                slides.remove(random.nextInt(slides.size()));
+            } else if(operation == 3) {
+                slides.set(random.nextInt(slides.size()), slide(String.valueOf(random.nextInt(50))));
+            } else if(operation == 4) {
+                slides.get(random.nextInt(slides.size())).setId(String.valueOf(random.nextInt(50)));
+            } else if(operation == 5) {
+                slides.add(random.nextInt(slides.size() + 1), slides.get(random.nextInt(slides.size())));
+            } else {
+                slides.removeIf(slide -> slide.getSlideNumber().equals(String.valueOf(random.nextInt(50))));
+            }
+
+            assertIndexed(slides);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.twasyl.slideshowfx.engine.presentation.configuration;
+
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the lookup of elements of the {@link Slide} class.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class SlideTest {
+
+    @Test public void elementIdChanged() {
+        final Slide slide = new Slide();
+        final SlideElement element = slide.updateElement("element", "HTML", "Content", "Content");
+
+        element.setId("renamed");
+
+        assertNull(slide.getElement("element"));
+        assertSame(element, slide.getElement("renamed"));
+    }
+
+    @Test public void elementIdChangedInOtherSlide() {
+        final Slide slide = new Slide();
+        final Slide otherSlide = new Slide();
+        final SlideElement element = slide.updateElement("element", "HTML", "Content", "Content");
+        final SlideElement otherElement = otherSlide.updateElement("other", "HTML", "Content", "Content");
+
+        element.setId("renamed");
+
+        assertNull(otherSlide.getElement("renamed"));
+        assertSame(otherElement, otherSlide.getElement("other"));
+    }
+
+    @Test public void removedElement() {
+        final Slide slide = new Slide();
+        slide.updateElement("element", "HTML", "Content", "Content");
+
+        final Iterator<SlideElement> iterator = slide.getElements().iterator();
+        final SlideElement element = iterator.next();
+        iterator.remove();
+
+        assertNull(slide.getElement("element"));
+
+        element.setId("renamed");
+        assertNull(slide.getElement("renamed"));
+    }
+}
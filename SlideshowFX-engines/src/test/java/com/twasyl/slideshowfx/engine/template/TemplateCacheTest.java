@@ -0,0 +1,91 @@
+package com.twasyl.slideshowfx.engine.template;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the deletion of the directories of the templates cached by a {@link TemplateCache}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class TemplateCacheTest {
+
+    private File archiveFile;
+
+    @Before public void before() throws IOException {
+        this.archiveFile = File.createTempFile("sfx-template-cache-test", ".sfxt");
+
+        final String configuration = "{\"template\": {\"name\": \"Test\", \"file\": \"template.html\", " +
+                "\"js-object\": \"slideshow\", \"resources-directory\": \"resources\"}}";
+
+        try(final ZipOutputStream output = new ZipOutputStream(new FileOutputStream(this.archiveFile))) {
+            output.putNextEntry(new ZipEntry(new TemplateEngine().getConfigurationFilename()));
+            output.write(configuration.getBytes(StandardCharsets.UTF_8));
+            output.putNextEntry(new ZipEntry("template.html"));
+            output.write("<html><body></body></html>".getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+    }
+
+    @After public void after() {
+        this.archiveFile.delete();
+    }
+
+    private TemplateCache.Entry acquire(final TemplateCache cache) throws IOException {
+        try(final ZipFile archive = new ZipFile(this.archiveFile)) {
+            return cache.acquire(archive);
+        }
+    }
+
+    @Test public void evictedTemplateIsDeleted() throws IOException {
+        final TemplateCache cache = new TemplateCache(0);
+        final TemplateCache.Entry entry = this.acquire(cache);
+        final File document = entry.getConfiguration().getFile();
+        assertTrue(document.exists());
+
+        cache.release(entry);
+
+        assertFalse(document.exists());
+        assertEquals(0, cache.size());
+    }
+
+    @Test public void clearDeletesIdleTemplates() throws IOException {
+        final TemplateCache cache = new TemplateCache(4);
+        final TemplateCache.Entry entry = this.acquire(cache);
+        final File document = entry.getConfiguration().getFile();
+
+        cache.release(entry);
+        assertTrue(document.exists());
+
+        cache.clear();
+
+        assertFalse(document.exists());
+        assertEquals(0, cache.size());
+    }
+
+    @Test public void clearDeletesUsedTemplatesOnceReleased() throws IOException {
+        final TemplateCache cache = new TemplateCache(4);
+        final TemplateCache.Entry entry = this.acquire(cache);
+        final File document = entry.getConfiguration().getFile();
+
+        cache.clear();
+        assertTrue(document.exists());
+        assertEquals(0, cache.size());
+
+        cache.release(entry);
+        assertFalse(document.exists());
+    }
+}
@@ -0,0 +1 @@
+// Empty stand-in for the quizCaller.js script provided by SlideshowFX-app
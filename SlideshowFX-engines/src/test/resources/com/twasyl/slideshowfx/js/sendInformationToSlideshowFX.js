@@ -0,0 +1 @@
+// Empty stand-in for the sendInformationToSlideshowFX.js script provided by SlideshowFX-app
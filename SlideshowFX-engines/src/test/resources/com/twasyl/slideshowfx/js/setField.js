@@ -0,0 +1 @@
+// Empty stand-in for the setField.js script provided by SlideshowFX-app
@@ -0,0 +1 @@
+// Empty stand-in for the snippetExecutor.js script provided by SlideshowFX-app
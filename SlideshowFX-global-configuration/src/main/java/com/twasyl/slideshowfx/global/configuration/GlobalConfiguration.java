@@ -1,12 +1,21 @@
 package com.twasyl.slideshowfx.global.configuration;
 
+import com.twasyl.slideshowfx.logs.AsyncHandler;
 import com.twasyl.slideshowfx.logs.SlideshowFXHandler;
+import com.twasyl.slideshowfx.logs.StructuredFormatter;
 
 import java.io.*;
 import java.nio.charset.Charset;
+import java.nio.file.*;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.*;
 
@@ -14,6 +23,11 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 
 /**
  * This class provides methods for accessing configuration properties.
+ * The properties are read once from the {@link #CONFIG_FILE configuration file} and kept in memory, so reading a
+ * property doesn't access the file. The properties are read again when the file is modified by another program, which
+ * is detected by watching the {@link #APPLICATION_DIRECTORY application directory}. Modifications of properties are
+ * visible immediately but are written to the file asynchronously, after {@link #WRITE_DELAY} milliseconds, so that
+ * consecutive modifications result in a single write. {@link #flush()} writes pending modifications immediately.
  *
  * @author Thierry Wasylczenko
  * @version 1.0.0
@@ -64,6 +78,16 @@ public class GlobalConfiguration {
      */
     private static final String LOG_HANDLERS_PARAMETER = "handlers";
 
+    /**
+     * Name of the parameter for specifying the handlers the {@link AsyncHandler} publishes logs to.
+     */
+    private static final String LOG_ASYNC_HANDLERS_PARAMETER = AsyncHandler.class.getName().concat(".handlers");
+
+    /**
+     * Name of the parameter for specifying what the {@link AsyncHandler} does when too many logs are waiting.
+     */
+    private static final String LOG_ASYNC_POLICY_PARAMETER = AsyncHandler.class.getName().concat(".policy");
+
     /**
      * Name of the parameter suffix for the specifying the encoding of the log file.
      */
@@ -89,6 +113,53 @@ public class GlobalConfiguration {
      */
     private static final String LOG_FILE_APPEND_PARAMETER = "java.util.logging.FileHandler.append";
 
+    /**
+     * The delay, in milliseconds, after which modifications of properties are written to the configuration file.
+     * Value is {@value #WRITE_DELAY}.
+     */
+    public static final long WRITE_DELAY = 500;
+
+    /**
+     * The properties of the configuration file, loaded on first access.
+     */
+    private static final Map<String, String> PROPERTIES = new ConcurrentHashMap<>();
+
+    /**
+     * The values of properties already converted by {@link #getLongProperty(String)} and
+     * {@link #getBooleanProperty(String)}, so that they are not parsed on every call.
+     */
+    private static final Map<String, Object> TYPED_PROPERTIES = new ConcurrentHashMap<>();
+
+    /**
+     * The modifications not written to the configuration file yet. A {@code null} value indicates a removed property.
+     * This map is also the lock guarding modifications of the properties.
+     */
+    private static final Map<String, String> PENDING_MODIFICATIONS = new HashMap<>();
+
+    private static final ScheduledExecutorService WRITER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "GlobalConfiguration-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static volatile boolean propertiesLoaded = false;
+    /**
+     * The write of the pending modifications scheduled by {@link #scheduleWrite(String, String)}, which is cancelled
+     * when {@link #flush()} is called before it happens.
+     */
+    private static ScheduledFuture<?> scheduledWrite;
+    /**
+     * The content of the configuration file written by {@link #flush()}, in order to ignore the modifications of the
+     * file made by the application itself.
+     */
+    private static byte[] lastWrittenContent;
+    private static Thread watcher;
+
+    static {
+        // Pending modifications must not be lost when the application exits
+        Runtime.getRuntime().addShutdownHook(new Thread(GlobalConfiguration::flush, "GlobalConfiguration-flush"));
+    }
+
     /**
      * Creates the configuration directory represented by the {@link #APPLICATION_DIRECTORY} variable if it doesn't
      * already exist.
@@ -101,6 +172,8 @@ public class GlobalConfiguration {
             created = APPLICATION_DIRECTORY.mkdir();
         }
 
+        if(propertiesLoaded) watchConfigurationFile();
+
         return created;
     }
 
@@ -144,21 +217,26 @@ public class GlobalConfiguration {
      */
     public synchronized static void fillConfigurationWithDefaultValue() {
         if(CONFIG_FILE.exists()) {
-            final Properties properties = readAllPropertiesFromConfigurationFile();
+            final Map<String, String> properties = getProperties();
 
             if(!properties.containsKey(TEMPORARY_FILES_DELETION_ON_EXIT_PARAMETER)) enableTemporaryFilesDeletionOnExit(true);
             if(!properties.containsKey(TEMPORARY_FILES_MAX_AGE_PARAMETER)) setTemporaryFilesMaxAge(7);
             if(!properties.containsKey(AUTO_SAVING_ENABLED_PARAMETER)) enableAutoSaving(false);
             if(!properties.containsKey(AUTO_SAVING_INTERVAL_PARAMETER)) setAutoSavingInterval(5);
             if(!properties.containsKey(LOG_LEVEL_PARAMETER)) setLogLevel(Level.INFO);
-            if(!properties.containsKey(LOG_HANDLERS_PARAMETER)) setLogHandler(FileHandler.class, SlideshowFXHandler.class);
+            if(!properties.containsKey(LOG_HANDLERS_PARAMETER)) setLogHandler(AsyncHandler.class);
+            if(!properties.containsKey(LOG_ASYNC_HANDLERS_PARAMETER)) setAsyncLogHandler(FileHandler.class, SlideshowFXHandler.class);
+            if(!properties.containsKey(LOG_ASYNC_POLICY_PARAMETER)) setAsyncLogOverflowPolicy(AsyncHandler.OverflowPolicy.DROP);
             if(!properties.containsKey(LOG_FILE_APPEND_PARAMETER)) setLogFileAppend(true);
             if(!properties.containsKey(FileHandler.class.getName().concat(LOG_ENCODING_SUFFIX))) setLogEncoding(FileHandler.class, UTF_8);
-            if(!properties.containsKey(FileHandler.class.getName().concat(LOG_FORMATTER_SUFFIX))) setLogFormatter(FileHandler.class, SimpleFormatter.class);
+            if(!properties.containsKey(FileHandler.class.getName().concat(LOG_FORMATTER_SUFFIX))) setLogFormatter(FileHandler.class, StructuredFormatter.class);
             if(!properties.containsKey(LOG_FILE_LIMIT_PARAMETER)) setLogFileLimit(50000);
             if(!properties.containsKey(LOG_FILE_PATTERN_PARAMETER)) setLogFilePattern("%h/.SlideshowFX/sfx%g.log");
             if(!properties.containsKey(SlideshowFXHandler.class.getName().concat(LOG_ENCODING_SUFFIX))) setLogEncoding(SlideshowFXHandler.class, UTF_8);
-            if(!properties.containsKey(SlideshowFXHandler.class.getName().concat(LOG_FORMATTER_SUFFIX))) setLogFormatter(SlideshowFXHandler.class, SimpleFormatter.class);
+            if(!properties.containsKey(SlideshowFXHandler.class.getName().concat(LOG_FORMATTER_SUFFIX))) setLogFormatter(SlideshowFXHandler.class, StructuredFormatter.class);
+
+            // The configuration file may be read by other components, like the logging system, right after
+            flush();
         }
     }
 
@@ -180,12 +258,38 @@ public class GlobalConfiguration {
      * doesn't exist, an empty object is returned.
      * @return The properties stored in the configuration file.
      */
-    private synchronized static Properties readAllPropertiesFromConfigurationFile() {
-        final Properties properties = new Properties();
+    private static Properties readAllPropertiesFromConfigurationFile() {
+        return parseProperties(readConfigurationFile());
+    }
 
+    /**
+     * Read the content of the configuration file.
+     * @return The content of the configuration file or {@code null} if it doesn't exist or can not be read.
+     */
+    private static byte[] readConfigurationFile() {
         if(CONFIG_FILE.exists()) {
+            try {
+                return Files.readAllBytes(CONFIG_FILE.toPath());
+            } catch (NoSuchFileException e) {
+                LOGGER.log(Level.FINE, "The configuration file has been deleted", e);
+            } catch (IOException e) {
+                LOGGER.log(Level.SEVERE, "Can not load configuration file", e);
+            }
+        }
 
-            try(final Reader reader = new FileReader(CONFIG_FILE)) {
+        return null;
+    }
+
+    /**
+     * Parse the properties of the given content of the configuration file.
+     * @param content The content of the configuration file, may be {@code null}.
+     * @return The properties contained in the content, which is empty if the content is {@code null}.
+     */
+    private static Properties parseProperties(final byte[] content) {
+        final Properties properties = new Properties();
+
+        if(content != null) {
+            try(final Reader reader = new InputStreamReader(new ByteArrayInputStream(content))) {
                 properties.load(reader);
             } catch (IOException e) {
                 LOGGER.log(Level.SEVERE, "Can not load configuration file", e);
@@ -197,19 +301,162 @@ public class GlobalConfiguration {
 
     /**
      * Writes all properties to the configuration file. If the given properties are null, nothing is performed.
+     * The properties are written in a temporary file which then replaces the configuration file, so that the
+     * configuration file is never read while it is partially written. This method must be called while holding the
+     * lock of {@link #PENDING_MODIFICATIONS}.
      * @param properties The properties to write to the configuration file.
      */
-    private synchronized static void writeAllPropertiesToConfigurationFile(final Properties properties) {
+    private static void writeAllPropertiesToConfigurationFile(final Properties properties) {
         if(properties != null) {
-            try (final Writer writer = new FileWriter(CONFIG_FILE)) {
-                properties.store(writer, "");
-                writer.flush();
+            File temporaryFile = null;
+
+            try {
+                final ByteArrayOutputStream content = new ByteArrayOutputStream();
+                try(final Writer writer = new OutputStreamWriter(content)) {
+                    properties.store(writer, "");
+                }
+
+                temporaryFile = File.createTempFile(CONFIG_FILE.getName(), ".tmp", APPLICATION_DIRECTORY);
+                Files.write(temporaryFile.toPath(), content.toByteArray());
+
+                try {
+                    Files.move(temporaryFile.toPath(), CONFIG_FILE.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporaryFile.toPath(), CONFIG_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+
+                lastWrittenContent = content.toByteArray();
             } catch (IOException e) {
                 LOGGER.log(Level.SEVERE, "Can not save configuration", e);
+            } finally {
+                if(temporaryFile != null) temporaryFile.delete();
             }
         }
     }
 
+    /**
+     * Get the properties of the configuration, loading them from the configuration file if it hasn't been done yet.
+     * @return The properties of the configuration.
+     */
+    private static Map<String, String> getProperties() {
+        if(!propertiesLoaded) {
+            synchronized(PENDING_MODIFICATIONS) {
+                if(!propertiesLoaded) {
+                    reloadProperties();
+                    propertiesLoaded = true;
+                }
+            }
+
+            watchConfigurationFile();
+        }
+
+        return PROPERTIES;
+    }
+
+    /**
+     * Reads the configuration file again and replaces the properties kept in memory. Modifications that haven't been
+     * written to the file yet are kept. Nothing is performed if the file still has the content written by
+     * {@link #flush()}, as the properties kept in memory are already up to date.
+     */
+    private static void reloadProperties() {
+        synchronized(PENDING_MODIFICATIONS) {
+            final byte[] content = readConfigurationFile();
+            if(content != null && Arrays.equals(content, lastWrittenContent)) return;
+
+            final Properties properties = parseProperties(content);
+            final Map<String, String> values = new HashMap<>();
+            properties.stringPropertyNames().forEach(name -> values.put(name, properties.getProperty(name)));
+            PENDING_MODIFICATIONS.forEach((name, value) -> {
+                if(value == null) values.remove(name);
+                else values.put(name, value);
+            });
+
+            PROPERTIES.keySet().retainAll(values.keySet());
+            PROPERTIES.putAll(values);
+            TYPED_PROPERTIES.clear();
+        }
+    }
+
+    /**
+     * Starts watching the application directory in order to read the configuration file again when it is modified by
+     * another program. Nothing is performed if the directory doesn't exist or is already watched.
+     */
+    private static synchronized void watchConfigurationFile() {
+        if(watcher != null || !APPLICATION_DIRECTORY.exists()) return;
+
+        try {
+            final WatchService watchService = FileSystems.getDefault().newWatchService();
+            APPLICATION_DIRECTORY.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+
+            watcher = new Thread(() -> {
+                try {
+                    while(!Thread.currentThread().isInterrupted()) {
+                        final WatchKey key = watchService.take();
+
+                        final boolean configurationModified = key.pollEvents().stream()
+                                .anyMatch(event -> event.kind() == StandardWatchEventKinds.OVERFLOW
+                                        || CONFIG_FILE.getName().equals(String.valueOf(event.context())));
+
+                        if(configurationModified) {
+                            LOGGER.fine("The configuration file has been modified, reloading it");
+                            reloadProperties();
+                        }
+
+                        if(!key.reset()) break;
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ClosedWatchServiceException e) {
+                    LOGGER.log(Level.FINE, "The configuration file is not watched anymore", e);
+                }
+            }, "GlobalConfiguration-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Can not watch the configuration file", e);
+        }
+    }
+
+    /**
+     * Records a modification of a property and schedules its write to the configuration file. This method must be
+     * called while holding the lock of {@link #PENDING_MODIFICATIONS}.
+     * @param propertyName The name of the modified property.
+     * @param propertyValue The new value of the property or {@code null} if it has been removed.
+     */
+    private static void scheduleWrite(final String propertyName, final String propertyValue) {
+        PENDING_MODIFICATIONS.put(propertyName, propertyValue);
+        TYPED_PROPERTIES.remove(propertyName);
+
+        if(scheduledWrite == null) {
+            scheduledWrite = WRITER.schedule(GlobalConfiguration::flush, WRITE_DELAY, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes the pending modifications of properties to the configuration file. The file is read before being written
+     * so that modifications made by other programs are not lost.
+     */
+    public static void flush() {
+        synchronized(PENDING_MODIFICATIONS) {
+            if(scheduledWrite != null) {
+                scheduledWrite.cancel(false);
+                scheduledWrite = null;
+            }
+
+            if(PENDING_MODIFICATIONS.isEmpty()) return;
+
+            final Properties properties = readAllPropertiesFromConfigurationFile();
+            PENDING_MODIFICATIONS.forEach((name, value) -> {
+                if(value == null) properties.remove(name);
+                else properties.put(name, value);
+            });
+
+            writeAllPropertiesToConfigurationFile(properties);
+            PENDING_MODIFICATIONS.clear();
+        }
+    }
+
     /**
      * Get a property from the configuration. This methods return {@code null} is the property
      * is not found or if the configuration file does not exist.
@@ -219,48 +466,47 @@ public class GlobalConfiguration {
      * @throws java.lang.NullPointerException     If the property name is null.
      * @throws java.lang.IllegalArgumentException If the property name is empty.
      */
-    public synchronized static String getProperty(final String propertyName) {
+    public static String getProperty(final String propertyName) {
         checkPropertyName(propertyName);
 
-        String value = null;
-
-        if(CONFIG_FILE.exists()) {
-            final Properties properties = readAllPropertiesFromConfigurationFile();
-            value = properties.getProperty(propertyName.trim());
-        }
-
-        return value;
+        return getProperties().get(propertyName.trim());
     }
 
     /**
-     * Save the given {@code propertyName} and {@code propertyValue} to the configuration.
+     * Save the given {@code propertyName} and {@code propertyValue} to the configuration. The property is written to
+     * the configuration file asynchronously.
      *
      * @param propertyName The name of the property to save.
      * @param propertyValue The value of the property to save.
      * @throws java.lang.NullPointerException If the name or value of the property is null.
      * @throws java.lang.IllegalArgumentException If the name or value of the property is empty.
      */
-    public synchronized static void setProperty(final String propertyName, final String propertyValue) {
+    public static void setProperty(final String propertyName, final String propertyValue) {
         checkPropertyName(propertyName);
         checkPropertyValue(propertyValue);
 
-        final Properties properties = readAllPropertiesFromConfigurationFile();
-        properties.put(propertyName.trim(), propertyValue);
-        writeAllPropertiesToConfigurationFile(properties);
+        final Map<String, String> properties = getProperties();
+
+        synchronized(PENDING_MODIFICATIONS) {
+            if(!propertyValue.equals(properties.put(propertyName.trim(), propertyValue))) {
+                scheduleWrite(propertyName.trim(), propertyValue);
+            }
+        }
     }
 
     /**
      * Remove a property from the configuration file. If the property doesn't exist, nothing is performed.
      * @param propertyName The name of the property to remove.
      */
-    public synchronized static void removeProperty(final String propertyName) {
+    public static void removeProperty(final String propertyName) {
         checkPropertyName(propertyName);
 
-        final Properties properties = readAllPropertiesFromConfigurationFile();
+        final Map<String, String> properties = getProperties();
 
-        if(properties.containsKey(propertyName.trim())) {
-            properties.remove(propertyName.trim());
-            writeAllPropertiesToConfigurationFile(properties);
+        synchronized(PENDING_MODIFICATIONS) {
+            if(properties.remove(propertyName.trim()) != null) {
+                scheduleWrite(propertyName.trim(), null);
+            }
         }
     }
 
@@ -294,12 +540,18 @@ public class GlobalConfiguration {
      * @return The value of the property or {@code null} if it is not present or can not be parsed.
      */
     public static Long getLongProperty(final String propertyName) {
+        checkPropertyName(propertyName);
+
+        final Object cachedValue = TYPED_PROPERTIES.get(propertyName.trim());
+        if(cachedValue instanceof Long) return (Long) cachedValue;
+
         Long value = null;
 
         final String retrievedProperty = getProperty(propertyName);
         if(retrievedProperty != null) {
             try {
                 value = Long.parseLong(retrievedProperty);
+                cacheTypedProperty(propertyName, retrievedProperty, value);
             } catch (NumberFormatException ex) {
                 LOGGER.log(Level.WARNING, "The value of the property '" + propertyName + "' can not be parsed", ex);
             }
@@ -314,12 +566,18 @@ public class GlobalConfiguration {
      * @return The value of the property or {@code null} if it is not present or can not be parsed.
      */
     public static Boolean getBooleanProperty(final String propertyName) {
+        checkPropertyName(propertyName);
+
+        final Object cachedValue = TYPED_PROPERTIES.get(propertyName.trim());
+        if(cachedValue instanceof Boolean) return (Boolean) cachedValue;
+
         Boolean value = null;
 
         final String retrievedProperty = getProperty(propertyName);
         if(retrievedProperty != null) {
             try {
                 value = Boolean.parseBoolean(retrievedProperty);
+                cacheTypedProperty(propertyName, retrievedProperty, value);
             } catch (NumberFormatException ex) {
                 LOGGER.log(Level.WARNING, "The value of the property '" + propertyName + "' can not be parsed", ex);
             }
@@ -328,6 +586,18 @@ public class GlobalConfiguration {
         return value;
     }
 
+    /**
+     * Keeps the converted value of a property, unless the property has been modified since it has been read.
+     * @param propertyName The name of the property.
+     * @param rawValue The value of the property that has been converted.
+     * @param value The converted value.
+     */
+    private static void cacheTypedProperty(final String propertyName, final String rawValue, final Object value) {
+        synchronized(PENDING_MODIFICATIONS) {
+            if(rawValue.equals(PROPERTIES.get(propertyName.trim()))) TYPED_PROPERTIES.put(propertyName.trim(), value);
+        }
+    }
+
     /**
      * Check if the auto saving is enabled on exit.
      * @return {@code true} if the auto saving is enabled, {@code false} otherwise.
@@ -397,6 +667,25 @@ public class GlobalConfiguration {
         setProperty(LOG_HANDLERS_PARAMETER, joiner.toString());
     }
 
+    /**
+     * Sets the handlers the {@link AsyncHandler} publishes logs to.
+     * @param handlers The handlers of logs.
+     */
+    public static void setAsyncLogHandler(final Class<? extends Handler> ... handlers) {
+        final StringJoiner joiner = new StringJoiner(" ");
+        Arrays.stream(handlers).forEach(handler -> joiner.add(handler.getName()));
+
+        setProperty(LOG_ASYNC_HANDLERS_PARAMETER, joiner.toString());
+    }
+
+    /**
+     * Sets what the {@link AsyncHandler} does when too many logs are waiting to be published.
+     * @param policy The policy to apply.
+     */
+    public static void setAsyncLogOverflowPolicy(final AsyncHandler.OverflowPolicy policy) {
+        setProperty(LOG_ASYNC_POLICY_PARAMETER, policy.name());
+    }
+
     /**
      * Sets the encoding of log files.
      * @param handler The class handler to set the encoding for.
@@ -0,0 +1,172 @@
+package com.twasyl.slideshowfx.global.configuration;
+
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static com.twasyl.slideshowfx.global.configuration.GlobalConfiguration.*;
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * This class tests the properties of the {@link GlobalConfiguration}: their visibility once modified, the delayed write
+ * of their modifications and the reload of the configuration file when it is modified by another program.
+ * The tests modify the configuration file and are therefore only run when the {@code user.home} system property
+ * designates a directory of the build.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class GlobalConfigurationTest {
+
+    private static final long TIMEOUT = 15000;
+
+    @BeforeClass public static void beforeClass() {
+        final File home = new File(System.getProperty("user.home")).getAbsoluteFile();
+        assumeTrue("The configuration of the user must not be modified",
+                home.toPath().startsWith(new File("build").getAbsoluteFile().toPath()));
+
+        assertTrue(APPLICATION_DIRECTORY.exists() || APPLICATION_DIRECTORY.mkdirs());
+        createConfigurationFile();
+    }
+
+    @After public void after() {
+        flush();
+    }
+
+    private static Properties readConfigurationFile() throws IOException {
+        final Properties properties = new Properties();
+
+        try(final Reader reader = new FileReader(CONFIG_FILE)) {
+            properties.load(reader);
+        }
+
+        return properties;
+    }
+
+    /**
+     * Writes the configuration file in place, like a text editor would do.
+     */
+    private static void writeConfigurationFile(final Properties properties) throws IOException {
+        try(final Writer writer = new FileWriter(CONFIG_FILE)) {
+            properties.store(writer, "Modified by another program");
+        }
+    }
+
+    private static void waitUntil(final Supplier<Boolean> condition) throws InterruptedException {
+        final long end = System.currentTimeMillis() + TIMEOUT;
+
+        while(!condition.get()) {
+            assertTrue("The condition has not been met in time", System.currentTimeMillis() < end);
+            Thread.sleep(20);
+        }
+    }
+
+    @Test public void modificationsAreVisibleImmediately() throws IOException {
+        setProperty("test.visible", "1");
+        assertEquals("1", getProperty("test.visible"));
+        assertEquals(1L, getLongProperty("test.visible").longValue());
+
+        setProperty("test.visible", "2");
+        assertEquals(2L, getLongProperty("test.visible").longValue());
+
+        flush();
+        assertEquals("2", readConfigurationFile().getProperty("test.visible"));
+
+        removeProperty("test.visible");
+        assertNull(getProperty("test.visible"));
+        assertNull(getLongProperty("test.visible"));
+
+        flush();
+        assertFalse(readConfigurationFile().containsKey("test.visible"));
+    }
+
+    @Test public void modificationsAreWrittenTogether() throws IOException, InterruptedException {
+        final String[] names = {"test.coalesced.1", "test.coalesced.2", "test.coalesced.3"};
+        for(String name : names) setProperty(name, name);
+
+        // The modifications are not written before the delay
+        final Properties beforeDelay = readConfigurationFile();
+        for(String name : names) assertFalse(beforeDelay.containsKey(name));
+
+        // Once written, all modifications are present
+        waitUntil(() -> {
+            try {
+                final Properties properties = readConfigurationFile();
+
+                for(String name : names) {
+                    if(properties.containsKey(name)) {
+                        for(String other : names) assertEquals(other, properties.getProperty(other));
+                        return true;
+                    }
+                }
+
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    @Test public void externalModificationsAreReloaded() throws IOException, InterruptedException {
+        // Reading a property starts watching the configuration file
+        assertNull(getProperty("test.external"));
+
+        final Properties properties = readConfigurationFile();
+        properties.setProperty("test.external", "external");
+        writeConfigurationFile(properties);
+
+        waitUntil(() -> "external".equals(getProperty("test.external")));
+
+        // Modifications not written yet are kept when the file is reloaded
+        setProperty("test.pending", "application");
+
+        properties.setProperty("test.pending", "external");
+        properties.remove("test.external");
+        writeConfigurationFile(properties);
+
+        waitUntil(() -> getProperty("test.external") == null);
+        assertEquals("application", getProperty("test.pending"));
+
+        flush();
+        assertEquals("application", readConfigurationFile().getProperty("test.pending"));
+    }
+
+    @Test public void writesNeverHideProperties() throws InterruptedException, IOException {
+        setProperty("test.stable", "stable");
+        flush();
+
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicBoolean hidden = new AtomicBoolean(false);
+
+        final Thread reader = new Thread(() -> {
+            while(writing.get()) {
+                if(!"stable".equals(getProperty("test.stable"))) hidden.set(true);
+            }
+        });
+        reader.start();
+
+        // Each write is followed by an event of the watcher, which must not read a partially written file
+        for(int count = 0; count < 100; count++) {
+            setProperty("test.counter", String.valueOf(count));
+            flush();
+        }
+
+        // Let the watcher process the latest events
+        Thread.sleep(500);
+        writing.set(false);
+        reader.join();
+
+        assertFalse(hidden.get());
+        assertEquals("99", readConfigurationFile().getProperty("test.counter"));
+        assertArrayEquals(new File[0], APPLICATION_DIRECTORY.listFiles((directory, name) -> name.endsWith(".tmp")));
+        assertTrue(Files.exists(CONFIG_FILE.toPath()));
+    }
+}
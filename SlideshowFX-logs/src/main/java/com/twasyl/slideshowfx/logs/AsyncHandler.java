@@ -0,0 +1,362 @@
+package com.twasyl.slideshowfx.logs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.LogRecord;
+
+/**
+ * A {@link Handler} that publishes records to other handlers asynchronously. Threads logging a record only add it to a
+ * lock-free queue, and a single thread publishes the queued records to the target handlers, in the order they have been
+ * received. The {@link LogContext fields} of the logging thread are captured when the record is received so records are
+ * published as {@link StructuredLogRecord}.
+ * The handler is configured with the following properties of the logging configuration:
+ * <ul>
+ *     <li>{@code com.twasyl.slideshowfx.logs.AsyncHandler.handlers}: the class names of the target handlers, separated
+ *     by spaces or commas;</li>
+ *     <li>{@code com.twasyl.slideshowfx.logs.AsyncHandler.capacity}: the maximum number of records waiting to be
+ *     published, {@link #DEFAULT_CAPACITY} by default;</li>
+ *     <li>{@code com.twasyl.slideshowfx.logs.AsyncHandler.policy}: the {@link OverflowPolicy policy} applied when the
+ *     queue is full, {@link OverflowPolicy#DROP} by default;</li>
+ *     <li>{@code com.twasyl.slideshowfx.logs.AsyncHandler.level}: the level of this handler, {@link Level#ALL} by
+ *     default.</li>
+ * </ul>
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class AsyncHandler extends Handler {
+    /**
+     * The default maximum number of records waiting to be published. Value is {@value #DEFAULT_CAPACITY}.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /**
+     * Time the publishing thread waits for new records before checking again if the handler is closed.
+     */
+    private static final long IDLE_TIMEOUT = TimeUnit.MILLISECONDS.toNanos(500);
+
+    /**
+     * Defines what happens when a record is received while the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * The record is discarded. The number of discarded records is logged once the queue has room again.
+         */
+        DROP,
+        /**
+         * The logging thread waits until the queue has room for the record.
+         */
+        BLOCK
+    }
+
+    private final List<Handler> targets;
+    private final int capacity;
+    private final OverflowPolicy policy;
+
+    private final Queue<LogRecord> queue = new ConcurrentLinkedQueue<>();
+    /**
+     * Number of records received and not published yet. A record is only considered published once all targets have
+     * received it.
+     */
+    private final AtomicInteger pending = new AtomicInteger(0);
+    private final AtomicLong droppedRecords = new AtomicLong(0);
+
+    private final Thread publisher;
+    private volatile boolean publisherIdle = false;
+    private volatile boolean closed = false;
+
+    /**
+     * Creates an handler configured with the logging configuration.
+     */
+    public AsyncHandler() {
+        final String prefix = this.getClass().getName();
+        final LogManager manager = LogManager.getLogManager();
+
+        this.targets = this.createTargets(manager.getProperty(prefix.concat(".handlers")));
+        this.capacity = this.readCapacity(manager.getProperty(prefix.concat(".capacity")));
+        this.policy = this.readPolicy(manager.getProperty(prefix.concat(".policy")));
+        this.setLevel(this.readLevel(manager.getProperty(prefix.concat(".level"))));
+
+        this.publisher = this.startPublisher();
+    }
+
+    /**
+     * Creates an handler publishing records to the given handlers.
+     * @param capacity The maximum number of records waiting to be published.
+     * @param policy The policy applied when the queue is full.
+     * @param targets The handlers records are published to.
+     * @throws NullPointerException If the policy is {@code null}.
+     * @throws IllegalArgumentException If the capacity isn't strictly positive.
+     */
+    public AsyncHandler(final int capacity, final OverflowPolicy policy, final Handler ... targets) {
+        if(policy == null) throw new NullPointerException("The policy can not be null");
+        if(capacity <= 0) throw new IllegalArgumentException("The capacity must be strictly positive");
+
+        this.targets = targets == null ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(targets.clone()));
+        this.capacity = capacity;
+        this.policy = policy;
+        this.setLevel(Level.ALL);
+
+        this.publisher = this.startPublisher();
+    }
+
+    private Thread startPublisher() {
+        final Thread thread = new Thread(this::publishQueuedRecords, "AsyncHandler-publisher");
+        thread.setDaemon(true);
+        thread.start();
+
+        return thread;
+    }
+
+    private List<Handler> createTargets(final String classNames) {
+        final List<Handler> handlers = new ArrayList<>();
+
+        if(classNames != null) {
+            for(String className : classNames.split("[\\s,]+")) {
+                if(className.isEmpty() || className.equals(this.getClass().getName())) continue;
+
+                try {
+                    handlers.add((Handler) this.loadClass(className).newInstance());
+                } catch (ReflectiveOperationException | ClassCastException e) {
+                    this.reportError("Can not create the handler " + className, e, ErrorManager.OPEN_FAILURE);
+                }
+            }
+        }
+
+        return Collections.unmodifiableList(handlers);
+    }
+
+    private Class<?> loadClass(final String className) throws ClassNotFoundException {
+        try {
+            return ClassLoader.getSystemClassLoader().loadClass(className);
+        } catch (ClassNotFoundException e) {
+            final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            if(contextClassLoader == null) throw e;
+
+            return contextClassLoader.loadClass(className);
+        }
+    }
+
+    private int readCapacity(final String capacity) {
+        if(capacity != null) {
+            try {
+                final int value = Integer.parseInt(capacity.trim());
+                if(value > 0) return value;
+            } catch (NumberFormatException e) {
+                this.reportError("Invalid capacity: " + capacity, e, ErrorManager.GENERIC_FAILURE);
+            }
+        }
+
+        return DEFAULT_CAPACITY;
+    }
+
+    private OverflowPolicy readPolicy(final String policy) {
+        if(policy != null) {
+            try {
+                return OverflowPolicy.valueOf(policy.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                this.reportError("Invalid policy: " + policy, e, ErrorManager.GENERIC_FAILURE);
+            }
+        }
+
+        return OverflowPolicy.DROP;
+    }
+
+    private Level readLevel(final String level) {
+        if(level != null) {
+            try {
+                return Level.parse(level.trim());
+            } catch (IllegalArgumentException e) {
+                this.reportError("Invalid level: " + level, e, ErrorManager.GENERIC_FAILURE);
+            }
+        }
+
+        return Level.ALL;
+    }
+
+    /**
+     * Get the handlers records are published to.
+     * @return An unmodifiable list of the handlers.
+     */
+    public List<Handler> getTargets() { return targets; }
+
+    /**
+     * Get the maximum number of records waiting to be published.
+     * @return The capacity of this handler.
+     */
+    public int getCapacity() { return capacity; }
+
+    /**
+     * Get the policy applied when a record is received while the queue is full.
+     * @return The overflow policy of this handler.
+     */
+    public OverflowPolicy getPolicy() { return policy; }
+
+    @Override
+    public void publish(LogRecord record) {
+        if(this.closed || !this.isLoggable(record)) return;
+
+        // The caller is inferred lazily by the record, which must be done by the thread that logged it
+        record.getSourceClassName();
+
+        final Map<String, String> fields = LogContext.getFields();
+        final LogRecord queuedRecord = fields.isEmpty() ? record : new StructuredLogRecord(record, fields);
+
+        if(this.reserve()) {
+            this.queue.offer(queuedRecord);
+            if(this.publisherIdle) LockSupport.unpark(this.publisher);
+        } else {
+            this.droppedRecords.incrementAndGet();
+        }
+    }
+
+    /**
+     * Reserves a place in the queue, according the {@link #getPolicy() policy}. Records logged by the targets
+     * themselves are always accepted because the publishing thread would otherwise wait for itself.
+     * @return {@code true} if the record can be added to the queue, {@code false} if it must be dropped.
+     */
+    private boolean reserve() {
+        if(Thread.currentThread() == this.publisher) {
+            this.pending.incrementAndGet();
+            return true;
+        }
+
+        while(!this.closed) {
+            final int current = this.pending.get();
+
+            if(current < this.capacity) {
+                if(this.pending.compareAndSet(current, current + 1)) return true;
+            } else if(this.policy == OverflowPolicy.DROP) {
+                return false;
+            } else {
+                LockSupport.unpark(this.publisher);
+                LockSupport.parkNanos(this, TimeUnit.MICROSECONDS.toNanos(100));
+            }
+        }
+
+        return false;
+    }
+
+    private void publishQueuedRecords() {
+        boolean flushNeeded = false;
+
+        while(!this.closed || !this.queue.isEmpty()) {
+            final LogRecord record = this.queue.poll();
+
+            if(record != null) {
+                this.publishToTargets(record);
+                this.pending.decrementAndGet();
+                flushNeeded = true;
+            } else {
+                if(this.reportDroppedRecords()) flushNeeded = true;
+
+                if(flushNeeded) {
+                    this.flushTargets();
+                    flushNeeded = false;
+                }
+
+                this.publisherIdle = true;
+                if(this.queue.isEmpty() && !this.closed) LockSupport.parkNanos(this, IDLE_TIMEOUT);
+                this.publisherIdle = false;
+            }
+        }
+
+        this.reportDroppedRecords();
+        this.flushTargets();
+    }
+
+    private boolean reportDroppedRecords() {
+        final long dropped = this.droppedRecords.get();
+
+        if(dropped > 0) {
+            final LogRecord record = new LogRecord(Level.WARNING, dropped + " log records have been dropped because the queue was full");
+            record.setLoggerName(this.getClass().getName());
+            record.setSourceClassName(this.getClass().getName());
+            record.setSourceMethodName("publish");
+            this.publishToTargets(record);
+            // Only counted as reported once published, so that flush waits for the report
+            this.droppedRecords.addAndGet(-dropped);
+
+            return true;
+        }
+
+        return false;
+    }
+
+    private void publishToTargets(final LogRecord record) {
+        for(Handler target : this.targets) {
+            try {
+                target.publish(record);
+            } catch (Exception e) {
+                this.reportError(null, e, ErrorManager.WRITE_FAILURE);
+            }
+        }
+    }
+
+    private void flushTargets() {
+        for(Handler target : this.targets) {
+            try {
+                target.flush();
+            } catch (Exception e) {
+                this.reportError(null, e, ErrorManager.FLUSH_FAILURE);
+            }
+        }
+    }
+
+    /**
+     * Waits until all records received before this call, and the report of the dropped ones, are published, then
+     * flushes the target handlers.
+     */
+    @Override
+    public void flush() {
+        if(Thread.currentThread() != this.publisher) {
+            while((this.pending.get() > 0 || this.droppedRecords.get() > 0) && this.publisher.isAlive()) {
+                LockSupport.unpark(this.publisher);
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+
+        this.flushTargets();
+    }
+
+    /**
+     * Publishes the records still in the queue, stops the publishing thread and closes the target handlers.
+     */
+    @Override
+    public void close() throws SecurityException {
+        if(this.closed) return;
+        this.closed = true;
+
+        LockSupport.unpark(this.publisher);
+
+        if(Thread.currentThread() != this.publisher) {
+            try {
+                this.publisher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        for(Handler target : this.targets) {
+            try {
+                target.close();
+            } catch (Exception e) {
+                this.reportError(null, e, ErrorManager.CLOSE_FAILURE);
+            }
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.twasyl.slideshowfx.logs;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class holds structured fields, like the presentation being worked on or the service being called, that are
+ * attached to every log record published by the current thread. Fields are added for the duration of a
+ * {@link Scope scope}:
+ * <pre>
+ * try(LogContext.Scope scope = LogContext.with(LogContext.PRESENTATION_ID, id)) {
+ *     ...
+ * }
+ * </pre>
+ * The fields are captured by the {@link AsyncHandler} when a record is published and can be formatted by the
+ * {@link StructuredFormatter}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class LogContext {
+    /**
+     * Field identifying the presentation a record is about.
+     */
+    public static final String PRESENTATION_ID = "presentation.id";
+
+    /**
+     * Field identifying the slide a record is about.
+     */
+    public static final String SLIDE_NUMBER = "slide.number";
+
+    /**
+     * Field identifying the service a record is emitted by.
+     */
+    public static final String SERVICE_NAME = "service.name";
+
+    /**
+     * The fields of each thread. Maps are never modified once stored so they can be shared by records without copies.
+     */
+    private static final ThreadLocal<Map<String, String>> FIELDS = ThreadLocal.withInitial(Collections::emptyMap);
+
+    /**
+     * A scope in which a field is defined. Closing the scope restores the fields that were defined before it has been
+     * opened.
+     */
+    public static class Scope implements AutoCloseable {
+        private final Map<String, String> previousFields;
+
+        private Scope(final Map<String, String> previousFields) {
+            this.previousFields = previousFields;
+        }
+
+        @Override
+        public void close() {
+            FIELDS.set(this.previousFields);
+        }
+    }
+
+    /**
+     * Defines a field for the current thread until the returned scope is closed. If {@code value} is {@code null}, the
+     * field is removed for the duration of the scope.
+     * @param key The name of the field.
+     * @param value The value of the field.
+     * @return The scope that must be closed in order to restore the previous fields.
+     * @throws NullPointerException If the key is {@code null}.
+     */
+    public static Scope with(final String key, final Object value) {
+        if(key == null) throw new NullPointerException("The key can not be null");
+
+        final Map<String, String> previousFields = FIELDS.get();
+        final Map<String, String> fields = new LinkedHashMap<>(previousFields);
+
+        if(value == null) fields.remove(key);
+        else fields.put(key, String.valueOf(value));
+
+        FIELDS.set(Collections.unmodifiableMap(fields));
+
+        return new Scope(previousFields);
+    }
+
+    /**
+     * Get the fields currently defined for the current thread.
+     * @return An unmodifiable map of the fields, never {@code null}.
+     */
+    public static Map<String, String> getFields() {
+        return FIELDS.get();
+    }
+}
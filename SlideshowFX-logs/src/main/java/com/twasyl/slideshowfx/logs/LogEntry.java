@@ -0,0 +1,31 @@
+package com.twasyl.slideshowfx.logs;
+
+/**
+ * A log record formatted by the {@link SlideshowFXHandler}. Each entry is identified by a sequence number, increasing
+ * by one for each record received by the handler, which allows to retrieve only the entries received after a given one.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class LogEntry {
+    private final long sequence;
+    private final String message;
+
+    public LogEntry(final long sequence, final String message) {
+        this.sequence = sequence;
+        this.message = message;
+    }
+
+    /**
+     * Get the sequence number of this entry.
+     * @return The sequence number of this entry.
+     */
+    public long getSequence() { return sequence; }
+
+    /**
+     * Get the formatted message of this entry.
+     * @return The formatted message.
+     */
+    public String getMessage() { return message; }
+}
@@ -2,42 +2,84 @@ package com.twasyl.slideshowfx.logs;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.ErrorManager;
 import java.util.logging.Level;
+import java.util.logging.LogManager;
 import java.util.logging.LogRecord;
-import java.util.logging.Logger;
 import java.util.logging.StreamHandler;
 
 /**
- * An implementation of the {@link StreamHandler} class that allows to store the logs into a {@link ByteArrayOutputStream}
- * in order to display them in a screen. The logs are only living during the application life.
- * Each time a new log message is received by this implementation, a change event is raised on the property {@code latestLog}.
+ * An implementation of the {@link StreamHandler} class that allows to store the logs in memory in order to display them
+ * in a screen. The logs are only living during the application life.
+ * The handler keeps at most {@link #getCapacity() capacity} formatted records, the oldest ones being discarded first.
+ * The capacity can be configured with the {@code com.twasyl.slideshowfx.logs.SlideshowFXHandler.capacity} property of
+ * the logging configuration and is {@link #DEFAULT_CAPACITY} by default. Records are identified by a sequence number so
+ * that {@link #getLogsSince(long) only new ones} can be retrieved.
+ * Each time new log messages are received by this implementation, a change event is raised on the property
+ * {@code latestLog}. Events are raised asynchronously, by a dedicated thread, so that logging never waits for listeners.
+ * Several records received in a short time may result in a single event.
  *
  * @author Thierry Wasylczenko
  * @since SlideshowFX 1.0
- * @version 1.0
+ * @version 1.1
  */
 public class SlideshowFXHandler extends StreamHandler {
-    private static final Logger LOGGER = Logger.getLogger(SlideshowFXHandler.class.getName());
+    /**
+     * The default number of records kept by the handler. Value is {@value #DEFAULT_CAPACITY}.
+     */
+    public static final int DEFAULT_CAPACITY = 10000;
 
     protected static volatile SlideshowFXHandler singleton = null;
 
     protected final PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
-    protected String latestLog;
-    protected volatile ByteArrayOutputStream byteOutput;
+    protected volatile String latestLog;
+
+    private final LogEntry[] entries;
+    private long nextSequence = 0;
+
+    private final AtomicBoolean notificationPending = new AtomicBoolean(false);
+    private final ExecutorService notifier = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "SlideshowFXHandler-notifier");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private String notifiedLog;
 
     public SlideshowFXHandler() {
         super();
         this.latestLog = null;
-        this.byteOutput = new ByteArrayOutputStream();
-        super.setOutputStream(this.byteOutput);
+        this.entries = new LogEntry[this.readCapacity()];
 
         singleton = this;
     }
 
     public static SlideshowFXHandler getSingleton() { return singleton; }
 
+    /**
+     * Reads the capacity of this handler from the logging configuration.
+     * @return The configured capacity or {@link #DEFAULT_CAPACITY} if it isn't configured or is invalid.
+     */
+    private int readCapacity() {
+        final String capacity = LogManager.getLogManager().getProperty(this.getClass().getName().concat(".capacity"));
+
+        if(capacity != null) {
+            try {
+                final int value = Integer.parseInt(capacity.trim());
+                if(value > 0) return value;
+            } catch (NumberFormatException e) {
+                this.reportError("Invalid capacity: " + capacity, e, ErrorManager.GENERIC_FAILURE);
+            }
+        }
+
+        return DEFAULT_CAPACITY;
+    }
+
     public void addPropertyChangeListener(PropertyChangeListener listener) {
         this.propertyChangeSupport.addPropertyChangeListener(listener);
     }
@@ -53,31 +95,100 @@ public class SlideshowFXHandler extends StreamHandler {
     public String getLatestLog() { return latestLog; }
 
     protected void setLatestLog(String latestLog) {
-        final String previousMessage = this.latestLog;
         this.latestLog = latestLog;
-        propertyChangeSupport.firePropertyChange("latestLog", previousMessage, latestLog);
+
+        if(this.notificationPending.compareAndSet(false, true)) {
+            this.notifier.execute(() -> {
+                this.notificationPending.set(false);
+
+                final String previousMessage = this.notifiedLog;
+                this.notifiedLog = this.latestLog;
+                propertyChangeSupport.firePropertyChange("latestLog", previousMessage, this.notifiedLog);
+            });
+        }
+    }
+
+    /**
+     * Get the maximum number of records kept by this handler.
+     * @return The capacity of this handler.
+     */
+    public int getCapacity() { return this.entries.length; }
+
+    /**
+     * Get the sequence number the next record received by this handler will have.
+     * @return The sequence number of the next record.
+     */
+    public synchronized long getNextSequence() { return this.nextSequence; }
+
+    /**
+     * Get the records received since the record having the given sequence number, included. If some of these records
+     * have been discarded, the oldest records still kept by this handler are returned.
+     * @param sequence The sequence number of the first record to return.
+     * @return The records, ordered by sequence number.
+     */
+    public synchronized List<LogEntry> getLogsSince(final long sequence) {
+        final long first = Math.max(Math.max(sequence, 0), this.nextSequence - this.entries.length);
+        if(first >= this.nextSequence) return Collections.emptyList();
+
+        final List<LogEntry> logs = new ArrayList<>((int) (this.nextSequence - first));
+        for(long current = first; current < this.nextSequence; current++) {
+            logs.add(this.entries[(int) (current % this.entries.length)]);
+        }
+
+        return logs;
     }
 
     /**
-     * Get all logs that this handler has received.
+     * Get all logs that this handler still keeps.
      * @return All logs formatted as string.
      */
     public String getAllLogs() {
+        final StringBuilder logs = new StringBuilder();
+        this.getLogsSince(0).forEach(entry -> logs.append(entry.getMessage()));
+
+        return logs.toString();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if(!this.isLoggable(record)) return;
+
+        final String message;
         try {
-            super.flush();
-            return new String(this.byteOutput.toByteArray(), this.getEncoding());
-        } catch (IOException e) {
-            LOGGER.log(Level.WARNING, "Error retrieving all logs", e);
+            message = super.getFormatter().format(record);
+        } catch (Exception e) {
+            this.reportError(null, e, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+
+        if(message != null) {
+            synchronized(this) {
+                this.entries[(int) (this.nextSequence % this.entries.length)] = new LogEntry(this.nextSequence, message);
+                this.nextSequence++;
+            }
+
+            this.setLatestLog(message);
         }
-        return "";
     }
 
+    /**
+     * Records are only kept in memory: the {@link StreamHandler} considers a record loggable only if it has an output
+     * stream, which this handler doesn't have.
+     */
     @Override
-    public synchronized void publish(LogRecord record) {
-        if(super.isLoggable(record)) {
-            final String message = super.getFormatter().format(record);
-            if(message != null) this.setLatestLog(message);
-        }
-        super.publish(record);
+    public boolean isLoggable(LogRecord record) {
+        return record != null && this.getLevel().intValue() <= record.getLevel().intValue()
+                && this.getLevel() != Level.OFF
+                && (this.getFilter() == null || this.getFilter().isLoggable(record));
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() throws SecurityException {
+        this.notifier.shutdown();
+        super.close();
     }
 }
@@ -0,0 +1,35 @@
+package com.twasyl.slideshowfx.logs;
+
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * A {@link SimpleFormatter} that appends the fields of {@link StructuredLogRecord structured records} to the message,
+ * like {@code Slide rendered [presentation.id=1466945123456, slide.number=3]}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class StructuredFormatter extends SimpleFormatter {
+
+    @Override
+    public synchronized String formatMessage(LogRecord record) {
+        final String message = super.formatMessage(record);
+
+        if(record instanceof StructuredLogRecord) {
+            final Map<String, String> fields = ((StructuredLogRecord) record).getFields();
+
+            if(!fields.isEmpty()) {
+                final StringJoiner joiner = new StringJoiner(", ", " [", "]");
+                fields.forEach((key, value) -> joiner.add(key + "=" + value));
+
+                return message + joiner.toString();
+            }
+        }
+
+        return message;
+    }
+}
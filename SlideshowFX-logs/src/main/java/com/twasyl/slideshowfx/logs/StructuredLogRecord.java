@@ -0,0 +1,46 @@
+package com.twasyl.slideshowfx.logs;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.logging.LogRecord;
+
+/**
+ * A {@link LogRecord} carrying the structured fields that were defined in the {@link LogContext} of the thread that
+ * published the original record.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class StructuredLogRecord extends LogRecord {
+    private final Map<String, String> fields;
+
+    /**
+     * Creates a copy of the given record with the given fields.
+     * @param record The record to copy.
+     * @param fields The fields of the record.
+     * @throws NullPointerException If the record is {@code null}.
+     */
+    public StructuredLogRecord(final LogRecord record, final Map<String, String> fields) {
+        super(record.getLevel(), record.getMessage());
+
+        this.setLoggerName(record.getLoggerName());
+        this.setMillis(record.getMillis());
+        this.setParameters(record.getParameters());
+        this.setResourceBundle(record.getResourceBundle());
+        this.setResourceBundleName(record.getResourceBundleName());
+        this.setSequenceNumber(record.getSequenceNumber());
+        this.setSourceClassName(record.getSourceClassName());
+        this.setSourceMethodName(record.getSourceMethodName());
+        this.setThreadID(record.getThreadID());
+        this.setThrown(record.getThrown());
+
+        this.fields = fields == null ? Collections.emptyMap() : fields;
+    }
+
+    /**
+     * Get the structured fields of this record.
+     * @return An unmodifiable map of the fields, never {@code null}.
+     */
+    public Map<String, String> getFields() { return fields; }
+}
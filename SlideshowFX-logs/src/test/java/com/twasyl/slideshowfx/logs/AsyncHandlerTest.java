@@ -0,0 +1,212 @@
+package com.twasyl.slideshowfx.logs;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the {@link AsyncHandler} class: the order records are published in, the overflow policies, and the
+ * records still pending when the handler is flushed or closed.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class AsyncHandlerTest {
+
+    /**
+     * A handler keeping the records it receives. The handler can be held in {@link #publish(LogRecord)} until it is
+     * released, in order to fill the queue of the {@link AsyncHandler}.
+     */
+    private static class RecordingHandler extends Handler {
+        private final List<LogRecord> records = new ArrayList<>();
+        private final Set<Thread> threads = new HashSet<>();
+        private final CountDownLatch entered = new CountDownLatch(1);
+        private final CountDownLatch released;
+        private int flushes = 0;
+        private boolean closed = false;
+
+        RecordingHandler(final boolean held) {
+            this.released = new CountDownLatch(held ? 1 : 0);
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            this.entered.countDown();
+
+            try {
+                this.released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            synchronized(this) {
+                this.records.add(record);
+                this.threads.add(Thread.currentThread());
+            }
+        }
+
+        @Override
+        public synchronized void flush() { this.flushes++; }
+
+        @Override
+        public synchronized void close() throws SecurityException { this.closed = true; }
+
+        void awaitEntered() throws InterruptedException {
+            assertTrue(this.entered.await(10, TimeUnit.SECONDS));
+        }
+
+        void release() { this.released.countDown(); }
+
+        synchronized List<String> messages() {
+            final List<String> messages = new ArrayList<>();
+            this.records.forEach(record -> messages.add(record.getMessage()));
+            return messages;
+        }
+
+        synchronized Set<Thread> threads() { return new HashSet<>(this.threads); }
+
+        synchronized int flushes() { return this.flushes; }
+
+        synchronized boolean isClosed() { return this.closed; }
+    }
+
+    private AsyncHandler handler;
+
+    @After public void after() {
+        if(this.handler != null) this.handler.close();
+    }
+
+    private static LogRecord record(final int number) {
+        return new LogRecord(Level.INFO, String.valueOf(number));
+    }
+
+    private static List<String> messages(final int from, final int to) {
+        final List<String> messages = new ArrayList<>();
+        for(int number = from; number < to; number++) messages.add(String.valueOf(number));
+        return messages;
+    }
+
+    @Test(timeout = 10000) public void publishInOrderFromSingleThread() throws InterruptedException {
+        final RecordingHandler target = new RecordingHandler(false);
+        this.handler = new AsyncHandler(AsyncHandler.DEFAULT_CAPACITY, AsyncHandler.OverflowPolicy.BLOCK, target);
+
+        final List<Thread> loggers = new ArrayList<>();
+        for(int thread = 0; thread < 4; thread++) {
+            final int first = thread * 500;
+            loggers.add(new Thread(() -> {
+                for(int number = first; number < first + 500; number++) this.handler.publish(record(number));
+            }));
+        }
+
+        loggers.forEach(Thread::start);
+        for(Thread logger : loggers) logger.join();
+        this.handler.flush();
+
+        final List<String> messages = target.messages();
+        assertEquals(2000, messages.size());
+
+        // Records logged by the same thread are published in the order they have been logged
+        for(int thread = 0; thread < 4; thread++) {
+            final int first = thread * 500;
+            final List<String> loggedByThread = new ArrayList<>(messages);
+            loggedByThread.removeIf(message -> Integer.parseInt(message) < first || Integer.parseInt(message) >= first + 500);
+            assertEquals(messages(first, first + 500), loggedByThread);
+        }
+
+        final Set<Thread> publishers = target.threads();
+        assertEquals(1, publishers.size());
+
+        final Thread publisher = publishers.iterator().next();
+        assertFalse(loggers.contains(publisher));
+        assertNotSame(Thread.currentThread(), publisher);
+    }
+
+    @Test(timeout = 10000) public void dropWhenFull() throws InterruptedException {
+        final RecordingHandler target = new RecordingHandler(true);
+        this.handler = new AsyncHandler(2, AsyncHandler.OverflowPolicy.DROP, target);
+
+        // The first record is held by the target and still counts as pending
+        this.handler.publish(record(0));
+        target.awaitEntered();
+
+        for(int number = 1; number < 4; number++) this.handler.publish(record(number));
+
+        target.release();
+        this.handler.flush();
+
+        final List<String> messages = target.messages();
+        assertEquals(3, messages.size());
+        assertEquals(messages(0, 2), messages.subList(0, 2));
+        assertEquals("2 log records have been dropped because the queue was full", messages.get(2));
+    }
+
+    @Test(timeout = 10000) public void blockWhenFull() throws InterruptedException {
+        final RecordingHandler target = new RecordingHandler(true);
+        this.handler = new AsyncHandler(1, AsyncHandler.OverflowPolicy.BLOCK, target);
+
+        this.handler.publish(record(0));
+        target.awaitEntered();
+
+        final Thread logger = new Thread(() -> this.handler.publish(record(1)));
+        logger.start();
+
+        logger.join(200);
+        assertTrue(logger.isAlive());
+
+        target.release();
+        logger.join();
+        this.handler.flush();
+
+        assertEquals(messages(0, 2), target.messages());
+    }
+
+    @Test(timeout = 10000) public void flushPublishesPendingRecords() throws InterruptedException {
+        final RecordingHandler target = new RecordingHandler(true);
+        this.handler = new AsyncHandler(AsyncHandler.DEFAULT_CAPACITY, AsyncHandler.OverflowPolicy.DROP, target);
+
+        for(int number = 0; number < 100; number++) this.handler.publish(record(number));
+        target.awaitEntered();
+
+        final Thread flusher = new Thread(this.handler::flush);
+        flusher.start();
+
+        flusher.join(200);
+        assertTrue(flusher.isAlive());
+
+        target.release();
+        flusher.join();
+
+        assertEquals(messages(0, 100), target.messages());
+        assertTrue(target.flushes() > 0);
+    }
+
+    @Test(timeout = 10000) public void closePublishesPendingRecords() throws InterruptedException {
+        final RecordingHandler target = new RecordingHandler(true);
+        this.handler = new AsyncHandler(AsyncHandler.DEFAULT_CAPACITY, AsyncHandler.OverflowPolicy.DROP, target);
+
+        for(int number = 0; number < 100; number++) this.handler.publish(record(number));
+        target.awaitEntered();
+        target.release();
+
+        this.handler.close();
+
+        assertEquals(messages(0, 100), target.messages());
+        assertTrue(target.flushes() > 0);
+        assertTrue(target.isClosed());
+
+        this.handler.publish(record(100));
+        assertEquals(100, target.messages().size());
+    }
+}
@@ -0,0 +1,173 @@
+package com.twasyl.slideshowfx.logs;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.beans.PropertyChangeEvent;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogManager;
+import java.util.logging.LogRecord;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the {@link SlideshowFXHandler} class: the records kept once its capacity is reached, the retrieval
+ * of records by sequence number, the configuration of its capacity and the notification of new records.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class SlideshowFXHandlerTest {
+
+    private static final String CAPACITY_PROPERTY = SlideshowFXHandler.class.getName().concat(".capacity");
+
+    private SlideshowFXHandler handler;
+
+    @After public void after() throws IOException {
+        if(this.handler != null) this.handler.close();
+        LogManager.getLogManager().readConfiguration();
+    }
+
+    /**
+     * Creates a handler with the given capacity configured in the logging configuration. Records are formatted as
+     * their message.
+     */
+    private static SlideshowFXHandler createHandler(final String capacity) throws IOException {
+        final String configuration = capacity == null ? "" : CAPACITY_PROPERTY + "=" + capacity;
+        LogManager.getLogManager().readConfiguration(new ByteArrayInputStream(configuration.getBytes(StandardCharsets.ISO_8859_1)));
+
+        final SlideshowFXHandler handler = new SlideshowFXHandler();
+        handler.setFormatter(new Formatter() {
+            @Override
+            public String format(LogRecord record) {
+                return record.getMessage();
+            }
+        });
+
+        return handler;
+    }
+
+    private void publish(final int from, final int to) {
+        for(int number = from; number < to; number++) this.handler.publish(new LogRecord(Level.INFO, String.valueOf(number)));
+    }
+
+    private static void assertLogs(final List<LogEntry> logs, final int from, final int to) {
+        assertEquals(to - from, logs.size());
+
+        for(int index = 0; index < logs.size(); index++) {
+            assertEquals(from + index, logs.get(index).getSequence());
+            assertEquals(String.valueOf(from + index), logs.get(index).getMessage());
+        }
+    }
+
+    @Test public void capacity() throws IOException {
+        this.handler = createHandler(" 4 ");
+        assertEquals(4, this.handler.getCapacity());
+    }
+
+    @Test public void defaultCapacity() throws IOException {
+        this.handler = createHandler(null);
+        assertEquals(SlideshowFXHandler.DEFAULT_CAPACITY, this.handler.getCapacity());
+    }
+
+    @Test public void invalidCapacity() throws IOException {
+        this.handler = createHandler("many");
+        assertEquals(SlideshowFXHandler.DEFAULT_CAPACITY, this.handler.getCapacity());
+        this.handler.close();
+
+        this.handler = createHandler("0");
+        assertEquals(SlideshowFXHandler.DEFAULT_CAPACITY, this.handler.getCapacity());
+    }
+
+    @Test public void logsBeforeCapacityIsReached() throws IOException {
+        this.handler = createHandler("4");
+        assertTrue(this.handler.getLogsSince(0).isEmpty());
+
+        this.publish(0, 3);
+
+        assertEquals(3, this.handler.getNextSequence());
+        assertLogs(this.handler.getLogsSince(0), 0, 3);
+        assertLogs(this.handler.getLogsSince(1), 1, 3);
+        assertTrue(this.handler.getLogsSince(3).isEmpty());
+        assertEquals("012", this.handler.getAllLogs());
+    }
+
+    @Test public void oldestLogsAreDiscarded() throws IOException {
+        this.handler = createHandler("4");
+        this.publish(0, 10);
+
+        assertEquals(10, this.handler.getNextSequence());
+        assertEquals("6789", this.handler.getAllLogs());
+
+        // Discarded records are replaced by the oldest records still kept
+        assertLogs(this.handler.getLogsSince(0), 6, 10);
+        assertLogs(this.handler.getLogsSince(5), 6, 10);
+        assertLogs(this.handler.getLogsSince(-1), 6, 10);
+
+        assertLogs(this.handler.getLogsSince(6), 6, 10);
+        assertLogs(this.handler.getLogsSince(8), 8, 10);
+        assertLogs(this.handler.getLogsSince(9), 9, 10);
+
+        // No record has been received yet for the current and future sequence numbers
+        assertTrue(this.handler.getLogsSince(10).isEmpty());
+        assertTrue(this.handler.getLogsSince(42).isEmpty());
+
+        this.publish(10, 11);
+        assertLogs(this.handler.getLogsSince(10), 10, 11);
+        assertEquals("78910", this.handler.getAllLogs());
+    }
+
+    @Test(timeout = 10000) public void notificationsAreCoalesced() throws IOException, InterruptedException {
+        this.handler = createHandler("4");
+
+        final List<PropertyChangeEvent> events = new ArrayList<>();
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(1);
+        final CountDownLatch notified = new CountDownLatch(2);
+
+        this.handler.addPropertyChangeListener(event -> {
+            entered.countDown();
+
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+
+            synchronized(events) {
+                events.add(event);
+            }
+            notified.countDown();
+        });
+
+        // The listener is held by the first notification while the other records are received
+        this.publish(0, 1);
+        assertTrue(entered.await(10, TimeUnit.SECONDS));
+        this.publish(1, 10);
+        assertEquals("9", this.handler.getLatestLog());
+
+        released.countDown();
+        assertTrue(notified.await(10, TimeUnit.SECONDS));
+        Thread.sleep(100);
+
+        synchronized(events) {
+            assertEquals(2, events.size());
+
+            assertEquals("latestLog", events.get(0).getPropertyName());
+            assertNull(events.get(0).getOldValue());
+            assertEquals("0", events.get(0).getNewValue());
+
+            assertEquals("0", events.get(1).getOldValue());
+            assertEquals("9", events.get(1).getNewValue());
+        }
+    }
+}
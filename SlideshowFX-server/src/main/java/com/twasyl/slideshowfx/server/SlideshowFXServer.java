@@ -2,17 +2,15 @@ package com.twasyl.slideshowfx.server;
 
 import com.twasyl.slideshowfx.server.service.AbstractSlideshowFXService;
 import com.twasyl.slideshowfx.server.service.ISlideshowFXServices;
-import com.twasyl.slideshowfx.utils.ResourceHelper;
 import com.twasyl.slideshowfx.utils.TemplateProcessor;
-import com.twasyl.slideshowfx.utils.beans.Wrapper;
 import freemarker.template.Configuration;
-import freemarker.template.Template;
 import freemarker.template.TemplateException;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.AsyncResult;
 import io.vertx.core.Handler;
 import io.vertx.core.Vertx;
 import io.vertx.core.buffer.Buffer;
+import io.vertx.core.eventbus.DeliveryOptions;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.http.HttpServer;
 import io.vertx.core.http.ServerWebSocket;
@@ -20,12 +18,14 @@ import io.vertx.core.json.DecodeException;
 import io.vertx.core.json.JsonObject;
 import io.vertx.core.shareddata.LocalMap;
 import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
 import io.vertx.ext.web.handler.BodyHandler;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.StringWriter;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -69,10 +69,15 @@ public class SlideshowFXServer {
      */
     public static final String SHARED_DATA_SERVER_PORT_TOKEN = "template.tokens.server.port";
 
+    /**
+     * The default time, in milliseconds, a service has to respond when it is called. Value is {@value #DEFAULT_SERVICE_CALL_TIMEOUT}.
+     */
+    public static final long DEFAULT_SERVICE_CALL_TIMEOUT = 5000;
+
     private String host;
     private int port;
     private String twitterHashtag;
-    private final Set<ServerWebSocket> websockets = new HashSet<>();
+    private final WebSocketBroadcaster webSocketBroadcaster = new WebSocketBroadcaster();
 
     private SlideshowFXServer(String host, int port, String twitterHashtag) {
         this.host = host;
@@ -84,19 +89,32 @@ public class SlideshowFXServer {
      * Deploy a {@link io.vertx.core.Verticle} identified by the given class.
      *
      * @param clazz The class of the Verticle to deploy.
+     * @return A future completed with the ID of the deployment once the Verticle is deployed, or completed
+     *         exceptionally if it can not be deployed.
      */
-    public void deploy(Class<? extends AbstractVerticle> clazz) {
+    public CompletableFuture<String> deploy(Class<? extends AbstractVerticle> clazz) {
+        final CompletableFuture<String> deployment = new CompletableFuture<>();
+
         try {
-            this.vertx.deployVerticle(clazz.newInstance(), result -> {
-                if (result.succeeded()) {
-                    LOGGER.log(Level.FINE, "Verticle has been deployed successfully. Result: " + result.result());
-                } else if (result.failed()) {
-                    LOGGER.log(Level.WARNING, "Verticle hasn't been deployed properly. Result: " + result.result(), result.cause());
-                }
-            });
+            this.vertx.deployVerticle(clazz.newInstance(), deploymentHandler(deployment));
         } catch (InstantiationException | IllegalAccessException e) {
             LOGGER.log(Level.SEVERE, "Verticle hasn't been deployed properly.", e);
+            deployment.completeExceptionally(e);
         }
+
+        return deployment;
+    }
+
+    private static Handler<AsyncResult<String>> deploymentHandler(final CompletableFuture<String> deployment) {
+        return result -> {
+            if (result.succeeded()) {
+                LOGGER.log(Level.FINE, "Verticle has been deployed successfully. Result: " + result.result());
+                deployment.complete(result.result());
+            } else if (result.failed()) {
+                LOGGER.log(Level.WARNING, "Verticle hasn't been deployed properly. Result: " + result.result(), result.cause());
+                deployment.completeExceptionally(result.cause());
+            }
+        };
     }
 
     /**
@@ -129,16 +147,29 @@ public class SlideshowFXServer {
      */
     public Router getRouter() { return this.router; }
 
+    /**
+     * Get the WebSocket clients currently connected to this server.
+     * @return An unmodifiable view of the WebSocket clients.
+     */
     public Set<ServerWebSocket> getWebSockets() {
-        return this.websockets;
+        return this.webSocketBroadcaster.getWebSockets();
     }
 
     /**
-     * Starts the embedded server.
+     * Get the {@link WebSocketBroadcaster} used to send messages to all WebSocket clients of this server.
+     * @return The broadcaster of this server.
+     */
+    public WebSocketBroadcaster getWebSocketBroadcaster() { return this.webSocketBroadcaster; }
+
+    /**
+     * Starts the embedded server. The server listens and the services are deployed asynchronously.
      * @param services List of classes extending {@link ISlideshowFXServices} that have to be started with the
      *                 server
+     * @return A future completed once the server is listening and the services are deployed, or completed
+     *         exceptionally if the server can not listen or a service can not be deployed.
      */
-    public void start(Class<? extends ISlideshowFXServices> ... services) {
+    public CompletableFuture<Void> start(Class<? extends ISlideshowFXServices> ... services) {
+        final List<CompletableFuture<?>> steps = new ArrayList<>();
 
         if (this.vertx == null) {
             this.vertx = Vertx.vertx();
@@ -159,32 +190,58 @@ public class SlideshowFXServer {
             this.httpServer.requestHandler(this.router::accept);
 
             if(services != null && services.length > 0) {
-                Arrays.stream(services).forEach(service -> this.vertx.deployVerticle(service.getName()));
+                Arrays.stream(services).forEach(service -> {
+                    final CompletableFuture<String> deployment = new CompletableFuture<>();
+                    this.vertx.deployVerticle(service.getName(), deploymentHandler(deployment));
+                    steps.add(deployment);
+                });
             }
 
-            this.httpServer.listen(SlideshowFXServer.getSingleton().getPort(), SlideshowFXServer.getSingleton().getHost());
+            final CompletableFuture<Void> listening = new CompletableFuture<>();
+            this.httpServer.listen(SlideshowFXServer.getSingleton().getPort(), SlideshowFXServer.getSingleton().getHost(), result -> {
+                if(result.succeeded()) {
+                    listening.complete(null);
+                } else {
+                    LOGGER.log(Level.SEVERE, "The server can not listen", result.cause());
+                    listening.completeExceptionally(result.cause());
+                }
+            });
+            steps.add(listening);
         } else {
             LOGGER.log(Level.INFO, "Server already started");
         }
+
+        return CompletableFuture.allOf(steps.toArray(new CompletableFuture[steps.size()]));
     }
 
     /**
-     * Stops the embedded server.
+     * Stops the embedded server. The server is closed asynchronously.
+     * @return A future completed once the server is closed, and its port released.
      */
-    public void stop() {
+    public CompletableFuture<Void> stop() {
+        final CompletableFuture<Void> closed = new CompletableFuture<>();
+
         if(this.vertx != null) {
-            this.vertx.close();
+            this.vertx.close(result -> {
+                if(result.failed()) LOGGER.log(Level.WARNING, "The server hasn't been closed properly", result.cause());
+                closed.complete(null);
+            });
+        } else {
+            closed.complete(null);
         }
         this.vertx = null;
         this.httpServer = null;
         this.router = null;
-        this.websockets.clear();
+        this.webSocketBroadcaster.clear();
 
         singleton = null;
+
+        return closed;
     }
 
     /**
-     * <p>Call a service using the EventBus of Vert.x. The request must be a JSON object with a field named {@code service}
+     * <p>Call a service using the EventBus of Vert.x and wait for its response, at most
+     * {@link #DEFAULT_SERVICE_CALL_TIMEOUT} milliseconds. The request must be a JSON object with a field named {@code service}
      * representing the service to call, and a JSON object named {@code data} containing the data the service will
      * consume.</p>
      * <p>The response's format will be a JSON object with:</p>
@@ -195,55 +252,88 @@ public class SlideshowFXServer {
      *     <li>the <b>content</b> key which is the response's content returned by the service, as a JSON structured
      *     (an object, an array, etc) depending on the service</li>
      * </ul>
+     * <p>This method blocks the calling thread and must not be called by a thread of Vert.x. Prefer
+     * {@link #callServiceAsync(String)} when the response doesn't need to be waited for.</p>
      * @param request The JSON object corresponding to the service to call.
-     * @return The response corresponding to the request.
+     * @return The response corresponding to the request or {@code null} if the service could not be called or didn't
+     *         respond in time.
      * @throws java.lang.IllegalArgumentException If the request is invalid.
      */
     public JsonObject callService(String request) throws IllegalArgumentException {
-        final Wrapper<JsonObject> response = new Wrapper<>();
+        try {
+            return this.callServiceAsync(request).join();
+        } catch (CompletionException | CancellationException e) {
+            LOGGER.log(Level.SEVERE, "An error occurred when calling a service", e);
+            return null;
+        }
+    }
+
+    /**
+     * Call a service using the EventBus of Vert.x without waiting for its response. The request and the response have
+     * the format described in {@link #callService(String)}. The service must respond within
+     * {@link #DEFAULT_SERVICE_CALL_TIMEOUT} milliseconds.
+     * @param request The JSON object corresponding to the service to call.
+     * @return A future completed with the response of the service.
+     * @throws java.lang.IllegalArgumentException If the request is invalid.
+     * @see #callServiceAsync(String, long)
+     */
+    public CompletableFuture<JsonObject> callServiceAsync(String request) throws IllegalArgumentException {
+        return this.callServiceAsync(request, DEFAULT_SERVICE_CALL_TIMEOUT);
+    }
+
+    /**
+     * Call a service using the EventBus of Vert.x without waiting for its response. The request and the response have
+     * the format described in {@link #callService(String)}.
+     * The returned future is completed by a thread of Vert.x: actions depending on it must not block. The future is
+     * completed exceptionally with a {@link io.vertx.core.eventbus.ReplyException} if the service doesn't exist, fails
+     * or doesn't respond within the given timeout, and with an {@link IllegalStateException} if the server isn't started.
+     * @param request The JSON object corresponding to the service to call.
+     * @param timeout The time, in milliseconds, the service has to respond.
+     * @return A future completed with the response of the service.
+     * @throws java.lang.IllegalArgumentException If the request is invalid or the timeout isn't strictly positive.
+     */
+    public CompletableFuture<JsonObject> callServiceAsync(String request, long timeout) throws IllegalArgumentException {
+        if(timeout <= 0) throw new IllegalArgumentException("The timeout must be strictly positive");
+
+        final JsonObject jsonRequest;
 
         try {
-            final JsonObject jsonRequest = new JsonObject(request);
+            jsonRequest = new JsonObject(request);
+        } catch(DecodeException e) {
+            throw new IllegalArgumentException("The request is invalid", e);
+        }
 
-            final String service = jsonRequest.getString(JSON_KEY_SERVICE);
-            final JsonObject data = jsonRequest.getJsonObject(JSON_KEY_DATA);
+        final String service;
+        final JsonObject data;
 
-            if(service == null) throw new IllegalArgumentException("The service in the request must be present");
-            if(service.trim().isEmpty()) throw new IllegalArgumentException("The service in the request can not be empty");
+        try {
+            service = jsonRequest.getString(JSON_KEY_SERVICE);
+            data = jsonRequest.getJsonObject(JSON_KEY_DATA);
+        } catch(ClassCastException e) {
+            throw new IllegalArgumentException("The request is invalid", e);
+        }
 
-            if(data == null) throw new IllegalArgumentException("The data in the request must be present");
+        if(service == null) throw new IllegalArgumentException("The service in the request must be present");
+        if(service.trim().isEmpty()) throw new IllegalArgumentException("The service in the request can not be empty");
 
-            final Thread thread = new Thread(new Runnable() {
-                private Boolean continueProcess = false;
+        if(data == null) throw new IllegalArgumentException("The data in the request must be present");
 
-                @Override
-                public void run() {
-                    SlideshowFXServer.this.vertx.eventBus().send(service, data, (AsyncResult<Message<JsonObject>> ar) -> {
-                        response.setValue(ar.result().body());
-                        continueProcess = true;
-                    });
+        final CompletableFuture<JsonObject> response = new CompletableFuture<>();
+        final Vertx vertx = this.vertx;
 
-                    while(!continueProcess) {
-                        try {
-                            Thread.sleep(100);
-                        } catch (InterruptedException e) {
-                            LOGGER.log(Level.SEVERE, "Can not wait result when calling a service", e);
-                        }
-                    }
+        if(vertx == null) {
+            response.completeExceptionally(new IllegalStateException("The server is not started"));
+        } else {
+            vertx.eventBus().send(service, data, new DeliveryOptions().setSendTimeout(timeout), (AsyncResult<Message<JsonObject>> ar) -> {
+                if(ar.succeeded()) {
+                    response.complete(ar.result().body());
+                } else {
+                    response.completeExceptionally(ar.cause());
                 }
             });
-
-            thread.start();
-            thread.join();
-        } catch(DecodeException e) {
-            throw new IllegalArgumentException("The request is invalid", e);
-        } catch(ClassCastException e) {
-            LOGGER.log(Level.SEVERE, "An error occurred", e);
-        } catch (InterruptedException e) {
-            LOGGER.log(Level.SEVERE, "An error occurred", e);
         }
 
-        return response.getValue();
+        return response;
     }
 
     /**
@@ -255,48 +345,44 @@ public class SlideshowFXServer {
         router.route().handler(handler);
 
         // Get the main page
-        router.get(CONTEXT_PATH).handler(routingContext -> {
-            final LocalMap<String, String> templateTokens = this.vertx.sharedData().getLocalMap(SlideshowFXServer.SHARED_DATA_TEMPLATE_TOKENS);
-
-            final Configuration configuration = TemplateProcessor.getHtmlConfiguration();
-
-            final Map tokenValues = new HashMap();
-            tokenValues.put(templateTokens.get(SlideshowFXServer.SHARED_DATA_SERVER_HOST_TOKEN).toString(), this.getHost());
-            tokenValues.put(templateTokens.get(SlideshowFXServer.SHARED_DATA_SERVER_PORT_TOKEN).toString(), this.getPort() + "");
+        router.get(CONTEXT_PATH).handler(this.buildTemplateAssetHandler(TemplateProcessor.getHtmlConfiguration(), "slideshowfx.html", "text/html; charset=UTF-8"));
 
-            try (final StringWriter writer = new StringWriter()) {
-                final Template template = configuration.getTemplate("slideshowfx.html");
-                template.process(tokenValues, writer);
-
-                writer.flush();
+        StaticAsset logo = null;
+        try {
+            logo = StaticAsset.fromResource("/com/twasyl/slideshowfx/images/logo.svg", "image/svg+xml");
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Can not read the logo", e);
+        }
 
-                routingContext.response().setStatusCode(200).setChunked(true).write(writer.toString()).end();
-            } catch (IOException e) {
-                LOGGER.log(Level.WARNING, "Error when a client tried to access the chat", e);
+        if(logo != null) {
+            router.get(CONTEXT_PATH.concat("/images/logo.svg")).handler(logo);
+        }
+    }
 
-                routingContext.response().setStatusCode(500).end();
-            } catch (TemplateException e) {
-                LOGGER.log(Level.WARNING, "Error when processing the chat template", e);
-                routingContext.response().setStatusCode(500).end();
-            }
-        });
-        router.get(CONTEXT_PATH.concat("/images/logo.svg")).handler(routingContext -> {
-            try (final InputStream in = ResourceHelper.getInputStream("/com/twasyl/slideshowfx/images/logo.svg")) {
+    /**
+     * Build a handler serving the given template, rendered once with the host and port of this server. If the template
+     * can not be rendered, the handler responds with a 500 status code.
+     * @param configuration The configuration used to get the template.
+     * @param templateName The name of the template to serve.
+     * @param contentType The content type of the rendered template.
+     * @return The handler serving the rendered template.
+     */
+    public Handler<RoutingContext> buildTemplateAssetHandler(final Configuration configuration, final String templateName, final String contentType) {
+        final LocalMap<String, String> templateTokens = this.vertx.sharedData().getLocalMap(SlideshowFXServer.SHARED_DATA_TEMPLATE_TOKENS);
 
-                byte[] imageBuffer = new byte[1028];
-                int numberOfBytesRead;
-                Buffer buffer = Buffer.buffer();
+        final Map tokenValues = new HashMap();
+        tokenValues.put(templateTokens.get(SlideshowFXServer.SHARED_DATA_SERVER_HOST_TOKEN).toString(), this.getHost());
+        tokenValues.put(templateTokens.get(SlideshowFXServer.SHARED_DATA_SERVER_PORT_TOKEN).toString(), this.getPort() + "");
 
-                while ((numberOfBytesRead = in.read(imageBuffer)) != -1) {
-                    buffer.appendBytes(imageBuffer, 0, numberOfBytesRead);
-                }
+        try {
+            return StaticAsset.fromTemplate(configuration, templateName, tokenValues, contentType);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Can not read the template " + templateName, e);
+        } catch (TemplateException e) {
+            LOGGER.log(Level.WARNING, "Error when processing the template " + templateName, e);
+        }
 
-                routingContext.response().headers().set("Content-Type", "image/svg+xml");
-                routingContext.response().setChunked(true).write(buffer).end();
-            } catch (IOException e) {
-                LOGGER.log(Level.WARNING, "Can not send check images", e);
-            }
-        });
+        return routingContext -> routingContext.response().setStatusCode(500).end();
     }
 
     /**
@@ -307,11 +393,11 @@ public class SlideshowFXServer {
         final Handler<ServerWebSocket> handler = serverWebSocket -> {
             if (CONTEXT_PATH.equals(serverWebSocket.path())) {
                 // Add the textHandlerID to the list of WebSocket clients
-                this.websockets.add(serverWebSocket);
+                this.webSocketBroadcaster.add(serverWebSocket);
 
                 // When the socket is closed, remove it from the list of clients
                 serverWebSocket.endHandler(event -> {
-                    this.websockets.remove(serverWebSocket);
+                    this.webSocketBroadcaster.remove(serverWebSocket);
                 });
 
                 /*
@@ -0,0 +1,237 @@
+package com.twasyl.slideshowfx.server;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import io.vertx.core.Handler;
+import io.vertx.core.MultiMap;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.RoutingContext;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * An asset served by the {@link SlideshowFXServer} whose content doesn't change while the server is running. The content
+ * is read or rendered once and kept as an immutable buffer, along with a gzip compressed variant when compressing it is
+ * worth it. The asset is served with an {@code ETag}, specific to each variant, and a {@code Last-Modified} header,
+ * allowing clients to revalidate it with conditional requests answered with a {@code 304 Not Modified} response.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class StaticAsset implements Handler<RoutingContext> {
+
+    /**
+     * The {@code Cache-Control} value of assets. Their URLs are not versioned while their content can change when the
+     * server is restarted, like rendered templates containing the host and port of the server, or when the application
+     * is updated. Clients keep them but revalidate them on each use.
+     */
+    public static final String CACHE_CONTROL_REVALIDATE = "public, no-cache";
+
+    private static final String GZIP_ENCODING = "gzip";
+    private static final String GZIP_ETAG_SUFFIX = "-gz";
+
+    private final Buffer content;
+    private final Buffer gzipContent;
+    private final String contentType;
+    private final String cacheControl;
+    private final String eTag;
+    private final String gzipETag;
+    private final Instant lastModified;
+    private final String lastModifiedHeader;
+
+    /**
+     * Creates an asset having the given content.
+     * @param content The content of the asset.
+     * @param contentType The content type of the asset. If {@code null}, no {@code Content-Type} header is sent.
+     * @param cacheControl The {@code Cache-Control} header sent with the asset.
+     * @throws java.lang.NullPointerException If the content or the cache control is null.
+     */
+    public StaticAsset(final byte[] content, final String contentType, final String cacheControl) {
+        if(content == null) throw new NullPointerException("The content can not be null");
+        if(cacheControl == null) throw new NullPointerException("The cache control can not be null");
+
+        this.content = Buffer.buffer(content);
+        this.contentType = contentType;
+        this.cacheControl = cacheControl;
+
+        final byte[] compressedContent = gzip(content);
+        this.gzipContent = compressedContent.length < content.length ? Buffer.buffer(compressedContent) : null;
+
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+        final String tag = Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(content.length);
+        this.eTag = "\"" + tag + "\"";
+        this.gzipETag = "\"" + tag + GZIP_ETAG_SUFFIX + "\"";
+
+        // HTTP dates have a precision of one second
+        this.lastModified = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        this.lastModifiedHeader = DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(this.lastModified, ZoneOffset.UTC));
+    }
+
+    /**
+     * Creates an asset from a resource of the application. The asset is served as {@link #CACHE_CONTROL_REVALIDATE revalidated}
+     * because its URL doesn't change when the application is updated.
+     * @param url The URL of the resource, as expected by {@link Class#getResourceAsStream(String)}.
+     * @param contentType The content type of the asset. If {@code null}, no {@code Content-Type} header is sent.
+     * @return The asset or {@code null} if the resource doesn't exist.
+     * @throws IOException If the resource can not be read.
+     */
+    public static StaticAsset fromResource(final String url, final String contentType) throws IOException {
+        try(final InputStream input = StaticAsset.class.getResourceAsStream(url)) {
+            if(input == null) return null;
+
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            final byte[] buffer = new byte[8192];
+            int length;
+
+            while((length = input.read(buffer)) > 0) {
+                output.write(buffer, 0, length);
+            }
+
+            return new StaticAsset(output.toByteArray(), contentType, CACHE_CONTROL_REVALIDATE);
+        }
+    }
+
+    /**
+     * Creates an asset by rendering a template. The asset is served as {@link #CACHE_CONTROL_REVALIDATE revalidated}
+     * because its content depends on the given values.
+     * @param configuration The configuration used to get the template.
+     * @param templateName The name of the template to render.
+     * @param tokenValues The values used to render the template.
+     * @param contentType The content type of the asset. If {@code null}, no {@code Content-Type} header is sent.
+     * @return The asset.
+     * @throws IOException If the template can not be read.
+     * @throws TemplateException If the template can not be rendered.
+     */
+    public static StaticAsset fromTemplate(final Configuration configuration, final String templateName, final Map tokenValues, final String contentType) throws IOException, TemplateException {
+        try(final StringWriter writer = new StringWriter()) {
+            final Template template = configuration.getTemplate(templateName);
+            template.process(tokenValues, writer);
+
+            writer.flush();
+
+            return new StaticAsset(writer.toString().getBytes(StandardCharsets.UTF_8), contentType, CACHE_CONTROL_REVALIDATE);
+        }
+    }
+
+    /**
+     * Get the entity tag of the uncompressed variant of this asset.
+     * @return The entity tag of this asset, quoted.
+     */
+    public String getETag() { return eTag; }
+
+    /**
+     * Get the entity tag of the gzip compressed variant of this asset. As required for strong validators, it differs from
+     * the {@link #getETag() tag} of the uncompressed variant.
+     * @return The entity tag of the compressed variant, quoted, or {@code null} if this asset is not {@link #isCompressed() compressed}.
+     */
+    public String getGzipETag() { return this.gzipContent == null ? null : this.gzipETag; }
+
+    /**
+     * Indicates if this asset has a compressed variant.
+     * @return {@code true} if a gzip compressed variant is served to clients accepting it, {@code false} otherwise.
+     */
+    public boolean isCompressed() { return this.gzipContent != null; }
+
+    @Override
+    public void handle(final RoutingContext routingContext) {
+        final MultiMap requestHeaders = routingContext.request().headers();
+        final HttpServerResponse response = routingContext.response();
+
+        final boolean gzip = this.gzipContent != null && acceptsGzip(requestHeaders.get("Accept-Encoding"));
+        final String servedETag = gzip ? this.gzipETag : this.eTag;
+
+        response.putHeader("ETag", servedETag)
+                .putHeader("Last-Modified", this.lastModifiedHeader)
+                .putHeader("Cache-Control", this.cacheControl);
+
+        if(this.gzipContent != null) response.putHeader("Vary", "Accept-Encoding");
+
+        if(this.isNotModified(servedETag, requestHeaders.get("If-None-Match"), requestHeaders.get("If-Modified-Since"))) {
+            response.setStatusCode(304).end();
+            return;
+        }
+
+        if(this.contentType != null) response.putHeader("Content-Type", this.contentType);
+        if(gzip) response.putHeader("Content-Encoding", GZIP_ENCODING);
+
+        response.setStatusCode(200).end(gzip ? this.gzipContent : this.content);
+    }
+
+    /**
+     * Determine if the client already has the variant of this asset identified by the given entity tag. As defined by
+     * RFC 7232, {@code If-Modified-Since} is ignored when {@code If-None-Match} is present.
+     */
+    private boolean isNotModified(final String servedETag, final String ifNoneMatch, final String ifModifiedSince) {
+        if(ifNoneMatch != null) {
+            for(String tag : ifNoneMatch.split(",")) {
+                tag = tag.trim();
+                if(tag.startsWith("W/")) tag = tag.substring(2);
+
+                if("*".equals(tag) || servedETag.equals(tag)) return true;
+            }
+
+            return false;
+        }
+
+        if(ifModifiedSince != null) {
+            try {
+                final Instant since = ZonedDateTime.parse(ifModifiedSince, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                return !this.lastModified.isAfter(since);
+            } catch (DateTimeParseException e) {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean acceptsGzip(final String acceptEncoding) {
+        if(acceptEncoding == null) return false;
+
+        for(String coding : acceptEncoding.split(",")) {
+            final String[] parameters = coding.trim().split(";");
+
+            if(GZIP_ENCODING.equalsIgnoreCase(parameters[0].trim()) || "*".equals(parameters[0].trim())) {
+                // An encoding with a quality of 0 is not acceptable
+                return parameters.length == 1 || !parameters[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+
+        return false;
+    }
+
+    private static byte[] gzip(final byte[] content) {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try(final GZIPOutputStream gzip = new GZIPOutputStream(output) {
+            {
+                this.def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        } catch (IOException e) {
+            // Can not happen when writing in memory
+            throw new IllegalStateException("Can not compress the asset", e);
+        }
+
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,233 @@
+package com.twasyl.slideshowfx.server;
+
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.ServerWebSocket;
+import io.vertx.core.json.JsonObject;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The registry of the WebSocket clients connected to the {@link SlideshowFXServer} and used to broadcast messages to
+ * them. A broadcast message is encoded only once and the same buffer is written to every client.
+ * <p>
+ * Clients that don't read their messages fast enough are handled according to their {@link SlowClientPolicy policy}
+ * while their write queue is full. A client whose write queue stays full longer than the
+ * {@link #getEvictionDelay() eviction delay} is disconnected.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class WebSocketBroadcaster {
+    private static final Logger LOGGER = Logger.getLogger(WebSocketBroadcaster.class.getName());
+
+    /**
+     * The default time, in milliseconds, a client can stay backed-up before being disconnected. Value is
+     * {@value #DEFAULT_EVICTION_DELAY}.
+     */
+    public static final long DEFAULT_EVICTION_DELAY = 30000;
+
+    /**
+     * Defines what is done with the messages broadcast to a client whose write queue is full.
+     */
+    public enum SlowClientPolicy {
+        /**
+         * The messages are not sent to the client.
+         */
+        DROP,
+        /**
+         * Only the most recent message is kept and sent to the client once its write queue is drained.
+         */
+        COALESCE
+    }
+
+    private final Map<ServerWebSocket, Client> clients = new ConcurrentHashMap<>();
+    private volatile SlowClientPolicy defaultPolicy = SlowClientPolicy.COALESCE;
+    private volatile long evictionDelay = DEFAULT_EVICTION_DELAY;
+
+    /**
+     * Get the policy applied to the clients added to this broadcaster.
+     * @return The default policy of the clients.
+     */
+    public SlowClientPolicy getDefaultPolicy() { return defaultPolicy; }
+
+    /**
+     * Set the policy applied to the clients added to this broadcaster. The clients already added keep their policy.
+     * @param defaultPolicy The default policy of the clients.
+     * @throws java.lang.NullPointerException If the policy is null.
+     */
+    public void setDefaultPolicy(final SlowClientPolicy defaultPolicy) {
+        if(defaultPolicy == null) throw new NullPointerException("The policy can not be null");
+
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    /**
+     * Get the time, in milliseconds, a client can stay backed-up before being disconnected.
+     * @return The eviction delay of the clients.
+     */
+    public long getEvictionDelay() { return evictionDelay; }
+
+    /**
+     * Set the time, in milliseconds, a client can stay backed-up before being disconnected.
+     * @param evictionDelay The eviction delay of the clients.
+     * @throws java.lang.IllegalArgumentException If the delay is negative.
+     */
+    public void setEvictionDelay(final long evictionDelay) {
+        if(evictionDelay < 0) throw new IllegalArgumentException("The eviction delay can not be negative");
+
+        this.evictionDelay = evictionDelay;
+    }
+
+    /**
+     * Add a client to this broadcaster. The client must be {@link #remove(ServerWebSocket) removed} once its socket is
+     * closed.
+     * @param socket The socket of the client.
+     * @throws java.lang.NullPointerException If the socket is null.
+     */
+    public void add(final ServerWebSocket socket) {
+        if(socket == null) throw new NullPointerException("The socket can not be null");
+
+        final Client client = new Client(socket, this.defaultPolicy);
+        this.clients.put(socket, client);
+
+        socket.drainHandler(event -> client.drained());
+    }
+
+    /**
+     * Remove a client from this broadcaster. The socket is not closed.
+     * @param socket The socket of the client.
+     */
+    public void remove(final ServerWebSocket socket) {
+        if(socket != null) this.clients.remove(socket);
+    }
+
+    /**
+     * Set the policy of the given client.
+     * @param socket The socket of the client.
+     * @param policy The policy of the client.
+     * @throws java.lang.NullPointerException If the policy is null.
+     */
+    public void setPolicy(final ServerWebSocket socket, final SlowClientPolicy policy) {
+        if(policy == null) throw new NullPointerException("The policy can not be null");
+
+        final Client client = this.clients.get(socket);
+        if(client != null) client.policy = policy;
+    }
+
+    /**
+     * Get the sockets of the clients currently connected.
+     * @return An unmodifiable view of the sockets of the clients.
+     */
+    public Set<ServerWebSocket> getWebSockets() {
+        return Collections.unmodifiableSet(this.clients.keySet());
+    }
+
+    /**
+     * Remove all clients from this broadcaster. The sockets are not closed.
+     */
+    public void clear() {
+        this.clients.clear();
+    }
+
+    /**
+     * Send a message to all clients, excluding the client identified by the given origin. The message is encoded once.
+     * @param message The message to send.
+     * @param excludeOrigin The {@link ServerWebSocket#textHandlerID() identifier} of the client to exclude. If it is
+     *                      {@code null}, no client is excluded.
+     * @throws java.lang.NullPointerException If the message is null.
+     */
+    public void broadcast(final JsonObject message, final String excludeOrigin) {
+        if(message == null) throw new NullPointerException("The message can not be null");
+
+        this.broadcast(Buffer.buffer(message.encode()), excludeOrigin);
+    }
+
+    /**
+     * Send a buffer to all clients, excluding the client identified by the given origin. The same buffer is written to
+     * all clients and must not be modified afterwards.
+     * @param buffer The buffer to send.
+     * @param excludeOrigin The {@link ServerWebSocket#textHandlerID() identifier} of the client to exclude. If it is
+     *                      {@code null}, no client is excluded.
+     * @throws java.lang.NullPointerException If the buffer is null.
+     */
+    public void broadcast(final Buffer buffer, final String excludeOrigin) {
+        if(buffer == null) throw new NullPointerException("The buffer can not be null");
+
+        final long now = System.currentTimeMillis();
+
+        this.clients.values().forEach(client -> {
+            if(excludeOrigin == null || !excludeOrigin.equals(client.socket.textHandlerID())) {
+                if(!client.write(buffer, now, this.evictionDelay)) {
+                    this.evict(client);
+                }
+            }
+        });
+    }
+
+    private void evict(final Client client) {
+        LOGGER.info("Disconnecting a WebSocket client backed-up for more than " + this.evictionDelay + "ms");
+
+        this.clients.remove(client.socket);
+
+        try {
+            client.socket.close();
+        } catch (IllegalStateException e) {
+            LOGGER.log(Level.FINE, "The WebSocket client is already closed", e);
+        }
+    }
+
+    /**
+     * A client connected to the server and the message waiting to be sent to it.
+     */
+    private static class Client {
+        private final ServerWebSocket socket;
+        private volatile SlowClientPolicy policy;
+        private Buffer pending;
+        private long backedUpSince = -1;
+
+        private Client(final ServerWebSocket socket, final SlowClientPolicy policy) {
+            this.socket = socket;
+            this.policy = policy;
+        }
+
+        /**
+         * Write the given buffer to this client, or handle it according to the policy of the client if its write queue
+         * is full.
+         * @return {@code false} if the client has been backed-up for too long and must be evicted, {@code true}
+         * otherwise.
+         */
+        private synchronized boolean write(final Buffer buffer, final long now, final long evictionDelay) {
+            if(!this.socket.writeQueueFull()) {
+                this.backedUpSince = -1;
+                this.socket.write(buffer);
+                return true;
+            }
+
+            if(this.backedUpSince < 0) {
+                this.backedUpSince = now;
+            } else if(now - this.backedUpSince > evictionDelay) {
+                return false;
+            }
+
+            if(this.policy == SlowClientPolicy.COALESCE) this.pending = buffer;
+
+            return true;
+        }
+
+        private synchronized void drained() {
+            this.backedUpSince = -1;
+
+            if(this.pending != null) {
+                final Buffer buffer = this.pending;
+                this.pending = null;
+                this.socket.write(buffer);
+            }
+        }
+    }
+}
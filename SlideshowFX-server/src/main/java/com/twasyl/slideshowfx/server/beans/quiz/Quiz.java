@@ -8,7 +8,10 @@ import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * This class represents a quiz that can be performed during a presentation.
@@ -85,6 +88,21 @@ public class Quiz {
      */
     public FilteredList<Answer> getCorrectAnswers() { return this.getAnswers().filtered(answer -> answer.isCorrect()); }
 
+    /**
+     * Checks if all given IDs are IDs of possible answers of this quiz, each of them being given only once.
+     *
+     * @param answersIDs The answers' ID to check.
+     * @return <code>true</code> if each ID is the ID of an answer of this quiz, false otherwise
+     */
+    public boolean containsAnswers(Long ... answersIDs) {
+        if(answersIDs == null) return false;
+
+        final Set<Long> possibleAnswers = this.getAnswers().stream().map(Answer::getId).collect(Collectors.toSet());
+        final Set<Long> givenAnswers = new HashSet<>();
+
+        return Arrays.stream(answersIDs).allMatch(id -> possibleAnswers.contains(id) && givenAnswers.add(id));
+    }
+
     /**
      * Performs a check to know if the quiz is answered correctly. This method checks if all correct answers contained
      * in this quiz has its ID referenced in the given {@code answersIDs} collection.
@@ -1,9 +1,21 @@
 package com.twasyl.slideshowfx.server.beans.quiz;
 
+import io.vertx.core.json.JsonObject;
 import javafx.beans.property.*;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
 /**
  * This class represents the result of a given quiz.
+ * <p>
+ * Answers are counted with striped counters, so that many attendees can answer concurrently without contending on a
+ * lock. Besides the number of correct and wrong answers, the number of times each answer of the quiz has been chosen
+ * is counted. The JavaFX properties of this result are not updated when an answer is added: they are updated by
+ * {@link #updateProperties()}, which must be called on the JavaFX application thread when they are observed.
  *
  * @author Thierry Wasylczenko
  * @version 1.0
@@ -16,6 +28,10 @@ public class QuizResult {
     private final IntegerProperty correctAnswers = new SimpleIntegerProperty(0);
     private final IntegerProperty wrongAnswers = new SimpleIntegerProperty(0);
 
+    private final LongAdder correctAnswersCount = new LongAdder();
+    private final LongAdder wrongAnswersCount = new LongAdder();
+    private final Map<Long, LongAdder> chosenAnswersCount = new ConcurrentHashMap<>();
+
     public QuizResult() {
         ((SimpleIntegerProperty) this.totalAnswers).bind(this.correctAnswers.add(this.wrongAnswers));
     }
@@ -24,7 +40,7 @@ public class QuizResult {
      * Get the number of total answers get for the quiz. It correspond to the sum of correct and wrong answers.
      * @return The total number of answers get for the quiz.
      */
-    public int getTotalAnswers() { return totalAnswers.get(); }
+    public int getTotalAnswers() { return this.getCorrectAnswers() + this.getWrongAnswers(); }
 
     /**
      * Get the number of total answers get for the quiz. It correspond to the sum of correct and wrong answers. This
@@ -43,19 +59,25 @@ public class QuizResult {
      * Get the number of correct answers to the quiz.
      * @return The number of correct answers to the quiz.
      */
-    public int getCorrectAnswers() { return correctAnswers.get(); }
+    public int getCorrectAnswers() { return correctAnswersCount.intValue(); }
 
     /**
-     * Set the number of correct answers to the quiz.
+     * Set the number of correct answers to the quiz. This method initializes the result and must not be called while
+     * answers are {@link #addAnswer(boolean, Long...) added}: resetting the count is not atomic with answers added
+     * concurrently.
      * @param correctAnswers The number of correct answers to the quiz.
      */
-    public void setCorrectAnswers(int correctAnswers) { this.correctAnswers.set(correctAnswers); }
+    public void setCorrectAnswers(int correctAnswers) {
+        this.correctAnswersCount.reset();
+        this.correctAnswersCount.add(correctAnswers);
+        this.correctAnswers.set(correctAnswers);
+    }
 
     /**
      * Get the number of wrong answers to the quiz.
      * @return The number of wrong answers to the quiz.
      */
-    public int getWrongAnswers() { return wrongAnswers.get(); }
+    public int getWrongAnswers() { return wrongAnswersCount.intValue(); }
 
     /**
      * Get the number of wrong answers to the quiz.
@@ -64,10 +86,16 @@ public class QuizResult {
     public IntegerProperty wrongAnswersProperty() { return wrongAnswers; }
 
     /**
-     * Set the number of wrong answers to the quiz.
+     * Set the number of wrong answers to the quiz. This method initializes the result and must not be called while
+     * answers are {@link #addAnswer(boolean, Long...) added}: resetting the count is not atomic with answers added
+     * concurrently.
      * @param wrongAnswers The number of wrong answers to the quiz.
      */
-    public void setWrongAnswers(int wrongAnswers) { this.wrongAnswers.set(wrongAnswers); }
+    public void setWrongAnswers(int wrongAnswers) {
+        this.wrongAnswersCount.reset();
+        this.wrongAnswersCount.add(wrongAnswers);
+        this.wrongAnswers.set(wrongAnswers);
+    }
 
     /**
      * The property containing the quiz this result is associated to.
@@ -96,14 +124,118 @@ public class QuizResult {
     /**
      * Add one correct answer to the number of correct answers.
      */
-    public synchronized void addCorrectAnswer() {
-        this.setCorrectAnswers(this.getCorrectAnswers() + 1);
+    public void addCorrectAnswer() {
+        this.correctAnswersCount.increment();
     }
 
     /**
      * Add one wrong answer to the number of wrong answers.
      */
-    public synchronized  void addWrongAnswer() {
-        this.setWrongAnswers(this.getWrongAnswers() + 1);
+    public void addWrongAnswer() {
+        this.wrongAnswersCount.increment();
+    }
+
+    /**
+     * Add the answer of an attendee. The answer is counted as correct or wrong and each chosen answer of the quiz is
+     * counted. The chosen answers must all be {@link Quiz#containsAnswers(Long...) answers} of the quiz of this result,
+     * so that the number of counts is bounded by the number of answers of the quiz.
+     * @param correct Indicates if the answer is correct.
+     * @param chosenAnswersIDs The IDs of the answers of the quiz chosen by the attendee.
+     * @throws IllegalArgumentException If this result has no quiz or an ID isn't the ID of an answer of the quiz.
+     */
+    public void addAnswer(final boolean correct, final Long ... chosenAnswersIDs) throws IllegalArgumentException {
+        final Quiz quiz = this.getQuiz();
+
+        if(quiz == null) throw new IllegalArgumentException("The result has no quiz");
+        if(!quiz.containsAnswers(chosenAnswersIDs)) throw new IllegalArgumentException("The chosen answers are not answers of the quiz");
+
+        if(correct) this.addCorrectAnswer();
+        else this.addWrongAnswer();
+
+        for(Long id : chosenAnswersIDs) {
+            this.chosenAnswersCount.computeIfAbsent(id, key -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Get a snapshot of the counts of this result. Answers added concurrently may or may not be part of the snapshot.
+     * @return The histogram of this result.
+     */
+    public Histogram getHistogram() {
+        final Map<Long, Long> chosenAnswers = new HashMap<>();
+        this.chosenAnswersCount.forEach((id, count) -> chosenAnswers.put(id, count.sum()));
+
+        return new Histogram(this.correctAnswersCount.sum(), this.wrongAnswersCount.sum(), chosenAnswers);
+    }
+
+    /**
+     * Copy the current counts of this result into its JavaFX properties. When the properties are observed by UI
+     * elements, this method must be called on the JavaFX application thread.
+     */
+    public void updateProperties() {
+        this.correctAnswers.set(this.getCorrectAnswers());
+        this.wrongAnswers.set(this.getWrongAnswers());
+    }
+
+    /**
+     * An immutable snapshot of the counts of a {@link QuizResult}.
+     */
+    public static class Histogram {
+        private final long correctAnswers;
+        private final long wrongAnswers;
+        private final Map<Long, Long> chosenAnswers;
+
+        private Histogram(long correctAnswers, long wrongAnswers, Map<Long, Long> chosenAnswers) {
+            this.correctAnswers = correctAnswers;
+            this.wrongAnswers = wrongAnswers;
+            this.chosenAnswers = Collections.unmodifiableMap(chosenAnswers);
+        }
+
+        /**
+         * Get the number of correct answers.
+         * @return The number of correct answers.
+         */
+        public long getCorrectAnswers() { return correctAnswers; }
+
+        /**
+         * Get the number of wrong answers.
+         * @return The number of wrong answers.
+         */
+        public long getWrongAnswers() { return wrongAnswers; }
+
+        /**
+         * Get the total number of answers.
+         * @return The sum of correct and wrong answers.
+         */
+        public long getTotalAnswers() { return correctAnswers + wrongAnswers; }
+
+        /**
+         * Get the number of times the given answer of the quiz has been chosen.
+         * @param answerID The ID of the answer.
+         * @return The number of times the answer has been chosen.
+         */
+        public long getChosenCount(final long answerID) { return this.chosenAnswers.getOrDefault(answerID, 0L); }
+
+        /**
+         * Get the number of times each answer of the quiz has been chosen. Answers never chosen are not present.
+         * @return An unmodifiable map whose keys are the IDs of the answers and values the number of times they have
+         * been chosen.
+         */
+        public Map<Long, Long> getChosenAnswers() { return chosenAnswers; }
+
+        /**
+         * Convert this histogram into a JSON object.
+         * @return The JSON object representing this histogram.
+         */
+        public JsonObject toJSON() {
+            final JsonObject answers = new JsonObject();
+            this.chosenAnswers.forEach((id, count) -> answers.put(String.valueOf(id), count));
+
+            return new JsonObject()
+                    .put("correct", this.correctAnswers)
+                    .put("wrong", this.wrongAnswers)
+                    .put("total", this.getTotalAnswers())
+                    .put("answers", answers);
+        }
     }
 }
@@ -1,29 +1,66 @@
 package com.twasyl.slideshowfx.server.bus;
 
-import java.util.HashSet;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * This class provides a simple event bus that can be used in the whole SlideshowFX application in order to share events.
  * In order to share events, {@link Actor actors} must register to end points.
+ * <p>
+ * Each actor has its own mailbox: messages are delivered to an actor in the order they have been broadcast, one at a
+ * time, whatever the endpoint they have been broadcast to. Mailboxes are processed by a bounded pool of threads, a
+ * mailbox being processed by at most one thread at a time. The mailbox of an actor is removed once the actor is
+ * unsubscribed from all endpoints and all its messages have been delivered.
  *
  * @author Thierry Wasylczenko
  * @since SlideshowFX 1.0
- * @version 1.0.0
+ * @version 1.1.0
  */
 public class EventBus {
+    private static final Logger LOGGER = Logger.getLogger(EventBus.class.getName());
+
+    /**
+     * The maximum number of messages delivered to an actor before its mailbox is processed again later, in order to let
+     * other actors receive their messages. Value is {@value #MAXIMUM_MESSAGES_PER_DISPATCH}.
+     */
+    public static final int MAXIMUM_MESSAGES_PER_DISPATCH = 64;
 
     private static volatile EventBus singleton = null;
 
     private final Map<String, Set<Actor>> endPointsAndActorsMapping = new ConcurrentHashMap<>();
+    private final Map<Actor, Mailbox> mailboxes = new ConcurrentHashMap<>();
+    private final AtomicInteger maximumMailboxDepth = new AtomicInteger(0);
+    private final ExecutorService dispatcher;
 
     /**
      * Private constructor of the EventBus in order to implement the singleton pattern.
      * @see {@link #getInstance()}
      */
     private EventBus() {
+        final int threads = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+        final AtomicInteger threadsCount = new AtomicInteger(0);
+
+        // At most one task per mailbox is queued, so the queue is bounded by the number of actors
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            final Thread thread = new Thread(runnable, "EventBus-dispatcher-" + threadsCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+
+        this.dispatcher = executor;
     }
 
     /**
@@ -69,42 +106,42 @@ public class EventBus {
      * @throws NullPointerException If either the endPoint or the actor is {@code null}.
      * @throws IllegalArgumentException If the endpoint is empty.
      */
-    public synchronized EventBus subscribe(final String endPoint, final Actor actor) {
+    public EventBus subscribe(final String endPoint, final Actor actor) {
         checkActorIsValid(actor);
         checkEndPointIsValid(endPoint);
 
-        final String trimmedEndPoint = endPoint.trim();
-        if(!endPointsAndActorsMapping.containsKey(trimmedEndPoint)) {
-            endPointsAndActorsMapping.put(trimmedEndPoint, new HashSet<>());
-        }
-
-        this.endPointsAndActorsMapping.get(trimmedEndPoint).add(actor);
+        this.endPointsAndActorsMapping.computeIfAbsent(endPoint.trim(), key -> new CopyOnWriteArraySet<>()).add(actor);
 
         return this;
     }
 
     /**
      * Unsubscribe a given {@link Actor actor} from a given endpoint. Both endpoint and actor can not be {@code null}.
+     * Messages already broadcast to the actor are still delivered.
      * @param endPoint The endpoint to unsubscribe the actor for.
      * @param actor The actor to unsubscribe.
      * @return This instance of {@link EventBus}.
      * @throws NullPointerException If either the endPoint or the actor is {@code null}.
      * @throws IllegalArgumentException If the endpoint is empty.
      */
-    public synchronized EventBus unsubscribe(final String endPoint, final Actor actor) {
+    public EventBus unsubscribe(final String endPoint, final Actor actor) {
         checkActorIsValid(actor);
         checkEndPointIsValid(endPoint);
 
-        final String trimmedEndPoint = endPoint.trim();
-        if(endPointsAndActorsMapping.containsKey(trimmedEndPoint)) {
-            endPointsAndActorsMapping.get(trimmedEndPoint).remove(actor);
+        final Set<Actor> actors = this.endPointsAndActorsMapping.get(endPoint.trim());
+
+        if(actors != null && actors.remove(actor) && !this.isSubscribed(actor)) {
+            // A mailbox still delivering messages is removed once they have all been delivered
+            final Mailbox mailbox = this.mailboxes.get(actor);
+            if(mailbox != null) mailbox.removeIfUnused();
         }
 
         return this;
     }
 
     /**
-     * Broadcast a given message to all subscribers of a given endpoint.
+     * Broadcast a given message to all subscribers of a given endpoint. The message is added to the mailbox of each
+     * subscriber supporting it and this method returns without waiting for the message to be delivered.
      * @param endPoint The endpoint to send the message to.
      * @param message The message to send.
      * @throws NullPointerException If the endPoint is {@code null}.
@@ -118,11 +155,125 @@ public class EventBus {
         if(actors != null) {
             actors.forEach(actor -> {
                 if(actor.supportsMessage(message)) {
-                    final Runnable runnable = () -> actor.onMessage(message);
-                    final Thread thread = new Thread(runnable);
-                    thread.start();
+                    // Posting while the mailbox is mapped ensures it can't be removed with messages to deliver
+                    this.mailboxes.compute(actor, (key, mailbox) -> {
+                        final Mailbox target = mailbox == null ? new Mailbox(key) : mailbox;
+                        target.post(message);
+                        return target;
+                    });
                 }
             });
         }
     }
+
+    /**
+     * Check if the given actor is subscribed to at least one endpoint.
+     * @param actor The actor to check.
+     * @return {@code true} if the actor is subscribed to an endpoint, {@code false} otherwise.
+     */
+    private boolean isSubscribed(final Actor actor) {
+        return this.endPointsAndActorsMapping.values().stream().anyMatch(subscribers -> subscribers.contains(actor));
+    }
+
+    /**
+     * Check if a mailbox exists for the given actor.
+     * @param actor The actor to check.
+     * @return {@code true} if the actor has a mailbox, {@code false} otherwise.
+     */
+    boolean hasMailbox(final Actor actor) {
+        return this.mailboxes.containsKey(actor);
+    }
+
+    /**
+     * Get the number of messages waiting to be delivered to the given actor.
+     * @param actor The actor to get the mailbox depth for.
+     * @return The number of messages waiting to be delivered to the actor.
+     * @throws NullPointerException If the actor is {@code null}.
+     */
+    public int getMailboxDepth(final Actor actor) {
+        checkActorIsValid(actor);
+
+        final Mailbox mailbox = this.mailboxes.get(actor);
+        return mailbox == null ? 0 : mailbox.depth.get();
+    }
+
+    /**
+     * Get the number of messages waiting to be delivered to all actors.
+     * @return The number of messages waiting to be delivered.
+     */
+    public int getPendingMessages() {
+        return this.mailboxes.values().stream().mapToInt(mailbox -> mailbox.depth.get()).sum();
+    }
+
+    /**
+     * Get the highest number of messages that have been waiting in a single mailbox since the creation of this bus.
+     * @return The highest mailbox depth observed.
+     */
+    public int getMaximumMailboxDepth() {
+        return this.maximumMailboxDepth.get();
+    }
+
+    /**
+     * The messages waiting to be delivered to an actor. A mailbox is scheduled on the dispatcher when it receives a
+     * message and isn't already scheduled, and delivers its messages in the order they have been posted.
+     */
+    private class Mailbox implements Runnable {
+        private final Actor actor;
+        private final Queue<Object> messages = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger depth = new AtomicInteger(0);
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        private Mailbox(final Actor actor) {
+            this.actor = actor;
+        }
+
+        private void post(final Object message) {
+            this.messages.add(message);
+
+            final int currentDepth = this.depth.incrementAndGet();
+            maximumMailboxDepth.accumulateAndGet(currentDepth, Math::max);
+
+            this.schedule();
+        }
+
+        private void schedule() {
+            if(!this.messages.isEmpty() && this.scheduled.compareAndSet(false, true)) {
+                dispatcher.execute(this);
+            }
+        }
+
+        /**
+         * Removes this mailbox from the bus if all its messages have been delivered and its actor isn't subscribed to
+         * any endpoint anymore. The mailbox is kept otherwise, so that messages broadcast after the actor subscribes
+         * again are delivered after the ones already in this mailbox.
+         */
+        private void removeIfUnused() {
+            mailboxes.computeIfPresent(this.actor, (key, mailbox) -> mailbox == this && this.messages.isEmpty()
+                    && !this.scheduled.get() && !isSubscribed(key) ? null : mailbox);
+        }
+
+        @Override
+        public void run() {
+            try {
+                Object message;
+                int delivered = 0;
+
+                while(delivered < MAXIMUM_MESSAGES_PER_DISPATCH && (message = this.messages.poll()) != null) {
+                    this.depth.decrementAndGet();
+                    delivered++;
+
+                    try {
+                        this.actor.onMessage(message);
+                    } catch (RuntimeException e) {
+                        LOGGER.log(Level.WARNING, "Error while delivering a message to an actor", e);
+                    }
+                }
+            } finally {
+                this.scheduled.set(false);
+                // Messages posted while the mailbox was still marked as scheduled
+                this.schedule();
+                if(!isSubscribed(this.actor)) this.removeIfUnused();
+            }
+        }
+    }
 }
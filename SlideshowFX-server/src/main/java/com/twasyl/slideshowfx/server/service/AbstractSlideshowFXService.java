@@ -1,9 +1,9 @@
 package com.twasyl.slideshowfx.server.service;
 
+import com.twasyl.slideshowfx.logs.LogContext;
 import com.twasyl.slideshowfx.server.SlideshowFXServer;
 import io.vertx.core.AbstractVerticle;
 import io.vertx.core.Handler;
-import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.eventbus.MessageConsumer;
 import io.vertx.core.json.JsonObject;
@@ -63,7 +63,12 @@ public class AbstractSlideshowFXService extends AbstractVerticle implements ISli
         if(endpoint.trim().isEmpty()) throw new NullPointerException("The endpoint can not be empty");
         if(handler == null) throw new NullPointerException("The handler can not be null");
 
-        final MessageConsumer consumer = this.vertx.eventBus().consumer(endpoint, handler);
+        // Logs emitted while handling a message are attached to the service's endpoint
+        final MessageConsumer consumer = this.vertx.eventBus().<JsonObject>consumer(endpoint, message -> {
+            try(final LogContext.Scope scope = LogContext.with(LogContext.SERVICE_NAME, endpoint)) {
+                handler.handle(message);
+            }
+        });
         this.messageConsumers.put(endpoint, consumer);
 
         return this;
@@ -95,17 +100,13 @@ public class AbstractSlideshowFXService extends AbstractVerticle implements ISli
 
     /**
      * <p>Send a given response to all WebSocket clients excluding the origin. If the given origin is {@code null}
-     * or empty, no exclusion will be performed.</p>
+     * or empty, no exclusion will be performed. The response is encoded only once for all clients.</p>
      *
      * @param response The response to send.
      * @param excludeOrigin The origin to exclude, if needed.
      */
     protected void sendResponseToWebSocketClients(final JsonObject response, final String excludeOrigin) {
-        SlideshowFXServer.getSingleton().getWebSockets().forEach(socket -> {
-            if(!socket.textHandlerID().equals(excludeOrigin)) {
-                socket.write(Buffer.buffer(response.encode()));
-            }
-        });
+        SlideshowFXServer.getSingleton().getWebSocketBroadcaster().broadcast(response, excludeOrigin);
     }
 
     /**
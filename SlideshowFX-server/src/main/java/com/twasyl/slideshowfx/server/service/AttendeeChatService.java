@@ -1,27 +1,22 @@
 package com.twasyl.slideshowfx.server.service;
 
 import com.twasyl.slideshowfx.server.SlideshowFXServer;
+import com.twasyl.slideshowfx.server.StaticAsset;
 import com.twasyl.slideshowfx.server.beans.chat.ChatMessage;
 import com.twasyl.slideshowfx.server.beans.chat.ChatMessageAction;
 import com.twasyl.slideshowfx.server.beans.chat.ChatMessageStatus;
-import com.twasyl.slideshowfx.utils.ResourceHelper;
 import com.twasyl.slideshowfx.utils.TemplateProcessor;
-import freemarker.template.Configuration;
-import freemarker.template.Template;
-import freemarker.template.TemplateException;
 import io.vertx.core.Handler;
-import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
-import io.vertx.core.shareddata.LocalMap;
 import io.vertx.ext.web.Router;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.StringWriter;
+import java.net.URLConnection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -36,7 +31,10 @@ import static com.twasyl.slideshowfx.server.service.IServicesCode.*;
 public class AttendeeChatService extends AbstractSlideshowFXService {
     private static final Logger LOGGER = Logger.getLogger(AttendeeChatService.class.getName());
 
+    private static final String FONT_AWESOME_RESOURCES = "/com/twasyl/slideshowfx/webapp/font-awesome/4.6.3/";
+
     private final Map<String, ChatMessage> chatHistory = new HashMap<>();
+    private final Map<String, StaticAsset> fontAwesomeAssets = new ConcurrentHashMap<>();
 
     @Override
     public void start() {
@@ -62,47 +60,24 @@ public class AttendeeChatService extends AbstractSlideshowFXService {
         router.get(FONT_AWESOME_PREFIX.concat("*")).handler(routingContext -> {
             final String file = routingContext.request().path().substring(FONT_AWESOME_PREFIX.length());
 
-            try (final InputStream in = ResourceHelper.getInputStream("/com/twasyl/slideshowfx/webapp/font-awesome/4.6.3/".concat(file))) {
-
-                byte[] imageBuffer = new byte[1028];
-                int numberOfBytesRead;
-                Buffer buffer = Buffer.buffer();
-
-                while ((numberOfBytesRead = in.read(imageBuffer)) != -1) {
-                    buffer.appendBytes(imageBuffer, 0, numberOfBytesRead);
+            // Resources are read once and kept for the next requests
+            final StaticAsset asset = this.fontAwesomeAssets.computeIfAbsent(file, name -> {
+                try {
+                    return StaticAsset.fromResource(FONT_AWESOME_RESOURCES.concat(name), URLConnection.guessContentTypeFromName(name));
+                } catch (IOException e) {
+                    LOGGER.log(Level.WARNING, "Can not read the font awesome resource", e);
+                    return null;
                 }
+            });
 
-                routingContext.response().setChunked(true).write(buffer).end();
-            } catch (IOException e) {
-                LOGGER.log(Level.WARNING, "Can not send the font awesome css", e);
+            if(asset != null) {
+                asset.handle(routingContext);
+            } else {
+                routingContext.response().setStatusCode(404).end();
             }
         });
         // Get the JavaScript resources
-        router.get("/slideshowfx/chat/js/chatService.js").handler(request -> {
-            final LocalMap templateTokens = this.vertx.sharedData().getLocalMap(SlideshowFXServer.SHARED_DATA_TEMPLATE_TOKENS);
-
-            final Configuration configuration = TemplateProcessor.getJsConfiguration();
-
-            final Map tokenValues = new HashMap();
-            tokenValues.put(templateTokens.get(SlideshowFXServer.SHARED_DATA_SERVER_HOST_TOKEN).toString(), singleton.getHost());
-            tokenValues.put(templateTokens.get(SlideshowFXServer.SHARED_DATA_SERVER_PORT_TOKEN).toString(), singleton.getPort() + "");
-
-            try (final StringWriter writer = new StringWriter()) {
-                final Template template = configuration.getTemplate("chatService.js");
-                template.process(tokenValues, writer);
-
-                writer.flush();
-
-                request.response().putHeader("Content-Type", "application/javascript").setStatusCode(200).setChunked(true).write(Buffer.buffer(writer.toString())).end();
-            } catch (IOException e) {
-                LOGGER.log(Level.WARNING, "Error when a client tried to access the chat", e);
-
-                request.response().setStatusCode(500).end();
-            } catch (TemplateException e) {
-                LOGGER.log(Level.WARNING, "Error when processing the chat template", e);
-                request.response().setStatusCode(500).end();
-            }
-        });
+        router.get("/slideshowfx/chat/js/chatService.js").handler(singleton.buildTemplateAssetHandler(TemplateProcessor.getJsConfiguration(), "chatService.js", "application/javascript"));
     }
 
     private Handler<Message<JsonObject>> buildUpdateMessageHandler() {
@@ -38,6 +38,11 @@ public interface IServicesCode {
      */
     int RESPONSE_CODE_QUIZ_RETRIEVED = 205;
 
+    /**
+     * The status code indicating the result of a quiz has been retrieved successfully.
+     */
+    int RESPONSE_CODE_QUIZ_RESULT_RETRIEVED = 206;
+
     /**
      * The status code indicating an error occurred.
      */
@@ -52,4 +57,9 @@ public interface IServicesCode {
      * The status code indicating tno quiz is currently active.
      */
     int RESPONSE_CODE_QUIZ_NOT_ACTIVE = 404;
+
+    /**
+     * The status code indicating that no result has been found for a quiz.
+     */
+    int RESPONSE_CODE_QUIZ_RESULT_NOT_FOUND = 404;
 }
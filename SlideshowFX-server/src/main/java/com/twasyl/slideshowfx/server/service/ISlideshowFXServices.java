@@ -17,4 +17,5 @@ public interface ISlideshowFXServices {
     String SERVICE_QUIZ_START = "slideshowfx.quiz.start";
     String SERVICE_QUIZ_STOP = "slideshowfx.quiz.stop";
     String SERVICE_QUIZ_CURRENT = "slideshowfx.quiz.current";
+    String SERVICE_QUIZ_RESULT = "slideshowfx.quiz.result";
 }
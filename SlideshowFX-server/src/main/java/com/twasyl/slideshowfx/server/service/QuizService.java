@@ -5,26 +5,18 @@ import com.twasyl.slideshowfx.server.beans.quiz.Quiz;
 import com.twasyl.slideshowfx.server.beans.quiz.QuizResult;
 import com.twasyl.slideshowfx.server.bus.EventBus;
 import com.twasyl.slideshowfx.utils.TemplateProcessor;
-import freemarker.template.Configuration;
-import freemarker.template.Template;
-import freemarker.template.TemplateException;
 import io.vertx.core.Handler;
-import io.vertx.core.buffer.Buffer;
 import io.vertx.core.eventbus.Message;
 import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
-import io.vertx.core.shareddata.LocalMap;
 import io.vertx.ext.web.Router;
 
-import java.io.IOException;
-import java.io.StringWriter;
 import java.util.Base64;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.logging.Level;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Logger;
 
-import static com.twasyl.slideshowfx.server.SlideshowFXServer.*;
 import static com.twasyl.slideshowfx.server.service.IServicesCode.*;
 
 /**
@@ -39,14 +31,26 @@ public class QuizService extends AbstractSlideshowFXService {
 
     public static final String SERVICE_QUIZ_ON_RESULT = "service.quiz.onResult";
 
+    /**
+     * The period, in milliseconds, at which the result of the current quiz is published to the presenter when new
+     * answers have been received. Value is {@value #RESULT_PUBLICATION_PERIOD}.
+     */
+    public static final long RESULT_PUBLICATION_PERIOD = 100;
+
     private final String url = "/slideshowfx/quiz";
-    private Quiz currentQuiz = null;
+    private volatile Quiz currentQuiz = null;
 
     /**
      * The results of all quiz. The key of this Map represents the ID of the {@link Quiz}, the value the {@link QuizResult} which
      * contains all correct and wrong answers.
      */
-    private final Map<Long, QuizResult> results = new HashMap<>();
+    private final Map<Long, QuizResult> results = new ConcurrentHashMap<>();
+
+    /**
+     * The number of answers of the current quiz when its result has been published for the last time.
+     */
+    private final AtomicLong publishedAnswers = new AtomicLong(-1);
+    private long publicationTimerId = -1;
 
     @Override
     public void start() {
@@ -55,7 +59,39 @@ public class QuizService extends AbstractSlideshowFXService {
 
         this.register(SERVICE_QUIZ_START, this.buildStartQuizHandler())
             .register(SERVICE_QUIZ_STOP, this.buildStopQuizHandler())
-            .register(SERVICE_QUIZ_CURRENT, buildGetCurrentQuizHandler());
+            .register(SERVICE_QUIZ_CURRENT, buildGetCurrentQuizHandler())
+            .register(SERVICE_QUIZ_RESULT, buildGetResultHandler());
+
+        // Answers are only counted when received, the presenter is notified at most once per period
+        this.publicationTimerId = this.vertx.setPeriodic(RESULT_PUBLICATION_PERIOD, timerId -> this.publishCurrentResult(false));
+    }
+
+    @Override
+    public void stop() {
+        if(this.publicationTimerId != -1) this.vertx.cancelTimer(this.publicationTimerId);
+    }
+
+    /**
+     * Publish the result of the current quiz to the presenter.
+     * @param force Indicates if the result must be published even if no answer has been received since the last
+     *              publication.
+     */
+    private void publishCurrentResult(final boolean force) {
+        final Quiz quiz = this.currentQuiz;
+        if(quiz == null) return;
+
+        this.publishResult(quiz, force);
+    }
+
+    private void publishResult(final Quiz quiz, final boolean force) {
+        final QuizResult result = this.results.get(quiz.getId());
+        if(result == null) return;
+
+        final long answers = result.getTotalAnswers();
+
+        if(this.publishedAnswers.getAndSet(answers) != answers || force) {
+            EventBus.getInstance().broadcast(SERVICE_QUIZ_ON_RESULT, result);
+        }
     }
 
     private void updatedRouteMatcher() {
@@ -66,7 +102,9 @@ public class QuizService extends AbstractSlideshowFXService {
             int statusCode = 500;
 
             try {
-                if (currentQuiz != null && currentQuiz.getId() == Long.parseLong(routingContext.request().getParam("quizid"))) {
+                final Quiz quiz = currentQuiz;
+
+                if (quiz != null && quiz.getId() == Long.parseLong(routingContext.request().getParam("quizid"))) {
 
                     final String stringAnswer = routingContext.request().getFormAttribute("answer");
                     final JsonObject jsonAnswer = new JsonObject(new String(Base64.getDecoder().decode(stringAnswer)));
@@ -78,49 +116,27 @@ public class QuizService extends AbstractSlideshowFXService {
                         answers[index++] = ((Number) object).longValue();
                     }
 
-                    boolean isCorrect = currentQuiz.checkAnswers(answers);
-                    final QuizResult result = results.get(currentQuiz.getId());
+                    final QuizResult result = results.get(quiz.getId());
 
-                    if (result != null) {
-                        if (isCorrect) result.addCorrectAnswer();
-                        else result.addWrongAnswer();
-                    }
+                    // Only answers of the quiz are counted, so an attendee can't make the result grow
+                    if (!quiz.containsAnswers(answers)) {
+                        statusCode = 406;
+                    } else {
+                        if (result != null) {
+                            result.addAnswer(quiz.checkAnswers(answers), answers);
+                        }
 
-                    statusCode = 200;
+                        statusCode = 200;
+                    }
                 } else {
                     statusCode = 406;
-                    routingContext.response().setStatusCode(406).end();
                 }
             } finally {
                 routingContext.response().setStatusCode(statusCode).end();
             }
         });
         // Get the JavaScript resources
-        router.get("/slideshowfx/quiz/js/quizService.js").handler(routingContext -> {
-            final LocalMap<String, String> templateTokens = this.vertx.sharedData().getLocalMap(SHARED_DATA_TEMPLATE_TOKENS);
-
-            final Configuration configuration = TemplateProcessor.getJsConfiguration();
-
-            final Map tokenValues = new HashMap();
-            tokenValues.put(templateTokens.get(SHARED_DATA_SERVER_HOST_TOKEN).toString(), SlideshowFXServer.getSingleton().getHost());
-            tokenValues.put(templateTokens.get(SHARED_DATA_SERVER_PORT_TOKEN).toString(), SlideshowFXServer.getSingleton().getPort() + "");
-
-            try (final StringWriter writer = new StringWriter()) {
-                final Template template = configuration.getTemplate("quizService.js");
-                template.process(tokenValues, writer);
-
-                writer.flush();
-
-                routingContext.response().putHeader("Content-Type", "application/javascript").setStatusCode(200).setChunked(true).write(Buffer.buffer(writer.toString())).end();
-            } catch (IOException e) {
-                LOGGER.log(Level.WARNING, "Error when a client tried to access the chat", e);
-
-                routingContext.response().setStatusCode(500).end();
-            } catch (TemplateException e) {
-                LOGGER.log(Level.WARNING, "Error when processing the chat template", e);
-                routingContext.response().setStatusCode(500).end();
-            }
-        });
+        router.get("/slideshowfx/quiz/js/quizService.js").handler(SlideshowFXServer.getSingleton().buildTemplateAssetHandler(TemplateProcessor.getJsConfiguration(), "quizService.js", "application/javascript"));
     }
 
     /**
@@ -132,22 +148,23 @@ public class QuizService extends AbstractSlideshowFXService {
             final JsonObject object = message.body();
             final String quizString = new String(Base64.getDecoder().decode(object.getString("encoded-quiz")));
 
-            QuizService.this.currentQuiz = Quiz.build(quizString);
+            final Quiz quiz = Quiz.build(quizString);
 
-            // Add the Quiz to the results. If the Quiz already exists, it won't be erased
-            if (!QuizService.this.results.containsKey(QuizService.this.currentQuiz.getId())) {
+            // Add the Quiz to the results before accepting answers. If the Quiz already exists, it won't be erased
+            QuizService.this.results.computeIfAbsent(quiz.getId(), id -> {
                 final QuizResult quizResult = new QuizResult();
-                quizResult.setQuiz(QuizService.this.currentQuiz);
+                quizResult.setQuiz(quiz);
+                return quizResult;
+            });
 
-                QuizService.this.results.put(QuizService.this.currentQuiz.getId(), quizResult);
-            }
+            QuizService.this.currentQuiz = quiz;
 
             final JsonObject encodedQuiz = new JsonObject()
-                    .put("encoded-quiz", Base64.getEncoder().encodeToString(this.currentQuiz.toJSON().encode().getBytes()));
+                    .put("encoded-quiz", Base64.getEncoder().encodeToString(quiz.toJSON().encode().getBytes()));
             final JsonObject reply = this.buildResponse(SERVICE_QUIZ_START, RESPONSE_CODE_QUIZ_STARTED, encodedQuiz);
             this.sendResponseToWebSocketClients(reply);
 
-            EventBus.getInstance().broadcast(SERVICE_QUIZ_ON_RESULT, QuizService.this.results.get(QuizService.this.currentQuiz.getId()));
+            this.publishResult(quiz, true);
 
             message.reply(reply);
         };
@@ -161,9 +178,12 @@ public class QuizService extends AbstractSlideshowFXService {
             final Long quizId = object.getLong("id");
 
             // Ensure the ID is equal to the current quiz
-            if(this.currentQuiz != null && this.currentQuiz.getId() == quizId) {
+            final Quiz quiz = this.currentQuiz;
+            if(quiz != null && quiz.getId() == quizId) {
                 this.currentQuiz = null;
 
+                // Answers received since the last publication are published before the quiz is stopped
+                this.publishResult(quiz, false);
 
                 final JsonObject reply = this.buildResponse(SERVICE_QUIZ_STOP, RESPONSE_CODE_QUIZ_STOPPED, "The quiz has been stopped");
                 this.sendResponseToWebSocketClients(reply);
@@ -186,4 +206,19 @@ public class QuizService extends AbstractSlideshowFXService {
 
         return handler;
     }
+
+    private Handler<Message<JsonObject>> buildGetResultHandler() {
+        final Handler<Message<JsonObject>> handler = message -> {
+            final Long quizId = message.body().getLong("id");
+            final QuizResult result = quizId == null ? null : this.results.get(quizId);
+
+            if(result != null) {
+                message.reply(this.buildResponse(SERVICE_QUIZ_RESULT, RESPONSE_CODE_QUIZ_RESULT_RETRIEVED, result.getHistogram().toJSON()));
+            } else {
+                message.reply(this.buildResponse(SERVICE_QUIZ_RESULT, RESPONSE_CODE_QUIZ_RESULT_NOT_FOUND, "No result for the quiz"));
+            }
+        };
+
+        return handler;
+    }
 }
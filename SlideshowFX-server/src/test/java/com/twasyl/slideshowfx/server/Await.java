@@ -0,0 +1,40 @@
+package com.twasyl.slideshowfx.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Waits in tests for a condition that becomes true asynchronously, like a WebSocket client being registered by the
+ * server, when no completion signal is available.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+final class Await {
+
+    /**
+     * The time, in seconds, tests wait for asynchronous operations.
+     */
+    static final long TIMEOUT = 10;
+
+    private Await() {
+    }
+
+    /**
+     * Waits until the given condition is true, at most {@link #TIMEOUT} seconds.
+     * @param condition The condition to wait for.
+     * @return {@code true} if the condition is true, {@code false} if the timeout elapsed.
+     * @throws InterruptedException If the current thread is interrupted while waiting.
+     */
+    static boolean until(final BooleanSupplier condition) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT);
+
+        while(!condition.getAsBoolean()) {
+            if(System.nanoTime() - deadline > 0) return false;
+            Thread.sleep(10);
+        }
+
+        return true;
+    }
+}
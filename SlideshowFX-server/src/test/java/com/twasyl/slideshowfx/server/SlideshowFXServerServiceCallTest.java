@@ -0,0 +1,94 @@
+package com.twasyl.slideshowfx.server;
+
+import io.vertx.core.AbstractVerticle;
+import io.vertx.core.eventbus.ReplyException;
+import io.vertx.core.eventbus.ReplyFailure;
+import io.vertx.core.json.JsonObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.twasyl.slideshowfx.server.service.AbstractSlideshowFXService.JSON_KEY_DATA;
+import static com.twasyl.slideshowfx.server.service.AbstractSlideshowFXService.JSON_KEY_SERVICE;
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the calls of services made with {@link SlideshowFXServer#callService(String)} and
+ * {@link SlideshowFXServer#callServiceAsync(String, long)}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class SlideshowFXServerServiceCallTest {
+
+    private static final int SERVER_PORT = 50081;
+    private static final String ECHO_SERVICE = "test.service.echo";
+    private static final String SILENT_SERVICE = "test.service.silent";
+
+    /**
+     * A verticle providing an echo service and a service that never responds.
+     */
+    public static class TestServicesVerticle extends AbstractVerticle {
+        @Override
+        public void start() {
+            this.vertx.eventBus().<JsonObject>consumer(ECHO_SERVICE, message -> message.reply(message.body()));
+            this.vertx.eventBus().<JsonObject>consumer(SILENT_SERVICE, message -> {});
+        }
+    }
+
+    private SlideshowFXServer server;
+
+    private static String request(final String service, final JsonObject data) {
+        return new JsonObject().put(JSON_KEY_SERVICE, service).put(JSON_KEY_DATA, data).encode();
+    }
+
+    @Before public void before() throws Exception {
+        this.server = SlideshowFXServer.create("localhost", SERVER_PORT, null);
+        this.server.start().get(Await.TIMEOUT, TimeUnit.SECONDS);
+        this.server.deploy(TestServicesVerticle.class).get(Await.TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    @After public void after() throws Exception {
+        this.server.stop().get(Await.TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    @Test public void callService() {
+        final JsonObject data = new JsonObject().put("message", "Hello");
+
+        assertEquals(data, this.server.callService(request(ECHO_SERVICE, data)));
+    }
+
+    @Test public void callServiceAsync() {
+        final JsonObject data = new JsonObject().put("message", "Hello");
+
+        assertEquals(data, this.server.callServiceAsync(request(ECHO_SERVICE, data)).join());
+    }
+
+    @Test public void callServiceAsyncTimeout() {
+        try {
+            this.server.callServiceAsync(request(SILENT_SERVICE, new JsonObject()), 100).join();
+            fail("The call should have timed out");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof ReplyException);
+            assertEquals(ReplyFailure.TIMEOUT, ((ReplyException) e.getCause()).failureType());
+        }
+    }
+
+    @Test public void callUnknownService() {
+        assertNull(this.server.callService(request("test.service.unknown", new JsonObject())));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void callServiceWithoutData() {
+        this.server.callServiceAsync(new JsonObject().put(JSON_KEY_SERVICE, ECHO_SERVICE).encode());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void callServiceWithInvalidRequest() {
+        this.server.callServiceAsync("{\"service\": ");
+    }
+}
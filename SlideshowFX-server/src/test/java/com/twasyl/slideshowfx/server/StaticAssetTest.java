@@ -0,0 +1,172 @@
+package com.twasyl.slideshowfx.server;
+
+import io.vertx.core.MultiMap;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.HttpClientRequest;
+import io.vertx.core.http.HttpClientResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the {@link StaticAsset} class served by a {@link SlideshowFXServer}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class StaticAssetTest {
+
+    private static final int SERVER_PORT = 50083;
+    private static final String ASSET_PATH = "/slideshowfx/test/asset.js";
+
+    private static class Response {
+        private int statusCode;
+        private MultiMap headers;
+        private Buffer body;
+    }
+
+    private final byte[] content = new String(new char[4096]).replace('\0', 'a').getBytes(StandardCharsets.UTF_8);
+    private SlideshowFXServer server;
+    private Vertx clientVertx;
+    private HttpClient client;
+    private StaticAsset asset;
+
+    @Before public void before() throws Exception {
+        this.server = SlideshowFXServer.create("localhost", SERVER_PORT, null);
+        this.server.start().get(Await.TIMEOUT, TimeUnit.SECONDS);
+
+        this.asset = new StaticAsset(this.content, "application/javascript", StaticAsset.CACHE_CONTROL_REVALIDATE);
+        this.server.getRouter().get(ASSET_PATH).handler(this.asset);
+
+        this.clientVertx = Vertx.vertx();
+        this.client = this.clientVertx.createHttpClient();
+    }
+
+    @After public void after() throws Exception {
+        this.client.close();
+        this.clientVertx.close();
+        this.server.stop().get(Await.TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    private Response get(final String... headers) throws Exception {
+        final CompletableFuture<Response> future = new CompletableFuture<>();
+
+        final HttpClientRequest request = this.client.get(SERVER_PORT, "localhost", ASSET_PATH, (HttpClientResponse clientResponse) -> {
+            clientResponse.bodyHandler(body -> {
+                final Response response = new Response();
+                response.statusCode = clientResponse.statusCode();
+                response.headers = clientResponse.headers();
+                response.body = body;
+                future.complete(response);
+            });
+        });
+        request.exceptionHandler(future::completeExceptionally);
+
+        for(int index = 0; index < headers.length; index += 2) {
+            if(headers[index] != null) request.putHeader(headers[index], headers[index + 1]);
+        }
+        request.end();
+
+        return future.get(Await.TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    private static byte[] gunzip(final Buffer buffer) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        try(final InputStream input = new GZIPInputStream(new ByteArrayInputStream(buffer.getBytes()))) {
+            final byte[] bytes = new byte[1024];
+            int length;
+
+            while((length = input.read(bytes)) > 0) {
+                output.write(bytes, 0, length);
+            }
+        }
+
+        return output.toByteArray();
+    }
+
+    @Test public void serveAsset() throws Exception {
+        final Response response = this.get();
+
+        assertEquals(200, response.statusCode);
+        assertArrayEquals(this.content, response.body.getBytes());
+        assertEquals("application/javascript", response.headers.get("Content-Type"));
+        assertEquals(this.asset.getETag(), response.headers.get("ETag"));
+        assertNotNull(response.headers.get("Last-Modified"));
+        assertNull(response.headers.get("Content-Encoding"));
+    }
+
+    @Test public void serveCompressedAsset() throws Exception {
+        assertTrue(this.asset.isCompressed());
+
+        final Response response = this.get("Accept-Encoding", "deflate, gzip;q=0.8");
+
+        assertEquals(200, response.statusCode);
+        assertEquals("gzip", response.headers.get("Content-Encoding"));
+        assertEquals(this.asset.getGzipETag(), response.headers.get("ETag"));
+        assertNotEquals(this.asset.getETag(), this.asset.getGzipETag());
+        assertTrue(response.body.length() < this.content.length);
+        assertArrayEquals(this.content, gunzip(response.body));
+    }
+
+    @Test public void gzipNotAcceptable() throws Exception {
+        final Response response = this.get("Accept-Encoding", "gzip;q=0");
+
+        assertNull(response.headers.get("Content-Encoding"));
+        assertArrayEquals(this.content, response.body.getBytes());
+    }
+
+    @Test public void notModifiedWithETag() throws Exception {
+        final Response response = this.get("If-None-Match", this.asset.getETag());
+
+        assertEquals(304, response.statusCode);
+        assertEquals(0, response.body.length());
+    }
+
+    @Test public void notModifiedWithGzipETag() throws Exception {
+        final Response response = this.get("Accept-Encoding", "gzip", "If-None-Match", this.asset.getGzipETag());
+
+        assertEquals(304, response.statusCode);
+        assertEquals(this.asset.getGzipETag(), response.headers.get("ETag"));
+    }
+
+    @Test public void modifiedWithETagOfOtherEncoding() throws Exception {
+        assertEquals(200, this.get("Accept-Encoding", "gzip", "If-None-Match", this.asset.getETag()).statusCode);
+        assertEquals(200, this.get("If-None-Match", this.asset.getGzipETag()).statusCode);
+    }
+
+    @Test public void modifiedWithOtherETag() throws Exception {
+        assertEquals(200, this.get("If-None-Match", "\"other\"").statusCode);
+    }
+
+    @Test public void notModifiedSinceLastModified() throws Exception {
+        final String lastModified = this.get().headers.get("Last-Modified");
+
+        assertEquals(304, this.get("If-Modified-Since", lastModified).statusCode);
+    }
+
+    @Test public void modifiedSinceOldDate() throws Exception {
+        assertEquals(200, this.get("If-Modified-Since", "Thu, 01 Jan 1970 00:00:00 GMT").statusCode);
+    }
+
+    @Test public void smallAssetNotCompressed() {
+        final StaticAsset smallAsset = new StaticAsset(new byte[] { 'a' }, null, StaticAsset.CACHE_CONTROL_REVALIDATE);
+
+        assertFalse(smallAsset.isCompressed());
+        assertNull(smallAsset.getGzipETag());
+    }
+}
@@ -0,0 +1,107 @@
+package com.twasyl.slideshowfx.server;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.http.HttpClient;
+import io.vertx.core.http.WebSocket;
+import io.vertx.core.json.JsonObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the {@link WebSocketBroadcaster} class with clients connected to a {@link SlideshowFXServer}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class WebSocketBroadcasterTest {
+
+    private static final int SERVER_PORT = 50082;
+    private static final int CLIENTS = 3;
+
+    private SlideshowFXServer server;
+    private Vertx clientVertx;
+    private HttpClient client;
+    private final List<WebSocket> sockets = Collections.synchronizedList(new ArrayList<>());
+    private final List<List<String>> receivedMessages = new ArrayList<>();
+    private CountDownLatch received;
+
+    @Before public void before() throws Exception {
+        this.server = SlideshowFXServer.create("localhost", SERVER_PORT, null);
+        this.server.start().get(Await.TIMEOUT, TimeUnit.SECONDS);
+
+        this.clientVertx = Vertx.vertx();
+        this.client = this.clientVertx.createHttpClient();
+
+        final CountDownLatch connected = new CountDownLatch(CLIENTS);
+
+        for(int index = 0; index < CLIENTS; index++) {
+            final List<String> messages = Collections.synchronizedList(new ArrayList<>());
+            this.receivedMessages.add(messages);
+
+            this.client.websocket(SERVER_PORT, "localhost", SlideshowFXServer.CONTEXT_PATH, socket -> {
+                socket.handler(buffer -> {
+                    messages.add(buffer.toString());
+                    this.received.countDown();
+                });
+                this.sockets.add(socket);
+                connected.countDown();
+            });
+        }
+
+        assertTrue(connected.await(Await.TIMEOUT, TimeUnit.SECONDS));
+
+        // The server registers the clients asynchronously
+        assertTrue(Await.until(() -> this.server.getWebSockets().size() == CLIENTS));
+    }
+
+    @After public void after() throws Exception {
+        this.client.close();
+        this.clientVertx.close();
+        this.server.stop().get(Await.TIMEOUT, TimeUnit.SECONDS);
+    }
+
+    @Test public void broadcastToAllClients() throws InterruptedException {
+        final JsonObject message = new JsonObject().put("message", "Hello");
+        this.received = new CountDownLatch(CLIENTS);
+
+        this.server.getWebSocketBroadcaster().broadcast(message, null);
+
+        assertTrue(this.received.await(Await.TIMEOUT, TimeUnit.SECONDS));
+        this.receivedMessages.forEach(messages -> assertEquals(Collections.singletonList(message.encode()), messages));
+    }
+
+    @Test public void broadcastExcludingOrigin() throws InterruptedException {
+        final String origin = this.server.getWebSockets().iterator().next().textHandlerID();
+        this.received = new CountDownLatch(CLIENTS - 1);
+
+        this.server.getWebSocketBroadcaster().broadcast(new JsonObject().put("message", "Hello"), origin);
+
+        assertTrue(this.received.await(Await.TIMEOUT, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(CLIENTS - 1, this.receivedMessages.stream().filter(messages -> !messages.isEmpty()).count());
+    }
+
+    @Test public void closedClientIsRemoved() throws InterruptedException {
+        assertEquals(CLIENTS, this.server.getWebSockets().size());
+
+        this.sockets.get(0).close();
+
+        assertTrue(Await.until(() -> this.server.getWebSockets().size() < CLIENTS));
+        assertEquals(CLIENTS - 1, this.server.getWebSockets().size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeEvictionDelay() {
+        this.server.getWebSocketBroadcaster().setEvictionDelay(-1);
+    }
+}
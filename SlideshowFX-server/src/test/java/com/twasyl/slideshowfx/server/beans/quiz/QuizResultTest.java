@@ -0,0 +1,148 @@
+package com.twasyl.slideshowfx.server.beans.quiz;
+
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class tests the {@link QuizResult} class.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class QuizResultTest {
+
+    private static final long ANSWERS = 8;
+
+    /**
+     * Creates the result of a quiz whose answers have the IDs 0 to {@link #ANSWERS} excluded.
+     */
+    private static QuizResult newResult() {
+        final Quiz quiz = new Quiz();
+
+        for(long id = 0; id < ANSWERS; id++) {
+            final Answer answer = new Answer();
+            answer.setId(id);
+            quiz.getAnswers().add(answer);
+        }
+
+        final QuizResult result = new QuizResult();
+        result.setQuiz(quiz);
+        return result;
+    }
+
+    @Test public void addAnswers() {
+        final QuizResult result = newResult();
+
+        result.addAnswer(true, 1L);
+        result.addAnswer(false, 1L, 2L);
+        result.addAnswer(false, 3L);
+
+        final QuizResult.Histogram histogram = result.getHistogram();
+
+        assertEquals(1, histogram.getCorrectAnswers());
+        assertEquals(2, histogram.getWrongAnswers());
+        assertEquals(3, histogram.getTotalAnswers());
+        assertEquals(2, histogram.getChosenCount(1));
+        assertEquals(1, histogram.getChosenCount(2));
+        assertEquals(1, histogram.getChosenCount(3));
+        assertEquals(0, histogram.getChosenCount(4));
+    }
+
+    @Test public void unknownAnswerIsRejected() {
+        final QuizResult result = newResult();
+
+        try {
+            result.addAnswer(false, 1L, ANSWERS);
+            fail("An answer which isn't an answer of the quiz should be rejected");
+        } catch (IllegalArgumentException e) {
+            final QuizResult.Histogram histogram = result.getHistogram();
+
+            assertEquals(0, histogram.getTotalAnswers());
+            assertEquals(0, histogram.getChosenCount(1));
+            assertTrue(histogram.getChosenAnswers().isEmpty());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void duplicatedAnswerIsRejected() {
+        newResult().addAnswer(false, 1L, 1L);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void answerWithoutQuizIsRejected() {
+        new QuizResult().addAnswer(true, 1L);
+    }
+
+    @Test public void concurrentAnswers() throws InterruptedException {
+        final int threadsCount = 8;
+        final int answersPerThread = 10000;
+        final QuizResult result = newResult();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+
+        for(int index = 0; index < threadsCount; index++) {
+            final Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+
+                for(int answer = 0; answer < answersPerThread; answer++) {
+                    result.addAnswer(answer % 2 == 0, (long) (answer % 4));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+
+        start.countDown();
+        for(Thread thread : threads) thread.join();
+
+        final QuizResult.Histogram histogram = result.getHistogram();
+
+        assertEquals(threadsCount * answersPerThread / 2, histogram.getCorrectAnswers());
+        assertEquals(threadsCount * answersPerThread / 2, histogram.getWrongAnswers());
+        for(long answer = 0; answer < 4; answer++) {
+            assertEquals(threadsCount * answersPerThread / 4, histogram.getChosenCount(answer));
+        }
+    }
+
+    @Test public void propertiesUpdatedOnDemand() {
+        final QuizResult result = newResult();
+
+        result.addCorrectAnswer();
+        result.addWrongAnswer();
+        result.addWrongAnswer();
+
+        assertEquals(3, result.getTotalAnswers());
+        assertEquals(0, result.correctAnswersProperty().get());
+        assertEquals(0, result.totalAnswersProperty().get());
+
+        result.updateProperties();
+
+        assertEquals(1, result.correctAnswersProperty().get());
+        assertEquals(2, result.wrongAnswersProperty().get());
+        assertEquals(3, result.totalAnswersProperty().get());
+    }
+
+    @Test public void histogramToJSON() {
+        final QuizResult result = newResult();
+        result.addAnswer(true, 7L);
+
+        final JsonObject json = result.getHistogram().toJSON();
+
+        assertEquals(1, (long) json.getLong("correct"));
+        assertEquals(0, (long) json.getLong("wrong"));
+        assertEquals(1, (long) json.getLong("total"));
+        assertEquals(1, (long) json.getJsonObject("answers").getLong("7"));
+    }
+}
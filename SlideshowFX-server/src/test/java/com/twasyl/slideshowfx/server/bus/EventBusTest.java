@@ -5,8 +5,17 @@ import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * This class tests the {@link EventBus} class.
@@ -44,6 +53,26 @@ public class EventBusTest {
         }
     }
 
+    private static class RecordingActor implements Actor {
+        final List<Object> messages = Collections.synchronizedList(new ArrayList<>());
+        final CountDownLatch latch;
+
+        RecordingActor(final int expectedMessages) {
+            this.latch = new CountDownLatch(expectedMessages);
+        }
+
+        @Override
+        public boolean supportsMessage(Object message) {
+            return message instanceof Integer;
+        }
+
+        @Override
+        public void onMessage(Object message) {
+            messages.add(message);
+            latch.countDown();
+        }
+    }
+
     public static final String ENDPOINT_1 = "endpoint.1";
     public static final String ENDPOINT_2 = "endpoint.2";
     public static final String ENDPOINT_UNKNOWN = "endpoint.unknown";
@@ -135,4 +164,106 @@ public class EventBusTest {
     @Test public void broadcastToUnknownEndpoint() {
         EventBus.getInstance().broadcast(ENDPOINT_UNKNOWN, "Test");
     }
+
+    @Test public void messagesDeliveredInOrder() throws InterruptedException {
+        final int count = 1000;
+        final RecordingActor actor = new RecordingActor(count);
+        EventBus.getInstance().subscribe(ENDPOINT_1, actor).subscribe(ENDPOINT_2, actor);
+
+        try {
+            for(int index = 0; index < count; index++) {
+                EventBus.getInstance().broadcast(index % 2 == 0 ? ENDPOINT_1 : ENDPOINT_2, index);
+            }
+
+            assertTrue(actor.latch.await(10, TimeUnit.SECONDS));
+
+            for(int index = 0; index < count; index++) {
+                assertEquals(index, actor.messages.get(index));
+            }
+        } finally {
+            EventBus.getInstance().unsubscribe(ENDPOINT_1, actor).unsubscribe(ENDPOINT_2, actor);
+        }
+    }
+
+    @Test public void mailboxDepth() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingActor actor = new RecordingActor(3) {
+            @Override
+            public void onMessage(Object message) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onMessage(message);
+            }
+        };
+        EventBus.getInstance().subscribe(ENDPOINT_UNKNOWN, actor);
+
+        try {
+            EventBus.getInstance().broadcast(ENDPOINT_UNKNOWN, 1);
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+
+            EventBus.getInstance().broadcast(ENDPOINT_UNKNOWN, 2);
+            EventBus.getInstance().broadcast(ENDPOINT_UNKNOWN, 3);
+
+            assertEquals(2, EventBus.getInstance().getMailboxDepth(actor));
+            assertTrue(EventBus.getInstance().getMaximumMailboxDepth() >= 2);
+
+            release.countDown();
+            assertTrue(actor.latch.await(10, TimeUnit.SECONDS));
+            assertEquals(0, EventBus.getInstance().getMailboxDepth(actor));
+        } finally {
+            release.countDown();
+            EventBus.getInstance().unsubscribe(ENDPOINT_UNKNOWN, actor);
+        }
+    }
+
+    @Test public void messagesDeliveredInOrderWhenSubscribingAgain() throws InterruptedException {
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RecordingActor actor = new RecordingActor(4) {
+            @Override
+            public void onMessage(Object message) {
+                blocked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.onMessage(message);
+            }
+        };
+        EventBus.getInstance().subscribe(ENDPOINT_UNKNOWN, actor);
+
+        try {
+            EventBus.getInstance().broadcast(ENDPOINT_UNKNOWN, 1);
+            assertTrue(blocked.await(10, TimeUnit.SECONDS));
+            EventBus.getInstance().broadcast(ENDPOINT_UNKNOWN, 2);
+
+            // The mailbox is kept while it delivers its messages, so new messages are delivered after them
+            EventBus.getInstance().unsubscribe(ENDPOINT_UNKNOWN, actor);
+            assertTrue(EventBus.getInstance().hasMailbox(actor));
+
+            EventBus.getInstance().subscribe(ENDPOINT_UNKNOWN, actor);
+            EventBus.getInstance().broadcast(ENDPOINT_UNKNOWN, 3);
+            EventBus.getInstance().broadcast(ENDPOINT_UNKNOWN, 4);
+
+            release.countDown();
+            assertTrue(actor.latch.await(10, TimeUnit.SECONDS));
+            assertEquals(Arrays.asList(1, 2, 3, 4), actor.messages);
+        } finally {
+            release.countDown();
+            EventBus.getInstance().unsubscribe(ENDPOINT_UNKNOWN, actor);
+        }
+
+        // Once its messages are delivered, the mailbox of an unsubscribed actor is removed
+        final long end = System.currentTimeMillis() + 10000;
+        while(EventBus.getInstance().hasMailbox(actor)) {
+            if(System.currentTimeMillis() > end) fail("The mailbox of the actor has not been removed");
+            Thread.sleep(10);
+        }
+    }
 }
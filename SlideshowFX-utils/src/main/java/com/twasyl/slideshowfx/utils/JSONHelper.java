@@ -1,20 +1,35 @@
 package com.twasyl.slideshowfx.utils;
 
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.twasyl.slideshowfx.utils.io.DefaultCharsetReader;
 import com.twasyl.slideshowfx.utils.io.DefaultCharsetWriter;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 
 import java.io.*;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
 
 /**
  * This class provides utility methods for manipulating JSON objects.
+ * JSON documents are read and written token by token using a streaming {@link JsonParser parser} and
+ * {@link JsonGenerator generator}: a document is never materialized as a {@link String} in addition to its
+ * {@link JsonObject} representation.
  *
  * @author Thierry Wasylczenko
  * @version 1.0
  * @since SlideshowFX 1.0
  */
 public class JSONHelper {
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
 
     /**
      * Read a JSON file and returns it to a JsonObject
@@ -27,18 +42,111 @@ public class JSONHelper {
         if(file == null) throw new NullPointerException("The file to read can not be null.");
         if(!file.exists()) throw new FileNotFoundException("The file to read does not exist.");
 
-        final StringBuilder dataAsString = new StringBuilder();
-        String line;
+        try(final InputStream input = new FileInputStream(file)) {
+            return readFromInputStream(input);
+        }
+    }
 
-        try(final BufferedReader reader = new DefaultCharsetReader(file)) {
-            while((line = reader.readLine()) != null) {
-                dataAsString.append(line);
-            }
+    /**
+     * Read a JSON object from the given stream and returns it to a JsonObject. The stream is not closed by this method.
+     * @param input The stream containing a JSON object.
+     *
+     * @return the JSON object corresponding to the content of the stream.
+     * @throws java.io.IOException If an error occurs when reading the stream.
+     */
+    public static JsonObject readFromInputStream(InputStream input) throws IOException {
+        if(input == null) throw new NullPointerException("The stream to read can not be null.");
+
+        try(final JsonParser parser = createParser(input)) {
+            if(parser.nextToken() != JsonToken.START_OBJECT) throw new JsonParseException(parser, "A JSON object is expected");
+
+            return new JsonObject(readObject(parser));
         }
+    }
+
+    /**
+     * Creates a streaming parser reading the JSON document contained in the given stream, decoded with the default
+     * charset. The caller is responsible for pulling the tokens. Closing the parser doesn't close the stream.
+     * @param input The stream containing a JSON document.
+     * @return The parser reading the stream.
+     * @throws java.io.IOException If the parser can not be created.
+     */
+    public static JsonParser createParser(InputStream input) throws IOException {
+        if(input == null) throw new NullPointerException("The stream to read can not be null.");
 
-        JsonObject jsonObject = new JsonObject(dataAsString.toString());
+        final JsonParser parser = JSON_FACTORY.createParser(new DefaultCharsetReader(input));
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        return parser;
+    }
+
+    /**
+     * Creates a streaming generator writing a pretty formatted JSON document in the given stream, encoded with the
+     * default charset. Closing the generator flushes it but doesn't close the stream.
+     * @param output The stream to write in.
+     * @return The generator writing in the stream.
+     * @throws java.io.IOException If the generator can not be created.
+     */
+    public static JsonGenerator createGenerator(OutputStream output) throws IOException {
+        if(output == null) throw new NullPointerException("The stream to write in can not be null");
 
-        return jsonObject;
+        final JsonGenerator generator = JSON_FACTORY.createGenerator(new DefaultCharsetWriter(output));
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.useDefaultPrettyPrinter();
+        return generator;
+    }
+
+    /**
+     * Reads the object the parser is positioned on, the current token being {@link JsonToken#START_OBJECT}. Objects and
+     * arrays are read as {@link Map maps} and {@link List lists}, like {@link JsonObject} does when decoding a String.
+     * @param parser The parser positioned on the object.
+     * @return The content of the object.
+     * @throws IOException If the object can not be read.
+     */
+    private static Map<String, Object> readObject(final JsonParser parser) throws IOException {
+        final Map<String, Object> object = new LinkedHashMap<>();
+
+        while(parser.nextToken() == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            parser.nextToken();
+            object.put(name, readValue(parser));
+        }
+
+        if(parser.getCurrentToken() != JsonToken.END_OBJECT) throw new JsonParseException(parser, "Unexpected end of object");
+
+        return object;
+    }
+
+    private static List<Object> readArray(final JsonParser parser) throws IOException {
+        final List<Object> array = new ArrayList<>();
+
+        while(parser.nextToken() != JsonToken.END_ARRAY) {
+            if(parser.getCurrentToken() == null) throw new JsonParseException(parser, "Unexpected end of array");
+            array.add(readValue(parser));
+        }
+
+        return array;
+    }
+
+    private static Object readValue(final JsonParser parser) throws IOException {
+        final JsonToken token = parser.getCurrentToken();
+        if(token == null) throw new JsonParseException(parser, "Unexpected end of document");
+
+        switch(token) {
+            case START_OBJECT: return readObject(parser);
+            case START_ARRAY: return readArray(parser);
+            case VALUE_STRING: return parser.getText();
+            case VALUE_NUMBER_INT:
+                switch(parser.getNumberType()) {
+                    case INT: return parser.getIntValue();
+                    case LONG: return parser.getLongValue();
+                    default: return parser.getBigIntegerValue();
+                }
+            case VALUE_NUMBER_FLOAT: return parser.getDoubleValue();
+            case VALUE_TRUE: return Boolean.TRUE;
+            case VALUE_FALSE: return Boolean.FALSE;
+            case VALUE_NULL: return null;
+            default: throw new JsonParseException(parser, "Unexpected token " + token);
+        }
     }
 
     /**
@@ -52,8 +160,61 @@ public class JSONHelper {
         if(object == null) throw new NullPointerException("The JSON object to save can not be null");
         if(file == null) throw new NullPointerException("The file can not be null");
 
-        try(final Writer writer = new DefaultCharsetWriter(file)) {
-            writer.write(object.encodePrettily());
+        try(final OutputStream output = new FileOutputStream(file);
+            final JsonGenerator generator = createGenerator(output)) {
+            writeValue(generator, object);
+        }
+    }
+
+    /**
+     * Writes the given value using the given generator. Supported values are those accepted by {@link JsonObject}.
+     * @param generator The generator to write the value with.
+     * @param value The value to write.
+     * @throws IOException If the value can not be written.
+     * @throws IllegalArgumentException If the type of the value is not supported.
+     */
+    public static void writeValue(JsonGenerator generator, Object value) throws IOException {
+        if(value == null) {
+            generator.writeNull();
+        } else if(value instanceof JsonObject) {
+            writeValue(generator, ((JsonObject) value).getMap());
+        } else if(value instanceof JsonArray) {
+            writeValue(generator, ((JsonArray) value).getList());
+        } else if(value instanceof Map) {
+            generator.writeStartObject();
+            for(Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                generator.writeFieldName(String.valueOf(entry.getKey()));
+                writeValue(generator, entry.getValue());
+            }
+            generator.writeEndObject();
+        } else if(value instanceof List) {
+            generator.writeStartArray();
+            for(Object element : (List<?>) value) writeValue(generator, element);
+            generator.writeEndArray();
+        } else if(value instanceof CharSequence) {
+            generator.writeString(value.toString());
+        } else if(value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            generator.writeNumber(((Number) value).intValue());
+        } else if(value instanceof Long) {
+            generator.writeNumber((Long) value);
+        } else if(value instanceof Float) {
+            generator.writeNumber((Float) value);
+        } else if(value instanceof Double) {
+            generator.writeNumber((Double) value);
+        } else if(value instanceof BigInteger) {
+            generator.writeNumber((BigInteger) value);
+        } else if(value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else if(value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else if(value instanceof byte[]) {
+            generator.writeBinary((byte[]) value);
+        } else if(value instanceof Instant) {
+            generator.writeString(DateTimeFormatter.ISO_INSTANT.format((Instant) value));
+        } else if(value instanceof Enum) {
+            generator.writeString(((Enum<?>) value).name());
+        } else {
+            throw new IllegalArgumentException("Unsupported JSON value type: " + value.getClass().getName());
         }
     }
 }
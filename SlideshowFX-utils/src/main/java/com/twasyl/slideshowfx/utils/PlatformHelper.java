@@ -17,7 +17,8 @@ public class PlatformHelper {
 
     /**
      * This method run the given treatment by testing if it is currently in a
-     * JavaFX application thread.
+     * JavaFX application thread. If the JavaFX toolkit isn't started, like when engines are used without any UI, the
+     * treatment is performed by the current thread.
      *
      * @param treatment the treatment to perform.
      */
@@ -25,7 +26,13 @@ public class PlatformHelper {
         if(treatment == null) throw new IllegalArgumentException("The treatment to perform can not be null");
 
         if(Platform.isFxApplicationThread()) treatment.run();
-        else Platform.runLater(treatment);
+        else {
+            try {
+                Platform.runLater(treatment);
+            } catch (IllegalStateException e) {
+                treatment.run();
+            }
+        }
     }
 
     /**
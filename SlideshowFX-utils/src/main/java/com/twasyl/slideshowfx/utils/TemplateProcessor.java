@@ -1,6 +1,16 @@
 package com.twasyl.slideshowfx.utils;
 
+import freemarker.cache.FileTemplateLoader;
+import freemarker.cache.MultiTemplateLoader;
+import freemarker.cache.TemplateLoader;
 import freemarker.template.Configuration;
+import freemarker.template.Template;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static com.twasyl.slideshowfx.global.configuration.GlobalConfiguration.getDefaultCharset;
 
@@ -13,6 +23,25 @@ import static com.twasyl.slideshowfx.global.configuration.GlobalConfiguration.ge
  */
 public class TemplateProcessor {
 
+    /**
+     * The maximum number of templates created from a String that are kept in cache. Value is
+     * {@value #STRING_TEMPLATES_CACHE_SIZE}.
+     */
+    public static final int STRING_TEMPLATES_CACHE_SIZE = 1024;
+
+    /**
+     * Strings that indicate a content contains FreeMarker instructions: interpolations, directives, user-defined
+     * directives and comments.
+     */
+    private static final String[] TEMPLATE_MARKERS = {"${", "#{", "<#", "</#", "<@", "</@"};
+
+    private static final Map<String, Template> STRING_TEMPLATES = new LinkedHashMap<String, Template>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+            return this.size() > STRING_TEMPLATES_CACHE_SIZE;
+        }
+    };
+
     private static Configuration configurationSingleton;
     private static Configuration jsConfigurationSingleton;
     private static Configuration htmlConfigurationSingleton;
@@ -67,4 +96,76 @@ public class TemplateProcessor {
 
         return htmlConfigurationSingleton;
     }
+
+    /**
+     * This method creates a new {@link freemarker.template.Configuration} loading templates from the given directories.
+     * Contrary to the singletons provided by this class, the returned configuration is meant to be owned by a single
+     * component, for instance a presentation, and its template loading must not be changed afterwards. Templates are
+     * then compiled once and kept in the configuration's cache, which is safe to use from multiple threads.
+     * If multiple directories are given, a template is looked up in each directory, in the given order.
+     * @param templatesDirectories The directories templates are loaded from.
+     * @return A never {@code null} Configuration object.
+     * @throws IOException If a directory can not be used to load templates.
+     * @throws NullPointerException If no directory is given.
+     */
+    public static Configuration createConfiguration(final File ... templatesDirectories) throws IOException {
+        if(templatesDirectories == null || templatesDirectories.length == 0) throw new NullPointerException("The templates directories can not be null");
+
+        final TemplateLoader[] loaders = new TemplateLoader[templatesDirectories.length];
+        for(int index = 0; index < templatesDirectories.length; index++) {
+            loaders[index] = new FileTemplateLoader(templatesDirectories[index]);
+        }
+
+        final Configuration configuration = new Configuration(Configuration.VERSION_2_3_23);
+        configuration.setIncompatibleImprovements(Configuration.DEFAULT_INCOMPATIBLE_IMPROVEMENTS);
+        configuration.setDefaultEncoding(getDefaultCharset().displayName());
+        configuration.setTemplateLoader(loaders.length == 1 ? loaders[0] : new MultiTemplateLoader(loaders));
+
+        return configuration;
+    }
+
+    /**
+     * Indicates if the given content contains FreeMarker instructions. If not, processing the content as a template
+     * would produce the content itself.
+     * @param content The content to check.
+     * @return {@code true} if the content contains FreeMarker instructions, {@code false} otherwise.
+     */
+    public static boolean isTemplate(final String content) {
+        if(content == null) return false;
+
+        for(String marker : TEMPLATE_MARKERS) {
+            if(content.contains(marker)) return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Get a {@link Template} for the given content, using the {@link #getDefaultConfiguration() default configuration}.
+     * Templates are cached by content so the same content is only parsed once. The cache keeps at most
+     * {@link #STRING_TEMPLATES_CACHE_SIZE} templates, the least recently used ones being evicted first.
+     * @param content The content of the template.
+     * @return The template corresponding to the given content.
+     * @throws IOException If the content is not a valid template.
+     * @throws NullPointerException If the content is null.
+     */
+    public static Template getStringTemplate(final String content) throws IOException {
+        if(content == null) throw new NullPointerException("The content can not be null");
+
+        Template template;
+
+        synchronized(STRING_TEMPLATES) {
+            template = STRING_TEMPLATES.get(content);
+        }
+
+        if(template == null) {
+            template = new Template("variable", new StringReader(content), getDefaultConfiguration());
+
+            synchronized(STRING_TEMPLATES) {
+                STRING_TEMPLATES.put(content, template);
+            }
+        }
+
+        return template;
+    }
 }
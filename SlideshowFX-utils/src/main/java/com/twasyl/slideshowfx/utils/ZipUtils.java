@@ -1,14 +1,30 @@
 package com.twasyl.slideshowfx.utils;
 
+import com.twasyl.slideshowfx.utils.io.ContentStore;
 import com.twasyl.slideshowfx.utils.io.ListFilesFileVisitor;
+import com.twasyl.slideshowfx.utils.zip.ZipArchiveManifest;
+import com.twasyl.slideshowfx.utils.zip.ZipArchiveReader;
+import com.twasyl.slideshowfx.utils.zip.ZipArchiveWriter;
+import com.twasyl.slideshowfx.utils.zip.ZipCompressionOptions;
 
 import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
-import java.util.zip.ZipOutputStream;
+import java.util.zip.*;
 
 /**
  * This class provides utility methods for working with Zip files.
@@ -74,86 +90,607 @@ public class ZipUtils {
                     throw new IOException("Can not create the parent folder");
                 }
 
-                int length;
-                byte[] buffer = new byte[1024];
+                Files.copy(zipReader, extractedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+
+        LOGGER.fine("Extraction done");
+
+        zipReader.closeEntry();
+        zipReader.close();
+    }
+
+    /**
+     * Unzip the given archive into the provided destination through the given {@link ContentStore store}. The content of
+     * each file of the archive is added to the store and then {@link ContentStore#link(String, File) linked} in the
+     * destination, which leaves untouched the files already having the right content and allows identical files to be
+     * shared on disk. If the destination does not exist it is created.
+     * @param archive The archive to unzip.
+     * @param destination The destination directory where the archive will be unzipped.
+     * @param store The store in which the content of the files is added.
+     * @return The hash of the content of each extracted file, indexed by the name of its entry, in the order of the archive.
+     * @throws IOException If an error occurs while extracting an entry.
+     * @throws java.lang.NullPointerException If the archive, the destination or the store is null.
+     */
+    public static Map<String, String> unzip(InputStream archive, File destination, ContentStore store) throws IOException {
+        if(archive == null) throw new NullPointerException("The ZIP file can not be null");
+        if(destination == null) throw new NullPointerException("The destination can not be null");
+        if(store == null) throw new NullPointerException("The store can not be null");
+
+        if(!destination.exists() && !destination.mkdirs()) {
+            throw new IOException("Can not create destination folder");
+        }
+
+        final Map<String, String> hashes = new LinkedHashMap<>();
+
+        try(final ZipInputStream zipReader = new ZipInputStream(archive)) {
+            ZipEntry zipEntry;
+
+            while((zipEntry = zipReader.getNextEntry()) != null) {
+                final File extractedFile = new File(destination, zipEntry.getName());
+                LOGGER.fine("Extracting file: " + extractedFile.getAbsolutePath());
+
+                if(zipEntry.isDirectory()) {
+                    if(!extractedFile.exists() && !extractedFile.mkdirs()) {
+                        throw new IOException("Can not create folder");
+                    }
+                } else {
+                    final String hash = store.put(zipReader);
+                    store.link(hash, extractedFile);
+                    hashes.put(zipEntry.getName(), hash);
+                }
+            }
+        }
+
+        LOGGER.fine("Extraction done");
 
-                try(final FileOutputStream extractedFileOutputStream = new FileOutputStream(extractedFile)) {
+        return hashes;
+    }
+
+    /**
+     * Unzip the entries of the given archive that are accepted by the given {@code filter} into the provided destination.
+     * If the destination does not exist it is created. Contrary to {@link #unzip(File, File)}, the entries are
+     * determined using the central directory of the archive, allowing to skip the entries that are not accepted without
+     * inflating them.
+     * @param archive The archive to unzip.
+     * @param destination The destination directory where the archive will be unzipped.
+     * @param filter The filter indicating if an entry must be extracted or not.
+     * @return The manifest of the extracted files, which can be given to
+     *         {@link #zip(File, File, ZipArchiveManifest, ZipCompressionOptions)} in order to reuse the entries of the
+     *         archive for files that won't be modified.
+     * @throws IOException If an error occurs while extracting an entry.
+     * @throws java.lang.NullPointerException If the archive, the destination or the filter is null.
+     */
+    public static ZipArchiveManifest unzip(final ZipFile archive, final File destination, final Predicate<ZipEntry> filter) throws IOException {
+        return unzip(archive, destination, filter, null, null);
+    }
+
+    /**
+     * Unzip the entries of the given archive that are accepted by the given {@code filter} into the provided destination,
+     * like {@link #unzip(ZipFile, File, Predicate)} does. The files which are accepted by the {@code shared} filter are
+     * extracted through the given {@link ContentStore store} and are therefore shared on disk with identical files
+     * extracted elsewhere. Such files must never be rewritten in place.
+     * @param archive The archive to unzip.
+     * @param destination The destination directory where the archive will be unzipped.
+     * @param filter The filter indicating if an entry must be extracted or not.
+     * @param store The store through which shared entries are extracted. Can be {@code null} if no entry is shared.
+     * @param shared The filter indicating if an entry is extracted through the store. Can be {@code null} if no entry is shared.
+     * @return The manifest of the extracted files.
+     * @throws IOException If an error occurs while extracting an entry.
+     * @throws java.lang.NullPointerException If the archive, the destination or the filter is null.
+     */
+    public static ZipArchiveManifest unzip(final ZipFile archive, final File destination, final Predicate<ZipEntry> filter,
+                                           final ContentStore store, final Predicate<ZipEntry> shared) throws IOException {
+        if(archive == null) throw new NullPointerException("The ZIP file can not be null");
+        if(destination == null) throw new NullPointerException("The destination can not be null");
+        if(filter == null) throw new NullPointerException("The filter can not be null");
+
+        if(!destination.exists() && !destination.mkdirs()) {
+            throw new IOException("Can not create destination folder");
+        }
+
+        LOGGER.fine("Extracting file " + archive.getName());
+
+        final ZipArchiveManifest manifest = new ZipArchiveManifest(new File(archive.getName()), System.currentTimeMillis());
+        final Enumeration<? extends ZipEntry> entries = archive.entries();
+
+        while(entries.hasMoreElements()) {
+            final ZipEntry zipEntry = entries.nextElement();
+
+            if(!filter.test(zipEntry)) {
+                LOGGER.finest("Skipping entry: " + zipEntry.getName());
+                continue;
+            }
+
+            final File extractedFile = new File(destination, zipEntry.getName());
+            LOGGER.fine("Extracting file: " + extractedFile.getAbsolutePath());
+
+            if(zipEntry.isDirectory()) {
+                if(!extractedFile.exists() && !extractedFile.mkdirs()) {
+                    throw new IOException("Can not create folder");
+                }
+            } else {
+                // Ensure to create the parents directories
+                if(!extractedFile.getParentFile().exists() && !extractedFile.getParentFile().mkdirs()) {
+                    throw new IOException("Can not create the parent folder");
+                }
 
-                    while ((length = zipReader.read(buffer)) > 0) {
-                        extractedFileOutputStream.write(buffer, 0, length);
+                if(store != null && shared != null && shared.test(zipEntry)) {
+                    // The time of a linked file is the one of the blob, which must not be changed as it is shared
+                    try(final InputStream entryInput = archive.getInputStream(zipEntry)) {
+                        store.link(store.put(entryInput), extractedFile);
+                    }
+                } else {
+                    try(final InputStream entryInput = archive.getInputStream(zipEntry)) {
+                        Files.copy(entryInput, extractedFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
                     }
 
-                    extractedFileOutputStream.flush();
+                    // Keeping the time of the entry avoids extracted files to be considered as racy
+                    if(zipEntry.getTime() != -1) extractedFile.setLastModified(zipEntry.getTime());
                 }
+
+                manifest.putEntry(zipEntry.getName(), zipEntry.getSize(), extractedFile.lastModified(), zipEntry.getCrc());
             }
         }
 
+        manifest.seal();
+
         LOGGER.fine("Extraction done");
 
-        zipReader.closeEntry();
-        zipReader.close();
+        return manifest;
+    }
+
+    /**
+     * Get an {@link InputStream} on the content of the entry of the given archive identified by its name. The entry is
+     * directly read from the archive without extracting it.
+     * @param archive The archive containing the entry.
+     * @param entryName The name of the entry to read.
+     * @return An {@link InputStream} on the content of the entry.
+     * @throws FileNotFoundException If the entry is not present in the archive.
+     * @throws IOException If an error occurs while accessing the entry.
+     * @throws java.lang.NullPointerException If the archive or the entry name is null.
+     */
+    public static InputStream getEntryInputStream(final ZipFile archive, final String entryName) throws IOException {
+        if(archive == null) throw new NullPointerException("The ZIP file can not be null");
+        if(entryName == null) throw new NullPointerException("The entry name can not be null");
+
+        final ZipEntry entry = archive.getEntry(entryName);
+        if(entry == null) throw new FileNotFoundException("The entry " + entryName + " does not exist");
+
+        return archive.getInputStream(entry);
+    }
+
+    /**
+     * List the names of the entries of the given archive, without extracting it. Only the central directory of the
+     * archive is read.
+     * @param archive The archive to list the entries of.
+     * @return The names of the entries of the archive, in the order of its central directory.
+     * @throws FileNotFoundException If the archive does not exist.
+     * @throws IOException If an error occurs while reading the central directory of the archive.
+     * @throws java.lang.NullPointerException If the archive is null.
+     * @see ZipArchiveReader
+     */
+    public static List<String> listEntries(final File archive) throws IOException {
+        if(archive == null) throw new NullPointerException("The ZIP file can not be null");
+        if(!archive.exists()) throw new FileNotFoundException("The ZIP file does not exist");
+
+        try(final ZipArchiveReader reader = new ZipArchiveReader(archive)) {
+            final List<String> names = new ArrayList<>(reader.getEntries().size());
+            reader.getEntries().forEach(entry -> names.add(entry.getName()));
+            return names;
+        }
+    }
+
+    /**
+     * Read the content of the entry of the given archive identified by its name, without extracting the archive. Only
+     * the central directory of the archive and the entry itself are read, which makes this method suitable to get the
+     * configuration, the manifest or a thumbnail of an archive.
+     * @param archive The archive containing the entry.
+     * @param entryName The name of the entry to read.
+     * @return The content of the entry.
+     * @throws FileNotFoundException If the archive does not exist or the entry is not present in the archive.
+     * @throws IOException If an error occurs while reading the entry.
+     * @throws java.lang.NullPointerException If the archive or the entry name is null.
+     * @see ZipArchiveReader
+     */
+    public static byte[] readEntry(final File archive, final String entryName) throws IOException {
+        if(archive == null) throw new NullPointerException("The ZIP file can not be null");
+        if(entryName == null) throw new NullPointerException("The entry name can not be null");
+        if(!archive.exists()) throw new FileNotFoundException("The ZIP file does not exist");
+
+        try(final ZipArchiveReader reader = new ZipArchiveReader(archive)) {
+            final ZipArchiveReader.Entry entry = reader.getEntry(entryName);
+            if(entry == null) throw new FileNotFoundException("The entry " + entryName + " does not exist");
+
+            return reader.getContent(entry);
+        }
     }
 
     /**
      * Compress the given fileToZip into the given destination. This method manages if the fileToZip is a folder or a simple file.
+     * The default {@link ZipCompressionOptions options} are used.
      * @param fileToZip The content to compress.
      * @param destination The destination into the content will be compressed.
      * @throws java.lang.NullPointerException If the fileToZip or the destination is null.
      * @throws java.io.FileNotFoundException If the fileToZip does not exist.
+     * @see #zip(File, File, ZipCompressionOptions)
      */
     public static void zip(File fileToZip, File destination) throws IOException {
+        zip(fileToZip, destination, new ZipCompressionOptions());
+    }
+
+    /**
+     * Compress the given fileToZip into the given destination. This method manages if the fileToZip is a folder or a simple file.
+     * Files are compressed concurrently, according the {@link ZipCompressionOptions#getParallelism() parallelism} of
+     * the given options, and written in the archive in order. Files which are already compressed, as defined by
+     * {@link ZipCompressionOptions#isStored(String)}, are stored without compression.
+     * @param fileToZip The content to compress.
+     * @param destination The destination into the content will be compressed.
+     * @param options The options defining how the content is compressed.
+     * @throws java.lang.NullPointerException If the fileToZip, the destination or the options are null.
+     * @throws java.io.FileNotFoundException If the fileToZip does not exist.
+     * @see #zip(File, File, ZipArchiveManifest, ZipCompressionOptions)
+     */
+    public static void zip(File fileToZip, File destination, ZipCompressionOptions options) throws IOException {
+        zip(fileToZip, destination, null, options);
+    }
+
+    /**
+     * Compress the given fileToZip into the given destination. This method manages if the fileToZip is a folder or a simple file.
+     * Files are compressed concurrently, according the {@link ZipCompressionOptions#getParallelism() parallelism} of
+     * the given options, and written in the archive in order. Files which are already compressed, as defined by
+     * {@link ZipCompressionOptions#isStored(String)}, are stored without compression.
+     * If a {@code previousManifest} is given and still {@link ZipArchiveManifest#isValid() valid}, the files that haven't
+     * changed since it has been created are not compressed again: their entries are copied as is from the archive it
+     * describes.
+     * The archive is first written in a temporary file which then replaces the destination, so the destination is
+     * never left partially written.
+     * @param fileToZip The content to compress.
+     * @param destination The destination into the content will be compressed.
+     * @param previousManifest The manifest of a previous archive of the same content. Can be {@code null}.
+     * @param options The options defining how the content is compressed.
+     * @return The manifest of the created archive.
+     * @throws java.lang.NullPointerException If the fileToZip, the destination or the options are null.
+     * @throws java.io.FileNotFoundException If the fileToZip does not exist.
+     */
+    public static ZipArchiveManifest zip(File fileToZip, File destination, ZipArchiveManifest previousManifest, ZipCompressionOptions options) throws IOException {
         if(fileToZip == null) throw new NullPointerException("The file to zip can not be null");
         if(!fileToZip.exists()) throw new FileNotFoundException("The file to zip does not exist");
         if(destination == null) throw new NullPointerException("The destination can not be null");
+        if(options == null) throw new NullPointerException("The options can not be null");
 
         final ListFilesFileVisitor visitor = new ListFilesFileVisitor();
         Files.walkFileTree(fileToZip.toPath(), visitor);
         final List<File> filesToZip = visitor.getFiles();
 
-        FileInputStream fileInput = null;
-        ZipOutputStream zipOutput = new ZipOutputStream(new FileOutputStream(destination));
-        ZipEntry entry;
-        String entryName;
-        byte[] buffer  = new byte[1024];
-        int length;
-
-        String prefixToDelete;
+        final String prefixToDelete;
         if(fileToZip.isDirectory()) {
             prefixToDelete = fileToZip.getAbsolutePath() + File.separator;
         } else {
             prefixToDelete = "";
         }
 
-        for(File file : filesToZip) {
-            LOGGER.fine("Compressing file: " + file.getAbsolutePath());
+        final File absoluteDestination = destination.getAbsoluteFile();
+        final File temporaryDestination = File.createTempFile(absoluteDestination.getName(), ".tmp", absoluteDestination.getParentFile());
+        final ZipArchiveManifest manifest = new ZipArchiveManifest(absoluteDestination, System.currentTimeMillis());
 
-            entryName = file.getAbsolutePath().substring(prefixToDelete.length(), file.getAbsolutePath().length());
-            entryName = entryName.replaceAll("\\\\", "/");
-            LOGGER.finest("Entry name: " + entryName);
+        try {
+            final long totalSize = filesToZip.stream().mapToLong(File::length).sum();
 
-            if(file.isDirectory()) {
-                entry = new ZipEntry(entryName + "/");
-                zipOutput.putNextEntry(entry);
+            // Archives that would require the ZIP64 format can not be written concurrently
+            if(filesToZip.size() >= ZipArchiveWriter.MAXIMUM_ENTRIES || totalSize >= ZipArchiveWriter.MAXIMUM_SIZE) {
+                zipSequentially(filesToZip, prefixToDelete, temporaryDestination, manifest, options);
             } else {
-                entry = new ZipEntry(entryName);
-                zipOutput.putNextEntry(entry);
+                zipConcurrently(filesToZip, prefixToDelete, temporaryDestination, openPreviousArchive(previousManifest), previousManifest, manifest, options);
+            }
+
+            moveAtomically(temporaryDestination, absoluteDestination);
+        } finally {
+            if(temporaryDestination.exists()) temporaryDestination.delete();
+        }
+
+        manifest.seal();
+
+        LOGGER.fine("File compressed");
+
+        return manifest;
+    }
+
+    /**
+     * Open the archive described by the given manifest in order to copy entries from it.
+     * @param previousManifest The manifest of the archive to open.
+     * @return The reader of the archive or {@code null} if the manifest can not be used.
+     */
+    private static ZipArchiveReader openPreviousArchive(ZipArchiveManifest previousManifest) {
+        if(previousManifest == null || !previousManifest.isValid()) return null;
+
+        try {
+            return new ZipArchiveReader(previousManifest.getArchive());
+        } catch (IOException e) {
+            LOGGER.log(Level.FINE, "The previous archive can not be reused", e);
+            return null;
+        }
+    }
+
+    /**
+     * Move the given source to the given target, replacing it. The move is performed atomically if the file system
+     * supports it.
+     * @param source The file to move.
+     * @param target The file to replace.
+     * @throws IOException If the file can not be moved.
+     */
+    private static void moveAtomically(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Compress the given files concurrently and write them in order in the destination.
+     * @param filesToZip The files to compress.
+     * @param prefixToDelete The prefix to remove from the path of the files in order to get the name of the entries.
+     * @param destination The destination into the content will be compressed.
+     * @param previousArchive The archive from which unchanged entries are copied. Can be {@code null}.
+     * @param previousManifest The manifest of the previous archive. Can be {@code null}.
+     * @param manifest The manifest of the destination, filled by this method.
+     * @param options The options defining how the content is compressed.
+     * @throws IOException If an error occurs while compressing the files.
+     */
+    private static void zipConcurrently(List<File> filesToZip, String prefixToDelete, File destination,
+                                        ZipArchiveReader previousArchive, ZipArchiveManifest previousManifest,
+                                        ZipArchiveManifest manifest, ZipCompressionOptions options) throws IOException {
+        final ForkJoinPool pool = new ForkJoinPool(options.getParallelism());
+        final Deque<Future<CompressedEntry>> compressedEntries = new ArrayDeque<>();
+        final int maximumPendingEntries = options.getParallelism() * 2;
+
+        try(final ZipArchiveReader previousArchiveReader = previousArchive;
+            final ZipArchiveWriter zipOutput = new ZipArchiveWriter(destination, options.getBufferSize())) {
+
+            for(File file : filesToZip) {
+                final String entryName = getEntryName(file, prefixToDelete);
+                compressedEntries.add(pool.submit(() -> compress(file, entryName, previousArchiveReader, previousManifest, options)));
+
+                if(compressedEntries.size() >= maximumPendingEntries) {
+                    write(zipOutput, compressedEntries.poll(), previousArchiveReader, manifest, options);
+                }
+            }
+
+            while(!compressedEntries.isEmpty()) {
+                write(zipOutput, compressedEntries.poll(), previousArchiveReader, manifest, options);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Compress the given files one after the other using a {@link ZipOutputStream}.
+     * @param filesToZip The files to compress.
+     * @param prefixToDelete The prefix to remove from the path of the files in order to get the name of the entries.
+     * @param destination The destination into the content will be compressed.
+     * @param manifest The manifest of the destination, filled by this method.
+     * @param options The options defining how the content is compressed.
+     * @throws IOException If an error occurs while compressing the files.
+     */
+    private static void zipSequentially(List<File> filesToZip, String prefixToDelete, File destination, ZipArchiveManifest manifest, ZipCompressionOptions options) throws IOException {
+        final byte[] buffer = new byte[options.getBufferSize()];
+        int length;
+
+        try(final ZipOutputStream zipOutput = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(destination), options.getBufferSize()))) {
+            zipOutput.setLevel(options.getCompressionLevel());
+
+            for(File file : filesToZip) {
+                LOGGER.fine("Compressing file: " + file.getAbsolutePath());
 
-                try {
-                    fileInput = new FileInputStream(file);
+                final String entryName = getEntryName(file, prefixToDelete);
 
-                    while((length = fileInput.read(buffer)) > 0) {
-                        zipOutput.write(buffer, 0, length);
+                if(file.isDirectory()) {
+                    zipOutput.putNextEntry(new ZipEntry(entryName + "/"));
+                } else {
+                    final long lastModified = file.lastModified();
+                    final CRC32 crc = new CRC32();
+                    long size = 0;
+
+                    zipOutput.putNextEntry(new ZipEntry(entryName));
+
+                    try(final FileInputStream fileInput = new FileInputStream(file)) {
+                        while((length = fileInput.read(buffer)) > 0) {
+                            zipOutput.write(buffer, 0, length);
+                            crc.update(buffer, 0, length);
+                            size += length;
+                        }
                     }
-                } finally {
-                    fileInput.close();
+
+                    manifest.putEntry(entryName, size, lastModified, crc.getValue());
                 }
             }
+
+            zipOutput.closeEntry();
         }
+    }
 
-        zipOutput.closeEntry();
-        zipOutput.flush();
-        zipOutput.close();
+    /**
+     * Get the name of the entry corresponding to the given file.
+     * @param file The file to get the entry name for.
+     * @param prefixToDelete The prefix to remove from the path of the file.
+     * @return The name of the entry, using {@code /} as separator.
+     */
+    private static String getEntryName(File file, String prefixToDelete) {
+        final String entryName = file.getAbsolutePath().substring(prefixToDelete.length()).replaceAll("\\\\", "/");
+        LOGGER.finest("Entry name: " + entryName);
 
-        LOGGER.fine("File compressed");
+        return entryName;
+    }
+
+    /**
+     * Compress the given file in memory. If the file hasn't changed since the previous archive has been written, its
+     * entry will be copied from the previous archive. If the file is a directory, if its content is already compressed
+     * or if it is larger than the {@link ZipCompressionOptions#getInMemoryThreshold() in memory threshold}, it is
+     * left for {@link #write(ZipArchiveWriter, Future, ZipArchiveReader, ZipArchiveManifest, ZipCompressionOptions)}
+     * to read it while writing its entry.
+     * @param file The file to compress.
+     * @param entryName The name of the entry.
+     * @param previousArchive The archive from which the entry is copied if the file hasn't changed. Can be {@code null}.
+     * @param previousManifest The manifest of the previous archive. Can be {@code null}.
+     * @param options The options defining how the content is compressed.
+     * @return The compressed entry.
+     * @throws IOException If the file can not be read.
+     */
+    private static CompressedEntry compress(File file, String entryName, ZipArchiveReader previousArchive, ZipArchiveManifest previousManifest, ZipCompressionOptions options) throws IOException {
+        final CompressedEntry entry = new CompressedEntry(file, entryName);
+        entry.lastModified = file.lastModified();
+
+        if(file.isDirectory()) return entry;
+
+        if(previousArchive != null) {
+            final ZipArchiveReader.Entry previousEntry = previousArchive.getEntry(entryName);
+            final ZipArchiveManifest.Entry previousState = previousManifest.getEntry(entryName);
+
+            if(previousEntry != null && previousEntry.isCopyable() && previousState != null
+                    && previousState.getCrc() == previousEntry.getCrc() && previousState.getSize() == previousEntry.getSize()
+                    && previousState.matches(file)
+                    && (!previousState.isRacy() || previousState.getCrc() == computeCrc(file, new byte[options.getBufferSize()]))) {
+                LOGGER.finest("Reusing entry: " + entryName);
+
+                entry.previousEntry = previousEntry;
+                entry.crc = previousEntry.getCrc();
+                entry.size = previousEntry.getSize();
+                return entry;
+            }
+        }
+
+        if(options.isStored(entryName) || file.length() > options.getInMemoryThreshold()) return entry;
+
+        LOGGER.fine("Compressing file: " + file.getAbsolutePath());
+
+        // The file is read once: the CRC and the entry are computed from the same content
+        final byte[] content = Files.readAllBytes(file.toPath());
+        final CRC32 crc = new CRC32();
+        crc.update(content);
+
+        entry.crc = crc.getValue();
+        entry.size = content.length;
+
+        final Deflater deflater = new Deflater(options.getCompressionLevel(), true);
+        final ByteArrayOutputStream compressedContent = new ByteArrayOutputStream();
+
+        try(final DeflaterOutputStream output = new DeflaterOutputStream(compressedContent, deflater, options.getBufferSize())) {
+            output.write(content);
+        } finally {
+            deflater.end();
+        }
+
+        // Only keep the compressed content if the compression was useful
+        if(compressedContent.size() < entry.size) {
+            entry.compressedContent = compressedContent.toByteArray();
+        } else {
+            entry.storedContent = content;
+        }
+
+        return entry;
+    }
+
+    /**
+     * Compute the CRC-32 of the content of the given file.
+     * @param file The file to compute the CRC for.
+     * @param buffer The buffer used to read the file.
+     * @return The CRC-32 of the file.
+     * @throws IOException If the file can not be read.
+     */
+    private static long computeCrc(File file, byte[] buffer) throws IOException {
+        final CRC32 crc = new CRC32();
+        int length;
+
+        try(final InputStream input = new FileInputStream(file)) {
+            while((length = input.read(buffer)) > 0) {
+                crc.update(buffer, 0, length);
+            }
+        }
+
+        return crc.getValue();
+    }
+
+    /**
+     * Write the given entry in the archive, waiting for its compression to be done.
+     * @param zipOutput The archive to write the entry in.
+     * @param compressedEntry The entry being compressed.
+     * @param previousArchive The archive from which reused entries are copied. Can be {@code null}.
+     * @param manifest The manifest in which the written entry is recorded.
+     * @param options The options defining how the content is compressed.
+     * @throws IOException If the entry could not be compressed or written.
+     */
+    private static void write(ZipArchiveWriter zipOutput, Future<CompressedEntry> compressedEntry, ZipArchiveReader previousArchive, ZipArchiveManifest manifest, ZipCompressionOptions options) throws IOException {
+        final CompressedEntry entry;
+
+        try {
+            entry = compressedEntry.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Compression interrupted");
+        } catch (ExecutionException e) {
+            if(e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException("Can not compress file", e.getCause());
+        }
+
+        final long time = entry.lastModified;
+
+        if(entry.file.isDirectory()) {
+            zipOutput.putDirectory(entry.name + "/", time);
+            return;
+        }
+
+        if(entry.previousEntry != null) {
+            try(final InputStream input = previousArchive.getRawInputStream(entry.previousEntry)) {
+                if(entry.previousEntry.getMethod() == ZipEntry.DEFLATED) {
+                    zipOutput.putDeflatedEntry(entry.name, time, entry.crc, entry.previousEntry.getCompressedSize(), entry.size, input, options.getBufferSize());
+                } else {
+                    zipOutput.putStoredEntry(entry.name, time, entry.crc, entry.size, input, options.getBufferSize());
+                }
+            }
+        } else if(entry.compressedContent != null) {
+            zipOutput.putDeflatedEntry(entry.name, time, entry.crc, entry.compressedContent.length, entry.size,
+                    new ByteArrayInputStream(entry.compressedContent), options.getBufferSize());
+        } else if(entry.storedContent != null) {
+            zipOutput.putStoredEntry(entry.name, time, entry.crc, entry.size, new ByteArrayInputStream(entry.storedContent), options.getBufferSize());
+        } else {
+            LOGGER.fine("Compressing file: " + entry.file.getAbsolutePath());
+
+            // The CRC is computed from the content actually written, even if the file is modified meanwhile
+            final ZipArchiveReader.Entry writtenEntry;
+
+            try(final InputStream input = new FileInputStream(entry.file)) {
+                if(options.isStored(entry.name)) {
+                    writtenEntry = zipOutput.putStoredEntry(entry.name, time, input, options.getBufferSize());
+                } else {
+                    writtenEntry = zipOutput.putDeflatedEntry(entry.name, time, input, options.getCompressionLevel(), options.getBufferSize());
+                }
+            }
+
+            entry.crc = writtenEntry.getCrc();
+            entry.size = writtenEntry.getSize();
+        }
+
+        manifest.putEntry(entry.name, entry.size, entry.lastModified, entry.crc);
+    }
+
+    /**
+     * The result of the compression of a file.
+     */
+    private static class CompressedEntry {
+        private final File file;
+        private final String name;
+        private long lastModified;
+        private long crc;
+        private long size;
+        private byte[] compressedContent;
+        private byte[] storedContent;
+        private ZipArchiveReader.Entry previousEntry;
+
+        private CompressedEntry(File file, String name) {
+            this.file = file;
+            this.name = name;
+        }
     }
 }
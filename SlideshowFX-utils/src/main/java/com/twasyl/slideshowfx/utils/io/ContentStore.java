@@ -0,0 +1,306 @@
+package com.twasyl.slideshowfx.utils.io;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A content-addressed store of files. Each file added to the store is kept once, as a blob named after the SHA-256 hash
+ * of its content, whatever the number of times it is added. Blobs are then {@link #link(String, File) linked} in the
+ * directories needing them: a hard link is created when the file system supports it, so that identical resources of
+ * several presentations share the same data on disk, otherwise the blob is copied.
+ * Because linked files share their content with the blob, they must only be replaced and never rewritten in place.
+ * The store is only a cache: deleting it doesn't affect the files already linked, and blobs are added again when needed.
+ * Blobs that are not linked anymore are deleted when the store is {@link #prune() pruned}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class ContentStore {
+    private static final Logger LOGGER = Logger.getLogger(ContentStore.class.getName());
+
+    /**
+     * The name of the directory, located in the temporary directory, of the {@link #getDefault() default store}. The
+     * store is located next to the working directories of the presentations in order to be able to hard link blobs in
+     * them.
+     */
+    public static final String DEFAULT_STORE_DIRECTORY_NAME = "sfx-store";
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final char[] HEXADECIMAL_DIGITS = "0123456789abcdef".toCharArray();
+
+    private static volatile ContentStore defaultStore;
+
+    private final File directory;
+
+    /**
+     * Creates a store keeping its blobs in the given directory. The directory is created when the first blob is added.
+     * @param directory The directory of the store.
+     * @throws java.lang.NullPointerException If the directory is null.
+     */
+    public ContentStore(final File directory) {
+        if(directory == null) throw new NullPointerException("The directory of the store can not be null");
+
+        this.directory = directory;
+    }
+
+    /**
+     * Get the store shared by all presentations of the application.
+     * @return The default store.
+     */
+    public static ContentStore getDefault() {
+        if(defaultStore == null) {
+            synchronized(ContentStore.class) {
+                if(defaultStore == null) {
+                    defaultStore = new ContentStore(new File(System.getProperty("java.io.tmpdir"), DEFAULT_STORE_DIRECTORY_NAME));
+                }
+            }
+        }
+
+        return defaultStore;
+    }
+
+    /**
+     * Get the directory of this store.
+     * @return The directory of this store.
+     */
+    public File getDirectory() { return directory; }
+
+    /**
+     * Get the blob of this store having the given hash. The blob may not exist.
+     * @param hash The hash of the content of the blob.
+     * @return The file of the blob.
+     * @throws java.lang.NullPointerException If the hash is null.
+     */
+    public File getBlob(final String hash) {
+        if(hash == null) throw new NullPointerException("The hash can not be null");
+
+        return new File(new File(this.directory, hash.substring(0, 2)), hash);
+    }
+
+    /**
+     * Indicates if this store contains a blob having the given hash.
+     * @param hash The hash of the content of the blob.
+     * @return {@code true} if the blob exists, {@code false} otherwise.
+     */
+    public boolean contains(final String hash) {
+        return this.getBlob(hash).isFile();
+    }
+
+    /**
+     * Add the content of the given stream to this store. The stream is read until its end but is not closed.
+     * @param input The content to add.
+     * @return The hash identifying the content in this store.
+     * @throws IOException If the content can not be read or the blob can not be written.
+     * @throws java.lang.NullPointerException If the input is null.
+     */
+    public String put(final InputStream input) throws IOException {
+        if(input == null) throw new NullPointerException("The input can not be null");
+
+        if(!this.directory.exists() && !this.directory.mkdirs() && !this.directory.exists()) {
+            throw new IOException("Can not create the directory of the store");
+        }
+
+        final MessageDigest digest = newDigest();
+        final File temporaryBlob = File.createTempFile("blob", ".tmp", this.directory);
+
+        try {
+            final byte[] buffer = new byte[8192];
+            int length;
+
+            try(final OutputStream output = new FileOutputStream(temporaryBlob)) {
+                while((length = input.read(buffer)) > 0) {
+                    digest.update(buffer, 0, length);
+                    output.write(buffer, 0, length);
+                }
+            }
+
+            final String hash = toHexadecimal(digest.digest());
+            final File blob = this.getBlob(hash);
+
+            if(!blob.isFile()) {
+                if(!blob.getParentFile().exists() && !blob.getParentFile().mkdirs() && !blob.getParentFile().exists()) {
+                    throw new IOException("Can not create the directory of the blob");
+                }
+
+                // Another thread may have added the same content meanwhile, which is fine as the content is identical
+                try {
+                    Files.move(temporaryBlob.toPath(), blob.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temporaryBlob.toPath(), blob.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } else {
+                LOGGER.finest("Blob already stored: " + hash);
+            }
+
+            return hash;
+        } finally {
+            if(temporaryBlob.exists()) temporaryBlob.delete();
+        }
+    }
+
+    /**
+     * Add the content of the given file to this store.
+     * @param file The file to add.
+     * @return The hash identifying the content in this store.
+     * @throws IOException If the file can not be read or the blob can not be written.
+     * @throws java.lang.NullPointerException If the file is null.
+     */
+    public String put(final File file) throws IOException {
+        if(file == null) throw new NullPointerException("The file can not be null");
+
+        try(final InputStream input = new FileInputStream(file)) {
+            return this.put(input);
+        }
+    }
+
+    /**
+     * Make the blob having the given hash available at the given location. If the target already has the same content,
+     * it is left untouched. Otherwise it is replaced by a hard link to the blob, or by a copy of the blob if the link
+     * can not be created.
+     * @param hash The hash of the blob.
+     * @param target The file that must have the content of the blob.
+     * @throws FileNotFoundException If the blob doesn't exist.
+     * @throws IOException If the target can not be created.
+     * @throws java.lang.NullPointerException If the hash or the target is null.
+     */
+    public void link(final String hash, final File target) throws IOException {
+        if(target == null) throw new NullPointerException("The target can not be null");
+
+        final File blob = this.getBlob(hash);
+        if(!blob.isFile()) throw new FileNotFoundException("The blob " + hash + " does not exist");
+
+        if(target.isFile() && (Files.isSameFile(target.toPath(), blob.toPath())
+                || (target.length() == blob.length() && hash.equals(this.hash(target))))) {
+            LOGGER.finest("File already up to date: " + target.getAbsolutePath());
+            return;
+        }
+
+        if(!target.getParentFile().exists() && !target.getParentFile().mkdirs()) {
+            throw new IOException("Can not create the parent folder");
+        }
+
+        Files.deleteIfExists(target.toPath());
+
+        try {
+            Files.createLink(target.toPath(), blob.toPath());
+        } catch (UnsupportedOperationException | IOException e) {
+            LOGGER.log(Level.FINEST, "Can not link the blob, copying it", e);
+            Files.copy(blob.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Delete the blobs that are not linked by any file anymore, as well as the temporary files left by interrupted
+     * additions, so that the store doesn't grow indefinitely. If the file system doesn't tell how many times a blob is
+     * linked, all blobs are deleted, which is harmless as the store is only a cache. This method must not be called while
+     * content is added to or linked from the store, and is therefore called when the application stops.
+     * @return The number of deleted blobs.
+     * @throws IOException If the directory of the store can not be browsed.
+     */
+    public int prune() throws IOException {
+        if(!this.directory.isDirectory()) return 0;
+
+        final Path root = this.directory.toPath();
+        final int[] deletedBlobs = {0};
+
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if(attrs.isRegularFile() && !isLinked(file)) {
+                    Files.deleteIfExists(file);
+                    deletedBlobs[0]++;
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if(!dir.equals(root)) {
+                    try {
+                        Files.delete(dir);
+                    } catch (DirectoryNotEmptyException e) {
+                        // The directory still contains linked blobs
+                    }
+                }
+
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        LOGGER.fine(String.format("%1$d blobs deleted from the store", deletedBlobs[0]));
+
+        return deletedBlobs[0];
+    }
+
+    /**
+     * Indicates if the given blob is linked by at least one file outside of the store.
+     */
+    private static boolean isLinked(final Path blob) {
+        try {
+            return ((Number) Files.getAttribute(blob, "unix:nlink")).intValue() > 1;
+        } catch (UnsupportedOperationException | IllegalArgumentException | IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Compute the hash identifying the content of the given file in a store. The file is not added to the store.
+     * @param file The file to compute the hash for.
+     * @return The hash of the content of the file.
+     * @throws IOException If the file can not be read.
+     */
+    public String hash(final File file) throws IOException {
+        if(file == null) throw new NullPointerException("The file can not be null");
+
+        final MessageDigest digest = newDigest();
+        final byte[] buffer = new byte[8192];
+        int length;
+
+        try(final InputStream input = new FileInputStream(file)) {
+            while((length = input.read(buffer)) > 0) {
+                digest.update(buffer, 0, length);
+            }
+        }
+
+        return toHexadecimal(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // Every implementation of the Java platform is required to support SHA-256
+            throw new IllegalStateException("The " + HASH_ALGORITHM + " algorithm is not available", e);
+        }
+    }
+
+    private static String toHexadecimal(final byte[] bytes) {
+        final char[] hexadecimal = new char[bytes.length * 2];
+
+        for(int index = 0; index < bytes.length; index++) {
+            hexadecimal[index * 2] = HEXADECIMAL_DIGITS[(bytes[index] >> 4) & 0xF];
+            hexadecimal[index * 2 + 1] = HEXADECIMAL_DIGITS[bytes[index] & 0xF];
+        }
+
+        return new String(hexadecimal);
+    }
+}
@@ -0,0 +1,128 @@
+package com.twasyl.slideshowfx.utils.zip;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * This class describes the files that have been compressed in, or extracted from, a ZIP archive. For each entry, the
+ * size and last modification time of the file at that moment are kept along with the CRC of its content. It allows
+ * to know if a file has changed since the archive has been written and if not, to copy the entry as is from the
+ * archive instead of compressing the file again.
+ * Like for the git index, a file modified within the {@link #RACY_DELAY same delay} than the moment the manifest was
+ * created could have been changed without its last modification time being updated: such entries are considered
+ * <i>racy</i> and their content has to be checked with the CRC.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class ZipArchiveManifest {
+    /**
+     * The delay, in milliseconds, around the creation of the manifest in which a file modification can not be
+     * detected by its last modification time. Value is {@value #RACY_DELAY}.
+     */
+    public static final long RACY_DELAY = 2000;
+
+    private final File archive;
+    private final long creationTime;
+    private final Map<String, Entry> entries = new HashMap<>();
+    private long archiveSize = -1;
+    private long archiveLastModified = -1;
+
+    /**
+     * Creates a manifest for the given archive.
+     * @param archive The archive described by this manifest.
+     * @param creationTime The time, in milliseconds, at which the files started being compressed or extracted.
+     */
+    public ZipArchiveManifest(final File archive, final long creationTime) {
+        if(archive == null) throw new NullPointerException("The archive can not be null");
+
+        this.archive = archive;
+        this.creationTime = creationTime;
+    }
+
+    public File getArchive() { return archive; }
+
+    /**
+     * Records the current size and last modification time of the archive. The manifest is only {@link #isValid() valid}
+     * as long as the archive is not modified afterwards.
+     */
+    public void seal() {
+        this.archiveSize = this.archive.length();
+        this.archiveLastModified = this.archive.lastModified();
+    }
+
+    /**
+     * Indicates if this manifest still describes its archive, i.e. if the archive hasn't been modified since the
+     * manifest has been {@link #seal() sealed}.
+     * @return {@code true} if the manifest can be used, {@code false} otherwise.
+     */
+    public boolean isValid() {
+        return this.archiveSize != -1 && this.archive.exists()
+                && this.archive.length() == this.archiveSize
+                && this.archive.lastModified() == this.archiveLastModified;
+    }
+
+    /**
+     * Records an entry in this manifest.
+     * @param name The name of the entry.
+     * @param size The size of the file.
+     * @param lastModified The last modification time of the file, read before its content.
+     * @param crc The CRC-32 of the file's content.
+     */
+    public void putEntry(final String name, final long size, final long lastModified, final long crc) {
+        final Entry entry = new Entry();
+        entry.size = size;
+        entry.lastModified = lastModified;
+        entry.crc = crc;
+        entry.racy = lastModified >= this.creationTime - RACY_DELAY;
+
+        this.entries.put(name, entry);
+    }
+
+    /**
+     * Get the entry with the given name.
+     * @param name The name of the entry.
+     * @return The entry or {@code null} if this manifest doesn't contain it.
+     */
+    public Entry getEntry(final String name) { return this.entries.get(name); }
+
+    /**
+     * Get the number of entries of this manifest.
+     * @return The number of entries.
+     */
+    public int size() { return this.entries.size(); }
+
+    /**
+     * The state of a file at the moment it has been compressed or extracted.
+     */
+    public static class Entry {
+        private long size;
+        private long lastModified;
+        private long crc;
+        private boolean racy;
+
+        public long getSize() { return size; }
+
+        public long getLastModified() { return lastModified; }
+
+        public long getCrc() { return crc; }
+
+        /**
+         * Indicates if the file may have been modified without its last modification time being updated.
+         * @return {@code true} if the content of the file must be compared using its CRC, {@code false} otherwise.
+         */
+        public boolean isRacy() { return racy; }
+
+        /**
+         * Indicates if the given file has, according its size and last modification time, the same state than the
+         * one recorded in this entry. If the entry is {@link #isRacy() racy}, the CRC must still be checked.
+         * @param file The file to check.
+         * @return {@code true} if the file appears unchanged, {@code false} otherwise.
+         */
+        public boolean matches(final File file) {
+            return file.length() == this.size && file.lastModified() == this.lastModified;
+        }
+    }
+}
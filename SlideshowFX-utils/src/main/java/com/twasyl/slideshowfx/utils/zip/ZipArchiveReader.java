@@ -0,0 +1,391 @@
+package com.twasyl.slideshowfx.utils.zip;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * This class reads the central directory of a ZIP archive and gives access to the raw content of its entries, as
+ * stored in the archive. This allows entries to be copied from an archive to another using {@link ZipArchiveWriter}
+ * without decompressing and compressing them again.
+ * Only the central directory is read when the reader is opened, so entries can be listed and read one by one without
+ * extracting the archive. The content of an entry is read from a region of the archive mapped in memory: entries that
+ * are {@link ZipEntry#STORED stored}, like images, are then {@link #getRawContent(Entry) accessed} without any copy.
+ * This reader doesn't support the ZIP64 format.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class ZipArchiveReader implements Closeable {
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIZE = 46;
+    private static final int LOCAL_FILE_HEADER_SIZE = 30;
+    private static final int MAXIMUM_COMMENT_LENGTH = 0xFFFF;
+    private static final int ENCRYPTED_FLAG = 0x0001;
+
+    private final FileChannel channel;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+
+    /**
+     * Opens the given archive and reads its central directory.
+     * @param archive The archive to read.
+     * @throws NullPointerException If the archive is null.
+     * @throws IOException If the archive can not be read or is not a valid ZIP archive.
+     */
+    public ZipArchiveReader(final File archive) throws IOException {
+        if(archive == null) throw new NullPointerException("The archive can not be null");
+
+        this.channel = FileChannel.open(archive.toPath(), StandardOpenOption.READ);
+
+        try {
+            this.readCentralDirectory();
+        } catch (IOException e) {
+            this.channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Get all entries of the archive, in the order of the central directory.
+     * @return The entries of the archive.
+     */
+    public Collection<Entry> getEntries() { return Collections.unmodifiableCollection(this.entries.values()); }
+
+    /**
+     * Get the entry with the given name.
+     * @param name The name of the entry.
+     * @return The entry or {@code null} if the archive doesn't contain it.
+     */
+    public Entry getEntry(final String name) { return this.entries.get(name); }
+
+    /**
+     * Get the raw content of the given entry, as it is stored in the archive. If the entry is
+     * {@link ZipEntry#DEFLATED deflated}, the returned stream is not inflated.
+     * @param entry The entry to get the content for.
+     * @return A stream of {@link Entry#getCompressedSize()} bytes.
+     * @throws IOException If the local header of the entry can not be read.
+     */
+    public InputStream getRawInputStream(final Entry entry) throws IOException {
+        if(entry == null) throw new NullPointerException("The entry can not be null");
+
+        return new RawEntryInputStream(this.getDataOffset(entry), entry.getCompressedSize());
+    }
+
+    /**
+     * Get the raw content of the given entry, as it is stored in the archive, without copying it: the returned buffer
+     * maps the region of the archive containing the entry. If the entry is {@link ZipEntry#STORED stored}, the buffer
+     * is the content of the entry itself.
+     * As long as the buffer is reachable, the archive may not be deleted or replaced on some platforms.
+     * @param entry The entry to get the content for.
+     * @return A read-only buffer of {@link Entry#getCompressedSize()} bytes.
+     * @throws IOException If the local header of the entry can not be read.
+     */
+    public ByteBuffer getRawContent(final Entry entry) throws IOException {
+        if(entry == null) throw new NullPointerException("The entry can not be null");
+
+        return this.channel.map(FileChannel.MapMode.READ_ONLY, this.getDataOffset(entry), entry.getCompressedSize());
+    }
+
+    /**
+     * Get a stream on the content of the given entry. If the entry is {@link ZipEntry#DEFLATED deflated}, the returned
+     * stream inflates it.
+     * @param entry The entry to get the content for.
+     * @return A stream of {@link Entry#getSize()} bytes.
+     * @throws ZipException If the entry is encrypted or uses an unsupported compression method.
+     * @throws IOException If the local header of the entry can not be read.
+     */
+    public InputStream getInputStream(final Entry entry) throws IOException {
+        if(entry == null) throw new NullPointerException("The entry can not be null");
+        if((entry.flags & ENCRYPTED_FLAG) != 0) throw new ZipException("The entry " + entry.getName() + " is encrypted");
+
+        final InputStream rawInput = new BufferInputStream(this.getRawContent(entry));
+
+        switch(entry.getMethod()) {
+            case ZipEntry.STORED:
+                return rawInput;
+            case ZipEntry.DEFLATED:
+                return new EntryInflaterInputStream(rawInput, (int) Math.min(Math.max(entry.getCompressedSize(), 64), 8192));
+            default:
+                throw new ZipException("Unsupported compression method for the entry " + entry.getName());
+        }
+    }
+
+    /**
+     * Get the content of the given entry.
+     * @param entry The entry to get the content for.
+     * @return The content of the entry, inflated if necessary.
+     * @throws ZipException If the entry is encrypted, uses an unsupported compression method or is too large.
+     * @throws IOException If the entry can not be read.
+     */
+    public byte[] getContent(final Entry entry) throws IOException {
+        if(entry == null) throw new NullPointerException("The entry can not be null");
+        if(entry.getSize() > Integer.MAX_VALUE - 8) throw new ZipException("The entry " + entry.getName() + " is too large");
+
+        final byte[] content = new byte[(int) entry.getSize()];
+
+        try(final InputStream input = this.getInputStream(entry)) {
+            int offset = 0;
+            int length;
+
+            while(offset < content.length && (length = input.read(content, offset, content.length - offset)) > 0) {
+                offset += length;
+            }
+
+            if(offset < content.length) throw new EOFException("Unexpected end of entry " + entry.getName());
+        }
+
+        return content;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.channel.close();
+    }
+
+    private long getDataOffset(final Entry entry) throws IOException {
+        final ByteBuffer header = this.read(entry.localHeaderOffset, LOCAL_FILE_HEADER_SIZE);
+        if(header.getInt(0) != LOCAL_FILE_HEADER_SIGNATURE) throw new IOException("Invalid local header for entry " + entry.getName());
+
+        return entry.localHeaderOffset + LOCAL_FILE_HEADER_SIZE
+                + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+    }
+
+    private void readCentralDirectory() throws IOException {
+        final long archiveSize = this.channel.size();
+        if(archiveSize < END_OF_CENTRAL_DIRECTORY_SIZE) throw new IOException("The archive is not a valid ZIP archive");
+
+        // The end of central directory record is followed by a comment of variable length
+        final int tailLength = (int) Math.min(archiveSize, END_OF_CENTRAL_DIRECTORY_SIZE + MAXIMUM_COMMENT_LENGTH);
+        final ByteBuffer tail = this.read(archiveSize - tailLength, tailLength);
+
+        int endOfCentralDirectory = -1;
+        for(int position = tailLength - END_OF_CENTRAL_DIRECTORY_SIZE; position >= 0 && endOfCentralDirectory == -1; position--) {
+            if(tail.getInt(position) == END_OF_CENTRAL_DIRECTORY_SIGNATURE
+                    && position + END_OF_CENTRAL_DIRECTORY_SIZE + (tail.getShort(position + 20) & 0xFFFF) == tailLength) {
+                endOfCentralDirectory = position;
+            }
+        }
+
+        if(endOfCentralDirectory == -1) throw new IOException("The archive is not a valid ZIP archive");
+
+        final int numberOfEntries = tail.getShort(endOfCentralDirectory + 10) & 0xFFFF;
+        final long centralDirectorySize = tail.getInt(endOfCentralDirectory + 12) & 0xFFFFFFFFL;
+        final long centralDirectoryOffset = tail.getInt(endOfCentralDirectory + 16) & 0xFFFFFFFFL;
+
+        if(numberOfEntries == 0xFFFF || centralDirectoryOffset == ZipArchiveWriter.MAXIMUM_SIZE) {
+            throw new IOException("ZIP64 archives are not supported");
+        }
+        if(centralDirectoryOffset + centralDirectorySize > archiveSize) throw new IOException("The archive is not a valid ZIP archive");
+
+        final ByteBuffer centralDirectory = this.read(centralDirectoryOffset, (int) centralDirectorySize);
+
+        for(int index = 0; index < numberOfEntries; index++) {
+            if(centralDirectory.remaining() < CENTRAL_DIRECTORY_HEADER_SIZE
+                    || centralDirectory.getInt() != CENTRAL_DIRECTORY_HEADER_SIGNATURE) {
+                throw new IOException("Invalid central directory");
+            }
+
+            final int start = centralDirectory.position() - 4;
+            final Entry entry = new Entry();
+            entry.flags = centralDirectory.getShort(start + 8) & 0xFFFF;
+            entry.method = centralDirectory.getShort(start + 10) & 0xFFFF;
+            entry.crc = centralDirectory.getInt(start + 16) & 0xFFFFFFFFL;
+            entry.compressedSize = centralDirectory.getInt(start + 20) & 0xFFFFFFFFL;
+            entry.size = centralDirectory.getInt(start + 24) & 0xFFFFFFFFL;
+            entry.localHeaderOffset = centralDirectory.getInt(start + 42) & 0xFFFFFFFFL;
+
+            final int nameLength = centralDirectory.getShort(start + 28) & 0xFFFF;
+            final int extraLength = centralDirectory.getShort(start + 30) & 0xFFFF;
+            final int commentLength = centralDirectory.getShort(start + 32) & 0xFFFF;
+
+            final byte[] name = new byte[nameLength];
+            centralDirectory.position(start + CENTRAL_DIRECTORY_HEADER_SIZE);
+            centralDirectory.get(name);
+            entry.name = new String(name, StandardCharsets.UTF_8);
+
+            centralDirectory.position(centralDirectory.position() + extraLength + commentLength);
+
+            this.entries.put(entry.name, entry);
+        }
+    }
+
+    private ByteBuffer read(final long position, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+        while(buffer.hasRemaining()) {
+            if(this.channel.read(buffer, position + buffer.position()) < 0) throw new EOFException("Unexpected end of archive");
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * An entry of the archive, as described in its central directory.
+     */
+    public static class Entry {
+        private String name;
+        private int flags;
+        private int method;
+        private long crc;
+        private long compressedSize;
+        private long size;
+        private long localHeaderOffset;
+
+        Entry() {
+        }
+
+        Entry(final String name, final int flags, final int method, final long crc, final long compressedSize, final long size, final long localHeaderOffset) {
+            this.name = name;
+            this.flags = flags;
+            this.method = method;
+            this.crc = crc;
+            this.compressedSize = compressedSize;
+            this.size = size;
+            this.localHeaderOffset = localHeaderOffset;
+        }
+
+        public String getName() { return name; }
+
+        public boolean isDirectory() { return name.endsWith("/"); }
+
+        /**
+         * Get the compression method of the entry.
+         * @return {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED} for supported entries.
+         */
+        public int getMethod() { return method; }
+
+        public long getCrc() { return crc; }
+
+        public long getCompressedSize() { return compressedSize; }
+
+        public long getSize() { return size; }
+
+        /**
+         * Indicates if the raw content of this entry can be copied in another archive by {@link ZipArchiveWriter}.
+         * @return {@code true} if the entry is neither encrypted nor in the ZIP64 format and is stored or deflated.
+         */
+        public boolean isCopyable() {
+            return (this.flags & ENCRYPTED_FLAG) == 0
+                    && (this.method == ZipEntry.STORED || this.method == ZipEntry.DEFLATED)
+                    && this.compressedSize != ZipArchiveWriter.MAXIMUM_SIZE
+                    && this.size != ZipArchiveWriter.MAXIMUM_SIZE
+                    && this.localHeaderOffset != ZipArchiveWriter.MAXIMUM_SIZE;
+        }
+    }
+
+    /**
+     * A stream reading a buffer.
+     */
+    private static class BufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        BufferInputStream(final ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return this.buffer.hasRemaining() ? this.buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if(!this.buffer.hasRemaining()) return -1;
+
+            final int length = Math.min(len, this.buffer.remaining());
+            this.buffer.get(b, off, length);
+            return length;
+        }
+
+        @Override
+        public int available() {
+            return this.buffer.remaining();
+        }
+    }
+
+    /**
+     * A stream inflating the content of an entry, which releases its {@link Inflater} when closed.
+     */
+    private static class EntryInflaterInputStream extends InflaterInputStream {
+        private boolean endOfInput = false;
+        private boolean closed = false;
+
+        EntryInflaterInputStream(final InputStream input, final int bufferSize) {
+            super(input, new Inflater(true), bufferSize);
+        }
+
+        @Override
+        protected void fill() throws IOException {
+            if(this.endOfInput) throw new EOFException("Unexpected end of ZLIB input stream");
+
+            this.len = this.in.read(this.buf, 0, this.buf.length);
+
+            // Raw deflated data may need an extra byte to be completely inflated
+            if(this.len == -1) {
+                this.buf[0] = 0;
+                this.len = 1;
+                this.endOfInput = true;
+            }
+
+            this.inf.setInput(this.buf, 0, this.len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if(!this.closed) {
+                this.closed = true;
+                this.inf.end();
+                super.close();
+            }
+        }
+    }
+
+    /**
+     * A stream reading a portion of the archive.
+     */
+    private class RawEntryInputStream extends InputStream {
+        private long position;
+        private long remaining;
+
+        RawEntryInputStream(final long position, final long length) {
+            this.position = position;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return this.read(b, 0, 1) == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if(this.remaining <= 0) return -1;
+
+            final ByteBuffer buffer = ByteBuffer.wrap(b, off, (int) Math.min(len, this.remaining));
+            final int length = channel.read(buffer, this.position);
+
+            if(length < 0) throw new EOFException("Unexpected end of archive");
+
+            this.position += length;
+            this.remaining -= length;
+            return length;
+        }
+    }
+}
@@ -0,0 +1,357 @@
+package com.twasyl.slideshowfx.utils.zip;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.ZipEntry;
+
+/**
+ * This class writes a ZIP archive from entries which data is either already prepared, compressed with the
+ * {@link ZipEntry#DEFLATED deflate} method or {@link ZipEntry#STORED stored}, either streamed. Prepared entries allow
+ * entries to be compressed concurrently, or copied from another archive, before being written in order. Streamed
+ * entries are read only once: their CRC and sizes are computed while they are written and then set in their local
+ * header, which is why the archive is written in a file.
+ * This writer doesn't support the ZIP64 format: archives can not exceed 4 GB nor contain more than 65535 entries.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class ZipArchiveWriter implements Closeable {
+    /**
+     * The maximum size of an entry or of an archive supported by this writer.
+     */
+    public static final long MAXIMUM_SIZE = 0xFFFFFFFFL;
+    /**
+     * The maximum number of entries supported by this writer.
+     */
+    public static final int MAXIMUM_ENTRIES = 0xFFFF;
+
+    private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+    private static final int LOCAL_FILE_HEADER_CRC_OFFSET = 14;
+    private static final int CENTRAL_DIRECTORY_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+    private static final int VERSION = 20;
+    private static final int UTF8_FLAG = 0x0800;
+    private static final int DIRECTORY_ATTRIBUTE = 0x10;
+
+    private final FileChannel channel;
+    private final CountingOutputStream output;
+    private final List<CentralDirectoryRecord> centralDirectory = new ArrayList<>();
+    private boolean closed = false;
+
+    /**
+     * Creates a writer writing the archive in the given file. If the file exists, it is replaced.
+     * @param archive The file the archive is written in.
+     * @param bufferSize The size of the buffer used to write the archive.
+     * @throws IOException If the file can not be opened.
+     */
+    public ZipArchiveWriter(final File archive, final int bufferSize) throws IOException {
+        if(archive == null) throw new NullPointerException("The archive can not be null");
+
+        this.channel = FileChannel.open(archive.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.output = new CountingOutputStream(new BufferedOutputStream(Channels.newOutputStream(this.channel), bufferSize));
+    }
+
+    /**
+     * Add a directory entry in the archive. The name must end with a {@code /}.
+     * @param name The name of the directory entry.
+     * @param time The last modification time of the directory.
+     * @throws IOException If an error occurs while writing the entry.
+     */
+    public void putDirectory(final String name, final long time) throws IOException {
+        this.writeEntry(name, ZipEntry.STORED, time, 0, 0, 0, DIRECTORY_ATTRIBUTE, null, 0);
+    }
+
+    /**
+     * Add an entry which content is written without compression. The given CRC and size must correspond to the
+     * content of the given stream.
+     * @param name The name of the entry.
+     * @param time The last modification time of the entry.
+     * @param crc The CRC-32 of the content.
+     * @param size The size of the content.
+     * @param content The content of the entry. The stream is not closed by this method.
+     * @param bufferSize The size of the buffer used to copy the content.
+     * @throws IOException If an error occurs while writing the entry.
+     */
+    public void putStoredEntry(final String name, final long time, final long crc, final long size, final InputStream content, final int bufferSize) throws IOException {
+        this.writeEntry(name, ZipEntry.STORED, time, crc, size, size, 0, content, bufferSize);
+    }
+
+    /**
+     * Add an entry which content has already been compressed using the raw deflate format.
+     * @param name The name of the entry.
+     * @param time The last modification time of the entry.
+     * @param crc The CRC-32 of the uncompressed content.
+     * @param compressedSize The size of the compressed content.
+     * @param size The size of the uncompressed content.
+     * @param compressedContent The compressed content of the entry. The stream is not closed by this method.
+     * @param bufferSize The size of the buffer used to copy the content.
+     * @throws IOException If an error occurs while writing the entry.
+     */
+    public void putDeflatedEntry(final String name, final long time, final long crc, final long compressedSize, final long size, final InputStream compressedContent, final int bufferSize) throws IOException {
+        this.writeEntry(name, ZipEntry.DEFLATED, time, crc, compressedSize, size, 0, compressedContent, bufferSize);
+    }
+
+    /**
+     * Add an entry which content is read from the given stream and written without compression. The content is read
+     * only once, its CRC and size being computed while it is written.
+     * @param name The name of the entry.
+     * @param time The last modification time of the entry.
+     * @param content The content of the entry, read until its end. The stream is not closed by this method.
+     * @param bufferSize The size of the buffer used to copy the content.
+     * @return The written entry.
+     * @throws IOException If an error occurs while reading the content or writing the entry.
+     */
+    public ZipArchiveReader.Entry putStoredEntry(final String name, final long time, final InputStream content, final int bufferSize) throws IOException {
+        return this.streamEntry(name, ZipEntry.STORED, time, content, null, bufferSize);
+    }
+
+    /**
+     * Add an entry which content is read from the given stream and compressed using the raw deflate format while it
+     * is written. The content is read only once, its CRC and sizes being computed while it is written.
+     * @param name The name of the entry.
+     * @param time The last modification time of the entry.
+     * @param content The uncompressed content of the entry, read until its end. The stream is not closed by this
+     *                method.
+     * @param compressionLevel The compression level, as defined by {@link Deflater}.
+     * @param bufferSize The size of the buffer used to compress the content.
+     * @return The written entry.
+     * @throws IOException If an error occurs while reading the content or writing the entry.
+     */
+    public ZipArchiveReader.Entry putDeflatedEntry(final String name, final long time, final InputStream content, final int compressionLevel, final int bufferSize) throws IOException {
+        final Deflater deflater = new Deflater(compressionLevel, true);
+
+        try {
+            return this.streamEntry(name, ZipEntry.DEFLATED, time, content, deflater, bufferSize);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private ZipArchiveReader.Entry streamEntry(final String name, final int method, final long time, final InputStream content,
+                                               final Deflater deflater, final int bufferSize) throws IOException {
+        if(content == null) throw new NullPointerException("The content can not be null");
+
+        final CentralDirectoryRecord record = this.writeLocalHeader(name, method, time, 0, 0, 0, 0);
+        final long dataOffset = this.output.getCount();
+
+        final CRC32 crc = new CRC32();
+        final byte[] buffer = new byte[bufferSize];
+        final OutputStream entryOutput = deflater == null ? this.output : new DeflaterOutputStream(this.output, deflater, bufferSize);
+        int length;
+
+        while((length = content.read(buffer)) > 0) {
+            crc.update(buffer, 0, length);
+            entryOutput.write(buffer, 0, length);
+            record.size += length;
+        }
+
+        // Only ends the compressed data: the archive itself must not be closed
+        if(entryOutput instanceof DeflaterOutputStream) ((DeflaterOutputStream) entryOutput).finish();
+
+        record.crc = crc.getValue();
+        record.compressedSize = this.output.getCount() - dataOffset;
+
+        if(record.compressedSize > MAXIMUM_SIZE || record.size > MAXIMUM_SIZE) throw new IOException("The entry " + name + " is too large");
+
+        // The local header has been written before the CRC and sizes were known
+        this.output.flush();
+
+        final ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt((int) record.crc).putInt((int) record.compressedSize).putInt((int) record.size).flip();
+
+        while(header.hasRemaining()) {
+            this.channel.write(header, record.offset + LOCAL_FILE_HEADER_CRC_OFFSET + header.position());
+        }
+
+        this.centralDirectory.add(record);
+
+        return new ZipArchiveReader.Entry(name, UTF8_FLAG, method, record.crc, record.compressedSize, record.size, record.offset);
+    }
+
+    private void writeEntry(final String name, final int method, final long time, final long crc,
+                            final long compressedSize, final long size, final int externalAttributes,
+                            final InputStream content, final int bufferSize) throws IOException {
+        if(compressedSize > MAXIMUM_SIZE || size > MAXIMUM_SIZE) throw new IOException("The entry " + name + " is too large");
+
+        final CentralDirectoryRecord record = this.writeLocalHeader(name, method, time, crc, compressedSize, size, externalAttributes);
+
+        if(content != null) {
+            final byte[] buffer = new byte[bufferSize];
+            long remaining = compressedSize;
+            int length;
+
+            while(remaining > 0 && (length = content.read(buffer, 0, (int) Math.min(buffer.length, remaining))) > 0) {
+                this.output.write(buffer, 0, length);
+                remaining -= length;
+            }
+
+            if(remaining != 0) throw new EOFException("The content of the entry " + name + " is shorter than expected");
+        }
+
+        this.centralDirectory.add(record);
+    }
+
+    private CentralDirectoryRecord writeLocalHeader(final String name, final int method, final long time, final long crc,
+                                                    final long compressedSize, final long size, final int externalAttributes) throws IOException {
+        if(this.closed) throw new IOException("The archive is closed");
+        if(name == null) throw new NullPointerException("The name of the entry can not be null");
+        if(this.centralDirectory.size() >= MAXIMUM_ENTRIES) throw new IOException("Too many entries in the archive");
+        if(this.output.getCount() > MAXIMUM_SIZE) throw new IOException("The archive is too large");
+
+        final CentralDirectoryRecord record = new CentralDirectoryRecord();
+        record.name = name.getBytes(StandardCharsets.UTF_8);
+        record.method = method;
+        record.dosTime = toDosTime(time);
+        record.crc = crc;
+        record.compressedSize = compressedSize;
+        record.size = size;
+        record.externalAttributes = externalAttributes;
+        record.offset = this.output.getCount();
+
+        this.writeInt(LOCAL_FILE_HEADER_SIGNATURE);
+        this.writeShort(VERSION);
+        this.writeShort(UTF8_FLAG);
+        this.writeShort(record.method);
+        this.writeInt(record.dosTime);
+        this.writeInt(record.crc);
+        this.writeInt(record.compressedSize);
+        this.writeInt(record.size);
+        this.writeShort(record.name.length);
+        this.writeShort(0);
+        this.output.write(record.name);
+
+        return record;
+    }
+
+    /**
+     * Writes the central directory of the archive and closes the file.
+     * @throws IOException If an error occurs while writing the central directory.
+     */
+    @Override
+    public void close() throws IOException {
+        if(this.closed) return;
+
+        try {
+            final long centralDirectoryOffset = this.output.getCount();
+
+            for(CentralDirectoryRecord record : this.centralDirectory) {
+                this.writeInt(CENTRAL_DIRECTORY_HEADER_SIGNATURE);
+                this.writeShort(VERSION);
+                this.writeShort(VERSION);
+                this.writeShort(UTF8_FLAG);
+                this.writeShort(record.method);
+                this.writeInt(record.dosTime);
+                this.writeInt(record.crc);
+                this.writeInt(record.compressedSize);
+                this.writeInt(record.size);
+                this.writeShort(record.name.length);
+                this.writeShort(0);
+                this.writeShort(0);
+                this.writeShort(0);
+                this.writeShort(0);
+                this.writeInt(record.externalAttributes);
+                this.writeInt(record.offset);
+                this.output.write(record.name);
+            }
+
+            final long centralDirectorySize = this.output.getCount() - centralDirectoryOffset;
+
+            if(centralDirectoryOffset > MAXIMUM_SIZE) throw new IOException("The archive is too large");
+
+            this.writeInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+            this.writeShort(0);
+            this.writeShort(0);
+            this.writeShort(this.centralDirectory.size());
+            this.writeShort(this.centralDirectory.size());
+            this.writeInt(centralDirectorySize);
+            this.writeInt(centralDirectoryOffset);
+            this.writeShort(0);
+
+            this.output.flush();
+        } finally {
+            this.closed = true;
+            this.output.close();
+        }
+    }
+
+    private void writeShort(final int value) throws IOException {
+        this.output.write(value & 0xFF);
+        this.output.write((value >>> 8) & 0xFF);
+    }
+
+    private void writeInt(final long value) throws IOException {
+        this.writeShort((int) (value & 0xFFFF));
+        this.writeShort((int) ((value >>> 16) & 0xFFFF));
+    }
+
+    /**
+     * Converts the given time in the MS-DOS date and time format used within ZIP archives.
+     * @param time The time to convert, in milliseconds since the epoch.
+     * @return The MS-DOS date in the upper 16 bits and the MS-DOS time in the lower 16 bits.
+     */
+    static long toDosTime(final long time) {
+        final LocalDateTime dateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+
+        if(dateTime.getYear() < 1980) return (1 << 21) | (1 << 16);
+
+        return ((long) (dateTime.getYear() - 1980) << 25)
+                | (dateTime.getMonthValue() << 21)
+                | (dateTime.getDayOfMonth() << 16)
+                | (dateTime.getHour() << 11)
+                | (dateTime.getMinute() << 5)
+                | (dateTime.getSecond() >> 1);
+    }
+
+    /**
+     * Information about an entry needed to write the central directory.
+     */
+    private static class CentralDirectoryRecord {
+        private byte[] name;
+        private int method;
+        private long dosTime;
+        private long crc;
+        private long compressedSize;
+        private long size;
+        private int externalAttributes;
+        private long offset;
+    }
+
+    /**
+     * An {@link OutputStream} counting the number of bytes written through it.
+     */
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count = 0;
+
+        CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        long getCount() { return this.count; }
+
+        @Override
+        public void write(int b) throws IOException {
+            this.out.write(b);
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            this.out.write(b, off, len);
+            this.count += len;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.twasyl.slideshowfx.utils.zip;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * This class defines how files are compressed when creating a ZIP archive using
+ * {@link com.twasyl.slideshowfx.utils.ZipUtils#zip(java.io.File, java.io.File, ZipCompressionOptions)}.
+ * Files having one of the {@link #getStoredExtensions() stored extensions} are already compressed and are therefore
+ * stored as is in the archive, without trying to compress them again.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class ZipCompressionOptions {
+    /**
+     * The default size of the buffers used to read and write files. Value is {@value #DEFAULT_BUFFER_SIZE}.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The default size of the largest file compressed in memory. Value is {@value #DEFAULT_IN_MEMORY_THRESHOLD}.
+     */
+    public static final int DEFAULT_IN_MEMORY_THRESHOLD = 1024 * 1024;
+
+    /**
+     * The extensions of files that are stored without compression by default.
+     */
+    public static final Set<String> DEFAULT_STORED_EXTENSIONS = new HashSet<>(Arrays.asList(
+            "png", "jpg", "jpeg", "gif", "webp",
+            "mp3", "mp4", "m4v", "mov", "ogg", "webm",
+            "zip", "jar", "gz", "sfx", "sfxt", "woff", "woff2"));
+
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+    private int inMemoryThreshold = DEFAULT_IN_MEMORY_THRESHOLD;
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+    private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+    private final Set<String> storedExtensions = new HashSet<>(DEFAULT_STORED_EXTENSIONS);
+
+    /**
+     * Get the size of the buffers used to read and write files.
+     * @return The size of the buffers, in bytes.
+     */
+    public int getBufferSize() { return bufferSize; }
+
+    /**
+     * Set the size of the buffers used to read and write files.
+     * @param bufferSize The size of the buffers, in bytes.
+     * @throws IllegalArgumentException If the size is not strictly positive.
+     */
+    public void setBufferSize(int bufferSize) {
+        if(bufferSize <= 0) throw new IllegalArgumentException("The buffer size must be strictly positive");
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Get the size of the largest file compressed in memory. Such files are compressed concurrently before being
+     * written in the archive, while larger files are compressed while being written. At most twice the
+     * {@link #getParallelism() parallelism} files are kept in memory at once.
+     * @return The size of the largest file compressed in memory, in bytes.
+     */
+    public int getInMemoryThreshold() { return inMemoryThreshold; }
+
+    /**
+     * Set the size of the largest file compressed in memory.
+     * @param inMemoryThreshold The size of the largest file compressed in memory, in bytes.
+     * @throws IllegalArgumentException If the size is negative.
+     */
+    public void setInMemoryThreshold(int inMemoryThreshold) {
+        if(inMemoryThreshold < 0) throw new IllegalArgumentException("The in memory threshold can not be negative");
+        this.inMemoryThreshold = inMemoryThreshold;
+    }
+
+    /**
+     * Get the number of files that can be compressed concurrently.
+     * @return The number of files that can be compressed concurrently.
+     */
+    public int getParallelism() { return parallelism; }
+
+    /**
+     * Set the number of files that can be compressed concurrently.
+     * @param parallelism The number of files that can be compressed concurrently.
+     * @throws IllegalArgumentException If the parallelism is not strictly positive.
+     */
+    public void setParallelism(int parallelism) {
+        if(parallelism <= 0) throw new IllegalArgumentException("The parallelism must be strictly positive");
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Get the compression level, as defined by {@link Deflater}.
+     * @return The compression level.
+     */
+    public int getCompressionLevel() { return compressionLevel; }
+
+    /**
+     * Set the compression level, as defined by {@link Deflater}.
+     * @param compressionLevel The compression level, from 0 to 9 or {@link Deflater#DEFAULT_COMPRESSION}.
+     */
+    public void setCompressionLevel(int compressionLevel) { this.compressionLevel = compressionLevel; }
+
+    /**
+     * Get the extensions, in lower case and without the dot, of files that are stored without compression.
+     * @return The extensions of files that are stored without compression.
+     */
+    public Set<String> getStoredExtensions() { return storedExtensions; }
+
+    /**
+     * Indicates if the entry with the given name should be stored without compression.
+     * @param entryName The name of the entry.
+     * @return {@code true} if the entry should be stored without compression, {@code false} otherwise.
+     */
+    public boolean isStored(final String entryName) {
+        final int dotIndex = entryName.lastIndexOf('.');
+
+        return dotIndex != -1 && this.storedExtensions.contains(entryName.substring(dotIndex + 1).toLowerCase(Locale.ENGLISH));
+    }
+}
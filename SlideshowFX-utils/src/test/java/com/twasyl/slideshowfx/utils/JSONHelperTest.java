@@ -0,0 +1,95 @@
+package com.twasyl.slideshowfx.utils;
+
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+
+import static com.twasyl.slideshowfx.global.configuration.GlobalConfiguration.getDefaultCharset;
+import static org.junit.Assert.*;
+
+/**
+ * This class provides tests for the class {@link com.twasyl.slideshowfx.utils.JSONHelper}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class JSONHelperTest {
+
+    private static InputStream toStream(final String json) {
+        return new ByteArrayInputStream(json.getBytes(getDefaultCharset()));
+    }
+
+    @Test public void readNestedObject() throws IOException {
+        final JsonObject object = JSONHelper.readFromInputStream(toStream(
+                "{\n\"presentation\": {\"id\": 1466945123456, \"slides\": [{\"number\": \"1\", \"elements\": []}, {\"number\": \"2\"}]},\n" +
+                "\"ratio\": 1.5, \"enabled\": true, \"empty\": null}"));
+
+        final JsonObject presentation = object.getJsonObject("presentation");
+        assertEquals(1466945123456L, presentation.getLong("id").longValue());
+
+        final JsonArray slides = presentation.getJsonArray("slides");
+        assertEquals(2, slides.size());
+        assertEquals("2", slides.getJsonObject(1).getString("number"));
+        assertEquals(0, slides.getJsonObject(0).getJsonArray("elements").size());
+
+        assertEquals(1.5, object.getDouble("ratio"), 0);
+        assertTrue(object.getBoolean("enabled"));
+        assertTrue(object.containsKey("empty"));
+        assertNull(object.getValue("empty"));
+    }
+
+    @Test public void readSameAsJsonObject() throws IOException {
+        final String json = "{\"a\": [1, 2147483648, \"\\u00e9t\\u00e9\\n\"], \"b\": {\"c\": -0.25}}";
+
+        assertEquals(new JsonObject(json), JSONHelper.readFromInputStream(toStream(json)));
+    }
+
+    @Test public void readDoesNotCloseStream() throws IOException {
+        final boolean[] closed = {false};
+        final InputStream input = new ByteArrayInputStream("{\"a\": 1}".getBytes(getDefaultCharset())) {
+            @Override
+            public void close() throws IOException {
+                closed[0] = true;
+                super.close();
+            }
+        };
+
+        assertEquals(1, JSONHelper.readFromInputStream(input).getInteger("a").intValue());
+        assertFalse(closed[0]);
+    }
+
+    @Test(expected = IOException.class)
+    public void readArrayIsRejected() throws IOException {
+        JSONHelper.readFromInputStream(toStream("[1, 2]"));
+    }
+
+    @Test(expected = IOException.class)
+    public void readTruncatedObject() throws IOException {
+        JSONHelper.readFromInputStream(toStream("{\"a\": [1, 2"));
+    }
+
+    @Test public void writeAndRead() throws IOException {
+        final JsonObject object = new JsonObject()
+                .put("name", "SlideshowFX")
+                .put("version", 1)
+                .put("id", Long.MAX_VALUE)
+                .put("content", "<h1>été</h1>\n")
+                .put("nested", new JsonObject().put("list", new JsonArray().add(true).add(2.5).addNull()));
+
+        final File file = File.createTempFile("sfx-json", ".json");
+        file.deleteOnExit();
+
+        JSONHelper.writeObject(object, file);
+
+        assertEquals(object, JSONHelper.readFromFile(file));
+        assertEquals(object.encodePrettily().replace("\r\n", "\n"),
+                new String(Files.readAllBytes(file.toPath()), getDefaultCharset()).replace("\r\n", "\n"));
+    }
+}
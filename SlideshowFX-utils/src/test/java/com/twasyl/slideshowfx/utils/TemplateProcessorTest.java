@@ -0,0 +1,53 @@
+package com.twasyl.slideshowfx.utils;
+
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * This class provides tests for the class {@link com.twasyl.slideshowfx.utils.TemplateProcessor}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class TemplateProcessorTest {
+
+    @Test public void isTemplateWithVariable() {
+        assertTrue(TemplateProcessor.isTemplate("<h1>${title}</h1>"));
+    }
+
+    @Test public void isTemplateWithDirective() {
+        assertTrue(TemplateProcessor.isTemplate("<#if title??>title</#if>"));
+    }
+
+    @Test public void isNotTemplate() {
+        assertFalse(TemplateProcessor.isTemplate("<h1>$ title {}</h1>"));
+        assertFalse(TemplateProcessor.isTemplate(null));
+    }
+
+    @Test public void getStringTemplateIsCached() throws IOException {
+        final Template template = TemplateProcessor.getStringTemplate("<h1>${title}</h1>");
+
+        assertSame(template, TemplateProcessor.getStringTemplate("<h1>${title}</h1>"));
+        assertNotSame(template, TemplateProcessor.getStringTemplate("<h2>${title}</h2>"));
+    }
+
+    @Test public void processStringTemplate() throws IOException, TemplateException {
+        final StringWriter writer = new StringWriter();
+        TemplateProcessor.getStringTemplate("<h1>${title}</h1>").process(Collections.singletonMap("title", "SlideshowFX"), writer);
+
+        assertEquals("<h1>SlideshowFX</h1>", writer.toString());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void getNullStringTemplate() throws IOException {
+        TemplateProcessor.getStringTemplate(null);
+    }
+}
@@ -1,16 +1,22 @@
 package com.twasyl.slideshowfx.utils;
 
 import com.twasyl.slideshowfx.utils.io.DeleteFileVisitor;
+import com.twasyl.slideshowfx.utils.zip.ZipArchiveManifest;
+import com.twasyl.slideshowfx.utils.zip.ZipArchiveReader;
+import com.twasyl.slideshowfx.utils.zip.ZipCompressionOptions;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
+import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.logging.Logger;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.zip.ZipInputStream;
 
 import static org.junit.Assert.*;
@@ -75,6 +81,162 @@ public class ZipUtilsTest {
         zip.delete();
     }
 
+    @Test
+    public void zipWithOptions() throws IOException {
+        final File zip = new File(testResultsDir, "zippedWithOptions.zip");
+
+        final ZipCompressionOptions options = new ZipCompressionOptions();
+        options.setParallelism(2);
+        options.setBufferSize(512);
+
+        ZipUtils.zip(resourcesDir, zip, options);
+
+        try(final ZipFile zipFile = new ZipFile(zip)) {
+            assertEquals(5, zipFile.size());
+
+            // Already compressed files are stored as is
+            assertEquals(ZipEntry.STORED, zipFile.getEntry("archive.zip").getMethod());
+            assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("dir/otherDir/otherDirTest.html").getMethod());
+
+            for(String entryName : new String[] {"archive.zip", "test.html", "test.txt", "dir/dirTest.txt", "dir/otherDir/otherDirTest.html"}) {
+                try(final InputStream input = zipFile.getInputStream(zipFile.getEntry(entryName))) {
+                    assertArrayEquals("Wrong content for " + entryName,
+                            Files.readAllBytes(new File(resourcesDir, entryName).toPath()), readFully(input));
+                }
+            }
+        }
+
+        zip.delete();
+    }
+
+    @Test
+    public void zipSingleFile() throws IOException {
+        final File zip = new File(testResultsDir, "zippedSingleFile.zip");
+        final File file = new File(resourcesDir, "test.txt");
+
+        final ZipCompressionOptions options = new ZipCompressionOptions();
+        options.setParallelism(1);
+
+        ZipUtils.zip(file, zip, options);
+
+        try(final ZipInputStream input = new ZipInputStream(new FileInputStream(zip))) {
+            final ZipEntry entry = input.getNextEntry();
+
+            assertNotNull(entry);
+            assertArrayEquals(Files.readAllBytes(file.toPath()), readFully(input));
+            assertNull(input.getNextEntry());
+        }
+
+        zip.delete();
+    }
+
+    @Test
+    public void zipReusingPreviousArchive() throws IOException {
+        final File contentDir = copyResourcesDir("reusedContent");
+        final File zip = new File(testResultsDir, "zippedReused.zip");
+
+        // All files are stored in the first archive in order to know which entries have been reused
+        final ZipCompressionOptions storingOptions = new ZipCompressionOptions();
+        storingOptions.getStoredExtensions().addAll(Arrays.asList("txt", "html"));
+
+        final ZipArchiveManifest manifest = ZipUtils.zip(contentDir, zip, null, storingOptions);
+        assertEquals(5, manifest.size());
+        assertTrue(manifest.isValid());
+
+        final byte[] modifiedContent = new byte[1024];
+        Arrays.fill(modifiedContent, (byte) 'a');
+        Files.write(new File(contentDir, "test.txt").toPath(), modifiedContent);
+
+        final ZipArchiveManifest newManifest = ZipUtils.zip(contentDir, zip, manifest, new ZipCompressionOptions());
+        assertFalse(manifest.isValid());
+        assertTrue(newManifest.isValid());
+
+        try(final ZipFile zipFile = new ZipFile(zip)) {
+            assertEquals(5, zipFile.size());
+            assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("test.txt").getMethod());
+            assertEquals(ZipEntry.STORED, zipFile.getEntry("test.html").getMethod());
+            assertEquals(ZipEntry.STORED, zipFile.getEntry("dir/otherDir/otherDirTest.html").getMethod());
+
+            for(String entryName : new String[] {"archive.zip", "test.html", "test.txt", "dir/dirTest.txt", "dir/otherDir/otherDirTest.html"}) {
+                try(final InputStream input = zipFile.getInputStream(zipFile.getEntry(entryName))) {
+                    assertArrayEquals("Wrong content for " + entryName,
+                            Files.readAllBytes(new File(contentDir, entryName).toPath()), readFully(input));
+                }
+            }
+        }
+
+        zip.delete();
+        Files.walkFileTree(contentDir.toPath(), new DeleteFileVisitor());
+    }
+
+    @Test
+    public void zipDetectsRacyModification() throws IOException {
+        final File contentDir = copyResourcesDir("racyContent");
+        final File zip = new File(testResultsDir, "zippedRacy.zip");
+        final File modifiedFile = new File(contentDir, "test.html");
+
+        final ZipArchiveManifest manifest = ZipUtils.zip(contentDir, zip, null, new ZipCompressionOptions());
+
+        // Same size and same last modification time but a different content
+        final byte[] content = Files.readAllBytes(modifiedFile.toPath());
+        final long lastModified = modifiedFile.lastModified();
+        content[0] = (byte) (content[0] + 1);
+        Files.write(modifiedFile.toPath(), content);
+        modifiedFile.setLastModified(lastModified);
+
+        ZipUtils.zip(contentDir, zip, manifest, new ZipCompressionOptions());
+
+        try(final ZipFile zipFile = new ZipFile(zip);
+            final InputStream input = zipFile.getInputStream(zipFile.getEntry("test.html"))) {
+            assertArrayEquals(content, readFully(input));
+        }
+
+        zip.delete();
+        Files.walkFileTree(contentDir.toPath(), new DeleteFileVisitor());
+    }
+
+    @Test
+    public void zipStreamedEntries() throws IOException {
+        final File contentDir = copyResourcesDir("streamedContent");
+        final File zip = new File(testResultsDir, "zippedStreamed.zip");
+
+        final byte[] compressibleContent = new byte[256 * 1024];
+        Arrays.fill(compressibleContent, (byte) 'a');
+        Files.write(new File(contentDir, "compressible.txt").toPath(), compressibleContent);
+
+        // All files are compressed while being written in the archive
+        final ZipCompressionOptions options = new ZipCompressionOptions();
+        options.setInMemoryThreshold(0);
+
+        final ZipArchiveManifest manifest = ZipUtils.zip(contentDir, zip, null, options);
+
+        try(final ZipFile zipFile = new ZipFile(zip)) {
+            assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("compressible.txt").getMethod());
+            assertTrue(zipFile.getEntry("compressible.txt").getCompressedSize() < compressibleContent.length);
+            assertEquals(ZipEntry.STORED, zipFile.getEntry("archive.zip").getMethod());
+        }
+
+        // The local headers are read, and the CRC of each entry checked, when reading the archive as a stream
+        try(final ZipInputStream input = new ZipInputStream(new FileInputStream(zip))) {
+            int numberOfEntries = 0;
+            ZipEntry entry;
+
+            while((entry = input.getNextEntry()) != null) {
+                if(entry.isDirectory()) continue;
+                numberOfEntries++;
+
+                final byte[] expectedContent = Files.readAllBytes(new File(contentDir, entry.getName()).toPath());
+                assertArrayEquals("Wrong content for " + entry.getName(), expectedContent, readFully(input));
+                assertEquals(expectedContent.length, manifest.getEntry(entry.getName()).getSize());
+            }
+
+            assertEquals(6, numberOfEntries);
+        }
+
+        zip.delete();
+        Files.walkFileTree(contentDir.toPath(), new DeleteFileVisitor());
+    }
+
     @Test public void unzip() throws IOException {
         final File zip = new File(resourcesDir, "archive.zip");
         final File unzippedFolder = new File(testResultsDir, "unzipped").toPath().toAbsolutePath().toFile();
@@ -110,6 +272,137 @@ public class ZipUtilsTest {
         Files.walkFileTree(unzippedFolder.toPath(), new DeleteFileVisitor());
     }
 
+    @Test public void unzipWithFilter() throws IOException {
+        final File unzippedFolder = new File(testResultsDir, "unzippedWithFilter").toPath().toAbsolutePath().toFile();
+
+        try(final ZipFile zip = new ZipFile(new File(resourcesDir, "archive.zip"))) {
+            ZipUtils.unzip(zip, unzippedFolder, entry -> !entry.getName().startsWith("dir/otherDir/") && !"test.txt".equals(entry.getName()));
+        }
+
+        assertTrue(Paths.get(unzippedFolder.getAbsolutePath(), "dir", "dirTest.txt").toFile().isFile());
+        assertTrue(Paths.get(unzippedFolder.getAbsolutePath(), "test.html").toFile().isFile());
+        assertFalse(Paths.get(unzippedFolder.getAbsolutePath(), "dir", "otherDir").toFile().exists());
+        assertFalse(Paths.get(unzippedFolder.getAbsolutePath(), "test.txt").toFile().exists());
+
+        Files.walkFileTree(unzippedFolder.toPath(), new DeleteFileVisitor());
+    }
+
+    @Test public void getEntryInputStream() throws IOException {
+        try(final ZipFile zip = new ZipFile(new File(resourcesDir, "archive.zip"));
+            final InputStream input = ZipUtils.getEntryInputStream(zip, "test.html");
+            final ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+
+            final byte[] buffer = new byte[1024];
+            int length;
+            while((length = input.read(buffer)) > 0) {
+                output.write(buffer, 0, length);
+            }
+
+            assertEquals(zip.getEntry("test.html").getSize(), output.size());
+            assertTrue(output.toString("UTF-8").contains("<html"));
+        }
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void getMissingEntryInputStream() throws IOException {
+        try(final ZipFile zip = new ZipFile(new File(resourcesDir, "archive.zip"))) {
+            ZipUtils.getEntryInputStream(zip, "missing.txt");
+        }
+    }
+
+    @Test public void listEntries() throws IOException {
+        final File archive = new File(resourcesDir, "archive.zip");
+        final List<String> expected = new ArrayList<>();
+
+        try(final ZipFile zip = new ZipFile(archive)) {
+            zip.stream().forEach(entry -> expected.add(entry.getName()));
+        }
+
+        assertEquals(expected, ZipUtils.listEntries(archive));
+    }
+
+    @Test public void readEntry() throws IOException {
+        final File archive = new File(resourcesDir, "archive.zip");
+
+        try(final ZipFile zip = new ZipFile(archive)) {
+            for(String entryName : new String[] {"test.html", "test.txt", "dir/dirTest.txt", "dir/otherDir/otherDirTest.html"}) {
+                try(final InputStream input = zip.getInputStream(zip.getEntry(entryName))) {
+                    assertArrayEquals("Wrong content for " + entryName, readFully(input), ZipUtils.readEntry(archive, entryName));
+                }
+            }
+        }
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void readMissingEntry() throws IOException {
+        ZipUtils.readEntry(new File(resourcesDir, "archive.zip"), "missing.txt");
+    }
+
+    @Test public void readStoredAndDeflatedEntries() throws IOException {
+        final File contentDir = copyResourcesDir("readContent");
+        final File zip = new File(testResultsDir, "zippedRead.zip");
+
+        final byte[] compressibleContent = new byte[64 * 1024];
+        Arrays.fill(compressibleContent, (byte) 'a');
+        Files.write(new File(contentDir, "compressible.txt").toPath(), compressibleContent);
+
+        final ZipCompressionOptions options = new ZipCompressionOptions();
+        options.getStoredExtensions().add("html");
+
+        ZipUtils.zip(contentDir, zip, options);
+
+        try(final ZipArchiveReader reader = new ZipArchiveReader(zip)) {
+            assertEquals(ZipEntry.DEFLATED, reader.getEntry("compressible.txt").getMethod());
+            assertEquals(ZipEntry.STORED, reader.getEntry("test.html").getMethod());
+            assertTrue(reader.getEntries().stream().noneMatch(ZipArchiveReader.Entry::isDirectory));
+
+            // Stored entries are accessed directly in the archive
+            final ByteBuffer rawContent = reader.getRawContent(reader.getEntry("test.html"));
+            final byte[] content = new byte[rawContent.remaining()];
+            rawContent.get(content);
+            assertArrayEquals(Files.readAllBytes(new File(contentDir, "test.html").toPath()), content);
+
+            for(String entryName : new String[] {"archive.zip", "compressible.txt", "test.html", "test.txt", "dir/dirTest.txt", "dir/otherDir/otherDirTest.html"}) {
+                assertArrayEquals("Wrong content for " + entryName,
+                        Files.readAllBytes(new File(contentDir, entryName).toPath()), reader.getContent(reader.getEntry(entryName)));
+            }
+        }
+
+        zip.delete();
+        Files.walkFileTree(contentDir.toPath(), new DeleteFileVisitor());
+    }
+
+    private static File copyResourcesDir(final String name) throws IOException {
+        final Path source = resourcesDir.toPath();
+        final Path target = new File(testResultsDir, name).toPath().toAbsolutePath();
+
+        try(final java.util.stream.Stream<Path> paths = Files.walk(source)) {
+            for(Path path : (Iterable<Path>) paths::iterator) {
+                final Path copy = target.resolve(source.relativize(path).toString());
+
+                if(Files.isDirectory(path)) {
+                    Files.createDirectories(copy);
+                } else {
+                    Files.copy(path, copy, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+
+        return target.toFile();
+    }
+
+    private static byte[] readFully(final InputStream input) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[1024];
+        int length;
+
+        while((length = input.read(buffer)) > 0) {
+            output.write(buffer, 0, length);
+        }
+
+        return output.toByteArray();
+    }
+
     @Test public void testListFilesForDirectory() throws IOException {
 
         final FileVisitor<File> visitor = new SimpleFileVisitor<File>() {
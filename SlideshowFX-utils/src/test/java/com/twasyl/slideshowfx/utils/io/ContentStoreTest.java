@@ -0,0 +1,146 @@
+package com.twasyl.slideshowfx.utils.io;
+
+import com.twasyl.slideshowfx.utils.ZipUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Tests the class {@link ContentStore}.
+ *
+ * @author Thierry Wasylczenko
+ * @version 1.0
+ * @since SlideshowFX 1.1
+ */
+public class ContentStoreTest {
+
+    private File directory;
+    private ContentStore store;
+
+    @Before
+    public void before() throws IOException {
+        this.directory = Files.createTempDirectory("sfx-content-store-test").toFile();
+        this.store = new ContentStore(new File(this.directory, "store"));
+    }
+
+    @After
+    public void after() throws IOException {
+        Files.walkFileTree(this.directory.toPath(), new DeleteFileVisitor());
+    }
+
+    private static ByteArrayInputStream toStream(final String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(final File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test public void identicalContentIsStoredOnce() throws IOException {
+        final String first = this.store.put(toStream("prism.js"));
+        final String second = this.store.put(toStream("prism.js"));
+        final String other = this.store.put(toStream("sweetalert.js"));
+
+        assertEquals(first, second);
+        assertNotEquals(first, other);
+        assertTrue(this.store.contains(first));
+        assertEquals("prism.js", read(this.store.getBlob(first)));
+    }
+
+    @Test public void linkCreatesTheFile() throws IOException {
+        final String hash = this.store.put(toStream("prism.js"));
+        final File target = new File(this.directory, "presentation/resources/prism.js");
+
+        this.store.link(hash, target);
+
+        assertEquals("prism.js", read(target));
+        assertEquals(hash, this.store.hash(target));
+    }
+
+    @Test public void linkKeepsIdenticalFile() throws IOException {
+        final File target = new File(this.directory, "prism.js");
+        Files.write(target.toPath(), "prism.js".getBytes(StandardCharsets.UTF_8));
+        target.setLastModified(1000000000000L);
+
+        this.store.link(this.store.put(toStream("prism.js")), target);
+
+        assertEquals(1000000000000L, target.lastModified());
+    }
+
+    @Test public void linkReplacesDifferentFile() throws IOException {
+        final File target = new File(this.directory, "prism.js");
+        Files.write(target.toPath(), "old prism.js".getBytes(StandardCharsets.UTF_8));
+
+        this.store.link(this.store.put(toStream("prism.js")), target);
+
+        assertEquals("prism.js", read(target));
+    }
+
+    @Test(expected = FileNotFoundException.class)
+    public void linkMissingBlob() throws IOException {
+        this.store.link("0123456789abcdef", new File(this.directory, "missing.js"));
+    }
+
+    @Test public void pruneDeletesUnlinkedBlobs() throws IOException {
+        final String hash = this.store.put(toStream("prism.js"));
+        final File target = new File(this.directory, "prism.js");
+        this.store.link(hash, target);
+        Files.delete(target.toPath());
+
+        assertEquals(1, this.store.prune());
+        assertFalse(this.store.contains(hash));
+        assertFalse(this.store.getBlob(hash).getParentFile().exists());
+        assertTrue(this.store.getDirectory().exists());
+    }
+
+    @Test public void pruneKeepsLinkedBlobs() throws IOException {
+        assumeTrue(FileSystems.getDefault().supportedFileAttributeViews().contains("unix"));
+
+        final String linked = this.store.put(toStream("prism.js"));
+        final String unlinked = this.store.put(toStream("sweetalert.js"));
+        final File target = new File(this.directory, "prism.js");
+        this.store.link(linked, target);
+
+        assertEquals(1, this.store.prune());
+        assertTrue(this.store.contains(linked));
+        assertFalse(this.store.contains(unlinked));
+        assertEquals("prism.js", read(target));
+    }
+
+    @Test public void unzipThroughStore() throws IOException {
+        final ByteArrayOutputStream archive = new ByteArrayOutputStream();
+
+        try(final ZipOutputStream output = new ZipOutputStream(archive)) {
+            output.putNextEntry(new ZipEntry("prism/"));
+            output.putNextEntry(new ZipEntry("prism/prism.js"));
+            output.write("prism.js".getBytes(StandardCharsets.UTF_8));
+            output.putNextEntry(new ZipEntry("copy/prism.js"));
+            output.write("prism.js".getBytes(StandardCharsets.UTF_8));
+            output.closeEntry();
+        }
+
+        final File destination = new File(this.directory, "resources");
+        final Map<String, String> hashes = ZipUtils.unzip(new ByteArrayInputStream(archive.toByteArray()), destination, this.store);
+
+        assertEquals(2, hashes.size());
+        assertEquals(hashes.get("prism/prism.js"), hashes.get("copy/prism.js"));
+        assertEquals("prism.js", read(new File(destination, "prism/prism.js")));
+        assertEquals("prism.js", read(new File(destination, "copy/prism.js")));
+        assertEquals(1, this.store.getBlob(hashes.get("prism/prism.js")).getParentFile().list().length);
+    }
+}